@@ -60,6 +60,20 @@ public class MaskRule {
         return eq(name) || convertPattern(this.name).matcher(name).matches();
     }
 
+    /**
+     * 使用规则的脱敏器脱敏，{@link ObjectMasker} 会传入 {@link #keys}
+     *
+     * @param value 需要脱敏的值
+     * @return 脱敏后的值
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Object mask(Object value) {
+        if (masker instanceof ObjectMasker objectMasker) {
+            return objectMasker.mask(value, keys);
+        }
+        return masker.mask(value);
+    }
+
     /**
      * 创建一个自定义脱敏规则
      *
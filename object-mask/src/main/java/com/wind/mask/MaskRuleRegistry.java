@@ -10,6 +10,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 脱敏规则注册器
@@ -21,6 +22,11 @@ public class MaskRuleRegistry {
 
     private final Map<Class<?>, MaskRuleGroup> groups;
 
+    /**
+     * 规则版本，注册或清除规则时递增，用于判断基于规则缓存的结果是否过期
+     */
+    private final AtomicLong version = new AtomicLong();
+
     public MaskRuleRegistry() {
         this(Collections.emptyList());
     }
@@ -50,6 +56,7 @@ public class MaskRuleRegistry {
 
     public void registerRule(MaskRuleGroup group) {
         this.groups.put(group.getTarget(), group);
+        version.incrementAndGet();
     }
 
     public void registerRules(@NotNull Collection<MaskRuleGroup> groups) {
@@ -58,10 +65,19 @@ public class MaskRuleRegistry {
 
     public void clearRules(@NotNull Class<?> clazz) {
         groups.remove(clazz);
+        version.incrementAndGet();
     }
 
     public void clearRules() {
         groups.clear();
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return 规则版本
+     */
+    public long getVersion() {
+        return version.get();
     }
 
     private MaskRuleGroup buildRuleGroup(Class<?> clazz) {
@@ -74,19 +74,13 @@ public class ObjectDataMasker implements WindMasker<Object, Object> {
         return object;
     }
 
-    @SuppressWarnings({"rawtypes", "unchecked"})
     private void maskObjectField(MaskRule rule, Object val) {
         Field field = WindReflectUtils.findField(val.getClass(), rule.getName());
         Object o = WindReflectUtils.getFieldValue(field, val);
         if (o == null) {
             return;
         }
-        WindMasker masker = rule.getMasker();
-        if (masker instanceof ObjectMasker objectMasker) {
-            WindReflectUtils.setFieldValue(field, val, objectMasker.mask(o, rule.getKeys()));
-        } else {
-            WindReflectUtils.setFieldValue(field, val, masker.mask(o));
-        }
+        WindReflectUtils.setFieldValue(field, val, rule.mask(o));
     }
 
     private Object[] maskArray(Object[] array) {
@@ -12,7 +12,6 @@ import org.springframework.lang.Nullable;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 
 /**
  * 深 copy 工具类
@@ -113,11 +112,12 @@ public final class WindDeepCopyUtils {
         public byte[] encode(Object in) throws IOException {
             Kryo kryo = kryoPool.obtain();
             Output output = outputPool.obtain();
-            try (OutputStream outputStream = new ByteArrayOutputStream()) {
+            try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
                 output.setOutputStream(outputStream);
                 kryo.writeClassAndObject(output, in);
                 output.flush();
-                return output.getBuffer();
+                // 超过 buffer 大小时数据会分批写入流中，buffer 中只有最后一批数据
+                return outputStream.toByteArray();
             } finally {
                 kryoPool.free(kryo);
                 outputPool.free(output);
@@ -1,16 +1,31 @@
 package com.wind.configcenter.core;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.collect.ImmutableSet;
+import com.wind.common.annotations.VisibleForTesting;
+import com.wind.common.exception.BaseException;
 import com.wind.common.jul.WindJulLogFactory;
 import com.wind.script.spring.SpringExpressionEvaluator;
 import org.springframework.boot.origin.OriginTrackedValue;
 import org.springframework.core.env.MapPropertySource;
 import org.springframework.core.env.PropertySource;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.common.CompositeStringExpression;
+import org.springframework.expression.common.LiteralExpression;
 import org.springframework.expression.common.TemplateParserContext;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
@@ -24,6 +39,8 @@ import static org.springframework.core.env.StandardEnvironment.SYSTEM_PROPERTIES
  * example.username=@{DEC('xxxx')}
  * # 通过 KMS 等方式提供配置
  * example.username=@{CRE('xxxx')}
+ * <p>
+ * 配置模板按内容摘要缓存解析结果（文本片段和函数表达式片段），相同的配置再次加载或刷新时不会重新解析，不包含函数的配置直接返回
  *
  * @author wuxp
  * @date 2025-03-11 10:17
@@ -34,7 +51,21 @@ public record ConfigFunctionEvaluator(Object rootObject) {
 
     private static final Set<String> REQUIRES_DECRYPT_NAMES = ImmutableSet.of(SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME);
 
-    private static final SpringExpressionEvaluator EVALUATOR = new SpringExpressionEvaluator(new TemplateParserContext("@{", "}"));
+    private static final String EXPRESSION_PREFIX = "@{";
+
+    private static final TemplateParserContext TEMPLATE_PARSER_CONTEXT = new TemplateParserContext(EXPRESSION_PREFIX, "}");
+
+    private static final ExpressionParser PARSER = new SpelExpressionParser();
+
+    /**
+     * 解析后的配置模板缓存
+     *
+     * @key 配置内容摘要
+     * @value 解析后的配置模板
+     */
+    private static final Cache<String, ConfigTemplate> TEMPLATE_CACHES = Caffeine.newBuilder()
+            .maximumSize(1024)
+            .build();
 
     private static final ConfigFunctionEvaluator INSTANCE = new ConfigFunctionEvaluator(new ConfigFunctionRootObject());
 
@@ -46,8 +77,13 @@ public record ConfigFunctionEvaluator(Object rootObject) {
      * @return 执行过函数替换后的内容
      */
     public String eval(String name, String content) {
+        if (content == null || !content.contains(EXPRESSION_PREFIX)) {
+            // 不包含函数
+            return content;
+        }
         try {
-            return EVALUATOR.eval(content, new StandardEvaluationContext(rootObject));
+            ConfigTemplate template = TEMPLATE_CACHES.get(sha256Hex(content), key -> ConfigTemplate.parse(content));
+            return template.render(SpringExpressionEvaluator.createEvaluationContext(rootObject, Collections.emptyMap()));
         } catch (Exception exception) {
             LOGGER.info("eval config content exception, config name = " + name + ", message = " + exception.getMessage());
             return content;
@@ -94,4 +130,51 @@ public record ConfigFunctionEvaluator(Object rootObject) {
     public static ConfigFunctionEvaluator getInstance() {
         return INSTANCE;
     }
+
+    @VisibleForTesting
+    static long getCachedTemplateSize() {
+        TEMPLATE_CACHES.cleanUp();
+        return TEMPLATE_CACHES.estimatedSize();
+    }
+
+    private static String sha256Hex(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException exception) {
+            throw BaseException.common("unsupported digest algorithm: SHA-256");
+        }
+    }
+
+    /**
+     * 解析后的配置模板
+     *
+     * @param segments 模板片段，{@link LiteralExpression} 为文本片段，其它为函数表达式片段
+     * @param length   配置内容长度，用于预估渲染结果的长度
+     */
+    private record ConfigTemplate(List<Expression> segments, int length) {
+
+        static ConfigTemplate parse(String content) {
+            Expression expression = PARSER.parseExpression(content, TEMPLATE_PARSER_CONTEXT);
+            if (expression instanceof CompositeStringExpression composite) {
+                return new ConfigTemplate(Arrays.asList(composite.getExpressions()), content.length());
+            }
+            return new ConfigTemplate(Collections.singletonList(expression), content.length());
+        }
+
+        String render(EvaluationContext context) {
+            StringBuilder result = new StringBuilder(length);
+            for (Expression segment : segments) {
+                if (segment instanceof LiteralExpression literal) {
+                    result.append(literal.getExpressionString());
+                } else {
+                    String value = segment.getValue(context, String.class);
+                    if (value != null) {
+                        result.append(value);
+                    }
+                }
+            }
+            return result.toString();
+        }
+    }
 }
@@ -4,11 +4,15 @@ import com.alibaba.fastjson2.JSON;
 import com.google.common.collect.ImmutableMap;
 import com.wind.common.WindConstants;
 import com.wind.security.crypto.symmetric.AesTextEncryptor;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.core.env.MapPropertySource;
 import org.springframework.core.env.PropertySource;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.security.crypto.encrypt.TextEncryptor;
 
 import java.util.HashMap;
@@ -18,24 +22,28 @@ import java.util.Map;
  * @author wuxp
  * @date 2025-03-11 10:41
  **/
+@Slf4j
 class ConfigFunctionEvaluatorTests {
 
     private final TextEncryptor textEncryptor = new AesTextEncryptor(RandomStringUtils.secure().nextAlphabetic(32), WindConstants.DEFAULT_TEXT);
 
-    private final ConfigFunctionEvaluator evaluator = new ConfigFunctionEvaluator(new ConfigFunctionRootObject(textEncryptor, key -> {
+    private final ConfigFunctionRootObject rootObject = new ConfigFunctionRootObject(textEncryptor, key -> {
         if (key.contains("text")) {
             return key.concat("text");
         }
         Map<String, String> config = ImmutableMap.of("userName", "a", "password", "abc",
                 "name", "zhans", "accountPassword", "abc2", "rsaPublic", "1");
         return JSON.toJSONString(config);
-    }));
+    });
+
+    private final ConfigFunctionEvaluator evaluator = new ConfigFunctionEvaluator(rootObject);
 
     @Test
     void testEvalNoFunctions() {
         String content = "example.name=zhangs@example.password=123456";
         String result = evaluator.eval("test", content);
-        Assertions.assertEquals(content, result);
+        Assertions.assertSame(content, result);
+        Assertions.assertNull(evaluator.eval("test", null));
     }
 
     @Test
@@ -85,4 +93,44 @@ class ConfigFunctionEvaluatorTests {
         Assertions.assertEquals("zhans", result.getProperty("test.rds.accountName"));
         Assertions.assertNull(result.getProperty("jwt_rsa_key.rasPrivate"));
     }
+
+    @Test
+    void testRenderLargeYaml() {
+        String content = mockYaml(5000);
+        String expected = new SpelExpressionParser().parseExpression(content, new TemplateParserContext("@{", "}"))
+                .getValue(new StandardEvaluationContext(rootObject), String.class);
+        Assertions.assertEquals(expected, evaluator.eval("large.yaml", content));
+        Assertions.assertFalse(expected.contains("@{"));
+        long cachedSize = ConfigFunctionEvaluator.getCachedTemplateSize();
+        int times = 50;
+        long start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            new SpelExpressionParser().parseExpression(content, new TemplateParserContext("@{", "}"))
+                    .getValue(new StandardEvaluationContext(rootObject), String.class);
+        }
+        long parseCostTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            evaluator.eval("large.yaml", content);
+        }
+        long cachedCostTime = System.nanoTime() - start;
+        log.info("render 5000 lines yaml, parse every time cost = {} us/op, cached template cost = {} us/op", parseCostTime / times / 1000,
+                cachedCostTime / times / 1000);
+        Assertions.assertEquals(cachedSize, ConfigFunctionEvaluator.getCachedTemplateSize());
+        Assertions.assertEquals(expected, evaluator.eval("large.yaml", content));
+    }
+
+    private static String mockYaml(int lines) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            if (i % 50 == 0) {
+                result.append("example").append(i).append(":\n");
+            } else if (i % 10 == 0) {
+                result.append("  password").append(i).append(": @{CRE('example','password')}\n");
+            } else {
+                result.append("  key").append(i).append(": value-").append(i).append("\n");
+            }
+        }
+        return result.toString();
+    }
 }
@@ -18,19 +18,28 @@ import org.springframework.core.env.PropertySource;
 import java.io.IOException;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * 从 nacos 中加载配置
+ * 配置通过 {@link NacosConfigSnapshotCache} 缓存，存在监听的配置直接使用缓存，远程获取配置失败时使用配置快照
  *
  * @author wuxp
  * @date 2023-10-15 14:59
  **/
 @Slf4j
-public record NacosConfigRepository(ConfigService configService, NacosConfigProperties properties) implements ConfigRepository {
+public record NacosConfigRepository(ConfigService configService, NacosConfigProperties properties,
+                                    NacosConfigSnapshotCache snapshotCache) implements ConfigRepository {
 
     private static final Logger LOGGER = WindJulLogFactory.getLogger(NacosConfigRepository.class);
 
+    public NacosConfigRepository(ConfigService configService, NacosConfigProperties properties) {
+        this(configService, properties, NacosConfigSnapshotCache.memory());
+    }
+
     @Override
     public void saveTextConfig(ConfigDescriptor descriptor, String content) {
         try {
@@ -42,11 +51,29 @@ public record NacosConfigRepository(ConfigService configService, NacosConfigProp
 
     @Override
     public String getTextConfig(ConfigDescriptor descriptor) {
+        String key = getCacheKey(descriptor);
+        // 尝试执行配置的函数
+        UnaryOperator<String> evaluator = content -> ConfigFunctionEvaluator.getInstance().eval(descriptor.getConfigId(), content);
+        String cached = snapshotCache.getIfFresh(key, evaluator, () -> loadRemoteConfig(descriptor));
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            return snapshotCache.put(key, loadRemoteConfig(descriptor), evaluator);
+        } catch (BaseException exception) {
+            String snapshot = snapshotCache.getSnapshot(key, evaluator);
+            if (snapshot == null) {
+                throw exception;
+            }
+            LOGGER.log(Level.WARNING, "load config failure, use config snapshot, dataId = " + descriptor.getConfigId(), exception);
+            return snapshot;
+        }
+    }
+
+    private String loadRemoteConfig(ConfigDescriptor descriptor) {
         LOGGER.info("get config content dataId = " + descriptor.getConfigId());
         try {
-            String result = configService.getConfig(descriptor.getConfigId(), descriptor.getGroup(), properties.getTimeout());
-            // 尝试执行配置的函数
-            return ConfigFunctionEvaluator.getInstance().eval(descriptor.getConfigId(), result);
+            return configService.getConfig(descriptor.getConfigId(), descriptor.getGroup(), properties.getTimeout());
         } catch (NacosException exception) {
             throw new BaseException(DefaultExceptionCode.COMMON_ERROR, String.format("load config：%s error", descriptor.getConfigId()), exception);
         }
@@ -65,6 +92,7 @@ public record NacosConfigRepository(ConfigService configService, NacosConfigProp
         final AbstractListener wrapperListener = new AbstractListener() {
             @Override
             public void receiveConfigInfo(String content) {
+                snapshotCache.update(getCacheKey(descriptor), content);
                 listener.change(content);
             }
         };
@@ -76,6 +104,7 @@ public record NacosConfigRepository(ConfigService configService, NacosConfigProp
         final AbstractListener wrapperListener = new AbstractListener() {
             @Override
             public void receiveConfigInfo(String content) {
+                snapshotCache.update(getCacheKey(descriptor), content);
                 listener.change(getPropertySources(descriptor, content));
             }
         };
@@ -93,6 +122,9 @@ public record NacosConfigRepository(ConfigService configService, NacosConfigProp
         } catch (NacosException exception) {
             throw new BaseException(DefaultExceptionCode.COMMON_ERROR, exception.getMessage(), exception);
         }
+        String key = getCacheKey(descriptor);
+        Consumer<String> snapshotListener = wrapperListener::receiveConfigInfo;
+        snapshotCache.subscribe(key, snapshotListener);
         return new ConfigSubscription() {
             @Override
             public ConfigDescriptor getConfigDescriptor() {
@@ -103,6 +135,7 @@ public record NacosConfigRepository(ConfigService configService, NacosConfigProp
             public void unsubscribe() {
                 // 移除订阅
                 configService.removeListener(descriptor.getConfigId(), descriptor.getGroup(), wrapperListener);
+                snapshotCache.unsubscribe(key, snapshotListener);
             }
         };
     }
@@ -112,6 +145,10 @@ public record NacosConfigRepository(ConfigService configService, NacosConfigProp
         return "Nacos-Config";
     }
 
+    private static String getCacheKey(ConfigDescriptor descriptor) {
+        return descriptor.getGroup() + "@" + descriptor.getConfigId();
+    }
+
     private List<PropertySource<?>> getPropertySources(ConfigDescriptor descriptor, String content) {
         try {
             return NacosDataParserHandler.getInstance().parseNacosData(descriptor.getConfigId(), content,
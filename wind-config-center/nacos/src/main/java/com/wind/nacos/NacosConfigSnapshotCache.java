@@ -0,0 +1,301 @@
+package com.wind.nacos;
+
+import com.wind.common.exception.BaseException;
+import com.wind.common.jul.WindJulLogFactory;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * nacos 配置快照缓存
+ * 1：内存中按配置内容摘要缓存执行函数后的配置，配置内容没有变化时不会重复执行配置函数，缓存由配置监听回调更新
+ * 2：配置快照目录（可选）保存原始配置内容（不保存执行函数后的配置，避免解密后的敏感配置落盘），用于远程获取配置失败时降级或快速启动，
+ * 快照目录按照 nacos 服务地址和命名空间隔离（参见 {@link #resolveSnapshotDir(Path, String, String)}）
+ * 3：快速启动时后台从远程刷新配置，配置与快照不一致时通知配置监听者（nacos 客户端认为监听者已持有最新的配置，不会通知）
+ *
+ * @author wuxp
+ * @date 2025-10-25 10:00
+ **/
+public final class NacosConfigSnapshotCache {
+
+    private static final Logger LOGGER = WindJulLogFactory.getLogger(NacosConfigSnapshotCache.class);
+
+    private static final String SNAPSHOT_FILE_SUFFIX = ".snapshot";
+
+    private final Map<String, CachedConfig> configs = new ConcurrentHashMap<>();
+
+    /**
+     * 存在监听的配置 key 及其监听者，这些配置的缓存由监听回调保持最新
+     */
+    private final Map<String, List<Consumer<String>>> subscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * 使用快照快速启动的配置 key 及快照内容摘要，为空字符串表示没有快照
+     */
+    private final Map<String, String> warmBootHashes = new ConcurrentHashMap<>();
+
+    @Nullable
+    private final Path snapshotDir;
+
+    /**
+     * 是否优先使用配置快照（快速启动），为 true 时本地有快照的配置不再同步从远程获取
+     */
+    private final boolean preferSnapshot;
+
+    /**
+     * @param snapshotDir    快照目录，为空表示不使用磁盘快照
+     * @param preferSnapshot 是否优先使用配置快照
+     */
+    public NacosConfigSnapshotCache(@Nullable Path snapshotDir, boolean preferSnapshot) {
+        this.snapshotDir = snapshotDir;
+        this.preferSnapshot = preferSnapshot && snapshotDir != null;
+    }
+
+    /**
+     * 不使用磁盘快照的缓存
+     */
+    public static NacosConfigSnapshotCache memory() {
+        return new NacosConfigSnapshotCache(null, false);
+    }
+
+    /**
+     * 获取 nacos 服务和命名空间对应的快照目录，避免连接不同 nacos 服务或命名空间的应用读取到彼此的快照
+     *
+     * @param baseDir    快照根目录
+     * @param serverAddr nacos 服务地址
+     * @param namespace  命名空间，为空表示默认命名空间
+     * @return 快照目录
+     */
+    public static Path resolveSnapshotDir(Path baseDir, @Nullable String serverAddr, @Nullable String namespace) {
+        return baseDir.resolve(toFilename(serverAddr == null ? "" : serverAddr, "server"))
+                .resolve(toFilename(namespace == null ? "" : namespace, "public"));
+    }
+
+    /**
+     * 获取缓存的配置，以下情况会返回缓存：
+     * 1：配置存在监听，缓存由监听回调保持最新
+     * 2：优先使用快照时第一次获取配置（快速启动），同时在后台从远程刷新配置
+     *
+     * @param key          配置 key
+     * @param evaluator    配置函数执行者
+     * @param remoteLoader 远程配置加载者
+     * @return 执行函数后的配置，没有可用的缓存时返回 null
+     */
+    @Nullable
+    public String getIfFresh(String key, UnaryOperator<String> evaluator, Supplier<String> remoteLoader) {
+        if (subscriptions.containsKey(key) && configs.containsKey(key)) {
+            return getEvaluated(key, evaluator);
+        }
+        if (preferSnapshot && !warmBootHashes.containsKey(key)) {
+            String result = getSnapshot(key, evaluator);
+            CachedConfig snapshot = configs.get(key);
+            warmBootHashes.putIfAbsent(key, result == null || snapshot == null ? "" : snapshot.contentHash());
+            if (result != null) {
+                Thread.ofVirtual().name("nacos-snapshot-refresh-" + key).start(() -> refresh(key, remoteLoader));
+            }
+            return result;
+        }
+        return null;
+    }
+
+    /**
+     * 获取配置快照，优先使用内存中的缓存，没有则从快照目录中读取
+     *
+     * @param key       配置 key
+     * @param evaluator 配置函数执行者
+     * @return 执行函数后的配置，没有快照返回 null
+     */
+    @Nullable
+    public String getSnapshot(String key, UnaryOperator<String> evaluator) {
+        if (!configs.containsKey(key)) {
+            String content = readSnapshot(key);
+            if (content == null) {
+                return null;
+            }
+            configs.putIfAbsent(key, new CachedConfig(sha256Hex(content), content, null));
+        }
+        return getEvaluated(key, evaluator);
+    }
+
+    /**
+     * 更新配置，配置内容摘要没有变化时直接返回缓存的结果
+     *
+     * @param key       配置 key
+     * @param content   原始配置内容
+     * @param evaluator 配置函数执行者
+     * @return 执行函数后的配置
+     */
+    public String put(String key, @Nullable String content, UnaryOperator<String> evaluator) {
+        if (content == null) {
+            return evaluator.apply(null);
+        }
+        update(key, content);
+        return getEvaluated(key, evaluator);
+    }
+
+    /**
+     * 监听回调更新配置，配置内容发生变化时更新快照，配置函数在下次获取时执行
+     *
+     * @param key     配置 key
+     * @param content 原始配置内容
+     * @return 配置内容是否发生变化
+     */
+    public boolean update(String key, @Nullable String content) {
+        if (content == null) {
+            return false;
+        }
+        String contentHash = sha256Hex(content);
+        CachedConfig previous = configs.get(key);
+        if (previous != null && Objects.equals(previous.contentHash(), contentHash)) {
+            return false;
+        }
+        configs.put(key, new CachedConfig(contentHash, content, null));
+        writeSnapshot(key, content);
+        return true;
+    }
+
+    /**
+     * 快速启动后从远程刷新配置，配置发生变化时通知已经存在的监听者
+     */
+    private void refresh(String key, Supplier<String> remoteLoader) {
+        String content;
+        try {
+            content = remoteLoader.get();
+        } catch (Exception exception) {
+            LOGGER.log(Level.WARNING, "refresh config snapshot failure, key = " + key, exception);
+            return;
+        }
+        // 与订阅互斥，保证监听者不会错过变更
+        synchronized (this) {
+            if (update(key, content)) {
+                LOGGER.info("config changed after warm boot from snapshot, key = " + key);
+                subscriptions.getOrDefault(key, List.of()).forEach(listener -> notifyListener(key, listener, content));
+            }
+        }
+    }
+
+    /**
+     * 订阅配置，快速启动使用的快照已经过期时（后台刷新先于订阅完成）立即通知监听者
+     *
+     * @param key      配置 key
+     * @param listener 监听者，参数为原始配置内容
+     */
+    public synchronized void subscribe(String key, Consumer<String> listener) {
+        subscriptions.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(listener);
+        String snapshotHash = warmBootHashes.get(key);
+        CachedConfig current = configs.get(key);
+        if (snapshotHash != null && !snapshotHash.isEmpty() && current != null && !Objects.equals(snapshotHash, current.contentHash())) {
+            notifyListener(key, listener, current.content());
+        }
+    }
+
+    public synchronized void unsubscribe(String key, Consumer<String> listener) {
+        subscriptions.computeIfPresent(key, (k, listeners) -> {
+            listeners.remove(listener);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    private static void notifyListener(String key, Consumer<String> listener, String content) {
+        try {
+            listener.accept(content);
+        } catch (Exception exception) {
+            LOGGER.log(Level.WARNING, "notify config listener failure, key = " + key, exception);
+        }
+    }
+
+    private String getEvaluated(String key, UnaryOperator<String> evaluator) {
+        CachedConfig config = configs.get(key);
+        if (config.evaluated() != null) {
+            return config.evaluated();
+        }
+        String result = evaluator.apply(config.content());
+        // 期间配置发生了变化则不更新缓存
+        configs.replace(key, config, new CachedConfig(config.contentHash(), config.content(), result));
+        return result;
+    }
+
+    @Nullable
+    private String readSnapshot(String key) {
+        if (snapshotDir == null) {
+            return null;
+        }
+        Path filepath = getSnapshotPath(key);
+        if (!Files.exists(filepath)) {
+            return null;
+        }
+        try {
+            return Files.readString(filepath, StandardCharsets.UTF_8);
+        } catch (IOException exception) {
+            LOGGER.log(Level.WARNING, "read config snapshot failure, key = " + key, exception);
+            return null;
+        }
+    }
+
+    private void writeSnapshot(String key, String content) {
+        if (snapshotDir == null) {
+            return;
+        }
+        Path filepath = getSnapshotPath(key);
+        try {
+            Files.createDirectories(filepath.getParent());
+            Path tempFile = Files.createTempFile(filepath.getParent(), filepath.getFileName().toString(), ".tmp");
+            Files.writeString(tempFile, content, StandardCharsets.UTF_8);
+            Files.move(tempFile, filepath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            LOGGER.log(Level.WARNING, "write config snapshot failure, key = " + key, exception);
+        }
+    }
+
+    private Path getSnapshotPath(String key) {
+        return snapshotDir.resolve(toFilename(key, key) + SNAPSHOT_FILE_SUFFIX);
+    }
+
+    /**
+     * 文本中可能包含路径分隔符等特殊字符，替换后加上文本的摘要避免冲突
+     *
+     * @param text         文本
+     * @param defaultValue 文本为空时使用的值
+     * @return 文件名
+     */
+    private static String toFilename(String text, String defaultValue) {
+        if (text.isBlank()) {
+            return defaultValue;
+        }
+        return text.replaceAll("[^a-zA-Z0-9._-]", "_") + "-" + sha256Hex(text).substring(0, 8);
+    }
+
+    private static String sha256Hex(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException exception) {
+            throw BaseException.common("unsupported digest algorithm: SHA-256");
+        }
+    }
+
+    /**
+     * @param contentHash 原始配置内容摘要
+     * @param content     原始配置内容
+     * @param evaluated   执行函数后的配置，为空表示还未执行
+     */
+    private record CachedConfig(String contentHash, String content, @Nullable String evaluated) {
+    }
+}
@@ -19,7 +19,10 @@ import org.springframework.core.Ordered;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.MapPropertySource;
 import org.springframework.core.env.SystemEnvironmentPropertySource;
+import org.springframework.util.StringUtils;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
@@ -37,6 +40,21 @@ public class WindNacosBootstrapRegistryInitializer implements ApplicationListene
 
     public static final String NACOS_CONFIG_PREFIX = "spring.cloud.nacos.config";
 
+    /**
+     * 是否启用磁盘配置快照，默认不启用
+     */
+    public static final String NACOS_CONFIG_SNAPSHOT_ENABLED = NACOS_CONFIG_PREFIX + ".snapshot-enabled";
+
+    /**
+     * 配置快照根目录，默认为 ~/.wind/nacos/snapshot，实际目录按照 nacos 服务地址和命名空间隔离
+     */
+    public static final String NACOS_CONFIG_SNAPSHOT_DIR = NACOS_CONFIG_PREFIX + ".snapshot-dir";
+
+    /**
+     * 是否优先使用配置快照快速启动，仅在启用磁盘配置快照时有效
+     */
+    public static final String NACOS_CONFIG_PREFER_SNAPSHOT = NACOS_CONFIG_PREFIX + ".prefer-snapshot";
+
     private static final Logger LOGGER = Logger.getLogger(WindNacosBootstrapRegistryInitializer.class.getName());
 
     static final AtomicReference<ConfigService> CONFIG_SERVICE = new AtomicReference<>();
@@ -50,13 +68,29 @@ public class WindNacosBootstrapRegistryInitializer implements ApplicationListene
             NacosConfigProperties properties = createNacosProperties(event.getEnvironment());
             AssertUtils.notNull(properties, String.format("please check %s config", NACOS_CONFIG_PREFIX));
             CONFIG_SERVICE.set(buildConfigService(properties));
-            CONFIG_REPOSITORY.set(new NacosConfigRepository(CONFIG_SERVICE.get(), properties));
+            CONFIG_REPOSITORY.set(new NacosConfigRepository(CONFIG_SERVICE.get(), properties, createSnapshotCache(event.getEnvironment(), properties)));
         }
         ConfigurableBootstrapContext context = event.getBootstrapContext();
         context.registerIfAbsent(ConfigService.class, c -> CONFIG_SERVICE.get());
         context.registerIfAbsent(ConfigRepository.class, c -> CONFIG_REPOSITORY.get());
     }
 
+    private NacosConfigSnapshotCache createSnapshotCache(ConfigurableEnvironment environment, NacosConfigProperties properties) {
+        if (!environment.getProperty(NACOS_CONFIG_SNAPSHOT_ENABLED, Boolean.class, false)) {
+            return NacosConfigSnapshotCache.memory();
+        }
+        String defaultSnapshotDir = Paths.get(System.getProperty("user.home"), ".wind", "nacos", "snapshot").toString();
+        String snapshotDir = environment.getProperty(NACOS_CONFIG_SNAPSHOT_DIR, defaultSnapshotDir);
+        if (!StringUtils.hasText(snapshotDir)) {
+            return NacosConfigSnapshotCache.memory();
+        }
+        String serverAddr = StringUtils.hasText(properties.getServerAddr()) ? properties.getServerAddr() : properties.getEndpoint();
+        Path dir = NacosConfigSnapshotCache.resolveSnapshotDir(Paths.get(snapshotDir), serverAddr, properties.getNamespace());
+        boolean preferSnapshot = environment.getProperty(NACOS_CONFIG_PREFER_SNAPSHOT, Boolean.class, false);
+        LOGGER.info("nacos config snapshot dir = " + dir + ", prefer snapshot = " + preferSnapshot);
+        return new NacosConfigSnapshotCache(dir, preferSnapshot);
+    }
+
     private ConfigService buildConfigService(NacosConfigProperties properties) {
         try {
             return NacosFactory.createConfigService(properties.assembleConfigServiceProperties());
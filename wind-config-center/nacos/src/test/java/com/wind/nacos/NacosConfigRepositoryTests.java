@@ -0,0 +1,134 @@
+package com.wind.nacos;
+
+import com.alibaba.cloud.nacos.NacosConfigProperties;
+import com.alibaba.nacos.api.config.ConfigService;
+import com.alibaba.nacos.api.config.listener.Listener;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.wind.configcenter.core.ConfigRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author wuxp
+ * @date 2025-10-25 10:00
+ **/
+class NacosConfigRepositoryTests {
+
+    private static final ConfigRepository.ConfigDescriptor DESCRIPTOR = ConfigRepository.ConfigDescriptor.immutable("example", "DEFAULT_GROUP");
+
+    @TempDir
+    private Path snapshotDir;
+
+    private ConfigService configService;
+
+    @BeforeEach
+    void setup() throws Exception {
+        configService = Mockito.mock(ConfigService.class);
+        when(configService.getConfig(anyString(), anyString(), anyLong())).thenReturn("example.name=wind");
+    }
+
+    @Test
+    void testCacheHitWithListener() throws Exception {
+        NacosConfigRepository repository = new NacosConfigRepository(configService, new NacosConfigProperties());
+        Assertions.assertEquals("example.name=wind", repository.getTextConfig(DESCRIPTOR));
+        AtomicReference<String> changed = new AtomicReference<>();
+        ConfigRepository.ConfigSubscription subscription = repository.onChange(DESCRIPTOR, (ConfigRepository.TextConfigListener) changed::set);
+        ArgumentCaptor<Listener> listenerCaptor = ArgumentCaptor.forClass(Listener.class);
+        verify(configService).addListener(anyString(), anyString(), listenerCaptor.capture());
+
+        // 存在监听时直接使用缓存
+        Assertions.assertEquals("example.name=wind", repository.getTextConfig(DESCRIPTOR));
+        verify(configService, times(1)).getConfig(anyString(), anyString(), anyLong());
+
+        // 监听回调更新缓存
+        listenerCaptor.getValue().receiveConfigInfo("example.name=wind2");
+        Assertions.assertEquals("example.name=wind2", changed.get());
+        Assertions.assertEquals("example.name=wind2", repository.getTextConfig(DESCRIPTOR));
+        verify(configService, times(1)).getConfig(anyString(), anyString(), anyLong());
+
+        // 取消订阅后重新从远程获取
+        subscription.unsubscribe();
+        Assertions.assertEquals("example.name=wind", repository.getTextConfig(DESCRIPTOR));
+        verify(configService, times(2)).getConfig(anyString(), anyString(), anyLong());
+        verify(configService).removeListener(anyString(), anyString(), any(Listener.class));
+    }
+
+    @Test
+    void testOfflineStart() throws Exception {
+        NacosConfigRepository repository = new NacosConfigRepository(configService, new NacosConfigProperties(),
+                new NacosConfigSnapshotCache(snapshotDir, false));
+        Assertions.assertEquals("example.name=wind", repository.getTextConfig(DESCRIPTOR));
+
+        ConfigService offlineConfigService = Mockito.mock(ConfigService.class);
+        when(offlineConfigService.getConfig(anyString(), anyString(), anyLong())).thenThrow(new NacosException(NacosException.SERVER_ERROR, "offline"));
+        NacosConfigRepository offlineRepository = new NacosConfigRepository(offlineConfigService, new NacosConfigProperties(),
+                new NacosConfigSnapshotCache(snapshotDir, false));
+        Assertions.assertEquals("example.name=wind", offlineRepository.getTextConfig(DESCRIPTOR));
+
+        NacosConfigRepository noSnapshotRepository = new NacosConfigRepository(offlineConfigService, new NacosConfigProperties());
+        Assertions.assertThrows(Exception.class, () -> noSnapshotRepository.getTextConfig(DESCRIPTOR));
+    }
+
+    @Test
+    void testPreferSnapshot() throws Exception {
+        new NacosConfigRepository(configService, new NacosConfigProperties(), new NacosConfigSnapshotCache(snapshotDir, false)).getTextConfig(DESCRIPTOR);
+        ConfigService changedConfigService = Mockito.mock(ConfigService.class);
+        when(changedConfigService.getConfig(anyString(), anyString(), anyLong())).thenReturn("example.name=wind3");
+        NacosConfigRepository repository = new NacosConfigRepository(changedConfigService, new NacosConfigProperties(),
+                new NacosConfigSnapshotCache(snapshotDir, true));
+        // 快速启动时使用快照
+        Assertions.assertEquals("example.name=wind", repository.getTextConfig(DESCRIPTOR));
+        Assertions.assertEquals("example.name=wind3", repository.getTextConfig(DESCRIPTOR));
+    }
+
+    @Test
+    void testPreferSnapshotNotifyListeners() throws Exception {
+        new NacosConfigRepository(configService, new NacosConfigProperties(), new NacosConfigSnapshotCache(snapshotDir, false)).getTextConfig(DESCRIPTOR);
+        CountDownLatch fetchLatch = new CountDownLatch(1);
+        ConfigService changedConfigService = Mockito.mock(ConfigService.class);
+        when(changedConfigService.getConfig(anyString(), anyString(), anyLong())).thenAnswer(invocation -> {
+            fetchLatch.await();
+            return "example.name=wind3";
+        });
+        NacosConfigRepository repository = new NacosConfigRepository(changedConfigService, new NacosConfigProperties(),
+                new NacosConfigSnapshotCache(snapshotDir, true));
+        Assertions.assertEquals("example.name=wind", repository.getTextConfig(DESCRIPTOR));
+        CompletableFuture<String> before = new CompletableFuture<>();
+        repository.onChange(DESCRIPTOR, (ConfigRepository.TextConfigListener) before::complete);
+        Assertions.assertFalse(before.isDone());
+
+        // 后台刷新到的配置与快照不一致，通知监听者
+        fetchLatch.countDown();
+        Assertions.assertEquals("example.name=wind3", before.get(1, TimeUnit.SECONDS));
+        // 后台刷新完成后订阅的监听者也会收到通知
+        CompletableFuture<String> after = new CompletableFuture<>();
+        repository.onChange(DESCRIPTOR, (ConfigRepository.TextConfigListener) after::complete);
+        Assertions.assertEquals("example.name=wind3", after.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testResolveSnapshotDir() {
+        Path dir = NacosConfigSnapshotCache.resolveSnapshotDir(snapshotDir, "127.0.0.1:8848", "dev");
+        Assertions.assertNotEquals(dir, NacosConfigSnapshotCache.resolveSnapshotDir(snapshotDir, "127.0.0.1:8848", "test"));
+        Assertions.assertNotEquals(dir, NacosConfigSnapshotCache.resolveSnapshotDir(snapshotDir, "127.0.0.2:8848", "dev"));
+        Assertions.assertEquals(snapshotDir, dir.getParent().getParent());
+        Assertions.assertEquals("public", NacosConfigSnapshotCache.resolveSnapshotDir(snapshotDir, "127.0.0.1:8848", null).getFileName().toString());
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.util.CollectionUtils;
 import java.beans.Transient;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * 基于游标分页查询的分页对象
@@ -59,13 +60,26 @@ public interface CursorPagination<T> extends WindPagination<T> {
      * @return 分页对象
      */
     static <E> CursorPagination<E> next(List<E> records, AbstractCursorQuery<? extends QueryOrderField> query) {
+        // TODO 待优化
+        return next(records, query, record -> WindReflectUtils.getFieldValue("id", record));
+    }
+
+    /**
+     * 创建下一页分页对象，使用最后一条记录的排序键（例如：序列号）生成游标
+     *
+     * @param records     分页数据
+     * @param query       查询参数
+     * @param idExtractor 记录排序键提取器
+     * @param <E>         分页数据类型
+     * @return 分页对象
+     */
+    static <E> CursorPagination<E> next(List<E> records, AbstractCursorQuery<? extends QueryOrderField> query, Function<E, Object> idExtractor) {
         E lasted = CollectionUtils.lastElement(records);
         if (lasted == null) {
             // 说明没有数据
             return empty();
         }
-        // TODO 待优化
-        String cursor = QueryCursorUtils.generateCursor(query, WindReflectUtils.getFieldValue("id", lasted));
+        String cursor = QueryCursorUtils.generateCursor(query, idExtractor.apply(lasted));
         return of(-1L, records, query.getQuerySize(), cursor);
     }
 
@@ -0,0 +1,68 @@
+package com.wind.rocketmq.listener;
+
+import com.wind.common.exception.AssertUtils;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * 批量消费结果
+ *
+ * @author wuxp
+ * @date 2025-10-24 14:10
+ **/
+public final class RocketMQBatchConsumeResult {
+
+    private static final RocketMQBatchConsumeResult SUCCESS = new RocketMQBatchConsumeResult(new BitSet(0));
+
+    /**
+     * 消费失败的消息下标
+     */
+    private final BitSet failures;
+
+    private RocketMQBatchConsumeResult(BitSet failures) {
+        this.failures = failures;
+    }
+
+    /**
+     * @return 全部消费成功
+     */
+    public static RocketMQBatchConsumeResult success() {
+        return SUCCESS;
+    }
+
+    /**
+     * @param indexes 消费失败的消息下标
+     * @return 部分消息消费失败
+     */
+    public static RocketMQBatchConsumeResult failure(int... indexes) {
+        BitSet failures = new BitSet();
+        Arrays.stream(indexes).forEach(index -> {
+            AssertUtils.isTrue(index >= 0, "message index must ge 0");
+            failures.set(index);
+        });
+        return new RocketMQBatchConsumeResult(failures);
+    }
+
+    /**
+     * @param index 消息下标
+     * @return 消息是否消费失败
+     */
+    public boolean isFailed(int index) {
+        return failures.get(index);
+    }
+
+    /**
+     * @return 是否全部消费成功
+     */
+    public boolean isSuccess() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * @return 第一个消费失败的消息下标，全部成功返回 -1
+     */
+    public int getFirstFailedIndex() {
+        return failures.nextSetBit(0);
+    }
+}
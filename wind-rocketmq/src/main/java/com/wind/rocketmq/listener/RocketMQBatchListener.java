@@ -0,0 +1,29 @@
+package com.wind.rocketmq.listener;
+
+import java.util.List;
+
+/**
+ * 批量消费消息的监听者，一次接收转换后的一批消息
+ * 与 {@link org.apache.rocketmq.spring.annotation.RocketMQMessageListener} 注解一起使用，替代 {@link org.apache.rocketmq.spring.core.RocketMQListener}
+ *
+ * @param <T> 消息类型
+ * @author wuxp
+ * @date 2025-10-24 14:10
+ **/
+public interface RocketMQBatchListener<T> {
+
+    /**
+     * 批量消费消息
+     *
+     * @param messages 消息列表，顺序和 RocketMQ 投递的顺序一致
+     * @return 消费结果，部分消息消费失败时返回失败的消息下标，失败的消息会被重新投递
+     */
+    RocketMQBatchConsumeResult onMessages(List<T> messages);
+
+    /**
+     * @return 每次消费的最大消息数量
+     */
+    default int getConsumeBatchSize() {
+        return 32;
+    }
+}
@@ -0,0 +1,81 @@
+package com.wind.rocketmq.listener;
+
+import com.wind.common.exception.AssertUtils;
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 基于虚拟线程的消息分发器
+ * 1：每个任务在独立的虚拟线程上执行，通过信号量限制同时执行的任务数量
+ * 2：相同 key 的任务按提交顺序串行执行（只维护每个 key 最后一个任务，任务完成后自动移除），不同 key 的任务并发执行
+ *
+ * @author wuxp
+ * @date 2025-10-24 16:30
+ **/
+public final class RocketMQKeyedDispatcher implements AutoCloseable {
+
+    private final Semaphore permits;
+
+    private final ExecutorService executor;
+
+    /**
+     * 每个 key 最后提交的任务
+     */
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    /**
+     * @param name        分发器名称，用于虚拟线程命名
+     * @param concurrency 最大并发数
+     */
+    public RocketMQKeyedDispatcher(String name, int concurrency) {
+        AssertUtils.isTrue(concurrency > 0, "concurrency must gt 0");
+        this.permits = new Semaphore(concurrency);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+    }
+
+    /**
+     * 分发任务
+     *
+     * @param key  串行 key，为空时任务不需要排队
+     * @param task 任务
+     * @return 任务执行结果，不论前一个相同 key 的任务是否成功，都会执行当前任务
+     */
+    public CompletableFuture<Void> dispatch(@Nullable String key, Runnable task) {
+        if (key == null) {
+            return submit(task);
+        }
+        CompletableFuture<Void> result = tails.compute(key, (k, previous) -> previous == null ? submit(task) :
+                previous.handle((ignore, throwable) -> null).thenCompose(ignore -> submit(task)));
+        result.whenComplete((ignore, throwable) -> tails.remove(key, result));
+        return result;
+    }
+
+    /**
+     * @return 等待执行或执行中的串行 key 数量
+     */
+    public int getPendingKeySize() {
+        return tails.size();
+    }
+
+    private CompletableFuture<Void> submit(Runnable task) {
+        return CompletableFuture.runAsync(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
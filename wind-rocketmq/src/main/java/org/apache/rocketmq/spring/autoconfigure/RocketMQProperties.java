@@ -64,6 +64,12 @@ public class RocketMQProperties {
      */
     private boolean enabledFlowControl;
 
+    /**
+     * 每个监听容器使用虚拟线程分发消息的最大并发数，小于等于 0 表示在消费线程上直接消费
+     * 相同 sharding key（{@link org.apache.rocketmq.common.message.MessageConst#PROPERTY_SHARDING_KEY}）的消息串行消费，顺序消费模式下不生效
+     */
+    private int virtualThreadDispatchConcurrency;
+
     @Data
     public static class Producer {
 
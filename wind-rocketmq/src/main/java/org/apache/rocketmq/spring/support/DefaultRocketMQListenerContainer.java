@@ -19,8 +19,13 @@ package org.apache.rocketmq.spring.support;
 
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.wind.common.WindConstants;
+import com.wind.common.annotations.VisibleForTesting;
+import com.wind.rocketmq.listener.RocketMQBatchConsumeResult;
+import com.wind.rocketmq.listener.RocketMQBatchListener;
+import com.wind.rocketmq.listener.RocketMQKeyedDispatcher;
 import com.wind.sentinel.SentinelResource;
 import com.wind.sentinel.SentinelResourceBuilder;
+import com.wind.sentinel.SentinelResourceDescriptor;
 import com.wind.sentinel.util.SentinelFlowLimitUtils;
 import com.wind.trace.WindTracer;
 import lombok.Data;
@@ -40,6 +45,7 @@ import org.apache.rocketmq.client.producer.SendCallback;
 import org.apache.rocketmq.client.producer.SendResult;
 import org.apache.rocketmq.client.producer.SendStatus;
 import org.apache.rocketmq.client.utils.MessageUtil;
+import org.apache.rocketmq.common.message.MessageConst;
 import org.apache.rocketmq.common.message.MessageExt;
 import org.apache.rocketmq.remoting.RPCHook;
 import org.apache.rocketmq.remoting.exception.RemotingException;
@@ -73,8 +79,19 @@ import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 @Data
@@ -127,6 +144,12 @@ public class DefaultRocketMQListenerContainer implements InitializingBean,
     @SuppressWarnings("rawtypes")
     private RocketMQReplyListener rocketMQReplyListener;
 
+    /**
+     * 批量消费监听者，和 {@link #rocketMQListener}、{@link #rocketMQReplyListener} 互斥
+     */
+    @SuppressWarnings("rawtypes")
+    private RocketMQBatchListener rocketMQBatchListener;
+
     private RocketMQMessageListener rocketMQMessageListener;
 
     private DefaultMQPushConsumer consumer;
@@ -153,6 +176,33 @@ public class DefaultRocketMQListenerContainer implements InitializingBean,
 
     private boolean enableFlowControl = false;
 
+    /**
+     * 虚拟线程分发的最大并发数，小于等于 0 表示在消费线程上直接消费，仅对 {@link #rocketMQListener}、{@link #rocketMQReplyListener} 生效
+     * 顺序消费（{@link ConsumeMode#ORDERLY}）需要保证队列内的消息顺序，不使用虚拟线程分发
+     */
+    private int virtualThreadDispatchConcurrency = 0;
+
+    private RocketMQKeyedDispatcher dispatcher;
+
+    /**
+     * 虚拟线程分发时每次消费的最大消息数量，和默认的拉取数量保持一致
+     */
+    private static final int MAX_DISPATCH_BATCH_SIZE = 32;
+
+    /**
+     * 最多缓存的 tag 资源描述数量，超过后不再缓存
+     */
+    private static final int MAX_CACHED_SENTINEL_RESOURCES = 256;
+
+    /**
+     * 没有 tag 的消息使用的资源描述缓存 key
+     */
+    private static final String EMPTY_TAG = "";
+
+    /**
+     * 按 tag 缓存的流控资源描述，消费组和 topic 在容器内固定
+     */
+    private final Map<String, SentinelResourceDescriptor> sentinelResources = new ConcurrentHashMap<>();
 
     public void setRocketMQMessageListener(RocketMQMessageListener annotation) {
         this.rocketMQMessageListener = annotation;
@@ -185,6 +235,9 @@ public class DefaultRocketMQListenerContainer implements InitializingBean,
         if (Objects.nonNull(consumer)) {
             consumer.shutdown();
         }
+        if (Objects.nonNull(dispatcher)) {
+            dispatcher.close();
+        }
         log.info("container destroyed, {}", this.toString());
     }
 
@@ -243,9 +296,31 @@ public class DefaultRocketMQListenerContainer implements InitializingBean,
 
     @Override
     public void afterPropertiesSet() throws Exception {
-        this.enableFlowControl = applicationContext.getBean(RocketMQProperties.class).isEnabledFlowControl();
+        RocketMQProperties properties = applicationContext.getBean(RocketMQProperties.class);
+        this.enableFlowControl = properties.isEnabledFlowControl();
+        this.virtualThreadDispatchConcurrency = properties.getVirtualThreadDispatchConcurrency();
         initRocketMQPushConsumer();
+        resolveMessageType();
+        initDispatcher();
+        if (enableFlowControl) {
+            // 预先创建订阅的 tag 的资源描述
+            getSubscribeTags().forEach(this::getSentinelResource);
+        }
+    }
+
+    @VisibleForTesting
+    void initDispatcher() {
+        if (isVirtualThreadDispatch()) {
+            this.dispatcher = new RocketMQKeyedDispatcher(String.format("rocketmq-dispatch-%s", consumerGroup), virtualThreadDispatchConcurrency);
+        }
+    }
 
+    private boolean isVirtualThreadDispatch() {
+        return virtualThreadDispatchConcurrency > 0 && rocketMQBatchListener == null && consumeMode != ConsumeMode.ORDERLY;
+    }
+
+    @VisibleForTesting
+    void resolveMessageType() {
         this.messageType = getMessageType();
         this.methodParameter = getMethodParameter();
         log.debug("RocketMQ messageType: {}", messageType);
@@ -254,6 +329,19 @@ public class DefaultRocketMQListenerContainer implements InitializingBean,
     public class DefaultMessageListenerConcurrently implements MessageListenerConcurrently {
         @Override
         public ConsumeConcurrentlyStatus consumeMessage(List<MessageExt> msgs, ConsumeConcurrentlyContext context) {
+            if (rocketMQBatchListener != null || dispatcher != null) {
+                int failedIndex = rocketMQBatchListener == null ? dispatchMessages(msgs) : handleMessages(msgs);
+                if (failedIndex < 0) {
+                    return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+                }
+                context.setDelayLevelWhenNextConsume(delayLevelWhenNextConsume);
+                if (failedIndex == 0) {
+                    return ConsumeConcurrentlyStatus.RECONSUME_LATER;
+                }
+                // 第一条失败消息之前的消息确认消费成功，之后的消息重新投递
+                context.setAckIndex(failedIndex - 1);
+                return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+            }
             for (MessageExt message : msgs) {
                 try {
                     handleMessage(message);
@@ -272,6 +360,14 @@ public class DefaultRocketMQListenerContainer implements InitializingBean,
 
         @Override
         public ConsumeOrderlyStatus consumeMessage(List<MessageExt> msgs, ConsumeOrderlyContext context) {
+            if (rocketMQBatchListener != null) {
+                if (handleMessages(msgs) < 0) {
+                    return ConsumeOrderlyStatus.SUCCESS;
+                }
+                // 顺序消费无法部分确认，整批消息稍后重试
+                context.setSuspendCurrentQueueTimeMillis(suspendCurrentQueueTimeMillis);
+                return ConsumeOrderlyStatus.SUSPEND_CURRENT_QUEUE_A_MOMENT;
+            }
             for (MessageExt messageExt : msgs) {
                 try {
                     handleMessage(messageExt);
@@ -312,13 +408,171 @@ public class DefaultRocketMQListenerContainer implements InitializingBean,
         }
     }
 
+    /**
+     * 使用虚拟线程分发消息，相同 sharding key 的消息按投递顺序串行消费，某条消息失败后同 key 的后续消息不再消费
+     * 未设置 sharding key 的消息之间不保证顺序
+     * 所有消息处理完成后才返回，由调用方确认消费位点
+     *
+     * @param messages 消息列表
+     * @return 第一条消费失败的消息下标，全部成功返回 -1
+     */
+    @VisibleForTesting
+    int dispatchMessages(List<MessageExt> messages) {
+        int size = messages.size();
+        boolean[] failures = new boolean[size];
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String shardingKey = getShardingKey(messages.get(i));
+            if (shardingKey == null) {
+                int index = i;
+                futures.add(dispatcher.dispatch(null, () -> failures[index] = !tryHandleMessage(messages.get(index))));
+            } else {
+                groups.computeIfAbsent(shardingKey, k -> new ArrayList<>()).add(i);
+            }
+        }
+        groups.forEach((shardingKey, indexes) -> futures.add(dispatcher.dispatch(shardingKey, () -> {
+            boolean failed = false;
+            for (int index : indexes) {
+                failed = failed || !tryHandleMessage(messages.get(index));
+                failures[index] = failed;
+            }
+        })));
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                log.error("dispatch messages failed. topic:{}", topic, e);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (failures[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean tryHandleMessage(MessageExt messageExt) {
+        try {
+            handleMessage(messageExt);
+            return true;
+        } catch (Exception e) {
+            log.warn("consume message failed. messageId:{}, topic:{}, reconsumeTimes:{}", messageExt.getMsgId(), messageExt.getTopic(),
+                    messageExt.getReconsumeTimes(), e);
+            return false;
+        }
+    }
+
+    private static String getShardingKey(MessageExt messageExt) {
+        // 只使用生产者显式设置的 sharding key，消息的 keys 用于检索，不能表达顺序语义
+        String result = messageExt.getProperty(MessageConst.PROPERTY_SHARDING_KEY);
+        return StringUtils.hasText(result) ? result : null;
+    }
+
+    /**
+     * 批量消费消息，转换失败或被流控的消息不会交给监听者，直接标记为失败
+     *
+     * @param messages 消息列表
+     * @return 第一条消费失败的消息下标，全部成功返回 -1
+     */
+    @SuppressWarnings("unchecked")
+    public int handleMessages(List<MessageExt> messages) {
+        int size = messages.size();
+        BitSet failures = new BitSet(size);
+        List<Object> payloads = new ArrayList<>(size);
+        // payloads 中的消息在 messages 中的下标
+        int[] positions = new int[size];
+        Deque<Consumer<Throwable>> flowControlExits = new ArrayDeque<>();
+        String traceId = getBatchTraceId(messages);
+        boolean traceMessage = StringUtils.hasText(traceId);
+        if (traceMessage) {
+            WindTracer.TRACER.trace(traceId);
+        }
+        Throwable throwable = null;
+        try {
+            for (int i = 0; i < size; i++) {
+                MessageExt messageExt = messages.get(i);
+                try {
+                    if (enableFlowControl) {
+                        flowControlExits.push(SentinelFlowLimitUtils.limit(buildSentinelResource(messageExt)));
+                    }
+                    positions[payloads.size()] = i;
+                    payloads.add(doConvertMessage(messageExt));
+                } catch (Exception e) {
+                    log.warn("prepare consume message failed. messageId:{}, topic:{}, reconsumeTimes:{}", messageExt.getMsgId(), messageExt.getTopic(),
+                            messageExt.getReconsumeTimes(), e);
+                    failures.set(i);
+                }
+            }
+            if (!payloads.isEmpty()) {
+                RocketMQBatchConsumeResult result = rocketMQBatchListener.onMessages(payloads);
+                for (int i = 0; result != null && i < payloads.size(); i++) {
+                    if (result.isFailed(i)) {
+                        failures.set(positions[i]);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            throwable = e;
+            log.warn("consume messages failed. size:{}, topic:{}", size, topic, e);
+            for (int i = 0; i < payloads.size(); i++) {
+                failures.set(positions[i]);
+            }
+        } finally {
+            while (!flowControlExits.isEmpty()) {
+                flowControlExits.pop().accept(throwable);
+            }
+            if (traceMessage) {
+                WindTracer.TRACER.clear();
+            }
+        }
+        return failures.nextSetBit(0);
+    }
+
+    private String getBatchTraceId(List<MessageExt> messages) {
+        for (MessageExt messageExt : messages) {
+            String result = messageExt.getUserProperty(WindConstants.TRACE_ID_NAME);
+            if (StringUtils.hasText(result)) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    private SentinelResource buildSentinelResource(MessageExt messageExt) {
+        return getSentinelResource(messageExt.getTags());
+    }
+
+    @VisibleForTesting
+    SentinelResourceDescriptor getSentinelResource(String tag) {
+        String key = StringUtils.hasText(tag) ? tag : EMPTY_TAG;
+        SentinelResourceDescriptor result = sentinelResources.get(key);
+        if (result != null) {
+            return result;
+        }
+        result = SentinelResourceBuilder.rocketConsumer()
+                .groupName(consumerGroup)
+                .topic(topic)
+                .tag(tag)
+                .build();
+        if (sentinelResources.size() < MAX_CACHED_SENTINEL_RESOURCES) {
+            SentinelResourceDescriptor previous = sentinelResources.putIfAbsent(key, result);
+            return previous == null ? result : previous;
+        }
+        return result;
+    }
+
+    private List<String> getSubscribeTags() {
+        if (selectorType != SelectorType.TAG || !StringUtils.hasText(selectorExpression) || "*".equals(selectorExpression.trim())) {
+            return List.of(EMPTY_TAG);
+        }
+        return Arrays.stream(selectorExpression.split("\\|\\|")).map(String::trim).filter(StringUtils::hasText).toList();
+    }
+
     private void tryFlowControl(MessageExt messageExt) throws BlockException, MQClientException, RemotingException, InterruptedException {
         if (enableFlowControl) {
-            SentinelResource resource = SentinelResourceBuilder.rocketConsumer()
-                    .groupName(consumerGroup)
-                    .topic(topic)
-                    .tag(messageExt.getTags())
-                    .build();
+            SentinelResource resource = buildSentinelResource(messageExt);
             Consumer<Throwable> throwableConsumer = SentinelFlowLimitUtils.limit(resource);
             Exception exception = null;
             try {
@@ -409,23 +663,25 @@ public class DefaultRocketMQListenerContainer implements InitializingBean,
         if (Objects.equals(messageType, MessageExt.class) || Objects.equals(messageType, org.apache.rocketmq.common.message.Message.class)) {
             return messageExt;
         } else {
-            String str = new String(messageExt.getBody(), Charset.forName(charset));
+            Charset messageCharset = Charset.forName(charset);
             if (Objects.equals(messageType, String.class)) {
-                return str;
+                return new String(messageExt.getBody(), messageCharset);
             } else {
+                // UTF-8 编码的消息直接从字节反序列化，避免中间的 String
+                Object payload = StandardCharsets.UTF_8.equals(messageCharset) ? messageExt.getBody() : new String(messageExt.getBody(), messageCharset);
                 // If msgType not string, use objectMapper change it.
                 try {
                     if (messageType instanceof Class) {
                         //if the messageType has not Generic Parameter
-                        return this.getMessageConverter().fromMessage(MessageBuilder.withPayload(str).build(), (Class<?>) messageType);
+                        return this.getMessageConverter().fromMessage(MessageBuilder.withPayload(payload).build(), (Class<?>) messageType);
                     } else {
                         //if the messageType has Generic Parameter, then use SmartMessageConverter#fromMessage with third parameter "conversionHint".
                         //we have validate the MessageConverter is SmartMessageConverter in this#getMethodParameter.
-                        return ((SmartMessageConverter) this.getMessageConverter()).fromMessage(MessageBuilder.withPayload(str).build(),
+                        return ((SmartMessageConverter) this.getMessageConverter()).fromMessage(MessageBuilder.withPayload(payload).build(),
                                 (Class<?>) ((ParameterizedType) messageType).getRawType(), methodParameter);
                     }
                 } catch (Exception e) {
-                    log.info("convert failed. str:{}, msgType:{}", str, messageType);
+                    log.info("convert failed. str:{}, msgType:{}", new String(messageExt.getBody(), messageCharset), messageType);
                     throw new RuntimeException("cannot convert message to " + messageType, e);
                 }
             }
@@ -434,12 +690,7 @@ public class DefaultRocketMQListenerContainer implements InitializingBean,
 
     @SuppressWarnings("rawtypes")
     private MethodParameter getMethodParameter() {
-        Class<?> targetClass;
-        if (rocketMQListener != null) {
-            targetClass = AopProxyUtils.ultimateTargetClass(rocketMQListener);
-        } else {
-            targetClass = AopProxyUtils.ultimateTargetClass(rocketMQReplyListener);
-        }
+        Class<?> targetClass = getListenerTargetClass();
         Type messageType = this.getMessageType();
         Class clazz = null;
         if (messageType instanceof ParameterizedType && messageConverter instanceof SmartMessageConverter) {
@@ -450,6 +701,10 @@ public class DefaultRocketMQListenerContainer implements InitializingBean,
             throw new RuntimeException("parameterType:" + messageType + " of onMessage method is not supported");
         }
         try {
+            if (rocketMQBatchListener != null) {
+                // 批量监听者的参数为 List<T>，转换时使用元素类型
+                return new MethodParameter(targetClass.getMethod("onMessages", List.class), 0).nested();
+            }
             final Method method = targetClass.getMethod("onMessage", clazz);
             return new MethodParameter(method, 0);
         } catch (NoSuchMethodException e) {
@@ -458,20 +713,26 @@ public class DefaultRocketMQListenerContainer implements InitializingBean,
         }
     }
 
-    private Type getMessageType() {
-        Class<?> targetClass;
+    private Class<?> getListenerTargetClass() {
         if (rocketMQListener != null) {
-            targetClass = AopProxyUtils.ultimateTargetClass(rocketMQListener);
-        } else {
-            targetClass = AopProxyUtils.ultimateTargetClass(rocketMQReplyListener);
+            return AopProxyUtils.ultimateTargetClass(rocketMQListener);
+        }
+        if (rocketMQBatchListener != null) {
+            return AopProxyUtils.ultimateTargetClass(rocketMQBatchListener);
         }
+        return AopProxyUtils.ultimateTargetClass(rocketMQReplyListener);
+    }
+
+    private Type getMessageType() {
+        Class<?> targetClass = getListenerTargetClass();
         Type matchedGenericInterface = null;
         while (Objects.nonNull(targetClass)) {
             Type[] interfaces = targetClass.getGenericInterfaces();
             if (Objects.nonNull(interfaces)) {
                 for (Type type : interfaces) {
                     if (type instanceof ParameterizedType &&
-                            (Objects.equals(((ParameterizedType) type).getRawType(), RocketMQListener.class) || Objects.equals(((ParameterizedType) type).getRawType(), RocketMQReplyListener.class))) {
+                            (Objects.equals(((ParameterizedType) type).getRawType(), RocketMQListener.class) || Objects.equals(((ParameterizedType) type).getRawType(), RocketMQReplyListener.class)
+                                    || Objects.equals(((ParameterizedType) type).getRawType(), RocketMQBatchListener.class))) {
                         matchedGenericInterface = type;
                         break;
                     }
@@ -491,8 +752,8 @@ public class DefaultRocketMQListenerContainer implements InitializingBean,
     }
 
     private void initRocketMQPushConsumer() throws MQClientException {
-        if (rocketMQListener == null && rocketMQReplyListener == null) {
-            throw new IllegalArgumentException("Property 'rocketMQListener' or 'rocketMQReplyListener' is required");
+        if (rocketMQListener == null && rocketMQReplyListener == null && rocketMQBatchListener == null) {
+            throw new IllegalArgumentException("Property 'rocketMQListener' or 'rocketMQReplyListener' or 'rocketMQBatchListener' is required");
         }
         Assert.notNull(consumerGroup, "Property 'consumerGroup' is required");
         Assert.notNull(nameServer, "Property 'nameServer' is required");
@@ -530,6 +791,11 @@ public class DefaultRocketMQListenerContainer implements InitializingBean,
         consumer.setMaxReconsumeTimes(maxReconsumeTimes);
         consumer.setAwaitTerminationMillisWhenShutdown(awaitTerminationMillisWhenShutdown);
         consumer.setInstanceName(instanceName);
+        if (rocketMQBatchListener != null) {
+            consumer.setConsumeMessageBatchMaxSize(Math.max(1, rocketMQBatchListener.getConsumeBatchSize()));
+        } else if (isVirtualThreadDispatch()) {
+            consumer.setConsumeMessageBatchMaxSize(Math.min(virtualThreadDispatchConcurrency, MAX_DISPATCH_BATCH_SIZE));
+        }
         switch (messageModel) {
             case BROADCASTING:
                 consumer.setMessageModel(org.apache.rocketmq.remoting.protocol.heartbeat.MessageModel.BROADCASTING);
@@ -570,6 +836,8 @@ public class DefaultRocketMQListenerContainer implements InitializingBean,
             ((RocketMQPushConsumerLifecycleListener) rocketMQListener).prepareStart(consumer);
         } else if (rocketMQReplyListener instanceof RocketMQPushConsumerLifecycleListener) {
             ((RocketMQPushConsumerLifecycleListener) rocketMQReplyListener).prepareStart(consumer);
+        } else if (rocketMQBatchListener instanceof RocketMQPushConsumerLifecycleListener) {
+            ((RocketMQPushConsumerLifecycleListener) rocketMQBatchListener).prepareStart(consumer);
         }
 
     }
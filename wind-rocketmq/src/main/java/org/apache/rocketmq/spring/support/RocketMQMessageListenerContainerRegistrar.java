@@ -17,6 +17,7 @@
 
 package org.apache.rocketmq.spring.support;
 
+import com.wind.rocketmq.listener.RocketMQBatchListener;
 import org.apache.rocketmq.client.AccessChannel;
 import org.apache.rocketmq.spring.annotation.ConsumeMode;
 import org.apache.rocketmq.spring.annotation.MessageModel;
@@ -40,6 +41,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 public class RocketMQMessageListenerContainerRegistrar implements ApplicationContextAware {
     private final static Logger log = LoggerFactory.getLogger(RocketMQMessageListenerContainerRegistrar.class);
@@ -71,12 +73,17 @@ public class RocketMQMessageListenerContainerRegistrar implements ApplicationCon
     public void registerContainer(String beanName, Object bean, RocketMQMessageListener annotation) {
         Class<?> clazz = AopProxyUtils.ultimateTargetClass(bean);
 
-        if (RocketMQListener.class.isAssignableFrom(bean.getClass()) && RocketMQReplyListener.class.isAssignableFrom(bean.getClass())) {
-            throw new IllegalStateException(clazz + " cannot be both instance of " + RocketMQListener.class.getName() + " and " + RocketMQReplyListener.class.getName());
+        long listenerTypes = Stream.of(RocketMQListener.class, RocketMQReplyListener.class, RocketMQBatchListener.class)
+                .filter(type -> type.isAssignableFrom(bean.getClass()))
+                .count();
+        if (listenerTypes > 1) {
+            throw new IllegalStateException(clazz + " cannot be instance of more than one of " + RocketMQListener.class.getName() + ", "
+                    + RocketMQReplyListener.class.getName() + " and " + RocketMQBatchListener.class.getName());
         }
 
-        if (!RocketMQListener.class.isAssignableFrom(bean.getClass()) && !RocketMQReplyListener.class.isAssignableFrom(bean.getClass())) {
-            throw new IllegalStateException(clazz + " is not instance of " + RocketMQListener.class.getName() + " or " + RocketMQReplyListener.class.getName());
+        if (listenerTypes == 0) {
+            throw new IllegalStateException(clazz + " is not instance of " + RocketMQListener.class.getName() + " or " + RocketMQReplyListener.class.getName()
+                    + " or " + RocketMQBatchListener.class.getName());
         }
 
         String consumerGroup = this.environment.resolvePlaceholders(annotation.consumerGroup());
@@ -145,6 +152,8 @@ public class RocketMQMessageListenerContainerRegistrar implements ApplicationCon
             container.setRocketMQListener((RocketMQListener) bean);
         } else if (RocketMQReplyListener.class.isAssignableFrom(bean.getClass())) {
             container.setRocketMQReplyListener((RocketMQReplyListener) bean);
+        } else if (RocketMQBatchListener.class.isAssignableFrom(bean.getClass())) {
+            container.setRocketMQBatchListener((RocketMQBatchListener) bean);
         }
         container.setMessageConverter(rocketMQMessageConverter.getMessageConverter());
         container.setName(name);
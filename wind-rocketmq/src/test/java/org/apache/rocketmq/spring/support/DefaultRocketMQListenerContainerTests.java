@@ -0,0 +1,263 @@
+package org.apache.rocketmq.spring.support;
+
+import com.alibaba.fastjson2.JSON;
+import com.wind.rocketmq.listener.RocketMQBatchConsumeResult;
+import com.wind.rocketmq.listener.RocketMQBatchListener;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyContext;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
+import org.apache.rocketmq.client.consumer.listener.ConsumeOrderlyContext;
+import org.apache.rocketmq.client.consumer.listener.ConsumeOrderlyStatus;
+import org.apache.rocketmq.common.message.MessageAccessor;
+import org.apache.rocketmq.common.message.MessageConst;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.spring.annotation.ConsumeMode;
+import org.apache.rocketmq.spring.core.RocketMQListener;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @author wuxp
+ * @date 2025-10-24 14:10
+ **/
+@Slf4j
+class DefaultRocketMQListenerContainerTests {
+
+    private static final MessageQueue MESSAGE_QUEUE = new MessageQueue("example-topic", "broker-a", 0);
+
+    @Test
+    void testConsumeBatch() {
+        ExampleBatchListener listener = new ExampleBatchListener();
+        DefaultRocketMQListenerContainer container = createContainer(listener);
+        List<MessageExt> messages = mockMessages(5);
+        ConsumeConcurrentlyContext context = new ConsumeConcurrentlyContext(MESSAGE_QUEUE);
+        ConsumeConcurrentlyStatus status = container.new DefaultMessageListenerConcurrently().consumeMessage(messages, context);
+        Assertions.assertEquals(ConsumeConcurrentlyStatus.CONSUME_SUCCESS, status);
+        Assertions.assertEquals(1, listener.batches.size());
+        Assertions.assertEquals(5, listener.batches.getFirst().size());
+        Assertions.assertEquals(new ExampleMessage(3, "message-3"), listener.batches.getFirst().get(3));
+        Assertions.assertEquals(32, listener.getConsumeBatchSize());
+    }
+
+    @Test
+    void testConsumeBatchPartialFailure() {
+        ExampleBatchListener listener = new ExampleBatchListener();
+        listener.failedId = 2;
+        DefaultRocketMQListenerContainer container = createContainer(listener);
+        ConsumeConcurrentlyContext context = new ConsumeConcurrentlyContext(MESSAGE_QUEUE);
+        ConsumeConcurrentlyStatus status = container.new DefaultMessageListenerConcurrently().consumeMessage(mockMessages(5), context);
+        // 下标 2 之前的消息确认消费，之后的消息重新投递
+        Assertions.assertEquals(ConsumeConcurrentlyStatus.CONSUME_SUCCESS, status);
+        Assertions.assertEquals(1, context.getAckIndex());
+
+        listener.failedId = 0;
+        context = new ConsumeConcurrentlyContext(MESSAGE_QUEUE);
+        status = container.new DefaultMessageListenerConcurrently().consumeMessage(mockMessages(5), context);
+        Assertions.assertEquals(ConsumeConcurrentlyStatus.RECONSUME_LATER, status);
+
+        ConsumeOrderlyStatus orderlyStatus = container.new DefaultMessageListenerOrderly().consumeMessage(mockMessages(5), new ConsumeOrderlyContext(MESSAGE_QUEUE));
+        Assertions.assertEquals(ConsumeOrderlyStatus.SUSPEND_CURRENT_QUEUE_A_MOMENT, orderlyStatus);
+    }
+
+    @Test
+    void testConvertFailureExcludedFromBatch() {
+        ExampleBatchListener listener = new ExampleBatchListener();
+        DefaultRocketMQListenerContainer container = createContainer(listener);
+        List<MessageExt> messages = mockMessages(3);
+        messages.get(1).setBody("{illegal json".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertEquals(1, container.handleMessages(messages));
+        Assertions.assertEquals(2, listener.batches.getFirst().size());
+        Assertions.assertEquals(2, listener.batches.getFirst().get(1).getId());
+    }
+
+    @Test
+    void testVirtualThreadDispatchKeepKeyOrder() {
+        ExampleListener listener = new ExampleListener(5, 8);
+        DefaultRocketMQListenerContainer container = createDispatchContainer(listener, 16);
+        List<MessageExt> messages = mockMessages(64);
+        messages.forEach(message -> setShardingKey(message, "key-" + Integer.parseInt(message.getMsgId().substring(4)) % 8));
+        ConsumeConcurrentlyContext context = new ConsumeConcurrentlyContext(MESSAGE_QUEUE);
+        Assertions.assertEquals(ConsumeConcurrentlyStatus.CONSUME_SUCCESS, container.new DefaultMessageListenerConcurrently().consumeMessage(messages, context));
+        Assertions.assertEquals(64, listener.messages.values().stream().mapToInt(List::size).sum());
+        listener.messages.forEach((key, ids) -> {
+            Assertions.assertEquals(8, ids.size());
+            for (int i = 1; i < ids.size(); i++) {
+                Assertions.assertTrue(ids.get(i - 1) < ids.get(i), () -> "message order mismatch, key = " + key);
+            }
+        });
+        Assertions.assertEquals(0, container.getDispatcher().getPendingKeySize());
+        container.destroy();
+    }
+
+    @Test
+    void testVirtualThreadDispatchPartialFailure() {
+        ExampleListener listener = new ExampleListener(0, 2);
+        listener.failedId = 3;
+        DefaultRocketMQListenerContainer container = createDispatchContainer(listener, 4);
+        List<MessageExt> messages = mockMessages(8);
+        messages.forEach(message -> setShardingKey(message, "key-" + Integer.parseInt(message.getMsgId().substring(4)) % 2));
+        ConsumeConcurrentlyContext context = new ConsumeConcurrentlyContext(MESSAGE_QUEUE);
+        Assertions.assertEquals(ConsumeConcurrentlyStatus.CONSUME_SUCCESS, container.new DefaultMessageListenerConcurrently().consumeMessage(messages, context));
+        Assertions.assertEquals(2, context.getAckIndex());
+        // 同 key 失败消息之后的消息不再消费
+        Assertions.assertEquals(List.of(1), listener.messages.get("key-1"));
+        Assertions.assertEquals(List.of(0, 2, 4, 6), listener.messages.get("key-0"));
+        container.destroy();
+    }
+
+    @Test
+    void testVirtualThreadDispatchThroughput() {
+        long serialCostTime = dispatchAndGetCostTime(1);
+        long concurrentCostTime = dispatchAndGetCostTime(16);
+        log.info("dispatch 64 messages, concurrency = 1 cost {} ms, concurrency = 16 cost {} ms", serialCostTime, concurrentCostTime);
+    }
+
+    @Test
+    void testOrderlyDisableVirtualThreadDispatch() {
+        ExampleListener listener = new ExampleListener(0, 2);
+        DefaultRocketMQListenerContainer container = createDispatchContainer(listener, 4, ConsumeMode.ORDERLY);
+        Assertions.assertNull(container.getDispatcher());
+        List<MessageExt> messages = mockMessages(8);
+        messages.forEach(message -> setShardingKey(message, "key-" + Integer.parseInt(message.getMsgId().substring(4)) % 2));
+        ConsumeOrderlyStatus status = container.new DefaultMessageListenerOrderly().consumeMessage(messages, new ConsumeOrderlyContext(MESSAGE_QUEUE));
+        Assertions.assertEquals(ConsumeOrderlyStatus.SUCCESS, status);
+        Assertions.assertEquals(List.of(0, 2, 4, 6), listener.messages.get("key-0"));
+        Assertions.assertEquals(List.of(1, 3, 5, 7), listener.messages.get("key-1"));
+    }
+
+    @Test
+    void testDispatchIgnoreMessageKeys() {
+        ExampleListener listener = new ExampleListener(0, 1);
+        listener.failedId = 0;
+        DefaultRocketMQListenerContainer container = createDispatchContainer(listener, 4);
+        List<MessageExt> messages = mockMessages(4);
+        messages.forEach(message -> message.setKeys("same-key"));
+        Assertions.assertEquals(0, container.dispatchMessages(messages));
+        // 未设置 sharding key 的消息不会按 keys 分组，第一条消息失败不影响其它消息消费
+        Assertions.assertEquals(3, listener.messages.get("key-0").size());
+        container.destroy();
+    }
+
+    private static long dispatchAndGetCostTime(int concurrency) {
+        DefaultRocketMQListenerContainer container = createDispatchContainer(new ExampleListener(10, 16), concurrency);
+        List<MessageExt> messages = mockMessages(64);
+        messages.forEach(message -> setShardingKey(message, "key-" + Integer.parseInt(message.getMsgId().substring(4)) % 16));
+        long start = System.currentTimeMillis();
+        Assertions.assertEquals(-1, container.dispatchMessages(messages));
+        long result = System.currentTimeMillis() - start;
+        container.destroy();
+        return result;
+    }
+
+    private static DefaultRocketMQListenerContainer createDispatchContainer(RocketMQListener<?> listener, int concurrency) {
+        return createDispatchContainer(listener, concurrency, ConsumeMode.CONCURRENTLY);
+    }
+
+    private static DefaultRocketMQListenerContainer createDispatchContainer(RocketMQListener<?> listener, int concurrency, ConsumeMode consumeMode) {
+        DefaultRocketMQListenerContainer result = new DefaultRocketMQListenerContainer();
+        result.setConsumeMode(consumeMode);
+        result.setTopic(MESSAGE_QUEUE.getTopic());
+        result.setConsumerGroup("example-group");
+        result.setRocketMQListener(listener);
+        result.setMessageConverter(new RocketMQMessageConverter().getMessageConverter());
+        result.setVirtualThreadDispatchConcurrency(concurrency);
+        result.resolveMessageType();
+        result.initDispatcher();
+        return result;
+    }
+
+    private static DefaultRocketMQListenerContainer createContainer(RocketMQBatchListener<?> listener) {
+        DefaultRocketMQListenerContainer result = new DefaultRocketMQListenerContainer();
+        result.setTopic(MESSAGE_QUEUE.getTopic());
+        result.setConsumerGroup("example-group");
+        result.setRocketMQBatchListener(listener);
+        result.setMessageConverter(new RocketMQMessageConverter().getMessageConverter());
+        result.resolveMessageType();
+        return result;
+    }
+
+    private static List<MessageExt> mockMessages(int size) {
+        List<MessageExt> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            MessageExt message = new MessageExt();
+            message.setTopic(MESSAGE_QUEUE.getTopic());
+            message.setMsgId("msg-" + i);
+            message.setTags("example");
+            message.setBody(JSON.toJSONBytes(new ExampleMessage(i, "message-" + i)));
+            result.add(message);
+        }
+        return result;
+    }
+
+    private static void setShardingKey(MessageExt message, String shardingKey) {
+        MessageAccessor.putProperty(message, MessageConst.PROPERTY_SHARDING_KEY, shardingKey);
+    }
+
+    static class ExampleListener implements RocketMQListener<ExampleMessage> {
+
+        private final Map<String, List<Integer>> messages = new ConcurrentHashMap<>();
+
+        private final long sleepMillis;
+
+        private final int keySize;
+
+        private volatile int failedId = -1;
+
+        ExampleListener(long sleepMillis, int keySize) {
+            this.sleepMillis = sleepMillis;
+            this.keySize = keySize;
+        }
+
+        @Override
+        public void onMessage(ExampleMessage message) {
+            if (message.getId() == failedId) {
+                throw new IllegalStateException("mock consume failure, id = " + failedId);
+            }
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            messages.computeIfAbsent("key-" + message.getId() % keySize, k -> new CopyOnWriteArrayList<>()).add(message.getId());
+        }
+    }
+
+    static class ExampleBatchListener implements RocketMQBatchListener<ExampleMessage> {
+
+        private final List<List<ExampleMessage>> batches = new CopyOnWriteArrayList<>();
+
+        private volatile int failedId = -1;
+
+        @Override
+        public RocketMQBatchConsumeResult onMessages(List<ExampleMessage> messages) {
+            batches.add(messages);
+            for (int i = 0; i < messages.size(); i++) {
+                if (messages.get(i).getId() == failedId) {
+                    return RocketMQBatchConsumeResult.failure(i);
+                }
+            }
+            return RocketMQBatchConsumeResult.success();
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ExampleMessage {
+
+        private int id;
+
+        private String name;
+    }
+}
@@ -8,7 +8,6 @@ import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.expression.EvaluationContext;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
@@ -16,11 +15,10 @@ import org.springframework.util.StringUtils;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 /**
@@ -58,6 +56,11 @@ public class ScriptAuditLogRecorder {
      */
     private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
 
+    /**
+     * 方法审计描述缓存，没有 {@link AuditLog} 注解的方法缓存为 {@link AuditLogMethodDescriptor#NONE}
+     */
+    private static final Map<Method, AuditLogMethodDescriptor> METHOD_DESCRIPTORS = new ConcurrentHashMap<>();
+
     private final AuditLogRecorder auditLogRecorder;
 
     private final Supplier<Map<String, Object>> contextVariablesSupplier;
@@ -91,25 +94,23 @@ public class ScriptAuditLogRecorder {
     @VisibleForTesting
     @Nullable
     AuditLogContent buildLogContent(Object[] arguments, @Nullable Object methodReturnValue, Method method, Throwable throwable) {
-        AuditLog auditLog = method == null ? null : AnnotationUtils.getAnnotation(method, AuditLog.class);
-        if (auditLog == null) {
+        AuditLogMethodDescriptor descriptor = method == null ? AuditLogMethodDescriptor.NONE : getMethodDescriptor(method);
+        if (descriptor == AuditLogMethodDescriptor.NONE) {
             return null;
         }
-        Assert.hasLength(auditLog.value(), "AuditLog#value must not empty");
-        Map<String, Object> variables = buildEvaluationVariables(arguments, methodReturnValue, method.getParameters());
-        EvaluationContext evaluationContext = new StandardEvaluationContext();
-        variables.forEach(evaluationContext::setVariable);
-        String remark = auditLog.remark();
+        AuditLog auditLog = descriptor.auditLog();
+        Map<String, Object> variables = buildEvaluationVariables(arguments, methodReturnValue, descriptor.parameterNames());
+        EvaluationContext evaluationContext = SpringExpressionEvaluator.createEvaluationContext(null, variables);
         return AuditLogContent.builder()
                 .args(arguments)
                 .resultValue(methodReturnValue)
                 .log(evalLog(auditLog.value(), evaluationContext, throwable))
-                .remark(StringUtils.hasLength(remark) ? evalLog(remark, evaluationContext, throwable) :
+                .remark(descriptor.hasRemark() ? evalLog(auditLog.remark(), evaluationContext, throwable) :
                         (String) variables.get(AUDIT_LOG_REMARK_ATTRIBUTE_NAME))
                 .group(auditLog.group())
                 .type(auditLog.resourceType())
                 .operation(auditLog.operation())
-                .resourceId(evalResourceId(auditLog.resourceId(), evaluationContext))
+                .resourceId(descriptor.hasResourceId() ? evalResourceId(auditLog.resourceId(), evaluationContext) : null)
                 .contextVariables(Collections.unmodifiableMap(variables))
                 .throwable(throwable)
                 .build();
@@ -130,33 +131,36 @@ public class ScriptAuditLogRecorder {
 
     @Nullable
     private Object evalResourceId(String expression, EvaluationContext evaluationContext) {
-        if (StringUtils.hasLength(expression)) {
-            try {
-                return SpringExpressionEvaluator.DEFAULT.eval(expression, evaluationContext);
-            } catch (Exception exception) {
-                log.error("eval resource id error, expression = {}", expression, exception);
-            }
+        try {
+            return SpringExpressionEvaluator.DEFAULT.eval(expression, evaluationContext);
+        } catch (Exception exception) {
+            log.error("eval resource id error, expression = {}", expression, exception);
         }
         return null;
     }
 
+    @VisibleForTesting
+    static AuditLogMethodDescriptor getMethodDescriptor(Method method) {
+        return METHOD_DESCRIPTORS.computeIfAbsent(method, AuditLogMethodDescriptor::of);
+    }
+
     /**
      * @param arguments         请求参数
      * @param methodReturnValue 方法执行结果
-     * @param parameters        执行方法的参数类型列表
+     * @param parameterNames    执行方法的参数名称列表
      * @return spring expression 执行上下文
      */
-    private Map<String, Object> buildEvaluationVariables(Object[] arguments, Object methodReturnValue, Parameter[] parameters) {
-        Map<String, Object> result = new HashMap<>(contextVariablesSupplier.get());
+    private Map<String, Object> buildEvaluationVariables(Object[] arguments, Object methodReturnValue, String[] parameterNames) {
+        Map<String, Object> contextVariables = contextVariablesSupplier.get();
+        Map<String, Object> result = HashMap.newHashMap(contextVariables.size() + parameterNames.length + 3);
+        result.putAll(contextVariables);
         if (ObjectUtils.isEmpty(arguments)) {
             return result;
         }
         // 填充请求参数
-        int length = parameters.length;
+        int length = parameterNames.length;
         for (int i = 0; i < length; i++) {
-            Parameter parameter = parameters[i];
-            String name = getParameterName(parameter);
-            result.put(name, arguments[i]);
+            result.put(parameterNames[i], arguments[i]);
         }
         result.put(ARGS_VARIABLE_NAME, arguments);
 
@@ -179,21 +183,47 @@ public class ScriptAuditLogRecorder {
     }
 
     /**
-     * 获取参数的真实名称
+     * 审计方法描述，构建时一次性解析注解和参数名称，记录日志时不再需要反射
      *
-     * @param parameter 方法参数对象
-     * @return 参数的名称
+     * @param auditLog       审计注解
+     * @param parameterNames 参数名称列表（按参数下标）
+     * @param hasRemark      是否配置了备注表达式
+     * @param hasResourceId  是否配置了资源 id 表达式
      */
-    private String getParameterName(Parameter parameter) {
-        Method method = (Method) parameter.getDeclaringExecutable();
-        int index = Arrays.asList(method.getParameters()).indexOf(parameter);
-        try {
-            return Objects.requireNonNull(PARAMETER_NAME_DISCOVERER.getParameterNames(method))[index];
-        } catch (Exception e) {
-            log.warn("获取方法{}的参数名称列表失败：{}", method, e.getMessage(), e);
-        }
-        return parameter.getName();
-    }
+    @VisibleForTesting
+    record AuditLogMethodDescriptor(AuditLog auditLog, String[] parameterNames, boolean hasRemark, boolean hasResourceId) {
+
+        static final AuditLogMethodDescriptor NONE = new AuditLogMethodDescriptor(null, new String[0], false, false);
 
+        static AuditLogMethodDescriptor of(Method method) {
+            AuditLog auditLog = AnnotationUtils.getAnnotation(method, AuditLog.class);
+            if (auditLog == null) {
+                return NONE;
+            }
+            Assert.hasLength(auditLog.value(), "AuditLog#value must not empty");
+            return new AuditLogMethodDescriptor(auditLog, getParameterNames(method), StringUtils.hasLength(auditLog.remark()),
+                    StringUtils.hasLength(auditLog.resourceId()));
+        }
 
+        /**
+         * 获取参数的真实名称
+         *
+         * @param method 方法对象
+         * @return 参数的名称列表
+         */
+        private static String[] getParameterNames(Method method) {
+            Parameter[] parameters = method.getParameters();
+            String[] result = new String[parameters.length];
+            String[] discoveredNames = null;
+            try {
+                discoveredNames = PARAMETER_NAME_DISCOVERER.getParameterNames(method);
+            } catch (Exception e) {
+                log.warn("获取方法{}的参数名称列表失败：{}", method, e.getMessage(), e);
+            }
+            for (int i = 0; i < parameters.length; i++) {
+                result[i] = discoveredNames == null || discoveredNames.length <= i ? parameters[i].getName() : discoveredNames[i];
+            }
+            return result;
+        }
+    }
 }
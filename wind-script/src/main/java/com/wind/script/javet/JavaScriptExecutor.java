@@ -16,7 +16,7 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.lang.Nullable;
-import org.springframework.util.ClassUtils;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StreamUtils;
 import org.springframework.util.StringUtils;
@@ -27,7 +27,11 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -47,7 +51,8 @@ public final class JavaScriptExecutor {
     /**
      * 需要执行的 js lib 代码
      */
-    private static final List<String> JS_LIB_SCRIPTS = loadJsLibScripts();
+    @VisibleForTesting
+    static final List<String> JS_LIB_SCRIPTS = loadJsLibScripts();
 
     /**
      * 保存 esnext 语法特性的 polyfill js 代码
@@ -55,6 +60,11 @@ public final class JavaScriptExecutor {
     @VisibleForTesting
     static final AtomicReference<String> POLYFILL_JS = new AtomicReference<>();
 
+    /**
+     * 已预加载 polyfill 和 js lib 的运行时池，默认不使用（每次执行都创建新的运行时），通过 {@link #configure(V8RuntimePoolOptions)} 开启
+     */
+    private static final AtomicReference<V8RuntimePool> RUNTIME_POOL = new AtomicReference<>();
+
     private JavaScriptExecutor() {
         throw new AssertionError();
     }
@@ -92,29 +102,31 @@ public final class JavaScriptExecutor {
     }
 
     private static <T> T executJavaScript(String functionCode, JsExecJavaMethodInvoker invoker, Object[] args) throws JavetException {
-        StringBuilder code = new StringBuilder();
-        code.append('(').append(functionCode).append(')').append('(');
-        for (Object o : args) {
-            if (ClassUtils.isPrimitiveOrWrapper(o.getClass())) {
-                code.append(o);
-            } else {
-                code.append(JSON.toJSONString(o));
+        Object[] arguments = toNativeArguments(args);
+        V8RuntimePool pool = RUNTIME_POOL.get();
+        if (pool == null) {
+            // 避免多线程执行出错，@see ：https://github.com/eclipsesource/J2V8/issues/330
+            try (V8Runtime v8 = V8Host.getV8Instance().createV8Runtime();
+                 V8FunctionCache functionCache = new V8FunctionCache(v8, 0, null)) {
+                executeScript(v8, POLYFILL_JS.get());
+                // 加载 js lib
+                for (String js : JS_LIB_SCRIPTS) {
+                    executeScript(v8, js);
+                }
+                registerJsExecJavaInvoker(v8, invoker);
+                return functionCache.call(functionCode, arguments);
             }
-            code.append(",");
         }
-        if (args.length > 0) {
-            code.deleteCharAt(code.length() - 1);
-        }
-        code.append(')');
-        // 避免多线程执行出错，@see ：https://github.com/eclipsesource/J2V8/issues/330
-        try (V8Runtime v8 = V8Host.getV8Instance().createV8Runtime()) {
-            executeScript(v8, POLYFILL_JS.get());
-            // 加载 js lib
-            for (String js : JS_LIB_SCRIPTS) {
-                executeScript(v8, js);
-            }
+        // 运行时池保证同一个运行时同一时刻只会被一个线程使用
+        return pool.execute((v8, functionCache) -> {
             registerJsExecJavaInvoker(v8, invoker);
-            return v8.getExecutor(code.toString()).executeObject();
+            return functionCache.call(functionCode, arguments);
+        });
+    }
+
+    private static void executeScript(V8Runtime v8, @Nullable String script) throws JavetException {
+        if (StringUtils.hasText(script)) {
+            v8.getExecutor(script).executeVoid();
         }
     }
 
@@ -129,13 +141,6 @@ public final class JavaScriptExecutor {
         return executeFunctionSupportJavaUseClosure(functionCode, null, args);
     }
 
-    private static void executeScript(V8Runtime v8, String script) throws JavetException {
-        if (StringUtils.hasText(script)) {
-            v8.getExecutor(script).executeVoid();
-        }
-    }
-
-
     @Nullable
     public static <T> T executeFunctionUseClosure(String functionCode, ParameterizedTypeReference<T> type, Object... args) {
         return executeFunctionAndParseResult(functionCode, type.getType(), args);
@@ -191,4 +196,62 @@ public final class JavaScriptExecutor {
     public static void configure(String polyfillJs) {
         POLYFILL_JS.set(polyfillJs);
     }
+
+    /**
+     * 配置运行时池，已存在的运行时池将被关闭
+     * 注意：运行时池限制了同时执行的数量（{@link V8RuntimePoolOptions#maxSize()}），获取运行时超时（{@link V8RuntimePoolOptions#borrowTimeout()}）时执行失败
+     *
+     * @param options 运行时池配置，为 null 时不使用运行时池
+     */
+    public static void configure(@Nullable V8RuntimePoolOptions options) {
+        V8RuntimePool old = RUNTIME_POOL.getAndSet(options == null ? null : new V8RuntimePool(options, JS_LIB_SCRIPTS, POLYFILL_JS::get));
+        if (old != null) {
+            old.close();
+        }
+    }
+
+    /**
+     * 将 java 参数转换为 V8 原生支持的值（基本类型、字符串、Map、List），避免将参数序列化为 json 文本后拼接到代码中再由 V8 解析
+     */
+    private static Object[] toNativeArguments(Object[] args) {
+        Object[] result = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            result[i] = toNativeValue(args[i]);
+        }
+        return result;
+    }
+
+    @Nullable
+    private static Object toNativeValue(@Nullable Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean || value instanceof Integer || value instanceof Double) {
+            return value;
+        }
+        if (value instanceof Number number) {
+            // Long 会被转换为 js BigInt，与 json 中的数字语义不一致，统一使用 js number
+            return value instanceof Short || value instanceof Byte ? number.intValue() : number.doubleValue();
+        }
+        if (value instanceof CharSequence || value instanceof Character) {
+            return value.toString();
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> result = new LinkedHashMap<>(map.size());
+            map.forEach((key, val) -> result.put(String.valueOf(key), toNativeValue(val)));
+            return result;
+        }
+        if (value instanceof Collection<?> collection) {
+            List<Object> result = new ArrayList<>(collection.size());
+            collection.forEach(val -> result.add(toNativeValue(val)));
+            return result;
+        }
+        if (value.getClass().isArray()) {
+            return toNativeValue(Arrays.asList(ObjectUtils.toObjectArray(value)));
+        }
+        Object json = JSON.toJSON(value);
+        if (json instanceof Map || json instanceof Collection) {
+            // java bean
+            return toNativeValue(json);
+        }
+        // 其他类型（例如：日期）保持和 json 序列化一致的语义
+        return JSON.parse(JSON.toJSONString(value));
+    }
 }
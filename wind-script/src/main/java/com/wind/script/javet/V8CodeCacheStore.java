@@ -0,0 +1,179 @@
+package com.wind.script.javet;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wind.common.exception.AssertUtils;
+import com.wind.common.exception.BaseException;
+import com.wind.common.exception.DefaultExceptionCode;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32C;
+
+/**
+ * V8 代码缓存（code cache）存储，将脚本编译后的缓存数据持久化到本地目录，
+ * 新创建的运行时编译相同的脚本时可以跳过解析和编译
+ * 1：文件名为脚本源码的摘要，文件内容为 魔数 + 校验和 + 缓存数据，校验失败（例如：文件损坏）时删除文件
+ * 2：V8 在 release 模式下不校验缓存数据的完整性，损坏的数据可能导致进程崩溃，因此加载前必须校验
+ * 3：缓存数据失效（例如：V8 版本变更）时 V8 会拒绝并重新编译，由 {@link V8FunctionCache} 使用新的缓存覆盖
+ *
+ * @author wuxp
+ * @date 2025-10-21 14:20
+ **/
+@Slf4j
+public final class V8CodeCacheStore {
+
+    private static final String FILE_SUFFIX = ".v8cache";
+
+    private static final int FILE_MAGIC = 0x57563843;
+
+    /**
+     * 文件头长度：魔数 + 校验和
+     */
+    private static final int FILE_HEADER_LENGTH = Integer.BYTES + Long.BYTES;
+
+    /**
+     * 默认内存中缓存数据的最大字节数
+     */
+    private static final long DEFAULT_MAX_MEMORY_BYTES = 32 * 1024 * 1024L;
+
+    private final Path directory;
+
+    /**
+     * 已加载的缓存数据，避免每个运行时都读取文件，按照字节数淘汰
+     */
+    private final Cache<String, byte[]> caches;
+
+    public V8CodeCacheStore(@NotNull Path directory) {
+        this(directory, DEFAULT_MAX_MEMORY_BYTES);
+    }
+
+    /**
+     * @param directory      缓存目录
+     * @param maxMemoryBytes 内存中缓存数据的最大字节数
+     */
+    public V8CodeCacheStore(@NotNull Path directory, long maxMemoryBytes) {
+        AssertUtils.notNull(directory, "argument directory must not null");
+        AssertUtils.isTrue(maxMemoryBytes > 0, "argument maxMemoryBytes must greater than 0");
+        try {
+            this.directory = Files.createDirectories(directory);
+        } catch (IOException exception) {
+            throw new BaseException(DefaultExceptionCode.COMMON_ERROR, "create V8 code cache directory failure, directory = " + directory, exception);
+        }
+        this.caches = Caffeine.newBuilder()
+                .maximumWeight(maxMemoryBytes)
+                .<String, byte[]>weigher((key, value) -> value.length)
+                .build();
+    }
+
+    /**
+     * 加载缓存数据
+     *
+     * @param digest 脚本源码摘要
+     * @return 缓存数据，不存在或校验失败时返回 null
+     */
+    @Nullable
+    public byte[] load(@NotBlank String digest) {
+        byte[] result = caches.getIfPresent(digest);
+        if (result != null) {
+            return result;
+        }
+        Path file = resolveFile(digest);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            result = decode(Files.readAllBytes(file));
+            if (result == null) {
+                log.warn("V8 code cache file is corrupted, delete it, file = {}", file);
+                Files.deleteIfExists(file);
+                return null;
+            }
+            caches.put(digest, result);
+            return result;
+        } catch (IOException exception) {
+            log.warn("load V8 code cache failure, file = {}", file, exception);
+            return null;
+        }
+    }
+
+    /**
+     * 保存缓存数据，写入失败不影响脚本执行
+     *
+     * @param digest 脚本源码摘要
+     * @param data   缓存数据
+     */
+    public void save(@NotBlank String digest, @Nullable byte[] data) {
+        if (data == null || data.length == 0) {
+            return;
+        }
+        caches.put(digest, data);
+        Path file = resolveFile(digest);
+        try {
+            Path temp = Files.createTempFile(directory, digest, ".tmp");
+            Files.write(temp, encode(data));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            log.warn("save V8 code cache failure, file = {}", file, exception);
+        }
+    }
+
+    /**
+     * 删除缓存数据
+     *
+     * @param digest 脚本源码摘要
+     */
+    public void delete(@NotBlank String digest) {
+        caches.invalidate(digest);
+        Path file = resolveFile(digest);
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException exception) {
+            log.warn("delete V8 code cache failure, file = {}", file, exception);
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private Path resolveFile(String digest) {
+        return directory.resolve(digest + FILE_SUFFIX);
+    }
+
+    private static byte[] encode(byte[] data) {
+        return ByteBuffer.allocate(FILE_HEADER_LENGTH + data.length)
+                .putInt(FILE_MAGIC)
+                .putLong(checksum(data))
+                .put(data)
+                .array();
+    }
+
+    @Nullable
+    private static byte[] decode(byte[] content) {
+        if (content.length <= FILE_HEADER_LENGTH) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        if (buffer.getInt() != FILE_MAGIC) {
+            return null;
+        }
+        long checksum = buffer.getLong();
+        byte[] result = new byte[buffer.remaining()];
+        buffer.get(result);
+        return checksum == checksum(result) ? result : null;
+    }
+
+    private static long checksum(byte[] data) {
+        CRC32C crc32 = new CRC32C();
+        crc32.update(data);
+        return crc32.getValue();
+    }
+}
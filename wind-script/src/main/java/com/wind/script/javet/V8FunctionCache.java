@@ -0,0 +1,138 @@
+package com.wind.script.javet;
+
+import com.caoccao.javet.exceptions.JavetException;
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.interop.V8ScriptOrigin;
+import com.caoccao.javet.values.reference.V8Script;
+import com.caoccao.javet.values.reference.V8ValueFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.lang.Nullable;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 单个 V8 运行时的已编译函数缓存，按照函数源码摘要缓存 {@link V8ValueFunction} 句柄，超过容量时淘汰最久未使用的函数
+ * 如果配置了 {@link V8CodeCacheStore}，首次编译时会使用（或生成）持久化的 V8 code cache，缓存被 V8 拒绝时使用重新生成的缓存覆盖
+ * 注意：非线程安全，只能在借用运行时的线程中使用
+ *
+ * @author wuxp
+ * @date 2025-10-21 14:36
+ **/
+@Slf4j
+public final class V8FunctionCache implements AutoCloseable {
+
+    private final V8Runtime v8Runtime;
+
+    private final int maxSize;
+
+    @Nullable
+    private final V8CodeCacheStore codeCacheStore;
+
+    private final LinkedHashMap<String, V8ValueFunction> functions = new LinkedHashMap<>(16, 0.75f, true);
+
+    V8FunctionCache(V8Runtime v8Runtime, int maxSize, @Nullable V8CodeCacheStore codeCacheStore) {
+        this.v8Runtime = v8Runtime;
+        this.maxSize = maxSize;
+        this.codeCacheStore = codeCacheStore;
+    }
+
+    /**
+     * 使用闭包的方式调用 js 函数
+     *
+     * @param functionCode js 函数代码
+     * @param args         函数参数
+     * @return 函数返回值
+     */
+    public <T> T call(String functionCode, Object... args) throws JavetException {
+        if (maxSize <= 0 && codeCacheStore == null) {
+            try (V8ValueFunction function = v8Runtime.getExecutor(wrapFunctionCode(functionCode)).execute()) {
+                return function.callObject(null, args);
+            }
+        }
+        String digest = DigestUtils.sha256Hex(functionCode);
+        if (maxSize <= 0) {
+            try (V8ValueFunction function = compile(functionCode, digest)) {
+                return function.callObject(null, args);
+            }
+        }
+        V8ValueFunction function = functions.get(digest);
+        if (function == null || function.isClosed()) {
+            function = compile(functionCode, digest);
+            functions.put(digest, function);
+            evictIfNecessary();
+        }
+        return function.callObject(null, args);
+    }
+
+    /**
+     * @return 已缓存的函数数量
+     */
+    public int size() {
+        return functions.size();
+    }
+
+    @Override
+    public void close() {
+        functions.values().forEach(V8FunctionCache::closeQuietly);
+        functions.clear();
+    }
+
+    private V8ValueFunction compile(String functionCode, String digest) throws JavetException {
+        String script = wrapFunctionCode(functionCode);
+        if (codeCacheStore == null) {
+            return v8Runtime.getExecutor(script).execute();
+        }
+        byte[] cachedData = codeCacheStore.load(digest);
+        try (V8Script v8Script = v8Runtime.compileV8Script(script, cachedData, new V8ScriptOrigin(digest + ".js"), true)) {
+            refreshCodeCache(digest, cachedData, v8Script.getCachedData());
+            return v8Script.execute();
+        }
+    }
+
+    /**
+     * V8 拒绝缓存（例如：V8 版本、编译参数变更）时会重新编译，重新生成的缓存数据与加载的不同，使用新的缓存数据覆盖
+     * 注意：V8 接受缓存时重新生成的数据也可能与加载的不同，覆盖一次后即稳定
+     *
+     * @param digest       脚本源码摘要
+     * @param cachedData   编译时使用的缓存数据
+     * @param producedData 编译后生成的缓存数据
+     */
+    private void refreshCodeCache(String digest, @Nullable byte[] cachedData, @Nullable byte[] producedData) {
+        if (Arrays.equals(cachedData, producedData)) {
+            return;
+        }
+        if (producedData == null || producedData.length == 0) {
+            codeCacheStore.delete(digest);
+            return;
+        }
+        if (cachedData != null && log.isDebugEnabled()) {
+            log.debug("V8 code cache changed, rewrite it, digest = {}", digest);
+        }
+        codeCacheStore.save(digest, producedData);
+    }
+
+    private void evictIfNecessary() {
+        Iterator<Map.Entry<String, V8ValueFunction>> iterator = functions.entrySet().iterator();
+        while (functions.size() > maxSize && iterator.hasNext()) {
+            V8ValueFunction eldest = iterator.next().getValue();
+            iterator.remove();
+            closeQuietly(eldest);
+        }
+    }
+
+    private static String wrapFunctionCode(String functionCode) {
+        return "(" + functionCode + ")";
+    }
+
+    private static void closeQuietly(V8ValueFunction function) {
+        try {
+            function.close();
+        } catch (JavetException exception) {
+            log.warn("close V8 function failure", exception);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.wind.script.javet;
+
+import com.caoccao.javet.exceptions.JavetException;
+import com.caoccao.javet.interop.V8Host;
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.interop.monitoring.V8HeapStatistics;
+import com.caoccao.javet.values.reference.V8ValueFunction;
+import com.wind.common.exception.AssertUtils;
+import com.wind.common.exception.BaseException;
+import com.wind.common.exception.DefaultExceptionCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 预热的 V8 运行时池，池中的运行时已加载 polyfill 和 js lib，避免每次执行都创建运行时并重新执行库代码
+ * 运行时归还时会重置全局作用域（删除新增的全局变量、恢复被覆盖的全局变量），使用次数或堆内存超过阈值后销毁重建
+ * 每个运行时持有独立的 {@link V8FunctionCache}，已编译的函数在运行时的生命周期内复用
+ * 注意：同一个运行时同一时刻只会被一个线程使用
+ *
+ * @author wuxp
+ * @date 2025-10-21 09:52
+ **/
+@Slf4j
+public final class V8RuntimePool implements AutoCloseable {
+
+    /**
+     * 记录预热完成后的全局变量快照，返回用于重置全局作用域的函数
+     */
+    private static final String GLOBAL_SCOPE_RESETTER_JS = """
+            (() => {
+              const baseline = new Map(Object.getOwnPropertyNames(globalThis).map(name => [name, globalThis[name]]));
+              return () => {
+                for (const name of Object.getOwnPropertyNames(globalThis)) {
+                  if (!baseline.has(name)) {
+                    delete globalThis[name];
+                  }
+                }
+                for (const [name, value] of baseline) {
+                  try {
+                    if (globalThis[name] !== value) {
+                      globalThis[name] = value;
+                    }
+                  } catch (e) {
+                    // ignore non-writable property
+                  }
+                }
+              };
+            })()
+            """;
+
+    /**
+     * 获取运行时堆内存统计信息的超时时间
+     */
+    private static final Duration HEAP_STATISTICS_TIMEOUT = Duration.ofSeconds(1);
+
+    private final V8RuntimePoolOptions options;
+
+    private final List<String> libScripts;
+
+    private final Supplier<String> polyfillSupplier;
+
+    private final BlockingQueue<PooledV8Runtime> idles;
+
+    private final Semaphore permits;
+
+    @Nullable
+    private final V8CodeCacheStore codeCacheStore;
+
+    private volatile boolean closed = false;
+
+    public V8RuntimePool(V8RuntimePoolOptions options, List<String> libScripts, Supplier<String> polyfillSupplier) {
+        AssertUtils.notNull(options, "argument options must not null");
+        AssertUtils.notNull(libScripts, "argument libScripts must not null");
+        AssertUtils.notNull(polyfillSupplier, "argument polyfillSupplier must not null");
+        this.options = options;
+        this.libScripts = List.copyOf(libScripts);
+        this.polyfillSupplier = polyfillSupplier;
+        this.idles = new ArrayBlockingQueue<>(options.maxSize());
+        this.permits = new Semaphore(options.maxSize());
+        this.codeCacheStore = options.codeCacheDirectory() == null ? null : new V8CodeCacheStore(options.codeCacheDirectory());
+    }
+
+    /**
+     * 借用一个运行时执行回调，执行完成后自动归还
+     *
+     * @param callback 回调
+     * @return 回调返回值
+     */
+    public <T> T execute(V8RuntimeCallback<T> callback) throws JavetException {
+        AssertUtils.state(!closed, () -> BaseException.common("V8 runtime pool is closed"));
+        acquirePermit();
+        PooledV8Runtime runtime = null;
+        try {
+            runtime = obtain();
+            return callback.doInRuntime(runtime.getV8Runtime(), runtime.getFunctionCache());
+        } finally {
+            if (runtime != null) {
+                release(runtime);
+            }
+            permits.release();
+        }
+    }
+
+    /**
+     * @return 空闲的运行时数量
+     */
+    public int getIdleSize() {
+        return idles.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        PooledV8Runtime runtime;
+        while ((runtime = idles.poll()) != null) {
+            runtime.close();
+        }
+    }
+
+    private void acquirePermit() {
+        try {
+            if (!permits.tryAcquire(options.borrowTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new BaseException(DefaultExceptionCode.COMMON_ERROR, "borrow V8 runtime timeout, pool max size = " + options.maxSize());
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new BaseException(DefaultExceptionCode.COMMON_ERROR, "borrow V8 runtime interrupted", exception);
+        }
+    }
+
+    private PooledV8Runtime obtain() throws JavetException {
+        String polyfillJs = polyfillSupplier.get();
+        PooledV8Runtime runtime;
+        while ((runtime = idles.poll()) != null) {
+            if (Objects.equals(runtime.getPolyfillJs(), polyfillJs)) {
+                return runtime;
+            }
+            // polyfill 已变更
+            runtime.close();
+        }
+        return PooledV8Runtime.create(polyfillJs, libScripts, options.maxCachedFunctions(), codeCacheStore);
+    }
+
+    private void release(PooledV8Runtime runtime) {
+        if (closed || !runtime.recycle(options) || !idles.offer(runtime)) {
+            runtime.close();
+        }
+    }
+
+    /**
+     * 运行时回调
+     */
+    @FunctionalInterface
+    public interface V8RuntimeCallback<T> {
+
+        T doInRuntime(V8Runtime v8Runtime, V8FunctionCache functionCache) throws JavetException;
+    }
+
+    /**
+     * 池化的运行时
+     */
+    private static final class PooledV8Runtime {
+
+        private final V8Runtime v8Runtime;
+
+        private final String polyfillJs;
+
+        private final V8ValueFunction globalScopeResetter;
+
+        private final V8FunctionCache functionCache;
+
+        private int useCount = 0;
+
+        private PooledV8Runtime(V8Runtime v8Runtime, String polyfillJs, V8ValueFunction globalScopeResetter, V8FunctionCache functionCache) {
+            this.v8Runtime = v8Runtime;
+            this.polyfillJs = polyfillJs;
+            this.globalScopeResetter = globalScopeResetter;
+            this.functionCache = functionCache;
+        }
+
+        static PooledV8Runtime create(String polyfillJs, List<String> libScripts, int maxCachedFunctions, @Nullable V8CodeCacheStore codeCacheStore) throws JavetException {
+            V8Runtime v8Runtime = V8Host.getV8Instance().createV8Runtime();
+            try {
+                executeScript(v8Runtime, polyfillJs);
+                for (String js : libScripts) {
+                    executeScript(v8Runtime, js);
+                }
+                V8ValueFunction resetter = v8Runtime.getExecutor(GLOBAL_SCOPE_RESETTER_JS).execute();
+                return new PooledV8Runtime(v8Runtime, polyfillJs, resetter, new V8FunctionCache(v8Runtime, maxCachedFunctions, codeCacheStore));
+            } catch (JavetException | RuntimeException exception) {
+                v8Runtime.close();
+                throw exception;
+            }
+        }
+
+        V8Runtime getV8Runtime() {
+            return v8Runtime;
+        }
+
+        V8FunctionCache getFunctionCache() {
+            return functionCache;
+        }
+
+        String getPolyfillJs() {
+            return polyfillJs;
+        }
+
+        /**
+         * 重置运行时以便复用
+         *
+         * @return 是否可以继续复用
+         */
+        boolean recycle(V8RuntimePoolOptions options) {
+            useCount++;
+            if (useCount >= options.maxUses() || v8Runtime.isClosed()) {
+                return false;
+            }
+            try {
+                globalScopeResetter.callVoid(null);
+                // 运行时空闲时统计信息会立即返回，执行中时由 V8Host 的守护线程异步获取
+                V8HeapStatistics statistics = v8Runtime.getV8HeapStatistics().get(HEAP_STATISTICS_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                return statistics.getUsedHeapSize() < options.maxUsedHeapSize();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (Exception exception) {
+                log.warn("reset V8 runtime failure, discard it", exception);
+                return false;
+            }
+        }
+
+        void close() {
+            try {
+                functionCache.close();
+                globalScopeResetter.close();
+                v8Runtime.close();
+            } catch (Exception exception) {
+                log.warn("close V8 runtime failure", exception);
+            }
+        }
+
+        private static void executeScript(V8Runtime v8, String script) throws JavetException {
+            if (StringUtils.hasText(script)) {
+                v8.getExecutor(script).executeVoid();
+            }
+        }
+    }
+}
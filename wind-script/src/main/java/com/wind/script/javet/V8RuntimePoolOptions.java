@@ -0,0 +1,37 @@
+package com.wind.script.javet;
+
+import com.wind.common.exception.AssertUtils;
+import org.springframework.lang.Nullable;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * V8 运行时池配置
+ *
+ * @param maxSize         池中最大的运行时数量
+ * @param maxUses         单个运行时最大的使用次数，超过后销毁重建，避免长期运行导致的内存膨胀
+ * @param maxUsedHeapSize 单个运行时已使用堆内存的阈值（字节），超过后销毁重建
+ * @param borrowTimeout   获取运行时的最大等待时间
+ * @param maxCachedFunctions 单个运行时缓存的已编译函数数量上限，小于等于 0 表示不缓存
+ * @param codeCacheDirectory V8 code cache 持久化目录，为空表示不使用 code cache
+ * @author wuxp
+ * @date 2025-10-21 09:40
+ **/
+public record V8RuntimePoolOptions(int maxSize, int maxUses, long maxUsedHeapSize, Duration borrowTimeout, int maxCachedFunctions,
+                                   @Nullable Path codeCacheDirectory) {
+
+    public V8RuntimePoolOptions {
+        AssertUtils.isTrue(maxSize > 0, "argument maxSize must greater than 0");
+        AssertUtils.isTrue(maxUses > 0, "argument maxUses must greater than 0");
+        AssertUtils.isTrue(maxUsedHeapSize > 0, "argument maxUsedHeapSize must greater than 0");
+        AssertUtils.notNull(borrowTimeout, "argument borrowTimeout must not null");
+    }
+
+    /**
+     * 默认配置：最多 cpu 核数个运行时，获取运行时最多等待 10 秒
+     */
+    public static V8RuntimePoolOptions defaults() {
+        return new V8RuntimePoolOptions(Runtime.getRuntime().availableProcessors(), 1000, 64 * 1024 * 1024L, Duration.ofSeconds(10), 256, null);
+    }
+}
@@ -0,0 +1,136 @@
+package com.wind.script.spring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 带编译状态的 spring expression，解释执行成功达到阈值后编译为字节码（等价于 {@link org.springframework.expression.spel.SpelCompilerMode#MIXED}），
+ * 运行时类型变化导致编译后的代码执行失败时回退到解释执行，回退或编译失败次数过多后不再尝试编译
+ * 注意：编译后的代码直接调用方法不再经过 {@link WindSecurityReflectiveMethodResolver}，能够被编译的方法调用都已在解释执行时经过了安全检查，
+ * 安全配置（安全模式、允许调用的类）变更后由 {@link SpringExpressionEvaluator} 丢弃缓存的表达式，重新解析并解释执行
+ *
+ * @author wuxp
+ * @date 2025-10-22 15:10
+ **/
+@Slf4j
+final class CompilableExpression {
+
+    /**
+     * 最大的编译失败或回退次数
+     */
+    private static final int MAX_FAILURE_TIMES = 10;
+
+    private final Expression expression;
+
+    private final AtomicInteger successTimes = new AtomicInteger();
+
+    private final AtomicInteger failureTimes = new AtomicInteger();
+
+    private volatile CompilationState state = CompilationState.INTERPRETED;
+
+    CompilableExpression(Expression expression) {
+        this.expression = expression;
+    }
+
+    /**
+     * @param context           执行上下文
+     * @param desiredResultType 返回值类型
+     * @param compileThreshold  编译阈值，小于等于 0 表示不编译
+     * @return 执行结果
+     */
+    @Nullable
+    <T> T getValue(EvaluationContext context, @Nullable Class<T> desiredResultType, int compileThreshold) {
+        if (!(expression instanceof SpelExpression spelExpression) || (compileThreshold <= 0 && state != CompilationState.COMPILED)) {
+            return expression.getValue(context, desiredResultType);
+        }
+        if (state == CompilationState.COMPILED && compileThreshold <= 0) {
+            // 关闭了编译模式
+            revertToInterpreted(spelExpression, false);
+        }
+        T result = getValue(spelExpression, context, desiredResultType);
+        if (state == CompilationState.INTERPRETED && compileThreshold > 0 && successTimes.incrementAndGet() >= compileThreshold) {
+            compile(spelExpression);
+        }
+        return result;
+    }
+
+    Expression getExpression() {
+        return expression;
+    }
+
+    CompilationState getState() {
+        return state;
+    }
+
+    @Nullable
+    private <T> T getValue(SpelExpression spelExpression, EvaluationContext context, @Nullable Class<T> desiredResultType) {
+        try {
+            return spelExpression.getValue(context, desiredResultType);
+        } catch (SpelEvaluationException exception) {
+            if (exception.getMessageCode() != SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION) {
+                throw exception;
+            }
+            log.debug("run compiled expression = {} failure, revert to interpreted", spelExpression.getExpressionString(), exception);
+            revertToInterpreted(spelExpression, true);
+            return spelExpression.getValue(context, desiredResultType);
+        }
+    }
+
+    private synchronized void compile(SpelExpression spelExpression) {
+        if (state != CompilationState.INTERPRETED) {
+            return;
+        }
+        boolean compiled;
+        try {
+            compiled = spelExpression.compileExpression();
+        } catch (RuntimeException exception) {
+            log.debug("compile expression = {} failure", spelExpression.getExpressionString(), exception);
+            compiled = false;
+        }
+        if (compiled) {
+            state = CompilationState.COMPILED;
+        } else {
+            onFailure();
+        }
+    }
+
+    private synchronized void revertToInterpreted(SpelExpression spelExpression, boolean failure) {
+        spelExpression.revertToInterpreted();
+        if (failure) {
+            onFailure();
+        } else {
+            successTimes.set(0);
+            state = CompilationState.INTERPRETED;
+        }
+    }
+
+    private void onFailure() {
+        successTimes.set(0);
+        state = failureTimes.incrementAndGet() >= MAX_FAILURE_TIMES ? CompilationState.UNCOMPILABLE : CompilationState.INTERPRETED;
+    }
+
+    enum CompilationState {
+
+        /**
+         * 解释执行
+         */
+        INTERPRETED,
+
+        /**
+         * 已编译
+         */
+        COMPILED,
+
+        /**
+         * 无法编译，始终解释执行
+         */
+        UNCOMPILABLE
+    }
+}
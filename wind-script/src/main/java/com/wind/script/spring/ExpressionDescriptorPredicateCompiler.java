@@ -0,0 +1,323 @@
+package com.wind.script.spring;
+
+import com.wind.common.WindConstants;
+import com.wind.common.exception.AssertUtils;
+import com.wind.common.exception.BaseException;
+import com.wind.common.exception.DefaultExceptionCode;
+import com.wind.script.expression.ExpressionDescriptor;
+import com.wind.script.expression.LogicalOp;
+import com.wind.script.expression.Op;
+import com.wind.script.expression.Operand;
+import com.wind.script.expression.OperandType;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.spel.ast.Operator;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ObjectUtils;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 将 {@link ExpressionDescriptor} 直接编译为 {@link Predicate}，跳过 {@link SpringExpressionGenerator} 生成 spring expression 字符串再解析执行的过程
+ * 1：运算符语义与 spring expression 保持一致（相等比较使用 {@link Operator#equalityCheck}，大小比较使用执行上下文的 {@link org.springframework.expression.TypeComparator}）
+ * 2：常量操作数在编译时求值一次，变量路径（例如：user.age、tags['example']）解析为属性访问链，并缓存每一级的属性访问器
+ * 3：逻辑连接结构（包括省略括号时 AND 优先于 OR 的结合方式）与 {@link SpringExpressionGenerator#generate(ExpressionDescriptor)} 生成的表达式一致
+ * 4：{@link OperandType#EXPRESSION} 操作数、{@link Op#GLOBAL_METHOD} 以及无法解析的变量路径回退到 {@link SpringExpressionEvaluator} 执行
+ * <p>
+ * 编译结果的入参为执行变量，支持 {@link Map}（变量名称 -> 变量值）或 {@link EvaluationContext}
+ *
+ * @author wuxp
+ * @date 2025-10-23 10:12
+ **/
+public final class ExpressionDescriptorPredicateCompiler {
+
+    private static final SpringExpressionConditionalExpressionJoiner JOINER = new SpringExpressionConditionalExpressionJoiner();
+
+    /**
+     * 简单的变量路径，例如：name、user.age、tags['example']、items[0]
+     */
+    private static final Pattern SIMPLE_VARIABLE_PATH = Pattern.compile("^([A-Za-z_$][\\w$]*)((?:\\.[A-Za-z_$][\\w$]*|\\['[^']*']|\\[\\d+])*)$");
+
+    private static final Pattern PATH_SEGMENT = Pattern.compile("\\.([A-Za-z_$][\\w$]*)|\\['([^']*)']|\\[(\\d+)]");
+
+    /**
+     * spring expression 中有特殊含义的变量名称
+     */
+    private static final List<String> RESERVED_VARIABLE_NAMES = List.of("root", "this");
+
+    private static final ReflectivePropertyAccessor PROPERTY_ACCESSOR = new ReflectivePropertyAccessor();
+
+    /**
+     * 入参为 {@link Map} 时用于运算符比较、属性访问的执行上下文
+     */
+    private static final EvaluationContext OPERATOR_CONTEXT = SpringEvaluationContextTemplate.DEFAULT.create(null, Collections.emptyMap(), true);
+
+    private ExpressionDescriptorPredicateCompiler() {
+        throw new AssertionError();
+    }
+
+    /**
+     * 编译表达式描述
+     *
+     * @param descriptor 表达式描述
+     * @return 编译后的断言，入参为 {@link Map} 类型的执行变量或 {@link EvaluationContext}
+     */
+    @NotNull
+    public static Predicate<Object> compile(@NotNull ExpressionDescriptor descriptor) {
+        AssertUtils.notNull(descriptor, "argument descriptor must not null");
+        return combine(compileNode(descriptor));
+    }
+
+    /**
+     * 与 {@link SpringExpressionGenerator#generate(ExpressionDescriptor)} 的结构保持一致，返回由条件断言和逻辑运算符组成的序列
+     */
+    private static List<Object> compileNode(ExpressionDescriptor node) {
+        Predicate<Object> parent = compileCondition(node);
+        List<ExpressionDescriptor> children = node.getChildren();
+        if (ObjectUtils.isEmpty(children)) {
+            return List.of(parent);
+        }
+        LogicalOp relation = node.getConjunctions();
+        AssertUtils.notNull(relation, "conjunctions must not null when children is not empty");
+        List<Object> result = new ArrayList<>();
+        result.add(parent);
+        result.add(relation);
+        List<Object> childrenSequence = compileChildren(children, relation);
+        if (children.size() > 1) {
+            result.add(combine(childrenSequence));
+        } else {
+            result.addAll(childrenSequence);
+        }
+        return result;
+    }
+
+    private static List<Object> compileChildren(List<ExpressionDescriptor> children, LogicalOp relation) {
+        List<Object> result = new ArrayList<>();
+        for (ExpressionDescriptor child : children) {
+            if (!result.isEmpty()) {
+                result.add(relation);
+            }
+            List<Object> sequence = compileNode(child);
+            if (children.size() > 1 && !ObjectUtils.isEmpty(child.getChildren())) {
+                // 有 children 需要用 () 包起来
+                result.add(combine(sequence));
+            } else {
+                result.addAll(sequence);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按 spring expression 的优先级（AND 优先于 OR）组合序列
+     */
+    @SuppressWarnings("unchecked")
+    private static Predicate<Object> combine(List<Object> sequence) {
+        List<Predicate<Object>> ors = new ArrayList<>();
+        Predicate<Object> and = null;
+        for (Object item : sequence) {
+            if (item == LogicalOp.OR) {
+                ors.add(and);
+                and = null;
+            } else if (item instanceof Predicate) {
+                Predicate<Object> predicate = (Predicate<Object>) item;
+                and = and == null ? predicate : and.and(predicate);
+            }
+        }
+        ors.add(and);
+        Predicate<Object> result = ors.getFirst();
+        for (int i = 1; i < ors.size(); i++) {
+            result = result.or(ors.get(i));
+        }
+        return result;
+    }
+
+    private static Predicate<Object> compileCondition(ExpressionDescriptor node) {
+        Op op = node.getOp();
+        // 复用连接器的参数校验，同时得到回退执行的表达式
+        String expression = JOINER.join(node.getLeft(), node.getRight(), op);
+        if (op == Op.GLOBAL_METHOD) {
+            return input -> Boolean.TRUE.equals(evalExpression(expression, input));
+        }
+        Function<Object, Object> left = compileOperand(node.getLeft());
+        Function<Object, Object> right = compileOperand(node.getRight());
+        return switch (op) {
+            case EQ -> input -> Operator.equalityCheck(getContext(input), left.apply(input), right.apply(input));
+            case NOT_EQ -> input -> !Operator.equalityCheck(getContext(input), left.apply(input), right.apply(input));
+            case GE -> input -> compare(input, left, right) > 0;
+            case LE -> input -> compare(input, left, right) < 0;
+            case GET -> input -> compare(input, left, right) >= 0;
+            case LET -> input -> compare(input, left, right) <= 0;
+            case IS_NULL -> input -> left.apply(input) == null;
+            case NOT_NULL -> input -> left.apply(input) != null;
+            case CONTAINS -> input -> SpringExpressionOperators.contains(left.apply(input), right.apply(input));
+            case NOT_CONTAINS -> input -> !SpringExpressionOperators.contains(left.apply(input), right.apply(input));
+            case IN_RANG -> input -> SpringExpressionOperators.inRange(left.apply(input), right.apply(input));
+            case NOT_IN_RANG -> input -> !SpringExpressionOperators.inRange(left.apply(input), right.apply(input));
+            default -> input -> Boolean.TRUE.equals(evalExpression(expression, input));
+        };
+    }
+
+    private static int compare(Object input, Function<Object, Object> leftOperand, Function<Object, Object> rightOperand) {
+        Object left = leftOperand.apply(input);
+        Object right = rightOperand.apply(input);
+        if (left instanceof CharSequence && right instanceof CharSequence) {
+            left = left.toString();
+            right = right.toString();
+        }
+        return getContext(input).getTypeComparator().compare(left, right);
+    }
+
+    private static Function<Object, Object> compileOperand(@Nullable Operand operand) {
+        String expression = JOINER.convertToExpression(operand);
+        if (expression == null) {
+            return input -> null;
+        }
+        if (Objects.equals(OperandType.VARIABLE, operand.getType())) {
+            VariablePath path = VariablePath.parse(String.valueOf(operand.getValue()));
+            if (path != null) {
+                return path::read;
+            }
+        } else if (Objects.equals(OperandType.CONSTANT, operand.getType()) && !expression.contains(WindConstants.SHARP)) {
+            // 常量只和字面量有关，编译时求值一次
+            Object constant = SpringExpressionEvaluator.DEFAULT.eval(expression);
+            return input -> constant;
+        }
+        return input -> evalExpression(expression, input);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object evalExpression(String expression, Object input) {
+        if (input instanceof EvaluationContext context) {
+            return SpringExpressionEvaluator.DEFAULT.eval(expression, context);
+        }
+        return SpringExpressionEvaluator.DEFAULT.eval(expression, (Map<String, Object>) input);
+    }
+
+    private static EvaluationContext getContext(Object input) {
+        return input instanceof EvaluationContext context ? context : OPERATOR_CONTEXT;
+    }
+
+    private static Object lookupVariable(Object input, String name) {
+        if (input instanceof Map<?, ?> variables) {
+            return variables.get(name);
+        }
+        if (input instanceof EvaluationContext context) {
+            return context.lookupVariable(name);
+        }
+        throw BaseException.common(String.format("unsupported predicate input type = %s", input == null ? null : input.getClass().getName()));
+    }
+
+    /**
+     * 变量访问路径
+     *
+     * @param name     变量名称
+     * @param segments 属性访问链
+     */
+    private record VariablePath(String name, PathSegment[] segments) {
+
+        @Nullable
+        static VariablePath parse(String path) {
+            Matcher matcher = SIMPLE_VARIABLE_PATH.matcher(path);
+            if (!matcher.matches() || RESERVED_VARIABLE_NAMES.contains(matcher.group(1))) {
+                return null;
+            }
+            List<PathSegment> segments = new ArrayList<>();
+            Matcher segmentMatcher = PATH_SEGMENT.matcher(matcher.group(2));
+            while (segmentMatcher.find()) {
+                if (segmentMatcher.group(1) != null) {
+                    segments.add(new PropertySegment(segmentMatcher.group(1)));
+                } else if (segmentMatcher.group(2) != null) {
+                    segments.add(new IndexSegment(segmentMatcher.group(2), new PropertySegment(segmentMatcher.group(2))));
+                } else {
+                    segments.add(new IndexSegment(Integer.parseInt(segmentMatcher.group(3)), null));
+                }
+            }
+            return new VariablePath(matcher.group(1), segments.toArray(new PathSegment[0]));
+        }
+
+        Object read(Object input) {
+            Object result = lookupVariable(input, name);
+            for (PathSegment segment : segments) {
+                result = segment.read(getContext(input), result);
+            }
+            return result;
+        }
+    }
+
+    private interface PathSegment {
+
+        Object read(EvaluationContext context, @Nullable Object target);
+    }
+
+    /**
+     * 属性访问，按目标类型缓存最近一次使用的属性访问器（单态内联缓存）
+     */
+    private static final class PropertySegment implements PathSegment {
+
+        private final String name;
+
+        private volatile CachedAccessor cached;
+
+        private PropertySegment(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Object read(EvaluationContext context, @Nullable Object target) {
+            AssertUtils.notNull(target, () -> String.format("property '%s' cannot be found on null", name));
+            Class<?> type = target.getClass();
+            CachedAccessor accessor = cached;
+            try {
+                if (accessor == null || accessor.type() != type) {
+                    AssertUtils.isTrue(PROPERTY_ACCESSOR.canRead(context, target, name), () -> String.format("property '%s' cannot be found on object of type '%s'", name, type.getName()));
+                    accessor = new CachedAccessor(type, PROPERTY_ACCESSOR.createOptimalAccessor(context, target, name));
+                    cached = accessor;
+                }
+                return accessor.accessor().read(context, target, name).getValue();
+            } catch (AccessException exception) {
+                throw new BaseException(DefaultExceptionCode.COMMON_ERROR, String.format("read property '%s' error", name), exception);
+            }
+        }
+
+        private record CachedAccessor(Class<?> type, PropertyAccessor accessor) {
+        }
+    }
+
+    /**
+     * 索引访问，语义与 spring expression 的 Indexer 一致：Map 按 key 取值、List 及数组按下标取值，其他对象使用字符串索引时按属性读取
+     */
+    private record IndexSegment(Object index, @Nullable PropertySegment property) implements PathSegment {
+
+        @Override
+        public Object read(EvaluationContext context, @Nullable Object target) {
+            AssertUtils.notNull(target, () -> String.format("cannot index into a null value, index = %s", index));
+            if (target instanceof Map<?, ?> map) {
+                return map.get(index);
+            }
+            if (index instanceof Integer position) {
+                if (target instanceof List<?> list) {
+                    return list.get(position);
+                }
+                if (target.getClass().isArray()) {
+                    return Array.get(target, position);
+                }
+            } else if (property != null) {
+                return property.read(context, target);
+            }
+            throw BaseException.common(String.format("indexing into type '%s' is not supported", target.getClass().getName()));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.wind.script.spring;
+
+import jakarta.validation.constraints.NotNull;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.ConstructorResolver;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.OperatorOverloader;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypeComparator;
+import org.springframework.expression.TypeConverter;
+import org.springframework.expression.TypeLocator;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.support.ReflectiveConstructorResolver;
+import org.springframework.expression.spel.support.ReflectiveMethodResolver;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
+import org.springframework.expression.spel.support.StandardOperatorOverloader;
+import org.springframework.expression.spel.support.StandardTypeComparator;
+import org.springframework.expression.spel.support.StandardTypeConverter;
+import org.springframework.expression.spel.support.StandardTypeLocator;
+import org.springframework.lang.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预先准备好的 {@link EvaluationContext} 模板，属性访问器、方法解析器、类型转换器等无状态（线程安全）的组件在所有执行上下文之间共享，
+ * 创建执行上下文时只绑定根对象和变量，避免每次执行表达式都创建 {@link org.springframework.expression.spel.support.StandardEvaluationContext}
+ * 及其默认组件（{@link ReflectivePropertyAccessor} 的缓存也因此得以复用）
+ *
+ * @author wuxp
+ * @date 2025-10-22 10:05
+ **/
+public final class SpringEvaluationContextTemplate {
+
+    public static final SpringEvaluationContextTemplate DEFAULT = new SpringEvaluationContextTemplate();
+
+    private final List<PropertyAccessor> propertyAccessors = List.of(new ReflectivePropertyAccessor());
+
+    private final List<ConstructorResolver> constructorResolvers = List.of(new ReflectiveConstructorResolver());
+
+    private final List<MethodResolver> methodResolvers = List.of(new ReflectiveMethodResolver());
+
+    private final TypeLocator typeLocator = new StandardTypeLocator();
+
+    private final TypeConverter typeConverter = new StandardTypeConverter();
+
+    private final TypeComparator typeComparator = new StandardTypeComparator();
+
+    private final OperatorOverloader operatorOverloader = new StandardOperatorOverloader();
+
+    /**
+     * 安全模式下的方法解析器，{@link WindSecurityReflectiveMethodResolver#shared()} 变更后重建
+     */
+    private volatile List<MethodResolver> securityMethodResolvers = Collections.emptyList();
+
+    private SpringEvaluationContextTemplate() {
+    }
+
+    /**
+     * 创建执行上下文
+     *
+     * @param rootObject   根对象
+     * @param variables    执行上下文变量，表达式中对变量赋值时会复制一份，不会修改该参数
+     * @param securityMode 是否使用安全模式（限制可调用方法的类）
+     * @return 执行上下文
+     */
+    @NotNull
+    public EvaluationContext create(@Nullable Object rootObject, @NotNull Map<String, Object> variables, boolean securityMode) {
+        return new TemplateEvaluationContext(rootObject == null ? TypedValue.NULL : new TypedValue(rootObject), variables,
+                securityMode ? getSecurityMethodResolvers() : methodResolvers);
+    }
+
+    /**
+     * @param context 执行上下文
+     * @return 是否为模板创建的执行上下文
+     */
+    static boolean isTemplateContext(EvaluationContext context) {
+        return context instanceof TemplateEvaluationContext;
+    }
+
+    private List<MethodResolver> getSecurityMethodResolvers() {
+        WindSecurityReflectiveMethodResolver resolver = WindSecurityReflectiveMethodResolver.shared();
+        List<MethodResolver> result = securityMethodResolvers;
+        if (result.isEmpty() || result.getFirst() != resolver) {
+            result = List.of(resolver);
+            securityMethodResolvers = result;
+        }
+        return result;
+    }
+
+    private final class TemplateEvaluationContext implements EvaluationContext {
+
+        private final TypedValue rootObject;
+
+        private final List<MethodResolver> contextMethodResolvers;
+
+        private Map<String, Object> variables;
+
+        /**
+         * {@link #variables} 是否已复制（可写）
+         */
+        private boolean variablesCopied = false;
+
+        private TemplateEvaluationContext(TypedValue rootObject, Map<String, Object> variables, List<MethodResolver> contextMethodResolvers) {
+            this.rootObject = rootObject;
+            this.variables = variables;
+            this.contextMethodResolvers = contextMethodResolvers;
+        }
+
+        @Override
+        public TypedValue getRootObject() {
+            return rootObject;
+        }
+
+        @Override
+        public List<PropertyAccessor> getPropertyAccessors() {
+            return propertyAccessors;
+        }
+
+        @Override
+        public List<ConstructorResolver> getConstructorResolvers() {
+            return constructorResolvers;
+        }
+
+        @Override
+        public List<MethodResolver> getMethodResolvers() {
+            return contextMethodResolvers;
+        }
+
+        @Override
+        @Nullable
+        public BeanResolver getBeanResolver() {
+            return null;
+        }
+
+        @Override
+        public TypeLocator getTypeLocator() {
+            return typeLocator;
+        }
+
+        @Override
+        public TypeConverter getTypeConverter() {
+            return typeConverter;
+        }
+
+        @Override
+        public TypeComparator getTypeComparator() {
+            return typeComparator;
+        }
+
+        @Override
+        public OperatorOverloader getOperatorOverloader() {
+            return operatorOverloader;
+        }
+
+        @Override
+        public void setVariable(String name, @Nullable Object value) {
+            if (!variablesCopied) {
+                variables = new HashMap<>(variables);
+                variablesCopied = true;
+            }
+            if (value == null) {
+                variables.remove(name);
+            } else {
+                variables.put(name, value);
+            }
+        }
+
+        @Override
+        @Nullable
+        public Object lookupVariable(String name) {
+            return variables.get(name);
+        }
+    }
+}
@@ -104,7 +104,13 @@ public class SpringExpressionConditionalExpressionJoiner implements ConditionalE
         return joiner.join(leftCode, rightCode, op);
     }
 
-    private String convertToExpression(Operand operand) {
+    /**
+     * 将操作数转换为 spring expression 代码片段
+     *
+     * @param operand 操作数
+     * @return 表达式代码片段，操作数为空时返回 null
+     */
+    String convertToExpression(Operand operand) {
         if (operand == null) {
             return null;
         }
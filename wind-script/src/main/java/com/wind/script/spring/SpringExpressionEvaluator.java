@@ -3,22 +3,26 @@ package com.wind.script.spring;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.wind.common.WindConstants;
+import com.wind.common.annotations.VisibleForTesting;
 import com.wind.common.exception.AssertUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.expression.EvaluationContext;
-import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.MethodResolver;
 import org.springframework.expression.ParserContext;
 import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.lang.Nullable;
 
 import jakarta.annotation.Nonnull;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 快捷执行 spring expression 支持
@@ -33,6 +37,21 @@ public record SpringExpressionEvaluator(@Nullable ParserContext context) {
 
     private static final AtomicBoolean SECURITY_MODE = new AtomicBoolean(true);
 
+    /**
+     * 编译模式，默认不编译，仅支持 {@link SpelCompilerMode#OFF} 和 {@link SpelCompilerMode#MIXED}
+     */
+    private static final AtomicReference<SpelCompilerMode> COMPILER_MODE = new AtomicReference<>(SpelCompilerMode.OFF);
+
+    /**
+     * {@link SpelCompilerMode#MIXED} 模式下表达式解释执行成功多少次后编译
+     */
+    private static final AtomicInteger COMPILE_THRESHOLD = new AtomicInteger(100);
+
+    /**
+     * 非安全模式下的安全配置标识
+     */
+    private static final Object INSECURE_TOKEN = new Object();
+
     private static final ParserContext TEMPLATE_PARSER_CONTEXT = new TemplateParserContext(WindConstants.DELIM_START, WindConstants.DELIM_END);
 
     private static final ExpressionParser PARSER = new SpelExpressionParser();
@@ -43,7 +62,7 @@ public record SpringExpressionEvaluator(@Nullable ParserContext context) {
      * @key 表达式内容
      * @value 解析后的表达执行对象
      */
-    private static final Cache<String, Expression> EXPRESSION_CACHES = Caffeine.newBuilder()
+    private static final Cache<String, CompilableExpression> EXPRESSION_CACHES = Caffeine.newBuilder()
             // 设置最后一次写入或访问后经过固定时间过期
             .expireAfterWrite(1, TimeUnit.DAYS)
             // 初始的缓存空间大小
@@ -52,6 +71,13 @@ public record SpringExpressionEvaluator(@Nullable ParserContext context) {
             .maximumSize(2000)
             .build();
 
+    /**
+     * {@link #EXPRESSION_CACHES} 中的表达式解析时的安全配置标识，
+     * 表达式节点会缓存解析到的方法（{@link org.springframework.expression.MethodExecutor}），再次执行时不经过 {@link MethodResolver}，
+     * 因此安全配置（安全模式、允许调用的类）变更后需要清除缓存的表达式，重新解析
+     */
+    private static final AtomicReference<Object> CACHED_SECURITY_TOKEN = new AtomicReference<>();
+
     public static final SpringExpressionEvaluator DEFAULT = new SpringExpressionEvaluator(null);
 
     /**
@@ -79,7 +105,7 @@ public record SpringExpressionEvaluator(@Nullable ParserContext context) {
     @SuppressWarnings("unchecked")
     @Nullable
     public <T> T eval(String expression, EvaluationContext evaluationContext) {
-        return (T) eval(expression, wrapperSecurityContext(evaluationContext), Object.class);
+        return (T) eval(expression, evaluationContext, Object.class);
     }
 
     /**
@@ -92,7 +118,10 @@ public record SpringExpressionEvaluator(@Nullable ParserContext context) {
      */
     @Nullable
     public <T> T eval(String expression, EvaluationContext evaluationContext, Class<T> desiredResultType) {
-        return parseExpression(expression).getValue(wrapperSecurityContext(evaluationContext), desiredResultType);
+        EvaluationContext context = wrapperSecurityContext(evaluationContext);
+        int compileThreshold = COMPILER_MODE.get() == SpelCompilerMode.MIXED ? COMPILE_THRESHOLD.get() : 0;
+        refreshExpressionCaches(getSecurityToken());
+        return parseExpression(expression).getValue(context, desiredResultType, compileThreshold);
     }
 
     /**
@@ -119,27 +148,73 @@ public record SpringExpressionEvaluator(@Nullable ParserContext context) {
         return eval(expression, createEvaluationContext(variables), desiredResultType);
     }
 
-    private Expression parseExpression(String expression) {
+    /**
+     * 执行 spring expression 表达式
+     *
+     * @param expression        spring 表达式
+     * @param rootObject        根对象
+     * @param variables         执行上下文变量
+     * @param desiredResultType 返回值类型
+     * @return 执行结果
+     */
+    @Nullable
+    public <T> T eval(String expression, @Nullable Object rootObject, Map<String, Object> variables, Class<T> desiredResultType) {
+        return eval(expression, createEvaluationContext(rootObject, variables), desiredResultType);
+    }
+
+    private CompilableExpression parseExpression(String expression) {
         AssertUtils.hasText(expression, "argument expression must not empty");
         if (context == null) {
-            return EXPRESSION_CACHES.get(expression, PARSER::parseExpression);
+            return EXPRESSION_CACHES.get(expression, key -> new CompilableExpression(PARSER.parseExpression(key)));
         } else {
             // 模板字符串
-            return EXPRESSION_CACHES.get(expression, key -> PARSER.parseExpression(key, context));
+            return EXPRESSION_CACHES.get(expression, key -> new CompilableExpression(PARSER.parseExpression(key, context)));
+        }
+    }
+
+    private static void refreshExpressionCaches(Object securityToken) {
+        Object cachedToken = CACHED_SECURITY_TOKEN.get();
+        if (cachedToken != securityToken && CACHED_SECURITY_TOKEN.compareAndSet(cachedToken, securityToken)) {
+            EXPRESSION_CACHES.invalidateAll();
         }
     }
 
+    @VisibleForTesting
+    @Nullable
+    static CompilableExpression.CompilationState getCompilationState(String expression) {
+        CompilableExpression result = EXPRESSION_CACHES.getIfPresent(expression);
+        return result == null ? null : result.getState();
+    }
+
+    private static Object getSecurityToken() {
+        return SECURITY_MODE.get() ? WindSecurityReflectiveMethodResolver.shared() : INSECURE_TOKEN;
+    }
+
     @Nonnull
     private static EvaluationContext createEvaluationContext(Map<String, Object> variables) {
-        StandardEvaluationContext result = new StandardEvaluationContext();
-        variables.forEach(result::setVariable);
-        return wrapperSecurityContext(result);
+        return createEvaluationContext(null, variables);
+    }
+
+    /**
+     * 基于 {@link SpringEvaluationContextTemplate} 创建执行上下文，只绑定根对象和变量
+     *
+     * @param rootObject 根对象
+     * @param variables  执行上下文变量
+     * @return 执行上下文
+     */
+    @Nonnull
+    public static EvaluationContext createEvaluationContext(@Nullable Object rootObject, Map<String, Object> variables) {
+        return SpringEvaluationContextTemplate.DEFAULT.create(rootObject, variables, SECURITY_MODE.get());
     }
 
     private static EvaluationContext wrapperSecurityContext(EvaluationContext context) {
-        if (SECURITY_MODE.get()) {
-            context.getMethodResolvers().clear();
-            context.getMethodResolvers().add(new WindSecurityReflectiveMethodResolver());
+        if (SECURITY_MODE.get() && !SpringEvaluationContextTemplate.isTemplateContext(context)) {
+            WindSecurityReflectiveMethodResolver resolver = WindSecurityReflectiveMethodResolver.shared();
+            List<MethodResolver> methodResolvers = context.getMethodResolvers();
+            if (methodResolvers.size() != 1 || methodResolvers.getFirst() != resolver) {
+                methodResolvers.clear();
+                methodResolvers.add(resolver);
+            }
         }
         return context;
     }
@@ -152,4 +227,25 @@ public record SpringExpressionEvaluator(@Nullable ParserContext context) {
     public static void setSecurityMode(boolean enable) {
         SECURITY_MODE.set(enable);
     }
+
+    /**
+     * 设置编译模式，{@link SpelCompilerMode#MIXED} 模式下表达式解释执行成功 {@link #COMPILE_THRESHOLD} 次后编译为字节码，
+     * 运行时类型变化导致编译后的代码执行失败时回退到解释执行
+     *
+     * @param mode 编译模式，仅支持 {@link SpelCompilerMode#OFF} 和 {@link SpelCompilerMode#MIXED}
+     */
+    public static void setCompilerMode(SpelCompilerMode mode) {
+        AssertUtils.isTrue(mode != SpelCompilerMode.IMMEDIATE, "not support compiler mode IMMEDIATE");
+        COMPILER_MODE.set(mode);
+    }
+
+    /**
+     * 设置编译阈值
+     *
+     * @param threshold 表达式解释执行成功多少次后编译
+     */
+    public static void setCompileThreshold(int threshold) {
+        AssertUtils.isTrue(threshold > 0, "argument threshold must greater than 0");
+        COMPILE_THRESHOLD.set(threshold);
+    }
 }
@@ -8,6 +8,8 @@ import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 限制 spring 调用方法的范围
@@ -48,10 +50,29 @@ public final class WindSecurityReflectiveMethodResolver extends ReflectiveMethod
             "com.wind.configcenter.core.ConfigFunctionRootObject"
     );
 
-    private static final Set<String> SAFE_CLASSNAMES = new HashSet<>();
+    private static final Set<String> SAFE_CLASSNAMES = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 共享的 resolver，安全类名变更时重建
+     */
+    private static final AtomicReference<WindSecurityReflectiveMethodResolver> SHARED = new AtomicReference<>();
 
     private final Set<String> packages;
 
+    /**
+     * 类型是否允许调用的缓存，避免每次解析方法时都遍历 {@link #packages}
+     */
+    private final ClassValue<Boolean> accessibleTypes = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            if (type.isEnum() || type.isArray() || type.isPrimitive()) {
+                return true;
+            }
+            String name = type.getName();
+            return packages.stream().anyMatch(name::startsWith);
+        }
+    };
+
     public WindSecurityReflectiveMethodResolver() {
         this(loadPackages());
     }
@@ -62,16 +83,12 @@ public final class WindSecurityReflectiveMethodResolver extends ReflectiveMethod
 
     public WindSecurityReflectiveMethodResolver(boolean useDistance, Set<String> packages) {
         super(useDistance);
-        this.packages = packages;
+        this.packages = Set.copyOf(packages);
     }
 
     @Override
     protected Method[] getMethods(Class<?> type) {
-        if (type.isEnum() || type.isArray() || type.isPrimitive()) {
-            return super.getMethods(type);
-        }
-        String name = type.getName();
-        AssertUtils.isTrue(packages.stream().anyMatch(name::startsWith), () -> "不允许调用 class name = " + type.getName() + " 的方法");
+        AssertUtils.isTrue(accessibleTypes.get(type), () -> "不允许调用 class name = " + type.getName() + " 的方法");
         return super.getMethods(type);
     }
 
@@ -81,11 +98,26 @@ public final class WindSecurityReflectiveMethodResolver extends ReflectiveMethod
         return result;
     }
 
+    /**
+     * 获取使用默认安全类名的共享 resolver，resolver 不可变且线程安全
+     *
+     * @return 共享的 resolver
+     */
+    public static WindSecurityReflectiveMethodResolver shared() {
+        WindSecurityReflectiveMethodResolver result;
+        while ((result = SHARED.get()) == null) {
+            SHARED.compareAndSet(null, new WindSecurityReflectiveMethodResolver());
+        }
+        return result;
+    }
+
     public static void addSafeClassNames(String... classNames) {
         SAFE_CLASSNAMES.addAll(Arrays.asList(classNames));
+        SHARED.set(null);
     }
 
     public static void removeSafeClassNames(String... classNames) {
         Arrays.asList(classNames).forEach(SAFE_CLASSNAMES::remove);
+        SHARED.set(null);
     }
 }
@@ -55,6 +55,37 @@ class ScriptAuditLogRecorderTest {
         Assertions.assertEquals(errorMessage, throwable.getMessage());
     }
 
+    @Test
+    void testMethodDescriptorCached() {
+        ScriptAuditLogRecorder.AuditLogMethodDescriptor descriptor = ScriptAuditLogRecorder.getMethodDescriptor(getUserMethod);
+        Assertions.assertSame(descriptor, ScriptAuditLogRecorder.getMethodDescriptor(getUserMethod));
+        Assertions.assertArrayEquals(new String[]{"name", "p1", "p2"}, descriptor.parameterNames());
+        Assertions.assertTrue(descriptor.hasRemark());
+        Assertions.assertTrue(descriptor.hasResourceId());
+        Method noneAuditMethod = ReflectionUtils.findMethod(ExampleService.class, "test");
+        Assertions.assertNotNull(noneAuditMethod);
+        Assertions.assertSame(ScriptAuditLogRecorder.AuditLogMethodDescriptor.NONE, ScriptAuditLogRecorder.getMethodDescriptor(noneAuditMethod));
+        Assertions.assertNull(logAspectRecorder.buildLogContent(new Object[]{}, null, noneAuditMethod, null));
+    }
+
+    @Test
+    void testBuildLogContentLatency() {
+        Object[] arguments = {"张三", "hhh", 22};
+        User user = exampleService.getUser("张三", "hhh", 22);
+        int times = 10000;
+        for (int i = 0; i < times; i++) {
+            logAspectRecorder.buildLogContent(arguments, user, getUserMethod, null);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            logAspectRecorder.buildLogContent(arguments, user, getUserMethod, null);
+        }
+        log.info("build audit log content {} times, cost = {}ns", times, System.nanoTime() - start);
+        AuditLogContent content = logAspectRecorder.buildLogContent(arguments, user, getUserMethod, null);
+        Assertions.assertNotNull(content);
+        Assertions.assertEquals("获取用户 张三，p1 = hhh , p2 = 22", content.getLog());
+    }
+
     static class SimpleScriptAuditLogRecorder extends ScriptAuditLogRecorder {
 
         private static final AtomicReference<AuditLogContent> AUDIT_LOG_CONTENT = new AtomicReference<>();
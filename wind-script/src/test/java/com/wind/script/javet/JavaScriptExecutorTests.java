@@ -1,8 +1,11 @@
 package com.wind.script.javet;
 
 import com.alibaba.fastjson2.JSON;
+import com.caoccao.javet.interop.V8Host;
+import com.caoccao.javet.interop.V8Runtime;
 import com.google.common.collect.ImmutableMap;
 import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,11 +19,13 @@ import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author wuxp
  * @date 2024-06-07 17:41
  **/
+@Slf4j
 class JavaScriptExecutorTests {
 
     @BeforeEach
@@ -206,4 +211,62 @@ class JavaScriptExecutorTests {
         String result = JavaScriptExecutor.executeFunctionUseClosure(functionCode);
         Assertions.assertEquals("1,2", result);
     }
+
+    @Test
+    void testGlobalScopeIsolation() {
+        JavaScriptExecutor.configure(V8RuntimePoolOptions.defaults());
+        try {
+            String functionCode = "function test(){const prev = globalThis.counter; globalThis.counter = 1; moment = null; return prev === undefined}";
+            for (int i = 0; i < 10; i++) {
+                Assertions.assertTrue(() -> JavaScriptExecutor.executeFunctionUseClosure(functionCode));
+                Assertions.assertEquals("2022-04-15", JavaScriptExecutor.executeFunctionUseClosure("function test(){return moment('2022-04-15').format('YYYY-MM-DD')}"));
+            }
+        } finally {
+            JavaScriptExecutor.configure((V8RuntimePoolOptions) null);
+        }
+    }
+
+    @Test
+    void testNativeArguments() {
+        UserDemo user = new UserDemo();
+        user.setName("张三");
+        user.setAge("22");
+        String functionCode = "function test(user,list,num,bigNum){return user.name + '_' + list.length + '_' + (num + 1) + '_' + (bigNum + 1)}";
+        String result = JavaScriptExecutor.executeFunctionUseClosure(functionCode, user, new int[]{1, 2, 3}, 1L, new java.math.BigDecimal("1.5"));
+        Assertions.assertEquals("张三_3_2_2.5", result);
+    }
+
+    @Test
+    void testColdVersusPooledExecution() throws Exception {
+        String functionCode = "function test(a,b){return moment('2022-04-15').add(a + b, 'days').format('YYYY-MM-DD')}";
+        int times = 50;
+        // 预热
+        JavaScriptExecutor.executeFunctionUseClosure(functionCode, 1, 2);
+        long start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            try (V8Runtime v8 = V8Host.getV8Instance().createV8Runtime()) {
+                v8.getExecutor(JavaScriptExecutor.POLYFILL_JS.get()).executeVoid();
+                for (String js : JavaScriptExecutor.JS_LIB_SCRIPTS) {
+                    v8.getExecutor(js).executeVoid();
+                }
+                Assertions.assertEquals("2022-04-18", v8.getExecutor("(" + functionCode + ")(1,2)").executeString());
+            }
+        }
+        long coldNanos = System.nanoTime() - start;
+        JavaScriptExecutor.configure(V8RuntimePoolOptions.defaults());
+        long pooledNanos;
+        try {
+            // 预热
+            JavaScriptExecutor.executeFunctionUseClosure(functionCode, 1, 2);
+            start = System.nanoTime();
+            for (int i = 0; i < times; i++) {
+                Assertions.assertEquals("2022-04-18", JavaScriptExecutor.executeFunctionUseClosure(functionCode, 1, 2));
+            }
+            pooledNanos = System.nanoTime() - start;
+        } finally {
+            JavaScriptExecutor.configure((V8RuntimePoolOptions) null);
+        }
+        log.info("cold execution avg = {}us, pooled execution avg = {}us", TimeUnit.NANOSECONDS.toMicros(coldNanos / times),
+                TimeUnit.NANOSECONDS.toMicros(pooledNanos / times));
+    }
 }
@@ -0,0 +1,124 @@
+package com.wind.script.javet;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * @author wuxp
+ * @date 2025-10-21 15:02
+ **/
+class V8FunctionCacheTests {
+
+    private static final List<String> FUNCTIONS = List.of(
+            "function test(a,b){return a + b}",
+            "function test(a,b){return {sum:a + b, text:`${a}-${b}`, list:[a,b]}}",
+            "function test(a,b){return moment('2022-04-15').add(a, 'days').format('YYYY-MM-DD')}",
+            "function test(a,b){return [1,2,3].includes(a) && b > 0}",
+            "function test(a,b){return a > b ? undefined : null}"
+    );
+
+    @TempDir
+    Path codeCacheDirectory;
+
+    private V8RuntimePool cachedPool;
+
+    private V8RuntimePool uncachedPool;
+
+    @BeforeEach
+    void setup() {
+        cachedPool = new V8RuntimePool(newOptions(2, codeCacheDirectory), JavaScriptExecutor.JS_LIB_SCRIPTS, () -> null);
+        uncachedPool = new V8RuntimePool(newOptions(0, null), JavaScriptExecutor.JS_LIB_SCRIPTS, () -> null);
+    }
+
+    @AfterEach
+    void after() {
+        cachedPool.close();
+        uncachedPool.close();
+    }
+
+    @Test
+    void testResultsWithCacheOnAndOff() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            List<Object> cached = executeAll(cachedPool, i);
+            List<Object> uncached = executeAll(uncachedPool, i);
+            Assertions.assertEquals(uncached, cached);
+        }
+        int cachedSize = cachedPool.execute((v8, functionCache) -> functionCache.size());
+        int uncachedSize = uncachedPool.execute((v8, functionCache) -> functionCache.size());
+        Assertions.assertEquals(2, cachedSize);
+        Assertions.assertEquals(0, uncachedSize);
+    }
+
+    @Test
+    void testPersistentCodeCache() throws Exception {
+        List<Object> expected = executeAll(cachedPool, 1);
+        try (Stream<Path> files = Files.list(codeCacheDirectory)) {
+            Assertions.assertEquals(FUNCTIONS.size(), files.filter(path -> path.toString().endsWith(".v8cache")).count());
+        }
+        // 新的运行时池（模拟新的进程）使用持久化的 code cache
+        try (V8RuntimePool pool = new V8RuntimePool(newOptions(2, codeCacheDirectory), JavaScriptExecutor.JS_LIB_SCRIPTS, () -> null)) {
+            Assertions.assertEquals(expected, executeAll(pool, 1));
+        }
+    }
+
+    @Test
+    void testRejectedCodeCache() throws Exception {
+        List<Object> expected = executeAll(uncachedPool, 1);
+        V8CodeCacheStore store = new V8CodeCacheStore(codeCacheDirectory);
+        byte[] rejected = {1, 2, 3};
+        for (String functionCode : FUNCTIONS) {
+            store.save(DigestUtils.sha256Hex(functionCode), rejected);
+        }
+        Assertions.assertEquals(expected, executeAll(cachedPool, 1));
+        // 被 V8 拒绝的缓存已被重新生成的缓存覆盖
+        V8CodeCacheStore reloaded = new V8CodeCacheStore(codeCacheDirectory);
+        for (String functionCode : FUNCTIONS) {
+            byte[] data = reloaded.load(DigestUtils.sha256Hex(functionCode));
+            Assertions.assertNotNull(data);
+            Assertions.assertFalse(Arrays.equals(rejected, data));
+        }
+    }
+
+    @Test
+    void testDamagedCodeCacheFile() throws Exception {
+        List<Object> expected = executeAll(cachedPool, 1);
+        try (Stream<Path> files = Files.list(codeCacheDirectory)) {
+            for (Path file : files.toList()) {
+                byte[] content = Files.readAllBytes(file);
+                content[content.length - 8] ^= 0x55;
+                Files.write(file, content);
+            }
+        }
+        // 损坏的文件校验失败后被删除，不会交给 V8 反序列化
+        V8CodeCacheStore store = new V8CodeCacheStore(codeCacheDirectory);
+        Assertions.assertNull(store.load(DigestUtils.sha256Hex(FUNCTIONS.getFirst())));
+        try (V8RuntimePool pool = new V8RuntimePool(newOptions(2, codeCacheDirectory), JavaScriptExecutor.JS_LIB_SCRIPTS, () -> null)) {
+            Assertions.assertEquals(expected, executeAll(pool, 1));
+        }
+        Assertions.assertNotNull(new V8CodeCacheStore(codeCacheDirectory).load(DigestUtils.sha256Hex(FUNCTIONS.getFirst())));
+    }
+
+    private static List<Object> executeAll(V8RuntimePool pool, int arg) throws Exception {
+        List<Object> result = new ArrayList<>();
+        for (String functionCode : FUNCTIONS) {
+            result.add(pool.execute((v8, functionCache) -> functionCache.call(functionCode, arg, 2)));
+        }
+        return result;
+    }
+
+    private static V8RuntimePoolOptions newOptions(int maxCachedFunctions, Path codeCacheDirectory) {
+        return new V8RuntimePoolOptions(1, 1000, 64 * 1024 * 1024L, Duration.ofSeconds(10), maxCachedFunctions, codeCacheDirectory);
+    }
+}
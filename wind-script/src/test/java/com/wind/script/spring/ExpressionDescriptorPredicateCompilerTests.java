@@ -0,0 +1,228 @@
+package com.wind.script.spring;
+
+import com.alibaba.fastjson2.JSON;
+import com.google.common.collect.ImmutableMap;
+import com.wind.script.expression.ExpressionDescriptor;
+import com.wind.script.expression.LogicalOp;
+import com.wind.script.expression.Op;
+import com.wind.script.expression.Operand;
+import com.wind.script.expression.OperandType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.ResourceUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * @author wuxp
+ * @date 2025-10-23 10:12
+ **/
+@Slf4j
+class ExpressionDescriptorPredicateCompilerTests {
+
+    private static final String[] STRING_VARIABLES = {"name", "env", "city", "user.name", "labels['level']", "labels['missing']"};
+
+    private static final String[] NUMBER_VARIABLES = {"age", "score", "user.age"};
+
+    private static final String[] STRING_CONSTANTS = {"张三", "dev", "sit", "杭州", "上海", "gold"};
+
+    private final ExpressionParser expressionParser = new SpelExpressionParser();
+
+    @Test
+    void testCompileConditionalNodes() throws Exception {
+        ExpressionDescriptor descriptor = loadConditionalNodes();
+        Predicate<Object> predicate = ExpressionDescriptorPredicateCompiler.compile(descriptor);
+        Map<String, Object> variables = mockVariables();
+        Assertions.assertTrue(predicate.test(variables));
+        variables.put("name", "李四");
+        Assertions.assertFalse(predicate.test(variables));
+        variables.put("name", "张三");
+        variables.put("age", 50);
+        variables.put("city", "上海");
+        Assertions.assertTrue(predicate.test(variables));
+        variables.put("city", "北京");
+        variables.put("tags", ImmutableMap.of("example", "demo"));
+        Assertions.assertFalse(predicate.test(variables));
+    }
+
+    @Test
+    void testEquivalenceWithSpringExpression() {
+        Random random = new Random(20251023L);
+        List<Map<String, Object>> variablesList = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            variablesList.add(mockRandomVariables(random));
+        }
+        for (int i = 0; i < 2000; i++) {
+            ExpressionDescriptor descriptor = mockRandomNode(random, 3);
+            String spel = SpringExpressionGenerator.generate(descriptor);
+            Expression expression = expressionParser.parseExpression(spel);
+            Predicate<Object> predicate = ExpressionDescriptorPredicateCompiler.compile(descriptor);
+            for (Map<String, Object> variables : variablesList) {
+                StandardEvaluationContext context = new StandardEvaluationContext();
+                context.setVariables(variables);
+                String expected = evalQuietly(() -> expression.getValue(context, Boolean.class));
+                Assertions.assertEquals(expected, evalQuietly(() -> predicate.test(variables)), spel);
+                Assertions.assertEquals(expected, evalQuietly(() -> predicate.test(context)), spel);
+            }
+        }
+    }
+
+    @Test
+    void testVariablePathFallback() {
+        ExpressionDescriptor descriptor = new ExpressionDescriptor();
+        descriptor.setLeft(new Operand("name?.length()", OperandType.VARIABLE));
+        descriptor.setOp(Op.GET);
+        descriptor.setRight(Operand.ofConst(2));
+        Predicate<Object> predicate = ExpressionDescriptorPredicateCompiler.compile(descriptor);
+        Assertions.assertTrue(predicate.test(ImmutableMap.of("name", "张三")));
+        Assertions.assertFalse(predicate.test(ImmutableMap.of("name", "张")));
+    }
+
+    @Test
+    void testCompiledVersusSpringExpressionLatency() throws Exception {
+        ExpressionDescriptor descriptor = loadConditionalNodes();
+        Map<String, Object> variables = mockVariables();
+        Predicate<Object> predicate = ExpressionDescriptorPredicateCompiler.compile(descriptor);
+        String spel = SpringExpressionGenerator.generate(descriptor);
+        int times = 20000;
+        for (int i = 0; i < times; i++) {
+            predicate.test(variables);
+            SpringExpressionEvaluator.DEFAULT.eval(spel, variables, Boolean.class);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            Assertions.assertTrue(SpringExpressionEvaluator.DEFAULT.eval(spel, variables, Boolean.class));
+        }
+        long spelCost = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            Assertions.assertTrue(predicate.test(variables));
+        }
+        long compiledCost = System.nanoTime() - start;
+        log.info("evaluate {} times, spring expression cost = {}ns, compiled predicate cost = {}ns", times, spelCost, compiledCost);
+    }
+
+    private ExpressionDescriptor loadConditionalNodes() throws Exception {
+        String json = IOUtils.toString(Files.newInputStream(Paths.get(ResourceUtils.getURL("classpath:conditional-nodes.json").toURI())), StandardCharsets.UTF_8);
+        return JSON.parseObject(json, ExpressionDescriptor.class);
+    }
+
+    private Map<String, Object> mockVariables() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("tags", ImmutableMap.of("example", "example"));
+        result.put("city", "北京");
+        result.put("age", 26);
+        result.put("env", "dev");
+        result.put("name", "张三");
+        return result;
+    }
+
+    private Map<String, Object> mockRandomVariables(Random random) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("name", randomOf(random, STRING_CONSTANTS));
+        result.put("env", randomOf(random, STRING_CONSTANTS));
+        result.put("city", randomOf(random, STRING_CONSTANTS));
+        result.put("age", random.nextInt(60));
+        result.put("score", random.nextInt(1000) / 10.0);
+        result.put("tags", List.of(randomOf(random, STRING_CONSTANTS), randomOf(random, STRING_CONSTANTS)));
+        result.put("labels", ImmutableMap.of("level", randomOf(random, STRING_CONSTANTS)));
+        result.put("user", new ExampleUser(randomOf(random, STRING_CONSTANTS), (long) random.nextInt(60)));
+        if (random.nextInt(4) == 0) {
+            result.remove("env");
+        }
+        return result;
+    }
+
+    private ExpressionDescriptor mockRandomNode(Random random, int depth) {
+        ExpressionDescriptor result = mockRandomCondition(random);
+        int size = depth > 0 ? random.nextInt(4) : 0;
+        if (size > 0) {
+            result.setConjunctions(random.nextBoolean() ? LogicalOp.AND : LogicalOp.OR);
+            List<ExpressionDescriptor> children = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                children.add(mockRandomNode(random, depth - 1));
+            }
+            result.setChildren(children);
+        }
+        return result;
+    }
+
+    private ExpressionDescriptor mockRandomCondition(Random random) {
+        ExpressionDescriptor result = new ExpressionDescriptor();
+        switch (random.nextInt(6)) {
+            case 0 -> {
+                result.setOp(random.nextBoolean() ? Op.EQ : Op.NOT_EQ);
+                result.setLeft(variable(randomOf(random, STRING_VARIABLES)));
+                result.setRight(Operand.ofConst(randomOf(random, STRING_CONSTANTS)));
+            }
+            case 1 -> {
+                result.setOp(randomOf(random, new Op[]{Op.EQ, Op.NOT_EQ, Op.GE, Op.LE, Op.GET, Op.LET}));
+                result.setLeft(variable(randomOf(random, NUMBER_VARIABLES)));
+                result.setRight(Operand.ofConst(random.nextBoolean() ? (Object) random.nextInt(60) : random.nextInt(600) / 10.0));
+            }
+            case 2 -> {
+                result.setOp(random.nextBoolean() ? Op.IS_NULL : Op.NOT_NULL);
+                result.setLeft(variable(random.nextBoolean() ? "env" : randomOf(random, STRING_VARIABLES)));
+            }
+            case 3 -> {
+                result.setOp(random.nextBoolean() ? Op.CONTAINS : Op.NOT_CONTAINS);
+                result.setLeft(Operand.ofConst(new String[]{randomOf(random, STRING_CONSTANTS), randomOf(random, STRING_CONSTANTS)}));
+                result.setRight(variable(random.nextBoolean() ? "city" : "env"));
+            }
+            case 4 -> {
+                result.setOp(random.nextBoolean() ? Op.CONTAINS : Op.NOT_CONTAINS);
+                result.setLeft(variable("tags"));
+                result.setRight(Operand.ofConst(randomOf(random, STRING_CONSTANTS)));
+            }
+            default -> {
+                result.setOp(random.nextBoolean() ? Op.IN_RANG : Op.NOT_IN_RANG);
+                result.setLeft(variable(random.nextBoolean() ? "age" : "user.age"));
+                int min = random.nextInt(40);
+                result.setRight(Operand.ofConst(new Integer[]{min, min + random.nextInt(30)}));
+            }
+        }
+        return result;
+    }
+
+    private static Operand variable(String name) {
+        return new Operand(name, OperandType.VARIABLE);
+    }
+
+    private static <T> T randomOf(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String evalQuietly(Supplier<Boolean> supplier) {
+        try {
+            return String.valueOf(supplier.get());
+        } catch (RuntimeException exception) {
+            return "error";
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ExampleUser {
+
+        private String name;
+
+        private Long age;
+    }
+}
@@ -2,16 +2,20 @@ package com.wind.script.spring;
 
 import com.google.common.collect.ImmutableMap;
 import com.wind.common.exception.BaseException;
+import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
+import java.lang.management.ManagementFactory;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+@Slf4j
 class SpringExpressionEvaluatorTests {
 
     @Test
@@ -80,10 +84,176 @@ class SpringExpressionEvaluatorTests {
         SpringExpressionEvaluator.setSecurityMode(true);
     }
 
+    @Test
+    void testEvalWithRootObject() {
+        Map<String, Object> variables = ImmutableMap.of("prefix", "p_");
+        Assertions.assertEquals("p_ABC", SpringExpressionEvaluator.DEFAULT.eval("#prefix + toUpperCase()", "abc", variables, String.class));
+        // 变量赋值不会修改传入的变量
+        Assertions.assertEquals("b", SpringExpressionEvaluator.DEFAULT.eval("#prefix = 'b'", null, variables, String.class));
+        Assertions.assertEquals("p_", variables.get("prefix"));
+        Assertions.assertThrows(BaseException.class, () -> SpringExpressionEvaluator.DEFAULT.eval("render('a')", new ExampleObject(), variables, String.class));
+    }
+
+    @Test
+    void testSafeClassNamesChanged() {
+        String expression = "render('a')";
+        Assertions.assertThrows(BaseException.class, () -> SpringExpressionEvaluator.DEFAULT.eval(expression, new ExampleObject(), Map.of(), String.class));
+        WindSecurityReflectiveMethodResolver.addSafeClassNames(ExampleObject.class.getName());
+        try {
+            Assertions.assertEquals("render_funcs_a", SpringExpressionEvaluator.DEFAULT.eval(expression, new ExampleObject(), Map.of(), String.class));
+        } finally {
+            WindSecurityReflectiveMethodResolver.removeSafeClassNames(ExampleObject.class.getName());
+        }
+        Assertions.assertThrows(BaseException.class, () -> SpringExpressionEvaluator.DEFAULT.eval(expression, new ExampleObject(), Map.of(), String.class));
+    }
+
+    @Test
+    void testSecurityModeChanged() {
+        String expression = "render('mode')";
+        SpringExpressionEvaluator.setSecurityMode(false);
+        try {
+            Assertions.assertEquals("render_funcs_mode", SpringExpressionEvaluator.DEFAULT.eval(expression, new ExampleObject(), Map.of(), String.class));
+        } finally {
+            SpringExpressionEvaluator.setSecurityMode(true);
+        }
+        // 非安全模式下缓存的表达式不能绕过安全检查
+        Assertions.assertThrows(BaseException.class, () -> SpringExpressionEvaluator.DEFAULT.eval(expression, new ExampleObject(), Map.of(), String.class));
+    }
+
+    @Test
+    void testEvaluationContextAllocation() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<String, Object> variables = ImmutableMap.of("a", 1, "b", "text");
+        String expression = "#b.length() + #a";
+        int times = 20000;
+        for (int i = 0; i < times; i++) {
+            // 预热
+            evalUseStandardContext(expression, variables);
+            SpringExpressionEvaluator.DEFAULT.eval(expression, variables);
+        }
+        long threadId = Thread.currentThread().threadId();
+        long start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < times; i++) {
+            evalUseStandardContext(expression, variables);
+        }
+        long standardBytes = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+        start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < times; i++) {
+            SpringExpressionEvaluator.DEFAULT.eval(expression, variables);
+        }
+        long templateBytes = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+        log.info("standard context allocation = {} bytes/op, template context allocation = {} bytes/op", standardBytes / times, templateBytes / times);
+    }
+
+    @Test
+    void testCompiledMode() {
+        SpringExpressionEvaluator.setCompilerMode(SpelCompilerMode.MIXED);
+        SpringExpressionEvaluator.setCompileThreshold(5);
+        try {
+            String expression = "value * 2 + 1";
+            for (int i = 0; i < 10; i++) {
+                Assertions.assertEquals(i * 2 + 1, SpringExpressionEvaluator.DEFAULT.eval(expression, new PriceA(i), Map.of(), Integer.class));
+            }
+            Assertions.assertEquals(CompilableExpression.CompilationState.COMPILED, SpringExpressionEvaluator.getCompilationState(expression));
+            // 运行时类型变化，回退到解释执行
+            Assertions.assertEquals(7, SpringExpressionEvaluator.DEFAULT.eval(expression, new PriceB(3), Map.of(), Integer.class));
+            Assertions.assertEquals(CompilableExpression.CompilationState.INTERPRETED, SpringExpressionEvaluator.getCompilationState(expression));
+            for (int i = 0; i < 10; i++) {
+                Assertions.assertEquals(i * 2 + 1, SpringExpressionEvaluator.DEFAULT.eval(expression, new PriceB(i), Map.of(), Integer.class));
+            }
+            Assertions.assertEquals(CompilableExpression.CompilationState.COMPILED, SpringExpressionEvaluator.getCompilationState(expression));
+        } finally {
+            SpringExpressionEvaluator.setCompilerMode(SpelCompilerMode.OFF);
+        }
+    }
+
+    @Test
+    void testCompiledModeKeepSecurity() {
+        SpringExpressionEvaluator.setCompilerMode(SpelCompilerMode.MIXED);
+        SpringExpressionEvaluator.setCompileThreshold(2);
+        String expression = "render('compiled')";
+        try {
+            WindSecurityReflectiveMethodResolver.addSafeClassNames(ExampleObject.class.getName());
+            for (int i = 0; i < 5; i++) {
+                Assertions.assertEquals("render_funcs_compiled", SpringExpressionEvaluator.DEFAULT.eval(expression, new ExampleObject(), Map.of(), String.class));
+            }
+            WindSecurityReflectiveMethodResolver.removeSafeClassNames(ExampleObject.class.getName());
+            Assertions.assertThrows(BaseException.class, () -> SpringExpressionEvaluator.DEFAULT.eval(expression, new ExampleObject(), Map.of(), String.class));
+            Assertions.assertThrows(BaseException.class, () -> SpringExpressionEvaluator.DEFAULT.eval("T(java.lang.Runtime).getRuntime()"));
+        } finally {
+            WindSecurityReflectiveMethodResolver.removeSafeClassNames(ExampleObject.class.getName());
+            SpringExpressionEvaluator.setCompilerMode(SpelCompilerMode.OFF);
+        }
+    }
+
+    @Test
+    void testInterpretedVersusCompiledLatency() {
+        String expression = "value * 3 + value / 2 - 7";
+        int times = 200000;
+        PriceA root = new PriceA(42);
+        long interpretedNanos = benchmark(expression, root, times);
+        SpringExpressionEvaluator.setCompilerMode(SpelCompilerMode.MIXED);
+        SpringExpressionEvaluator.setCompileThreshold(1);
+        try {
+            long compiledNanos = benchmark(expression, root, times);
+            Assertions.assertEquals(CompilableExpression.CompilationState.COMPILED, SpringExpressionEvaluator.getCompilationState(expression));
+            log.info("interpreted avg = {}ns, compiled avg = {}ns", interpretedNanos / times, compiledNanos / times);
+        } finally {
+            SpringExpressionEvaluator.setCompilerMode(SpelCompilerMode.OFF);
+        }
+    }
+
+    private static long benchmark(String expression, Object root, int times) {
+        for (int i = 0; i < times; i++) {
+            // 预热
+            SpringExpressionEvaluator.DEFAULT.eval(expression, root, Map.of(), Integer.class);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            SpringExpressionEvaluator.DEFAULT.eval(expression, root, Map.of(), Integer.class);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static Object evalUseStandardContext(String expression, Map<String, Object> variables) {
+        // 优化前的执行方式
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        variables.forEach(context::setVariable);
+        context.getMethodResolvers().clear();
+        context.getMethodResolvers().add(new WindSecurityReflectiveMethodResolver());
+        return SpringExpressionEvaluator.DEFAULT.eval(expression, context);
+    }
+
     public static class ExampleObject {
 
         public String render(String text) {
             return "render_funcs_" + text;
         }
     }
-}
\ No newline at end of file
+
+    public static class PriceA {
+
+        private final int value;
+
+        public PriceA(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+
+    public static class PriceB {
+
+        private final int value;
+
+        public PriceB(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+}
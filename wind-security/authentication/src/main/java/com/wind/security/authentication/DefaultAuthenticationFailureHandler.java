@@ -1,8 +1,8 @@
 package com.wind.security.authentication;
 
 
+import com.wind.common.exception.DefaultExceptionCode;
 import com.wind.common.i18n.SpringI18nMessageUtils;
-import com.wind.server.web.restful.RestfulApiRespFactory;
 import com.wind.web.util.HttpResponseMessageUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -29,15 +29,15 @@ public class DefaultAuthenticationFailureHandler implements AuthenticationFailur
     @Override
     public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response, AuthenticationException exception) {
         log.warn("authentication error", exception);
-        response.setStatus(HttpStatus.UNAUTHORIZED.value());
-        HttpResponseMessageUtils.writeJson(response, RestfulApiRespFactory.unAuthorized(SpringI18nMessageUtils.getMessage("未登录或登录已失效")));
+        HttpResponseMessageUtils.writeStaticApiResp(response, HttpStatus.UNAUTHORIZED, DefaultExceptionCode.UNAUTHORIZED,
+                SpringI18nMessageUtils.getMessage("未登录或登录已失效"));
     }
 
     @Override
     public void handle(HttpServletRequest request, HttpServletResponse response, AccessDeniedException exception) {
         log.warn("access denied exception", exception);
-        response.setStatus(HttpStatus.FORBIDDEN.value());
-        HttpResponseMessageUtils.writeJson(response, RestfulApiRespFactory.unAuthorized(SpringI18nMessageUtils.getMessage("您没有访问该资源的权限")));
+        HttpResponseMessageUtils.writeStaticApiResp(response, HttpStatus.FORBIDDEN, DefaultExceptionCode.UNAUTHORIZED,
+                SpringI18nMessageUtils.getMessage("您没有访问该资源的权限"));
     }
 
     @Override
@@ -1,18 +1,32 @@
 package com.wind.sentinel;
 
 import com.alibaba.csp.sentinel.datasource.AbstractDataSource;
+import com.alibaba.csp.sentinel.slots.block.AbstractRule;
 import com.alibaba.fastjson2.JSON;
+import com.wind.common.annotations.VisibleForTesting;
+import com.wind.common.exception.BaseException;
 import com.wind.configcenter.core.ConfigRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 基于配置中心的规则配置数据源，支持从多个配置加载限流规则，并合并
+ * 1：每个配置按内容摘要缓存解析后的规则，重复的变更通知不会重新解析
+ * 2：按资源对比新旧规则，没有变化时不更新规则，有变化时全量更新规则
  *
  * @author wuxp
  * @date 2024-03-12 10:04
@@ -26,8 +40,18 @@ public class ConfigCenterSentinelDataSource<T> extends AbstractDataSource<String
 
     private final Map<ConfigRepository.ConfigDescriptor, ConfigRepository.ConfigSubscription> subscriptions = new ConcurrentHashMap<>();
 
+    /**
+     * 每个配置解析后的规则
+     */
+    private final Map<ConfigRepository.ConfigDescriptor, ParsedRules<T>> parsedRules = new ConcurrentHashMap<>();
+
     private final Class<T> configType;
 
+    /**
+     * 当前生效的规则，按资源分组
+     */
+    private volatile Map<String, List<T>> currentRules = Collections.emptyMap();
+
     public ConfigCenterSentinelDataSource(ConfigRepository configRepository, ConfigRepository.ConfigDescriptor descriptor, Class<T> configType) {
         this(configRepository, Collections.singletonList(descriptor), configType);
     }
@@ -39,10 +63,8 @@ public class ConfigCenterSentinelDataSource<T> extends AbstractDataSource<String
         this.configType = configType;
         this.descriptors = descriptors;
         for (ConfigRepository.ConfigDescriptor descriptor : descriptors) {
-            ConfigRepository.ConfigSubscription subscription = configRepository.onChange(descriptor, (ConfigRepository.TextConfigListener) config -> {
-                // 有配置发生变更，重新加载所有的配置
-                loadAllConfig();
-            });
+            ConfigRepository.ConfigSubscription subscription = configRepository.onChange(descriptor,
+                    (ConfigRepository.TextConfigListener) config -> onConfigChange(descriptor, config));
             subscriptions.put(descriptor, subscription);
         }
         SentinelRuleListenRegister.registerListen(configType, this);
@@ -52,11 +74,19 @@ public class ConfigCenterSentinelDataSource<T> extends AbstractDataSource<String
 
     @Override
     public String readSource() throws Exception {
+        return JSON.toJSONString(loadConfig());
+    }
+
+    /**
+     * 直接合并各配置缓存的规则，避免规则对象和 json 之间的来回转换
+     */
+    @Override
+    public List<T> loadConfig() {
         List<T> result = new ArrayList<>();
-        descriptors.stream().map(configRepository::getTextConfig)
-                .map(text -> JSON.parseArray(text, this.configType))
-                .forEach(result::addAll);
-        return JSON.toJSONString(result);
+        for (ConfigRepository.ConfigDescriptor descriptor : descriptors) {
+            result.addAll(getRules(descriptor, null));
+        }
+        return result;
     }
 
     @Override
@@ -64,7 +94,32 @@ public class ConfigCenterSentinelDataSource<T> extends AbstractDataSource<String
         subscriptions.values().forEach(ConfigRepository.ConfigSubscription::unsubscribe);
     }
 
-    private void loadAllConfig() {
+    private synchronized void onConfigChange(ConfigRepository.ConfigDescriptor descriptor, String config) {
+        try {
+            ParsedRules<T> previous = parsedRules.get(descriptor);
+            if (previous != null && previous.rules() == getRules(descriptor, config)) {
+                log.debug("sentinel config content not changed, config id = {}", descriptor.getConfigId());
+                return;
+            }
+            updateConfig(mergeCachedRules());
+        } catch (Exception exception) {
+            log.error("load sentinel config exception, config id = {}", descriptor.getConfigId(), exception);
+        }
+    }
+
+    /**
+     * 合并各配置缓存的规则，只有没有缓存的配置才会从配置中心获取
+     */
+    private List<T> mergeCachedRules() {
+        List<T> result = new ArrayList<>();
+        for (ConfigRepository.ConfigDescriptor descriptor : descriptors) {
+            ParsedRules<T> cached = parsedRules.get(descriptor);
+            result.addAll(cached == null ? getRules(descriptor, null) : cached.rules());
+        }
+        return result;
+    }
+
+    private synchronized void loadAllConfig() {
         try {
             updateConfig(loadConfig());
         } catch (Exception exception) {
@@ -72,11 +127,89 @@ public class ConfigCenterSentinelDataSource<T> extends AbstractDataSource<String
         }
     }
 
+    /**
+     * 获取配置的规则，配置内容未变化时使用缓存的解析结果
+     *
+     * @param descriptor 配置描述
+     * @param config     配置内容，为空则从配置中心获取
+     * @return 规则列表
+     */
+    private List<T> getRules(ConfigRepository.ConfigDescriptor descriptor, @Nullable String config) {
+        String text = config == null ? configRepository.getTextConfig(descriptor) : config;
+        String contentHash = sha256Hex(text);
+        ParsedRules<T> result = parsedRules.get(descriptor);
+        if (result == null || !Objects.equals(result.contentHash(), contentHash)) {
+            List<T> rules = JSON.parseArray(text, configType);
+            result = new ParsedRules<>(contentHash, rules == null ? Collections.emptyList() : Collections.unmodifiableList(rules));
+            parsedRules.put(descriptor, result);
+        }
+        return result.rules();
+    }
+
     private void updateConfig(List<T> newValue) {
         if (newValue == null) {
             log.warn("sentinel config is null, no be update");
             return;
         }
+        Map<String, List<T>> previous = currentRules;
+        Map<String, List<T>> next = groupByResource(newValue);
+        Set<String> changedResources = diffResources(previous, next);
+        if (changedResources.isEmpty() && !previous.isEmpty()) {
+            log.debug("sentinel rules not changed, type = {}", configType.getName());
+            return;
+        }
+        currentRules = next;
+        log.info("update sentinel rules, type = {}, changed resources = {}", configType.getName(), changedResources);
         getProperty().updateValue(newValue);
     }
+
+    @VisibleForTesting
+    static <T> Map<String, List<T>> groupByResource(List<T> rules) {
+        Map<String, List<T>> result = new LinkedHashMap<>();
+        for (T rule : rules) {
+            result.computeIfAbsent(getResource(rule), k -> new ArrayList<>()).add(rule);
+        }
+        return result;
+    }
+
+    /**
+     * 按资源对比规则（规则使用 {@link Object#equals(Object)} 判断是否一致）
+     *
+     * @param previous 原有规则
+     * @param next     新的规则
+     * @return 新增、删除或规则发生变更的资源
+     */
+    @VisibleForTesting
+    static <T> Set<String> diffResources(Map<String, List<T>> previous, Map<String, List<T>> next) {
+        Set<String> result = new LinkedHashSet<>();
+        next.forEach((resource, rules) -> {
+            if (!Objects.equals(previous.get(resource), rules)) {
+                result.add(resource);
+            }
+        });
+        previous.keySet().stream().filter(resource -> !next.containsKey(resource)).forEach(result::add);
+        return result;
+    }
+
+    private static String getResource(Object rule) {
+        return rule instanceof AbstractRule abstractRule ? String.valueOf(abstractRule.getResource()) : String.valueOf(rule);
+    }
+
+    static String sha256Hex(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException exception) {
+            throw BaseException.common("unsupported digest algorithm: SHA-256");
+        }
+    }
+
+    /**
+     * 解析后的规则
+     *
+     * @param contentHash 配置内容摘要
+     * @param rules       规则列表
+     */
+    private record ParsedRules<T>(String contentHash, List<T> rules) {
+    }
 }
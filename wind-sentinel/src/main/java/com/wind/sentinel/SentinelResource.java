@@ -2,7 +2,10 @@ package com.wind.sentinel;
 
 import com.alibaba.csp.sentinel.EntryType;
 import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.util.ObjectUtils;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -53,4 +56,15 @@ public interface SentinelResource {
     default Iterable<Tag> getMetricsTags() {
         return Collections.emptyList();
     }
+
+    /**
+     * @return 进入资源时使用的参数，指标标签作为最后一个参数
+     */
+    default Object[] getEntryArgs() {
+        List<Object> result = new ArrayList<>(getArgs());
+        if (!ObjectUtils.isEmpty(getMetricsTags())) {
+            result.add(Tags.of(getMetricsTags()));
+        }
+        return result.toArray(new Object[0]);
+    }
 }
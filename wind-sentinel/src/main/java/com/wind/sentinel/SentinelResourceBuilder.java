@@ -76,7 +76,7 @@ public final class SentinelResourceBuilder {
             return this;
         }
 
-        public SentinelResource build() {
+        public SentinelResourceDescriptor build() {
             DefaultSentinelResource result = new DefaultSentinelResource();
             result.setName(urlPattern);
             result.setResourceType(SentinelResourcesType.HTTP_API.getCode());
@@ -84,7 +84,7 @@ public final class SentinelResourceBuilder {
             result.setOrigin(appName);
             result.setContextName(ServiceInfoUtils.getApplicationName());
             result.setMetricsTags(metricsTags);
-            return result;
+            return SentinelResourceDescriptor.of(result);
         }
     }
 
@@ -128,7 +128,7 @@ public final class SentinelResourceBuilder {
             return this;
         }
 
-        public SentinelResource build() {
+        public SentinelResourceDescriptor build() {
             DefaultSentinelResource result = new DefaultSentinelResource();
             String name = Stream.of(groupName, topic, tag).filter(StringUtils::hasText).collect(Collectors.joining(WindConstants.COLON));
             result.setName(String.format("%s@%s", SentinelResourcesType.ROCKETMQ_CONSUMER.getTypeName(), name));
@@ -137,7 +137,7 @@ public final class SentinelResourceBuilder {
             result.setOrigin(topic);
             result.setContextName(ServiceInfoUtils.getApplicationName());
             result.setMetricsTags(metricsTags);
-            return result;
+            return SentinelResourceDescriptor.of(result);
         }
     }
 }
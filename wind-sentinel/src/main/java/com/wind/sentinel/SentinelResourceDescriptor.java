@@ -0,0 +1,90 @@
+package com.wind.sentinel;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.wind.common.exception.AssertUtils;
+import io.micrometer.core.instrument.Tags;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 不可变的 sentinel 资源描述，创建时预先计算好资源名称、上下文以及进入资源的参数，可以在多次请求之间复用
+ * 需要绑定每次请求的参数时使用 {@link #bindArgs(Object...)}，只会创建新的参数数组
+ *
+ * @author wuxp
+ * @date 2025-10-24 18:00
+ **/
+@Getter
+public final class SentinelResourceDescriptor implements SentinelResource {
+
+    private final String name;
+
+    private final EntryType entryType;
+
+    private final int resourceType;
+
+    private final String contextName;
+
+    private final String origin;
+
+    private final Tags metricsTags;
+
+    private final List<Object> args;
+
+    /**
+     * 进入资源时使用的参数（资源参数 + 指标标签）
+     */
+    private final Object[] entryArgs;
+
+    private SentinelResourceDescriptor(SentinelResource resource, Tags metricsTags, List<Object> args) {
+        this.name = resource.getName();
+        this.entryType = resource.getEntryType();
+        this.resourceType = resource.getResourceType();
+        this.contextName = resource.getContextName();
+        this.origin = resource.getOrigin();
+        this.metricsTags = metricsTags;
+        this.args = args;
+        this.entryArgs = buildEntryArgs(args, metricsTags);
+    }
+
+    /**
+     * @param resource 资源
+     * @return 资源描述，资源已经是资源描述时直接返回
+     */
+    public static SentinelResourceDescriptor of(SentinelResource resource) {
+        AssertUtils.notNull(resource, "argument resource must not null");
+        if (resource instanceof SentinelResourceDescriptor descriptor) {
+            return descriptor;
+        }
+        List<Object> args = resource.getArgs();
+        return new SentinelResourceDescriptor(resource, Tags.of(resource.getMetricsTags()),
+                args == null || args.isEmpty() ? Collections.emptyList() : List.copyOf(args));
+    }
+
+    /**
+     * 绑定每次请求的参数，替换当前资源描述的参数，其它属性和当前资源描述共享
+     *
+     * @param args 资源参数，为空时表示不带参数
+     * @return 绑定了参数的资源描述
+     */
+    public SentinelResourceDescriptor bindArgs(Object... args) {
+        if (args == null || args.length == 0) {
+            return this.args.isEmpty() ? this : new SentinelResourceDescriptor(this, metricsTags, Collections.emptyList());
+        }
+        return new SentinelResourceDescriptor(this, metricsTags, Collections.unmodifiableList(Arrays.asList(args)));
+    }
+
+    private static Object[] buildEntryArgs(List<Object> args, Tags metricsTags) {
+        boolean hasTags = metricsTags.iterator().hasNext();
+        Object[] result = new Object[args.size() + (hasTags ? 1 : 0)];
+        for (int i = 0; i < args.size(); i++) {
+            result[i] = args.get(i);
+        }
+        if (hasTags) {
+            result[args.size()] = metricsTags;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,33 @@
+package com.wind.sentinel;
+
+import org.springframework.lang.Nullable;
+
+import java.util.function.Supplier;
+
+/**
+ * sentinel 规则存储，例如：数据库、文件
+ *
+ * @author wuxp
+ * @date 2025-10-24 09:30
+ **/
+public interface SentinelRuleStorage {
+
+    /**
+     * @return 规则配置内容（json 数组）
+     */
+    String getContent();
+
+    /**
+     * 获取规则配置的版本，例如：最后修改时间、ETag，版本未变化时不会读取配置内容
+     *
+     * @return 规则配置版本，返回 null 表示不支持，每次都读取配置内容并通过内容摘要判断是否变化
+     */
+    @Nullable
+    default String getVersion() {
+        return null;
+    }
+
+    static SentinelRuleStorage of(Supplier<String> contentSupplier) {
+        return contentSupplier::get;
+    }
+}
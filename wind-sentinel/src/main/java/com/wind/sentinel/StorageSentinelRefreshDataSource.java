@@ -7,13 +7,21 @@ import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
 import com.alibaba.csp.sentinel.slots.system.SystemRule;
 import com.alibaba.fastjson2.JSON;
+import com.wind.common.annotations.VisibleForTesting;
+import com.wind.common.exception.AssertUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 /**
  * 基于存储的数据源，例如：数据库
+ * 1：定时轮询存储，存储支持版本（最后修改时间、ETag）时版本未变化则不读取内容，否则通过内容摘要判断是否变化，未变化时不解析规则
+ * 2：自适应轮询间隔，存储没有变化时轮询间隔逐步翻倍直到 maxRefreshMs，规则发生变更后轮询间隔恢复到 minRefreshMs
+ * 注意：定时任务由 {@link AutoRefreshDataSource} 按照 minRefreshMs 调度，轮询间隔为 minRefreshMs 的倍数，未到轮询间隔的调度在 {@link #isModified()} 中直接跳过
  * 参见：https://github.com/alibaba/Sentinel/wiki/%E5%8A%A8%E6%80%81%E8%A7%84%E5%88%99%E6%89%A9%E5%B1%95
  *
  * @author wuxp
@@ -22,15 +30,70 @@ import java.util.function.Supplier;
 @Slf4j
 public class StorageSentinelRefreshDataSource<T> extends AutoRefreshDataSource<String, List<T>> {
 
-    private final Supplier<String> configRepository;
+    private final SentinelRuleStorage storage;
+
+    private final long minRefreshMs;
+
+    private final long maxRefreshMs;
+
+    /**
+     * 当前的轮询间隔
+     */
+    private final AtomicLong refreshIntervalMs;
+
+    /**
+     * 距离下一次轮询存储还需要跳过的调度次数，只在定时任务线程中读写
+     */
+    private long skipTimes = 0;
+
+    /**
+     * 是否已完成初始化，父类在构造时就启动了定时任务，初始化完成前跳过
+     */
+    private volatile boolean initialized = false;
+
+    private volatile String lastVersion;
+
+    private volatile String lastContentHash;
+
+    /**
+     * {@link #isModified()} 检测到变化时解析的规则，由定时任务通过 {@link #loadConfig()} 获取后更新
+     */
+    @Nullable
+    private volatile List<T> changedRules;
+
+    /**
+     * 解析规则的次数
+     */
+    private final AtomicLong parseTimes = new AtomicLong();
 
     public StorageSentinelRefreshDataSource(Supplier<String> configRepository, Class<T> configType) {
         this(configRepository, configType, 5 * 60 * 1000L);
     }
 
+    /**
+     * 固定轮询间隔
+     *
+     * @param configRepository   规则配置提供者
+     * @param configType         规则类型
+     * @param recommendRefreshMs 轮询间隔
+     */
     public StorageSentinelRefreshDataSource(Supplier<String> configRepository, Class<T> configType, long recommendRefreshMs) {
-        super(source -> JSON.parseArray(source, configType), recommendRefreshMs);
-        this.configRepository = configRepository;
+        this(SentinelRuleStorage.of(configRepository), configType, recommendRefreshMs, recommendRefreshMs);
+    }
+
+    /**
+     * @param storage      规则存储
+     * @param configType   规则类型
+     * @param minRefreshMs 最小轮询间隔，规则变更后使用
+     * @param maxRefreshMs 最大轮询间隔，存储持续没有变化时退避到该间隔
+     */
+    public StorageSentinelRefreshDataSource(SentinelRuleStorage storage, Class<T> configType, long minRefreshMs, long maxRefreshMs) {
+        super(source -> JSON.parseArray(source, configType), minRefreshMs);
+        AssertUtils.isTrue(maxRefreshMs >= minRefreshMs, "refresh interval maxRefreshMs must ge minRefreshMs");
+        this.storage = storage;
+        this.minRefreshMs = minRefreshMs;
+        this.maxRefreshMs = maxRefreshMs;
+        this.refreshIntervalMs = new AtomicLong(minRefreshMs);
         SentinelRuleListenRegister.registerListen(configType, this);
         initConfig();
     }
@@ -57,19 +120,89 @@ public class StorageSentinelRefreshDataSource<T> extends AutoRefreshDataSource<S
 
     @Override
     public String readSource() throws Exception {
-        return configRepository.get();
+        return storage.getContent();
+    }
+
+    /**
+     * 优先返回 {@link #isModified()} 已解析的规则，避免重复读取和解析
+     */
+    @Override
+    public List<T> loadConfig() throws Exception {
+        List<T> result = changedRules;
+        if (result == null) {
+            return super.loadConfig();
+        }
+        changedRules = null;
+        return result;
+    }
+
+    @Override
+    protected boolean isModified() {
+        if (!initialized) {
+            return false;
+        }
+        if (skipTimes > 0) {
+            skipTimes--;
+            return false;
+        }
+        try {
+            boolean changed = refresh();
+            refreshIntervalMs.set(changed ? minRefreshMs : Math.min(refreshIntervalMs.get() * 2, maxRefreshMs));
+            return changed;
+        } catch (Throwable throwable) {
+            log.error("refresh sentinel config exception", throwable);
+            return false;
+        } finally {
+            skipTimes = refreshIntervalMs.get() / minRefreshMs - 1;
+        }
+    }
+
+    @VisibleForTesting
+    long getRefreshIntervalMs() {
+        return refreshIntervalMs.get();
+    }
+
+    @VisibleForTesting
+    long getParseTimes() {
+        return parseTimes.get();
     }
 
     private void initConfig() {
         try {
-            List<T> newValue = loadConfig();
-            if (newValue == null) {
-                log.warn("load sentinel config is null");
-                return;
+            if (refresh()) {
+                getProperty().updateValue(loadConfig());
             }
-            getProperty().updateValue(newValue);
         } catch (Throwable throwable) {
             log.error("load sentinel config exception", throwable);
+        } finally {
+            initialized = true;
+        }
+    }
+
+    /**
+     * 检测存储是否变化，变化时解析规则并暂存到 {@link #changedRules}
+     *
+     * @return 规则是否发生变化
+     */
+    private synchronized boolean refresh() throws Exception {
+        String version = storage.getVersion();
+        if (version != null && Objects.equals(version, lastVersion)) {
+            return false;
+        }
+        String content = readSource();
+        String contentHash = ConfigCenterSentinelDataSource.sha256Hex(content);
+        lastVersion = version;
+        if (Objects.equals(contentHash, lastContentHash)) {
+            return false;
+        }
+        parseTimes.incrementAndGet();
+        List<T> newValue = loadConfig(content);
+        if (newValue == null) {
+            log.warn("load sentinel config is null");
+            return false;
         }
+        lastContentHash = contentHash;
+        changedRules = newValue;
+        return true;
     }
 }
@@ -5,12 +5,18 @@ import com.alibaba.csp.sentinel.metric.extension.MetricExtension;
 import com.alibaba.csp.sentinel.metric.extension.MetricExtensionProvider;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.wind.common.WindConstants;
+import com.wind.common.annotations.VisibleForTesting;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.lang.Nullable;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -76,8 +82,29 @@ public record SentinelMetricsCollector(String resourceType) implements MetricExt
 
     private static final String ORIGIN_TAG_NAME = "origin";
 
+    /**
+     * 缓存的 Meter 数量上限，超过后新的标签组合统一记录到溢出桶
+     */
+    private static final int MAX_CACHED_METERS = 4096;
+
+    /**
+     * 溢出桶的标签值
+     */
+    private static final String OVERFLOW_TAG_VALUE = "__overflow__";
+
     private static final Map<String, AtomicLong> RESOURCE_THREAD_COUNTERS = new ConcurrentHashMap<>();
 
+    /**
+     * 已解析的 Meter 句柄缓存，避免每次事件都构建标签列表并查找注册中心
+     * key 只引用原始的资源名称、指标名称和参数中的标签对象，标签列表只在 Meter 未命中时构建
+     * 全局注册中心移除 Meter（例如：{@link MeterRegistry#clear()}）时清空缓存，重新解析句柄
+     */
+    private static final Map<MeterKey, Meter> METERS = new ConcurrentHashMap<>();
+
+    static {
+        Metrics.globalRegistry.config().onMeterRemoved(meter -> METERS.clear());
+    }
+
     public SentinelMetricsCollector() {
         this(WindConstants.EMPTY);
     }
@@ -85,84 +112,199 @@ public record SentinelMetricsCollector(String resourceType) implements MetricExt
     @Override
     public void addPass(String resource, int n, Object... args) {
         if (ENABLE_METRICS_COLLECT.get()) {
-            Metrics.counter(genName(PASS_REQUESTS_TOTAL), getResourceTags(resource, args)).increment(n);
+            getCounter(new MeterKey(resourceType, PASS_REQUESTS_TOTAL, resource, null, null, null, getArgsKey(args))).increment(n);
         }
     }
 
     @Override
     public void addBlock(String resource, int n, String origin, BlockException ex, Object... args) {
         if (ENABLE_METRICS_COLLECT.get()) {
-            List<Tag> tags = new ArrayList<>(getArgsTags(args));
-            tags.addAll(Arrays.asList(
-                    Tag.of(RESOURCE_TAG_NAME, ex.getRule().getResource()),
-                    Tag.of(BLOCK_EXCEPTION_TAG_NAME, ex.getClass().getSimpleName()),
-                    Tag.of(APP_TAG_NAME, ex.getRuleLimitApp()),
-                    Tag.of(ORIGIN_TAG_NAME, origin)
-            ));
-            Metrics.counter(genName(BLOCK_REQUESTS_TOTAL), tags).increment(n);
+            MeterKey key = new MeterKey(resourceType, BLOCK_REQUESTS_TOTAL, ex.getRule().getResource(), ex.getClass().getSimpleName(),
+                    ex.getRuleLimitApp(), origin, getArgsKey(args));
+            getCounter(key).increment(n);
         }
     }
 
     @Override
     public void addSuccess(String resource, int n, Object... args) {
         if (ENABLE_METRICS_COLLECT.get()) {
-            Metrics.counter(genName(SUCCESS_REQUESTS_TOTAL), getResourceTags(resource, args)).increment(n);
+            getCounter(new MeterKey(resourceType, SUCCESS_REQUESTS_TOTAL, resource, null, null, null, getArgsKey(args))).increment(n);
         }
     }
 
     @Override
     public void addException(String resource, int n, Throwable throwable) {
         if (ENABLE_METRICS_COLLECT.get()) {
-            Tags tags = Tags.of(RESOURCE_TAG_NAME, resource, EXCEPTION_TAG_NAME, throwable.getClass().getSimpleName());
-            Metrics.counter(genName(EXCEPTION_REQUESTS_TOTAL), tags).increment(n);
+            MeterKey key = new MeterKey(resourceType, EXCEPTION_REQUESTS_TOTAL, resource, throwable.getClass().getSimpleName(), null, null, null);
+            getCounter(key).increment(n);
         }
     }
 
     @Override
     public void addRt(String resource, long rt, Object... args) {
         if (ENABLE_METRICS_COLLECT.get()) {
-            Metrics.timer(genName(REQUESTS_LATENCY_SECONDS), getResourceTags(resource, args)).record(rt, TimeUnit.MICROSECONDS);
+            MeterKey key = new MeterKey(resourceType, REQUESTS_LATENCY_SECONDS, resource, null, null, null, getArgsKey(args));
+            Timer timer = (Timer) METERS.get(key);
+            if (timer == null) {
+                timer = (Timer) METERS.computeIfAbsent(boundKey(key), k -> Metrics.timer(k.getName(), k.getTags()));
+            }
+            timer.record(rt, TimeUnit.MICROSECONDS);
         }
     }
 
     @Override
     public void increaseThreadNum(String resource, Object... args) {
         if (ENABLE_METRICS_COLLECT.get()) {
-            Metrics.gauge(genName(CURRENT_THREADS), getResourceTags(resource, args), getThreadCounter(resource), AtomicLong::incrementAndGet);
+            getThreadCounter(resource, args).incrementAndGet();
         }
     }
 
     @Override
     public void decreaseThreadNum(String resource, Object... args) {
         if (ENABLE_METRICS_COLLECT.get()) {
-            Metrics.gauge(genName(CURRENT_THREADS), getResourceTags(resource, args), getThreadCounter(resource), AtomicLong::decrementAndGet);
+            getThreadCounter(resource, args).decrementAndGet();
         }
     }
 
-    private AtomicLong getThreadCounter(String resource) {
-        return RESOURCE_THREAD_COUNTERS.computeIfAbsent(resource, k -> new AtomicLong(0));
+    private AtomicLong getThreadCounter(String resource, Object[] args) {
+        AtomicLong result = RESOURCE_THREAD_COUNTERS.get(resource);
+        if (result == null) {
+            result = RESOURCE_THREAD_COUNTERS.computeIfAbsent(resource, k -> new AtomicLong(0));
+        }
+        MeterKey key = new MeterKey(resourceType, CURRENT_THREADS, resource, null, null, null, getArgsKey(args));
+        if (!METERS.containsKey(key) && boundKey(key) == key) {
+            // gauge 读取资源当前的线程数，超过缓存上限的标签组合不再注册
+            AtomicLong counter = result;
+            METERS.computeIfAbsent(key, k -> Gauge.builder(k.getName(), counter, AtomicLong::get)
+                    .tags(k.getTags())
+                    .strongReference(true)
+                    .register(Metrics.globalRegistry));
+        }
+        return result;
     }
 
-    private List<Tag> getResourceTags(String resource, Object[] args) {
-        List<Tag> result = new ArrayList<>(getArgsTags(args));
-        result.add(Tag.of(RESOURCE_TAG_NAME, resource));
-        return result;
+    private Counter getCounter(MeterKey key) {
+        Counter result = (Counter) METERS.get(key);
+        if (result != null) {
+            return result;
+        }
+        return (Counter) METERS.computeIfAbsent(boundKey(key), k -> Metrics.counter(k.getName(), k.getTags()));
     }
 
-    private List<Tag> getArgsTags(Object[] args) {
-        return Arrays.stream(args)
-                .filter(Objects::nonNull)
-                .filter(Tags.class::isInstance)
-                .map(Tags.class::cast)
-                .flatMap(Tags::stream)
-                .toList();
+    /**
+     * 缓存数量超过上限时，新的标签组合使用溢出桶，保证 Meter 基数有界
+     */
+    private static MeterKey boundKey(MeterKey key) {
+        if (METERS.size() < MAX_CACHED_METERS || METERS.containsKey(key)) {
+            return key;
+        }
+        return key.overflow();
     }
 
-    private String genName(String name) {
-        return resourceType + "." + name;
+    /**
+     * 获取参数中携带的标签作为缓存 key 的一部分，不合并、不排序标签
+     *
+     * @param args 调用参数
+     * @return 没有标签时返回 null，只有一个标签对象时返回该对象（常见情况，不分配内存），否则返回标签对象列表
+     */
+    @Nullable
+    private static Object getArgsKey(Object[] args) {
+        if (args == null || args.length == 0) {
+            return null;
+        }
+        Object result = null;
+        List<Tags> multiple = null;
+        for (Object arg : args) {
+            if (arg instanceof Tags tags) {
+                if (result == null) {
+                    result = tags;
+                } else {
+                    if (multiple == null) {
+                        multiple = new ArrayList<>();
+                        multiple.add((Tags) result);
+                    }
+                    multiple.add(tags);
+                }
+            }
+        }
+        return multiple == null ? result : multiple;
     }
 
     public static void setEnableMetricsCollect(boolean enable) {
         ENABLE_METRICS_COLLECT.set(enable);
     }
-}
\ No newline at end of file
+
+    @VisibleForTesting
+    static int getCachedMeterSize() {
+        return METERS.size();
+    }
+
+    @VisibleForTesting
+    static void clearCachedMeters() {
+        METERS.clear();
+        RESOURCE_THREAD_COUNTERS.clear();
+    }
+
+    /**
+     * Meter 缓存 key
+     *
+     * @param resourceType  资源类型
+     * @param metric        指标名称（不含资源类型前缀）
+     * @param resource      资源名称
+     * @param exceptionType 异常类型，仅流控和异常指标有效
+     * @param app           流控规则限制的应用，仅流控指标有效
+     * @param origin        调用来源，仅流控指标有效
+     * @param argsKey       调用参数中携带的标签，参见 {@link #getArgsKey(Object[])}
+     */
+    private record MeterKey(String resourceType, String metric, String resource, @Nullable String exceptionType, @Nullable String app,
+                            @Nullable String origin, @Nullable Object argsKey) {
+
+        String getName() {
+            return resourceType + "." + metric;
+        }
+
+        /**
+         * 仅在缓存未命中时调用，标签在创建 Meter 时一次性构建
+         */
+        Tags getTags() {
+            List<Tag> result = new ArrayList<>();
+            if (argsKey instanceof Tags tags) {
+                tags.forEach(result::add);
+            } else if (argsKey instanceof List<?> tagsList) {
+                tagsList.forEach(tags -> ((Tags) tags).forEach(result::add));
+            }
+            result.add(Tag.of(RESOURCE_TAG_NAME, resource));
+            if (exceptionType != null) {
+                result.add(Tag.of(Objects.equals(metric, BLOCK_REQUESTS_TOTAL) ? BLOCK_EXCEPTION_TAG_NAME : EXCEPTION_TAG_NAME, exceptionType));
+            }
+            if (Objects.equals(metric, BLOCK_REQUESTS_TOTAL)) {
+                result.add(Tag.of(APP_TAG_NAME, app == null ? WindConstants.UNKNOWN : app));
+                result.add(Tag.of(ORIGIN_TAG_NAME, origin == null ? WindConstants.UNKNOWN : origin));
+            }
+            return Tags.of(result);
+        }
+
+        /**
+         * 溢出桶与正常的 Meter 标签名称一致（部分注册中心要求同名 Meter 的标签名称相同，例如：prometheus），标签值替换为溢出桶的标签值
+         */
+        MeterKey overflow() {
+            return new MeterKey(resourceType, metric, OVERFLOW_TAG_VALUE, exceptionType == null ? null : OVERFLOW_TAG_VALUE,
+                    app == null ? null : OVERFLOW_TAG_VALUE, origin == null ? null : OVERFLOW_TAG_VALUE, overflowArgsKey());
+        }
+
+        @Nullable
+        private Object overflowArgsKey() {
+            if (argsKey instanceof Tags tags) {
+                return overflowTags(tags);
+            }
+            if (argsKey instanceof List<?> tagsList) {
+                return tagsList.stream().map(tags -> overflowTags((Tags) tags)).toList();
+            }
+            return null;
+        }
+
+        private static Tags overflowTags(Tags tags) {
+            return Tags.of(tags.stream().map(tag -> Tag.of(tag.getKey(), OVERFLOW_TAG_VALUE)).toList());
+        }
+    }
+}
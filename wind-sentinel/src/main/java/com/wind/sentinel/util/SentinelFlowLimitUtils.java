@@ -8,11 +8,7 @@ import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.wind.common.exception.BaseException;
 import com.wind.common.exception.DefaultExceptionCode;
 import com.wind.sentinel.SentinelResource;
-import io.micrometer.core.instrument.Tags;
-import org.springframework.util.ObjectUtils;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -53,7 +49,7 @@ public final class SentinelFlowLimitUtils {
         Entry entry = null;
         Throwable throwable = null;
         try {
-            entry = SphU.entry(resource.getName(), resource.getResourceType(), resource.getEntryType(), getArgs(resource));
+            entry = SphU.entry(resource.getName(), resource.getResourceType(), resource.getEntryType(), resource.getEntryArgs());
             return func.get();
         } catch (Throwable exception) {
             throwable = exception;
@@ -77,18 +73,10 @@ public final class SentinelFlowLimitUtils {
      */
     public static Consumer<Throwable> limit(SentinelResource resource) throws BlockException {
         ContextUtil.enter(resource.getContextName(), resource.getOrigin());
-        Entry entry = SphU.entry(resource.getName(), resource.getResourceType(), resource.getEntryType(), getArgs(resource));
+        Entry entry = SphU.entry(resource.getName(), resource.getResourceType(), resource.getEntryType(), resource.getEntryArgs());
         return throwable -> exit(entry, throwable);
     }
 
-    private static Object[] getArgs(SentinelResource resource) {
-        List<Object> args = new ArrayList<>(resource.getArgs());
-        if (!ObjectUtils.isEmpty(resource.getMetricsTags())) {
-            args.add(Tags.of(resource.getMetricsTags()));
-        }
-        return args.toArray(new Object[0]);
-    }
-
     private static void exit(Entry entry, Throwable throwable) {
         if (entry != null) {
             entry.exit();
@@ -1,5 +1,6 @@
 package com.wind.sentinel;
 
+import com.alibaba.csp.sentinel.property.PropertyListener;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
 import com.alibaba.fastjson2.JSON;
@@ -11,6 +12,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author wuxp
@@ -36,6 +39,57 @@ class ConfigCenterSentinelDataSourceTests {
         Assertions.assertEquals(7, rules3.size());
     }
 
+    @Test
+    void testIncrementalUpdateRules() {
+        MockConfigRepository configRepository = new MockConfigRepository();
+        ConfigRepository.ConfigDescriptor descriptor1 = ConfigRepository.ConfigDescriptor.immutable("u1", "u1");
+        ConfigRepository.ConfigDescriptor descriptor2 = ConfigRepository.ConfigDescriptor.immutable("u2", "u2");
+        ConfigCenterSentinelDataSource<FlowRule> dataSource = new ConfigCenterSentinelDataSource<>(configRepository,
+                Arrays.asList(descriptor1, descriptor2), FlowRule.class);
+        AtomicInteger updateCounter = new AtomicInteger();
+        dataSource.getProperty().addListener(new PropertyListener<>() {
+            @Override
+            public void configUpdate(List<FlowRule> value) {
+                updateCounter.incrementAndGet();
+            }
+
+            @Override
+            public void configLoad(List<FlowRule> value) {
+            }
+        });
+        FlowRule unchanged = findRule("u2.properties1");
+
+        List<FlowRule> newRules = SentinelFlowTestUtils.mockFlowRules("u1.properties", "u1.properties");
+        newRules.getFirst().setCount(10);
+        configRepository.mockPushConfig(descriptor1, newRules);
+        Assertions.assertEquals(1, updateCounter.get());
+        Assertions.assertEquals(10, findRule("u1.properties1").getCount());
+        Assertions.assertSame(unchanged, findRule("u2.properties1"));
+        Assertions.assertNull(findRule("u1.properties3"));
+
+        // 重复的变更通知不会更新规则
+        configRepository.mockPushConfig(descriptor1, newRules);
+        Assertions.assertEquals(1, updateCounter.get());
+        // 配置内容变化但规则没有变化，不会更新规则
+        configRepository.mockPushConfig(descriptor2, SentinelFlowTestUtils.mockFlowRules("u2.properties", "u2.properties", "u2.properties"));
+        Assertions.assertEquals(1, updateCounter.get());
+        Assertions.assertSame(unchanged, findRule("u2.properties1"));
+    }
+
+    @Test
+    void testDiffResources() {
+        Map<String, List<FlowRule>> previous = ConfigCenterSentinelDataSource.groupByResource(SentinelFlowTestUtils.mockFlowRules("a", "b", "c"));
+        List<FlowRule> rules = SentinelFlowTestUtils.mockFlowRules("a", "b", "d");
+        rules.getFirst().setCount(2);
+        Map<String, List<FlowRule>> next = ConfigCenterSentinelDataSource.groupByResource(rules);
+        Assertions.assertEquals(Set.of("a1", "c3", "d3"), ConfigCenterSentinelDataSource.diffResources(previous, next));
+        Assertions.assertTrue(ConfigCenterSentinelDataSource.diffResources(next, next).isEmpty());
+    }
+
+    private static FlowRule findRule(String resource) {
+        return FlowRuleManager.getRules().stream().filter(rule -> resource.equals(rule.getResource())).findFirst().orElse(null);
+    }
+
     static class MockConfigRepository implements ConfigRepository {
 
         private final Map<ConfigDescriptor, TextConfigListener> listeners = new HashMap<>();
@@ -0,0 +1,99 @@
+package com.wind.sentinel;
+
+import com.wind.common.WindConstants;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author wuxp
+ * @date 2025-10-24 18:00
+ **/
+@Slf4j
+class SentinelResourceDescriptorTests {
+
+    @BeforeAll
+    static void setup() {
+        System.setProperty(WindConstants.SPRING_APPLICATION_NAME, "wind-sentinel-test");
+    }
+
+    @AfterAll
+    static void after() {
+        System.clearProperty(WindConstants.SPRING_APPLICATION_NAME);
+    }
+
+    @Test
+    void testEntryArgs() {
+        DefaultSentinelResource resource = new DefaultSentinelResource();
+        resource.setName("example");
+        resource.setArgs(List.of("a", 1));
+        resource.setMetricsTags(Tags.of("k", "v"));
+        SentinelResourceDescriptor descriptor = SentinelResourceDescriptor.of(resource);
+        Assertions.assertSame(descriptor, SentinelResourceDescriptor.of(descriptor));
+        Assertions.assertArrayEquals(resource.getEntryArgs(), descriptor.getEntryArgs());
+        Assertions.assertSame(descriptor.getEntryArgs(), descriptor.getEntryArgs());
+
+        SentinelResourceDescriptor bound = descriptor.bindArgs("b");
+        Assertions.assertEquals("example", bound.getName());
+        Assertions.assertArrayEquals(new Object[]{"b", Tags.of("k", "v")}, bound.getEntryArgs());
+        Assertions.assertArrayEquals(new Object[]{Tags.of("k", "v")}, descriptor.bindArgs().getEntryArgs());
+        SentinelResourceDescriptor withoutArgs = descriptor.bindArgs();
+        Assertions.assertSame(withoutArgs, withoutArgs.bindArgs());
+    }
+
+    @Test
+    void testBuilderWithoutMetricsTags() {
+        SentinelResourceDescriptor descriptor = SentinelResourceBuilder.rocketConsumer()
+                .groupName("example-group")
+                .topic("example-topic")
+                .build();
+        Assertions.assertEquals("rocketmq.consumer@example-group:example-topic", descriptor.getName());
+        Assertions.assertEquals(0, descriptor.getEntryArgs().length);
+    }
+
+    @Test
+    void testAllocationPerMessage() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<String, SentinelResourceDescriptor> cache = new ConcurrentHashMap<>();
+        int times = 20000;
+        for (int i = 0; i < times; i++) {
+            // 预热
+            buildResource("tag-" + (i % 4)).getEntryArgs();
+            getCachedResource(cache, "tag-" + (i % 4)).getEntryArgs();
+        }
+        String[] tags = {"tag-0", "tag-1", "tag-2", "tag-3"};
+        long threadId = Thread.currentThread().threadId();
+        long start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < times; i++) {
+            buildResource(tags[i % 4]).getEntryArgs();
+        }
+        long buildBytes = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+        start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < times; i++) {
+            getCachedResource(cache, tags[i % 4]).getEntryArgs();
+        }
+        long cachedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+        log.info("build resource allocation = {} bytes/message, cached resource allocation = {} bytes/message", buildBytes / times, cachedBytes / times);
+    }
+
+    private static SentinelResourceDescriptor getCachedResource(Map<String, SentinelResourceDescriptor> cache, String tag) {
+        SentinelResourceDescriptor result = cache.get(tag);
+        return result == null ? cache.computeIfAbsent(tag, SentinelResourceDescriptorTests::buildResource) : result;
+    }
+
+    private static SentinelResourceDescriptor buildResource(String tag) {
+        return SentinelResourceBuilder.rocketConsumer()
+                .groupName("example-group")
+                .topic("example-topic")
+                .tag(tag)
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package com.wind.sentinel;
+
+import com.alibaba.csp.sentinel.datasource.AutoRefreshDataSource;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.fastjson2.JSON;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+
+/**
+ * @author wuxp
+ * @date 2025-10-24 09:30
+ **/
+class StorageSentinelRefreshDataSourceTests {
+
+    @TempDir
+    private Path tempDir;
+
+    private FileSentinelRuleStorage storage;
+
+    private StorageSentinelRefreshDataSource<FlowRule> dataSource;
+
+    @BeforeEach
+    void setup() throws IOException {
+        storage = new FileSentinelRuleStorage(tempDir.resolve("flow-rules.json"));
+        storage.write(SentinelFlowTestUtils.mockFlowRules("/storage/a"));
+        dataSource = new StorageSentinelRefreshDataSource<>(storage, FlowRule.class, 20, 320);
+    }
+
+    @AfterEach
+    void after() throws Exception {
+        dataSource.close();
+    }
+
+    @Test
+    void testSkipParseWhenUnchanged() {
+        Assertions.assertEquals(1, dataSource.getParseTimes());
+        await().atMost(3, TimeUnit.SECONDS).until(() -> dataSource.getRefreshIntervalMs() == 320);
+        Assertions.assertEquals(1, dataSource.getParseTimes());
+        // 版本未变化时不读取内容
+        Assertions.assertEquals(1, storage.readTimes.get());
+    }
+
+    @Test
+    void testRefreshAfterChange() throws Exception {
+        await().atMost(3, TimeUnit.SECONDS).until(() -> dataSource.getRefreshIntervalMs() == 320);
+        int versionTimes = storage.versionTimes.get();
+        storage.write(SentinelFlowTestUtils.mockFlowRules("/storage/a", "/storage/b"));
+        await().atMost(3, TimeUnit.SECONDS).pollInterval(5, TimeUnit.MILLISECONDS).until(() -> findRule("/storage/b2") != null);
+        // 写入后的下一次版本检查即发现变化（写入与检查并发时可能多一次）
+        Assertions.assertTrue(storage.versionTimes.get() - versionTimes <= 2);
+        Assertions.assertEquals(2, dataSource.getParseTimes());
+        Assertions.assertEquals(2, storage.readTimes.get());
+        // 规则变化后收紧轮询间隔
+        await().atMost(1, TimeUnit.SECONDS).pollInterval(1, TimeUnit.MILLISECONDS).until(() -> dataSource.getRefreshIntervalMs() < 320);
+    }
+
+    @Test
+    void testKeepAutoRefreshDataSourceApi() {
+        AutoRefreshDataSource<String, List<FlowRule>> autoRefreshDataSource = dataSource;
+        Assertions.assertNotNull(autoRefreshDataSource.getProperty());
+        Assertions.assertNotNull(findRule("/storage/a1"));
+    }
+
+    private static FlowRule findRule(String resource) {
+        return FlowRuleManager.getRules().stream().filter(rule -> resource.equals(rule.getResource())).findFirst().orElse(null);
+    }
+
+    /**
+     * 基于文件的规则存储，使用最后修改时间和文件大小作为版本
+     */
+    static class FileSentinelRuleStorage implements SentinelRuleStorage {
+
+        private final Path filepath;
+
+        private final AtomicInteger readTimes = new AtomicInteger();
+
+        private final AtomicInteger versionTimes = new AtomicInteger();
+
+        FileSentinelRuleStorage(Path filepath) {
+            this.filepath = filepath;
+        }
+
+        void write(List<FlowRule> rules) throws IOException {
+            Files.writeString(filepath, JSON.toJSONString(rules), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String getContent() {
+            readTimes.incrementAndGet();
+            try {
+                return Files.readString(filepath, StandardCharsets.UTF_8);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        @Override
+        public String getVersion() {
+            versionTimes.incrementAndGet();
+            try {
+                return Files.getLastModifiedTime(filepath).toMillis() + ":" + Files.size(filepath);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+    }
+}
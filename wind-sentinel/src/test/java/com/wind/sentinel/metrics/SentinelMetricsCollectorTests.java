@@ -0,0 +1,137 @@
+package com.wind.sentinel.metrics;
+
+import com.alibaba.csp.sentinel.slots.block.flow.FlowException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author wuxp
+ * @date 2025-10-23 15:20
+ **/
+@Slf4j
+class SentinelMetricsCollectorTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final SentinelMetricsCollector collector = new SentinelMetricsCollector("test");
+
+    @BeforeEach
+    void setup() {
+        Metrics.addRegistry(registry);
+        SentinelMetricsCollector.clearCachedMeters();
+        SentinelMetricsCollector.setEnableMetricsCollect(true);
+    }
+
+    @AfterEach
+    void after() {
+        SentinelMetricsCollector.setEnableMetricsCollect(false);
+        SentinelMetricsCollector.clearCachedMeters();
+        Metrics.removeRegistry(registry);
+        registry.close();
+    }
+
+    @Test
+    void testCollectCounters() {
+        collector.addPass("/api/users", 2);
+        collector.addPass("/api/users", 3);
+        collector.addSuccess("/api/users", 1, Tags.of("method", "GET"));
+        collector.addException("/api/users", 1, new IllegalStateException());
+        collector.addBlock("/api/users", 1, "web", new FlowException("default", new FlowRule("/api/users")));
+        collector.addRt("/api/users", 1000);
+        collector.increaseThreadNum("/api/users");
+        collector.increaseThreadNum("/api/users");
+        collector.decreaseThreadNum("/api/users");
+
+        Assertions.assertEquals(5, registry.get("test.sentinel.flow.pass.requests.total").tag("resource", "/api/users").counter().count());
+        Assertions.assertEquals(1, registry.get("test.sentinel.flow.success.requests.total").tags("resource", "/api/users", "method", "GET").counter().count());
+        Assertions.assertEquals(1, registry.get("test.sentinel.flow.exception_requests_total").tag("exceptionType", "IllegalStateException").counter().count());
+        Counter block = registry.get("test.sentinel.flow.block.requests.total")
+                .tags("resource", "/api/users", "blockExceptionType", "FlowException", "appName", "default", "origin", "web")
+                .counter();
+        Assertions.assertEquals(1, block.count());
+        Assertions.assertEquals(1, registry.get("test.sentinel.flow.requests.latency.seconds").timer().count());
+        Assertions.assertEquals(1, registry.get("test.sentinel.flow.current.threads").gauge().value());
+    }
+
+    @Test
+    void testCollectWithArgsTags() {
+        Tags methodTags = Tags.of("method", "GET");
+        collector.addPass("/api/orders", 1, methodTags, "ignored");
+        collector.addPass("/api/orders", 1, Tags.of("method", "GET"));
+        collector.addPass("/api/orders", 1, methodTags, Tags.of("status", "200"));
+        collector.addBlock("/api/orders", 1, null, new FlowException(null, new FlowRule("/api/orders")));
+
+        Assertions.assertEquals(2, registry.get("test.sentinel.flow.pass.requests.total").tags("resource", "/api/orders", "method", "GET").counters()
+                .stream().filter(counter -> counter.getId().getTag("status") == null).findFirst().orElseThrow().count());
+        Assertions.assertEquals(1, registry.get("test.sentinel.flow.pass.requests.total").tags("resource", "/api/orders", "method", "GET", "status", "200").counter().count());
+        Assertions.assertEquals(1, registry.get("test.sentinel.flow.block.requests.total").tags("resource", "/api/orders", "appName", "unknown", "origin", "unknown").counter().count());
+    }
+
+    @Test
+    void testCardinalityBounded() {
+        for (int i = 0; i < 5000; i++) {
+            collector.addPass("/api/resource/" + i, 1);
+        }
+        Assertions.assertTrue(SentinelMetricsCollector.getCachedMeterSize() <= 4097);
+        double overflow = registry.get("test.sentinel.flow.pass.requests.total").tag("resource", "__overflow__").counter().count();
+        Assertions.assertEquals(5000 - 4096, overflow);
+    }
+
+    @Test
+    void testOverflowKeepTagNames() {
+        SentinelMetricsCollector taggedCollector = new SentinelMetricsCollector("tagged");
+        for (int i = 0; i < 4097; i++) {
+            taggedCollector.addPass("/api/tagged/" + i, 1, Tags.of("method", "GET"));
+        }
+        Counter overflow = registry.get("tagged.sentinel.flow.pass.requests.total").tags("resource", "__overflow__").counter();
+        Assertions.assertEquals("__overflow__", overflow.getId().getTag("method"));
+        Assertions.assertEquals(1, overflow.count());
+    }
+
+    @Test
+    void testResolveMetersAfterRegistryCleared() {
+        collector.addPass("/api/cleared", 1);
+        collector.increaseThreadNum("/api/cleared");
+        Metrics.globalRegistry.clear();
+        collector.addPass("/api/cleared", 2);
+        collector.increaseThreadNum("/api/cleared");
+        Assertions.assertEquals(2, registry.get("test.sentinel.flow.pass.requests.total").tag("resource", "/api/cleared").counter().count());
+        Assertions.assertEquals(2, registry.get("test.sentinel.flow.current.threads").tag("resource", "/api/cleared").gauge().value());
+    }
+
+    @Test
+    void testCachedVersusUncachedThroughput() {
+        int times = 200000;
+        List<Tag> tags = new ArrayList<>();
+        for (int i = 0; i < times; i++) {
+            collector.addPass("/api/throughput", 1);
+            Metrics.counter("uncached.sentinel.flow.pass.requests.total", List.of(Tag.of("resource", "/api/users"))).increment(1);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            tags.clear();
+            tags.add(Tag.of("resource", "/api/users"));
+            Metrics.counter("uncached.sentinel.flow.pass.requests.total", new ArrayList<>(tags)).increment(1);
+        }
+        long uncachedCost = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            collector.addPass("/api/throughput", 1);
+        }
+        long cachedCost = System.nanoTime() - start;
+        log.info("record {} pass events, uncached cost = {}ns, cached cost = {}ns", times, uncachedCost, cachedCost);
+        Assertions.assertEquals(times * 2, registry.get("test.sentinel.flow.pass.requests.total").tag("resource", "/api/throughput").counter().count());
+    }
+}
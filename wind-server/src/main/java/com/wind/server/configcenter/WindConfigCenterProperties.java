@@ -3,6 +3,7 @@ package com.wind.server.configcenter;
 import com.wind.common.enums.ConfigFileType;
 import lombok.Data;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 
@@ -35,4 +36,9 @@ public class WindConfigCenterProperties {
      * 配置文件类型
      */
     private ConfigFileType configFileType = ConfigFileType.PROPERTIES;
+
+    /**
+     * 并发加载应用、中间件配置的总超时时间
+     */
+    private Duration loadTimeout = Duration.ofSeconds(60);
 }
@@ -5,9 +5,12 @@ import com.wind.common.WindConstants;
 import com.wind.common.enums.ConfigFileType;
 import com.wind.common.enums.WindMiddlewareType;
 import com.wind.common.exception.AssertUtils;
+import com.wind.common.exception.BaseException;
+import com.wind.common.exception.DefaultExceptionCode;
 import com.wind.configcenter.core.ConfigRepository;
 import com.wind.configcenter.core.ConfigRepository.ConfigDescriptor;
 import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.VisibleForTesting;
 import org.springframework.core.env.CompositePropertySource;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
@@ -18,10 +21,19 @@ import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.wind.common.WindConstants.SPRING_APPLICATION_NAME;
@@ -40,6 +52,11 @@ import static com.wind.common.WindConstants.WIND_SERVER_USED_MIDDLEWARE;
 @Slf4j
 public record WindPropertySourceLoader(ConfigRepository repository, WindConfigCenterProperties properties) {
 
+    /**
+     * 每个配置的加载耗时（毫秒）
+     */
+    private static final Map<String, Long> LOAD_COST_MILLIS = new ConcurrentHashMap<>();
+
     /**
      * 加载全局配置
      *
@@ -63,8 +80,26 @@ public record WindPropertySourceLoader(ConfigRepository repository, WindConfigCe
         environment.getPropertySources().addLast(locateConfigs(environment));
     }
 
-    private PropertySource<?> locateConfigs(Environment environment) {
+    /**
+     * 在虚拟线程上并发加载所有配置，按加载顺序合并配置（后加载的配置优先级更高）
+     *
+     * @param environment spring environment
+     * @return 合并后的配置
+     */
+    @VisibleForTesting
+    PropertySource<?> locateConfigs(Environment environment) {
         CompositePropertySource result = new CompositePropertySource(repository.getConfigSourceName());
+        long start = System.currentTimeMillis();
+        List<ConfigLoadTask> tasks = getConfigLoadTasks(environment);
+        for (List<PropertySource<?>> configs : loadConcurrently(tasks)) {
+            configs.forEach(result::addFirstPropertySource);
+        }
+        log.info("load configs end, size = {}, cost = {} ms", tasks.size(), System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private List<ConfigLoadTask> getConfigLoadTasks(Environment environment) {
+        List<ConfigLoadTask> result = new ArrayList<>();
         String applicationName = environment.getProperty(SPRING_APPLICATION_NAME);
         AssertUtils.hasText(applicationName, () -> String.format("%s must not empty", SPRING_APPLICATION_NAME));
         // 中间件配置共享模式下的名称
@@ -75,29 +110,80 @@ public record WindPropertySourceLoader(ConfigRepository repository, WindConfigCe
             AssertUtils.notNull(name, type.getConfigName() + " must not empty");
             if (Objects.equals(type, WindMiddlewareType.REDIS) && WindMiddlewareDetector.useRedisson()) {
                 // redisson 配置支持
-                loadRedissonConfig(name, result);
+                addRedissonConfigTask(name, result);
             } else if (Objects.equals(type, WindMiddlewareType.DYNAMIC_TP)) {
                 // dynamic-tp 使用 yaml
-                WindDynamicTpConfigDescriptorDetector.getConfigDescriptors(middlewareShareName).forEach(descriptor -> loadConfigs(descriptor,
+                WindDynamicTpConfigDescriptorDetector.getConfigDescriptors(middlewareShareName).forEach(descriptor -> addConfigTask(descriptor,
                         result));
             } else {
                 SimpleConfigDescriptor descriptor = buildDescriptor(name + WindConstants.DASHED + type.name().toLowerCase(), type.name());
-                loadConfigs(descriptor, result);
+                addConfigTask(descriptor, result);
             }
         }
         // 加载应用配置
-        loadConfigs(buildDescriptor(applicationName, WindConstants.APP_CONFIG_GROUP), result);
+        addConfigTask(buildDescriptor(applicationName, WindConstants.APP_CONFIG_GROUP), result);
         if (!ObjectUtils.isEmpty(properties.getAppShareConfigs())) {
             // 加载应用间的共享配置
-            properties.getAppShareConfigs().forEach(name -> loadConfigs(buildDescriptor(name, WindConstants.APP_SHARE_CONFIG_GROUP), result));
+            properties.getAppShareConfigs().forEach(name -> addConfigTask(buildDescriptor(name, WindConstants.APP_SHARE_CONFIG_GROUP), result));
         }
         if (!ObjectUtils.isEmpty(properties.getExtensionConfigs())) {
             // 加载额外的自定义配置
-            properties.getExtensionConfigs().forEach(descriptor -> loadConfigs(descriptor, result));
+            properties.getExtensionConfigs().forEach(descriptor -> addConfigTask(descriptor, result));
         }
         return result;
     }
 
+    private List<List<PropertySource<?>>> loadConcurrently(List<ConfigLoadTask> tasks) {
+        long deadline = System.nanoTime() + properties.getLoadTimeout().toNanos();
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("wind-config-loader-", 0).factory());
+        List<Future<List<PropertySource<?>>>> futures = new ArrayList<>(tasks.size());
+        try {
+            tasks.forEach(task -> futures.add(executor.submit(() -> load(task))));
+            List<List<PropertySource<?>>> result = new ArrayList<>(tasks.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                result.add(waitResult(tasks.get(i), futures.get(i), deadline));
+            }
+            return result;
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+            // 不等待超时未完成的任务
+            executor.shutdownNow();
+        }
+    }
+
+    private List<PropertySource<?>> waitResult(ConfigLoadTask task, Future<List<PropertySource<?>>> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new BaseException(DefaultExceptionCode.COMMON_ERROR, String.format("load config name = %s failure", task.name()), exception.getCause());
+        } catch (TimeoutException exception) {
+            throw new BaseException(DefaultExceptionCode.COMMON_ERROR, String.format("load config name = %s timeout, timeout = %s", task.name(),
+                    properties.getLoadTimeout()), exception);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new BaseException(DefaultExceptionCode.COMMON_ERROR, String.format("load config name = %s interrupted", task.name()), exception);
+        }
+    }
+
+    private static List<PropertySource<?>> load(ConfigLoadTask task) {
+        long start = System.nanoTime();
+        List<PropertySource<?>> result = task.loader().get();
+        long costMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        LOAD_COST_MILLIS.put(task.name(), costMillis);
+        log.info("load config，name = {}, cost = {} ms", task.name(), costMillis);
+        return result;
+    }
+
+    /**
+     * @return 最近一次启动时每个配置的加载耗时（毫秒）
+     */
+    public static Map<String, Long> getLoadCostMillis() {
+        return Collections.unmodifiableMap(LOAD_COST_MILLIS);
+    }
+
     private static List<WindMiddlewareType> getUsedMiddlewareTypes(Environment environment) {
         String config = environment.getProperty(WIND_SERVER_USED_MIDDLEWARE);
         List<WindMiddlewareType> result = new ArrayList<>(WindMiddlewareDetector.getDependenciesMiddlewareTypes());
@@ -123,21 +209,38 @@ public record WindPropertySourceLoader(ConfigRepository repository, WindConfigCe
         return result;
     }
 
-    private void loadConfigs(ConfigDescriptor descriptor, CompositePropertySource result) {
-        if (log.isDebugEnabled()) {
-            log.debug("load config，id = {}, group = {}, refreshable = {}", descriptor.getConfigId(), descriptor.getGroup(),
-                    descriptor.isRefreshable());
-        }
-        repository.getConfigs(descriptor).forEach(result::addFirstPropertySource);
+    private void addConfigTask(ConfigDescriptor descriptor, List<ConfigLoadTask> result) {
+        result.add(new ConfigLoadTask(getTaskName(descriptor), () -> {
+            if (log.isDebugEnabled()) {
+                log.debug("load config，id = {}, group = {}, refreshable = {}", descriptor.getConfigId(), descriptor.getGroup(),
+                        descriptor.isRefreshable());
+            }
+            return repository.getConfigs(descriptor);
+        }));
     }
 
-    private void loadRedissonConfig(String redissonName, CompositePropertySource result) {
+    private void addRedissonConfigTask(String redissonName, List<ConfigLoadTask> result) {
         if (StringUtils.hasLength(redissonName)) {
             // TODO 增加凭据替换支持
             String name = String.format("%s%s%s", redissonName, WindConstants.DASHED, WindConstants.REDISSON_NAME);
             ConfigDescriptor descriptor = ConfigDescriptor.immutable(name, WindMiddlewareType.REDIS.name(), ConfigFileType.YAML);
-            Map<String, Object> source = ImmutableMap.of(SPRING_REDISSON_CONFIG_NAME, repository.getTextConfig(descriptor));
-            result.addFirstPropertySource(new MapPropertySource(WIND_REDISSON_PROPERTY_SOURCE_NAME, source));
+            result.add(new ConfigLoadTask(getTaskName(descriptor), () -> {
+                Map<String, Object> source = ImmutableMap.of(SPRING_REDISSON_CONFIG_NAME, repository.getTextConfig(descriptor));
+                return Collections.singletonList(new MapPropertySource(WIND_REDISSON_PROPERTY_SOURCE_NAME, source));
+            }));
         }
     }
+
+    private static String getTaskName(ConfigDescriptor descriptor) {
+        return descriptor.getGroup() + WindConstants.COLON + descriptor.getConfigId();
+    }
+
+    /**
+     * 配置加载任务
+     *
+     * @param name   任务名称（配置分组:配置标识）
+     * @param loader 配置加载者
+     */
+    private record ConfigLoadTask(String name, Supplier<List<PropertySource<?>>> loader) {
+    }
 }
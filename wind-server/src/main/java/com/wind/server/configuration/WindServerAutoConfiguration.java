@@ -9,6 +9,7 @@ import com.wind.server.aop.WindControllerMethodInterceptor;
 import com.wind.server.initialization.WindApplicationStartedListener;
 import com.wind.server.logging.WebAuditLogRecorder;
 import com.wind.server.web.exception.RestfulErrorAttributes;
+import com.wind.server.web.security.ObjectMaskingJacksonModule;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.aop.aspectj.AspectJExpressionPointcut;
 import org.springframework.aop.support.DefaultBeanFactoryPointcutAdvisor;
@@ -29,6 +30,7 @@ import java.util.Collection;
 import static com.wind.common.WindConstants.CONTROLLER_METHOD_ASPECT_NAME;
 import static com.wind.common.WindConstants.ENABLED_NAME;
 import static com.wind.common.WindConstants.TRUE;
+import static com.wind.common.WindConstants.WIND_SERVER_OBJECT_MASK_ADVICE;
 import static com.wind.common.WindConstants.WIND_SERVER_PROPERTIES_PREFIX;
 
 /**
@@ -88,6 +90,15 @@ public class WindServerAutoConfiguration {
         return advisor;
     }
 
+    /**
+     * 序列化时脱敏，由 spring boot 注册到 ObjectMapper
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = WIND_SERVER_OBJECT_MASK_ADVICE, name = "mode", havingValue = "SERIALIZE")
+    public ObjectMaskingJacksonModule objectMaskingJacksonModule() {
+        return new ObjectMaskingJacksonModule();
+    }
+
     @Bean
     @ConditionalOnProperty(prefix = WIND_SERVER_PROPERTIES_PREFIX + ".health.graceful-shutdown", name = ENABLED_NAME, havingValue = TRUE)
     public GracefulShutdownHealthIndicator gracefulShutdownHealthIndicator() {
@@ -0,0 +1,68 @@
+package com.wind.server.flow;
+
+import com.wind.common.exception.AssertUtils;
+import com.wind.sentinel.SentinelResource;
+import com.wind.sentinel.SentinelResourceDescriptor;
+import jakarta.servlet.http.HttpServletRequest;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 按处理请求的 {@link HandlerMethod} 缓存 sentinel 资源描述，同一个接口方法只会构建一次资源
+ * 注意：被代理的资源提供者返回的资源只能和接口方法相关（例如：url pattern、应用名称），其返回的资源参数会被忽略，
+ * 每次请求的资源参数（热点参数）由 {@link #argsResolver} 解析后通过 {@link SentinelResourceDescriptor#bindArgs(Object...)} 绑定
+ * 不是由 {@link HandlerMethod} 处理的请求（例如：静态资源）不会缓存
+ *
+ * @author wuxp
+ * @date 2025-10-24 18:00
+ **/
+public final class HandlerMethodSentinelResourceProvider implements Function<HttpServletRequest, SentinelResource> {
+
+    private static final Object[] EMPTY_ARGS = new Object[0];
+
+    private final Function<HttpServletRequest, SentinelResource> delegate;
+
+    /**
+     * 解析每次请求的资源参数
+     */
+    private final Function<HttpServletRequest, Object[]> argsResolver;
+
+    private final Map<Method, Optional<SentinelResourceDescriptor>> resources = new ConcurrentHashMap<>();
+
+    public HandlerMethodSentinelResourceProvider(Function<HttpServletRequest, SentinelResource> delegate) {
+        this(delegate, request -> EMPTY_ARGS);
+    }
+
+    public HandlerMethodSentinelResourceProvider(Function<HttpServletRequest, SentinelResource> delegate, Function<HttpServletRequest, Object[]> argsResolver) {
+        AssertUtils.notNull(delegate, "argument delegate must not null");
+        AssertUtils.notNull(argsResolver, "argument argsResolver must not null");
+        this.delegate = delegate;
+        this.argsResolver = argsResolver;
+    }
+
+    @Override
+    public SentinelResource apply(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handlerMethod) {
+            Optional<SentinelResourceDescriptor> result = resources.get(handlerMethod.getMethod());
+            if (result == null) {
+                // 缓存的资源描述不保留首次请求的参数
+                result = Optional.ofNullable(delegate.apply(request)).map(resource -> SentinelResourceDescriptor.of(resource).bindArgs());
+                resources.putIfAbsent(handlerMethod.getMethod(), result);
+            }
+            return result.map(descriptor -> descriptor.bindArgs(argsResolver.apply(request))).orElse(null);
+        }
+        return delegate.apply(request);
+    }
+
+    @VisibleForTesting
+    int getCachedSize() {
+        return resources.size();
+    }
+}
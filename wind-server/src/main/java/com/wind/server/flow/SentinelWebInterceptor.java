@@ -14,7 +14,6 @@ import com.wind.sentinel.metrics.SentinelMetricsCollector;
 import com.wind.server.web.restful.RestfulApiRespFactory;
 import com.wind.web.util.HttpResponseMessageUtils;
 import com.wind.web.util.HttpServletRequestUtils;
-import io.micrometer.core.instrument.Tags;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
@@ -23,8 +22,6 @@ import org.jetbrains.annotations.VisibleForTesting;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.servlet.HandlerInterceptor;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.function.Function;
 
 /**
@@ -57,6 +54,27 @@ public record SentinelWebInterceptor(Function<HttpServletRequest, SentinelResour
         return new SentinelWebInterceptor(resourceProvider);
     }
 
+    /**
+     * 按接口方法缓存资源，资源提供者只会在接口方法第一次被请求时调用，资源不带参数
+     *
+     * @see HandlerMethodSentinelResourceProvider
+     */
+    public static SentinelWebInterceptor cached(Function<HttpServletRequest, SentinelResource> resourceProvider) {
+        return new SentinelWebInterceptor(new HandlerMethodSentinelResourceProvider(resourceProvider));
+    }
+
+    /**
+     * 按接口方法缓存资源，每次请求的资源参数由 argsResolver 解析后绑定到缓存的资源上
+     *
+     * @param resourceProvider 资源提供者，只会在接口方法第一次被请求时调用
+     * @param argsResolver     每次请求的资源参数解析器
+     * @see HandlerMethodSentinelResourceProvider
+     */
+    public static SentinelWebInterceptor cached(Function<HttpServletRequest, SentinelResource> resourceProvider,
+                                                Function<HttpServletRequest, Object[]> argsResolver) {
+        return new SentinelWebInterceptor(new HandlerMethodSentinelResourceProvider(resourceProvider, argsResolver));
+    }
+
     /**
      * 拦截所有资源请求
      */
@@ -73,9 +91,7 @@ public record SentinelWebInterceptor(Function<HttpServletRequest, SentinelResour
         }
         ContextUtil.enter(resource.getContextName(), resource.getOrigin());
         try {
-            List<Object> args = new ArrayList<>(resource.getArgs());
-            args.add(Tags.of(resource.getMetricsTags()));
-            Entry entry = SphU.entry(resource.getName(), resource.getResourceType(), resource.getEntryType(), args.toArray(new Object[0]));
+            Entry entry = SphU.entry(resource.getName(), resource.getResourceType(), resource.getEntryType(), resource.getEntryArgs());
             request.setAttribute(entryAttributeName, entry);
         } catch (BlockException exception) {
             try {
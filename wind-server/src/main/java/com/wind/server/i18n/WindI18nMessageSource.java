@@ -1,20 +1,18 @@
 package com.wind.server.i18n;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import com.wind.common.WindConstants;
 import com.wind.configcenter.core.ConfigRepository;
 import lombok.extern.slf4j.Slf4j;
-import org.jetbrains.annotations.NotNull;
 import org.springframework.context.support.AbstractResourceBasedMessageSource;
+import org.springframework.core.env.EnumerablePropertySource;
 import org.springframework.core.env.MutablePropertySources;
-import org.springframework.core.env.PropertyResolver;
 import org.springframework.core.env.PropertySource;
 import org.springframework.core.env.PropertySourcesPropertyResolver;
 import org.springframework.lang.Nullable;
 
 import jakarta.annotation.Nonnull;
 import java.text.MessageFormat;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -22,6 +20,7 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 从配置中心加载国际化配置文件
+ * 加载（刷新）配置时为每个 Locale 构建不可变的消息表（原始消息 + 预先解析的 {@link MessageFormat}），配置变更时整体替换消息表
  *
  * @author wuxp
  * @date 2023-10-30 08:43
@@ -34,44 +33,43 @@ public class WindI18nMessageSource extends AbstractResourceBasedMessageSource {
      */
     private static final String I18N_GROUP = "I18N";
 
+    /**
+     * 每个 Locale 最多缓存的以 code 作为消息模板的 MessageFormat 数量
+     */
+    private static final int MAX_CODE_FORMAT_SIZE = 2000;
+
     private final ConfigRepository repository;
 
     private final WindMessageSourceProperties properties;
 
-    private final Map<Locale, PropertyResolver> localPropertyResolvers;
-
-    private final Cache<@NotNull String, MessageFormat> messageFormatCache;
+    /**
+     * 每个 Locale 的消息表，配置变更时整体替换
+     */
+    private volatile Map<Locale, LocaleMessages> localeMessages = Map.of();
 
     public WindI18nMessageSource(ConfigRepository repository, WindMessageSourceProperties properties) {
         this.repository = repository;
         this.properties = properties;
-        this.localPropertyResolvers = loadLocales();
-        this.messageFormatCache = Caffeine.newBuilder()
-                .maximumSize(2000)
-                .initialCapacity(200)
-                .expireAfterAccess(properties.getCacheDuration())
-                .build();
+        loadLocales();
     }
 
-    private Map<Locale, PropertyResolver> loadLocales() {
-        final Map<Locale, PropertyResolver> result = new ConcurrentHashMap<>();
+    private void loadLocales() {
         for (Locale locale : properties.getLocales()) {
             String name = String.format("%s-%s", properties.getName(), locale);
             ConfigRepository.ConfigDescriptor descriptor = ConfigRepository.ConfigDescriptor.immutable(name, I18N_GROUP, properties.getFileType());
-            result.put(locale, buildPropertyResolver(repository.getConfigs(descriptor)));
+            updateLocaleMessages(locale, repository.getConfigs(descriptor));
             // 监听配置变化
             repository.onChange(descriptor, (ConfigRepository.PropertyConfigListener) configs -> {
                 log.info("i18n message refresh dataId = {}", descriptor.getConfigId());
-                result.put(locale, buildPropertyResolver(configs));
+                updateLocaleMessages(locale, configs);
             });
         }
-        return result;
     }
 
-    private PropertyResolver buildPropertyResolver(List<PropertySource<?>> configs) {
-        MutablePropertySources propertySources = new MutablePropertySources();
-        configs.forEach(propertySources::addFirst);
-        return new PropertySourcesPropertyResolver(propertySources);
+    private synchronized void updateLocaleMessages(Locale locale, List<PropertySource<?>> configs) {
+        Map<Locale, LocaleMessages> result = new HashMap<>(localeMessages);
+        result.put(locale, LocaleMessages.build(configs, locale));
+        localeMessages = Map.copyOf(result);
     }
 
     /**
@@ -80,38 +78,29 @@ public class WindI18nMessageSource extends AbstractResourceBasedMessageSource {
      */
     @Override
     protected String resolveCodeWithoutArguments(@Nonnull String code, @Nonnull Locale locale) {
-        PropertyResolver resolver = localPropertyResolvers.get(locale);
-        if (resolver == null) {
-            return null;
-        }
-        return resolver.getProperty(code);
+        LocaleMessages messages = localeMessages.get(locale);
+        return messages == null ? null : messages.messages().get(code);
     }
 
     /**
      * Resolves the given message code as key in the retrieved bundle files,
-     * using a cached MessageFormat instance per message code.
+     * using a pre-parsed MessageFormat instance per message code.
      */
     @Override
     @Nullable
     protected MessageFormat resolveCode(@Nonnull String code, @Nonnull Locale locale) {
-        String key = String.format("%s@%s", code, locale);
-        return messageFormatCache.get(key, k -> {
-            String message = resolveCodeWithoutArguments(code, locale);
-            if (message == null) {
-                String text = convertSlf4jPlaceholders(code);
-                // 如果 code 中有占位符，直接返回 MessageFormat
-                return text.contains("{0}") ? new MessageFormat(text, locale) : null;
-            }
-            // 转换 Slf4j {} 格式为 MessageFormat {0}、{1}...
-            String convertedMessage = convertSlf4jPlaceholders(message);
-            return new MessageFormat(convertedMessage, locale);
-        });
+        LocaleMessages messages = localeMessages.get(locale);
+        if (messages == null) {
+            return null;
+        }
+        MessageFormat result = messages.formats().get(code);
+        return result == null ? messages.getCodeFormat(code) : result;
     }
 
     /**
      * 将 Slf4j {} 占位符 转为 MessageFormat 占位符 {0}, {1}, ...
      */
-    private String convertSlf4jPlaceholders(String text) {
+    private static String convertSlf4jPlaceholders(String text) {
         if (!text.contains("{}")) {
             return text;
         }
@@ -130,4 +119,66 @@ public class WindI18nMessageSource extends AbstractResourceBasedMessageSource {
         return sb.toString();
     }
 
+    /**
+     * Locale 的消息表
+     *
+     * @param locale      Locale
+     * @param messages    原始消息
+     * @param formats     预先解析的消息模板
+     * @param codeFormats 消息不存在时，以包含占位符的 code 作为消息模板的缓存
+     */
+    private record LocaleMessages(Locale locale, Map<String, String> messages, Map<String, MessageFormat> formats,
+                                  Map<String, MessageFormat> codeFormats) {
+
+        static LocaleMessages build(List<PropertySource<?>> configs, Locale locale) {
+            MutablePropertySources propertySources = new MutablePropertySources();
+            configs.forEach(propertySources::addFirst);
+            PropertySourcesPropertyResolver resolver = new PropertySourcesPropertyResolver(propertySources);
+            Map<String, String> messages = new HashMap<>();
+            Map<String, MessageFormat> formats = new HashMap<>();
+            for (PropertySource<?> source : propertySources) {
+                if (!(source instanceof EnumerablePropertySource<?> enumerable)) {
+                    log.warn("unsupported i18n property source, name = {}", source.getName());
+                    continue;
+                }
+                for (String code : enumerable.getPropertyNames()) {
+                    if (messages.containsKey(code)) {
+                        continue;
+                    }
+                    String message = resolver.getProperty(code);
+                    if (message == null) {
+                        continue;
+                    }
+                    messages.put(code, message);
+                    try {
+                        // 转换 Slf4j {} 格式为 MessageFormat {0}、{1}...
+                        formats.put(code, new MessageFormat(convertSlf4jPlaceholders(message), locale));
+                    } catch (IllegalArgumentException exception) {
+                        log.warn("illegal i18n message format, code = {}, message = {}", code, message, exception);
+                    }
+                }
+            }
+            return new LocaleMessages(locale, Map.copyOf(messages), Map.copyOf(formats), new ConcurrentHashMap<>());
+        }
+
+        /**
+         * 消息不存在时，如果 code 中有占位符，使用 code 作为消息模板
+         */
+        @Nullable
+        MessageFormat getCodeFormat(String code) {
+            MessageFormat result = codeFormats.get(code);
+            if (result != null) {
+                return result;
+            }
+            String text = convertSlf4jPlaceholders(code);
+            if (!text.contains("{0}")) {
+                return null;
+            }
+            result = new MessageFormat(text, locale);
+            if (codeFormats.size() < MAX_CODE_FORMAT_SIZE) {
+                codeFormats.putIfAbsent(code, result);
+            }
+            return result;
+        }
+    }
 }
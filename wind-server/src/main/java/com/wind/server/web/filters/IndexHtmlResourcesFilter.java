@@ -4,18 +4,23 @@ import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.collect.ImmutableSet;
 import com.wind.common.exception.AssertUtils;
+import com.wind.common.exception.BaseException;
+import com.wind.common.exception.DefaultExceptionCode;
 import com.wind.common.util.StringJoinSplitUtils;
 import lombok.AllArgsConstructor;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.VisibleForTesting;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.PathMatcher;
+import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import jakarta.annotation.Nonnull;
@@ -23,18 +28,28 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * 前后端分离模式下用于返回前端的 index.html 页面
  * 仅支持 browser 路由模式，参见： https://juejin.cn/post/6844903648804208654
+ * 1：资源加载（缓存）时计算强 ETag，请求头 If-None-Match 匹配时返回 304
+ * 2：可压缩的资源在加载（缓存）时预先生成 gzip、deflate 压缩版本，根据请求头 Accept-Encoding 选择
  *
  * @author wuxp
  * @date 2023-10-21 20:18
@@ -85,8 +100,26 @@ public class IndexHtmlResourcesFilter extends OncePerRequestFilter {
         STATIC_RESOURCES.put(".ttc", "font/ttc");
     }
 
-    private static final Cache<@NotNull String, HttpHeaders> HEADER_CACHES =
-            Caffeine.newBuilder().expireAfterWrite(Duration.ofDays(1)).maximumSize(200).build();
+    /**
+     * 可压缩的资源类型
+     */
+    private static final Set<String> COMPRESSIBLE_CONTENT_TYPES = ImmutableSet.of(MediaType.TEXT_HTML_VALUE, "application/javascript", "text/css",
+            "image/svg+xml", "font/ttf", "font/otf");
+
+    /**
+     * 小于该大小的资源不压缩
+     */
+    private static final int MIN_COMPRESS_SIZE = 1024;
+
+    private static final String GZIP_ENCODING = "gzip";
+
+    private static final String DEFLATE_ENCODING = "deflate";
+
+    /**
+     * 写回时忽略资源加载器返回的响应头，由过滤器根据写回的内容设置
+     */
+    private static final Set<String> IGNORE_HEADERS = ImmutableSet.of(HttpHeaders.CONTENT_LENGTH.toLowerCase(), HttpHeaders.CONTENT_ENCODING.toLowerCase(),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(), HttpHeaders.ETAG.toLowerCase());
 
     /**
      * 前端路由前缀，仅支持 browser 模式下的路由
@@ -116,38 +149,99 @@ public class IndexHtmlResourcesFilter extends OncePerRequestFilter {
                     matchesMediaType(request.getHeader(HttpHeaders.ACCEPT)) && (INDEX_HTML_PATHS.contains(requestUri) || requestUri.startsWith(routePrefix));
             if (requestIndexHtml) {
                 // 写回 index.html
-                response.getOutputStream().write(resourceLoader.apply(INDEX_HTML_NAME));
-                writeHeaders(response, INDEX_HTML_NAME);
+                writeResource(request, response, loadResource(INDEX_HTML_NAME), false);
                 return;
             }
-            Optional<String> optional = STATIC_RESOURCES.keySet().stream().filter(requestUri::endsWith).findFirst();
-            if (optional.isPresent()) {
+            if (getContentType(requestUri) != null) {
                 // js css 资源访问
-                response.getOutputStream().write(resourceLoader.apply(requestUri));
-                writeHeaders(response, requestUri);
-                response.setHeader(HttpHeaders.CACHE_CONTROL, "max-age=" + CACHE_TIMES);
+                writeResource(request, response, loadResource(requestUri), true);
                 return;
             }
         }
         chain.doFilter(request, response);
     }
 
-    private void writeHeaders(@Nonnull HttpServletResponse response, String requestUri) {
-        HttpHeaders headers = HEADER_CACHES.getIfPresent(requestUri);
-        if (headers == null) {
+    private StaticResource loadResource(String resourcePath) {
+        if (resourceLoader instanceof CacheResourcesLoader loader) {
+            return loader.getResource(resourcePath);
+        }
+        // 未缓存的资源每次请求都会加载，不预先压缩
+        return StaticResource.of(resourcePath, HttpHeaders.EMPTY, resourceLoader.apply(resourcePath), false);
+    }
+
+    private void writeResource(HttpServletRequest request, HttpServletResponse response, StaticResource resource, boolean cacheable) throws IOException {
+        ResourceVariant variant = resource.select(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        writeHeaders(response, resource);
+        if (cacheable) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "max-age=" + CACHE_TIMES);
+        }
+        if (resource.isCompressed()) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        response.setHeader(HttpHeaders.ETAG, variant.etag());
+        if (matchesETag(request.getHeader(HttpHeaders.IF_NONE_MATCH), variant.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
             return;
         }
-        headers.forEach((name, values) -> {
-            if (!ObjectUtils.isEmpty(values)) {
+        if (variant.encoding() != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, variant.encoding());
+        }
+        response.setContentLength(variant.content().length);
+        response.getOutputStream().write(variant.content());
+    }
+
+    private void writeHeaders(@Nonnull HttpServletResponse response, StaticResource resource) {
+        resource.headers().forEach((name, values) -> {
+            if (!ObjectUtils.isEmpty(values) && !IGNORE_HEADERS.contains(name.toLowerCase())) {
                 response.setHeader(name, CollectionUtils.firstElement(values));
             }
         });
+        if (response.getContentType() == null && resource.contentType() != null) {
+            response.setContentType(resource.contentType());
+        }
     }
 
     private boolean matchesMediaType(String mediaType) {
         return StringJoinSplitUtils.split(mediaType).stream().map(MediaType::parseMediaType).anyMatch(media -> media.includes(MediaType.TEXT_HTML));
     }
 
+    /**
+     * If-None-Match 使用弱比较
+     *
+     * @param ifNoneMatch 请求头 If-None-Match
+     * @param etag        资源的 ETag
+     * @return 是否匹配
+     */
+    private static boolean matchesETag(@Nullable String ifNoneMatch, String etag) {
+        if (!StringUtils.hasText(ifNoneMatch)) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String value = tag.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if ("*".equals(value) || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 根据资源后缀名获取资源类型
+     *
+     * @param resourcePath 资源路径
+     * @return 资源类型，不是静态资源返回 null
+     */
+    @Nullable
+    private static String getContentType(String resourcePath) {
+        int index = resourcePath.lastIndexOf('.');
+        if (index < 0 || resourcePath.indexOf('/', index) >= 0) {
+            return null;
+        }
+        return STATIC_RESOURCES.get(resourcePath.substring(index));
+    }
 
     /**
      * 返回一个支持缓存的资源加载器
@@ -167,18 +261,154 @@ public class IndexHtmlResourcesFilter extends OncePerRequestFilter {
         /**
          * 资源缓存
          */
-        private final Cache<@NotNull String, byte[]> resourcesCaches = Caffeine.newBuilder().expireAfterWrite(Duration.ofDays(1)).maximumSize(200).build();
+        private final Cache<@NotNull String, StaticResource> resourcesCaches = Caffeine.newBuilder().expireAfterWrite(Duration.ofDays(1)).maximumSize(200).build();
 
         @Override
         public byte[] apply(String resourcePath) {
+            return getResource(resourcePath).identity().content();
+        }
+
+        StaticResource getResource(String resourcePath) {
             return resourcesCaches.get(resourcePath, key -> {
                 ResponseEntity<ByteArrayResource> resp = delegate.apply(resourcePath);
-                HEADER_CACHES.put(key, resp.getHeaders());
                 AssertUtils.isTrue(resp.hasBody(), () -> String.format("load resource： %s failure", key));
                 ByteArrayResource result = resp.getBody();
                 AssertUtils.notNull(result, "load html resource must not null");
-                return result.getByteArray();
+                return StaticResource.of(key, resp.getHeaders(), result.getByteArray(), true);
             });
         }
     }
+
+    /**
+     * 静态资源
+     *
+     * @param headers     资源加载器返回的响应头
+     * @param contentType 根据资源路径推断的资源类型
+     * @param identity    原始内容
+     * @param gzip        gzip 压缩的内容，不可压缩时为 null
+     * @param deflate     deflate 压缩的内容，不可压缩时为 null
+     */
+    @VisibleForTesting
+    record StaticResource(HttpHeaders headers, @Nullable String contentType, ResourceVariant identity, @Nullable ResourceVariant gzip,
+                          @Nullable ResourceVariant deflate) {
+
+        static StaticResource of(String resourcePath, HttpHeaders headers, byte[] content, boolean compress) {
+            String contentType = INDEX_HTML_NAME.equals(resourcePath) ? MediaType.TEXT_HTML_VALUE : getContentType(resourcePath);
+            String hash = sha256Hex(content);
+            ResourceVariant identity = new ResourceVariant(null, "\"" + hash + "\"", content);
+            if (!compress || content.length < MIN_COMPRESS_SIZE || !isCompressible(headers, contentType)) {
+                return new StaticResource(headers, contentType, identity, null, null);
+            }
+            ResourceVariant gzip = compress(GZIP_ENCODING, hash, content);
+            ResourceVariant deflate = compress(DEFLATE_ENCODING, hash, content);
+            return new StaticResource(headers, contentType, identity, gzip, deflate);
+        }
+
+        boolean isCompressed() {
+            return gzip != null || deflate != null;
+        }
+
+        /**
+         * 根据 Accept-Encoding 选择写回的内容，优先使用 gzip
+         */
+        ResourceVariant select(@Nullable String acceptEncoding) {
+            if (!isCompressed() || !StringUtils.hasText(acceptEncoding)) {
+                return identity;
+            }
+            Set<String> encodings = parseAcceptEncodings(acceptEncoding);
+            if (gzip != null && encodings.contains(GZIP_ENCODING)) {
+                return gzip;
+            }
+            if (deflate != null && encodings.contains(DEFLATE_ENCODING)) {
+                return deflate;
+            }
+            return identity;
+        }
+
+        private static Set<String> parseAcceptEncodings(String acceptEncoding) {
+            Set<String> result = new HashSet<>();
+            for (String item : acceptEncoding.split(",")) {
+                String[] parts = item.trim().split(";");
+                if (parts.length > 1 && parts[1].trim().matches("q\\s*=\\s*0(\\.0*)?")) {
+                    // q=0 表示不接受
+                    continue;
+                }
+                result.add(parts[0].trim().toLowerCase());
+            }
+            return result;
+        }
+
+        private static boolean isCompressible(HttpHeaders headers, @Nullable String contentType) {
+            if (headers.getFirst(HttpHeaders.CONTENT_ENCODING) != null) {
+                // 资源已被压缩
+                return false;
+            }
+            MediaType mediaType = headers.getContentType();
+            String type = mediaType == null ? contentType : mediaType.getType() + "/" + mediaType.getSubtype();
+            return type != null && (type.startsWith("text/") || COMPRESSIBLE_CONTENT_TYPES.contains(type));
+        }
+
+        @Nullable
+        private static ResourceVariant compress(String encoding, String hash, byte[] content) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream(content.length / 2);
+            try (OutputStream stream = GZIP_ENCODING.equals(encoding) ? new BestCompressionGZIPOutputStream(output) :
+                    new BestCompressionDeflaterOutputStream(output)) {
+                stream.write(content);
+            } catch (IOException exception) {
+                throw new BaseException(DefaultExceptionCode.COMMON_ERROR, "compress resource error", exception);
+            }
+            byte[] result = output.toByteArray();
+            // 压缩后没有变小则不使用
+            return result.length < content.length ? new ResourceVariant(encoding, "\"" + hash + "-" + encoding + "\"", result) : null;
+        }
+
+        private static String sha256Hex(byte[] content) {
+            try {
+                return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+            } catch (NoSuchAlgorithmException exception) {
+                throw BaseException.common("unsupported digest algorithm: SHA-256");
+            }
+        }
+    }
+
+    /**
+     * 资源的一种编码内容
+     *
+     * @param encoding 内容编码，原始内容为 null
+     * @param etag     强 ETag，不同编码的内容使用不同的 ETag
+     * @param content  内容
+     */
+    @VisibleForTesting
+    record ResourceVariant(@Nullable String encoding, String etag, byte[] content) {
+    }
+
+    /**
+     * 使用最高压缩级别的 {@link GZIPOutputStream}，资源只在加载时压缩一次
+     */
+    private static final class BestCompressionGZIPOutputStream extends GZIPOutputStream {
+
+        private BestCompressionGZIPOutputStream(OutputStream out) throws IOException {
+            super(out);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+
+    /**
+     * 使用最高压缩级别的 {@link DeflaterOutputStream}，关闭时释放 {@link Deflater}
+     */
+    private static final class BestCompressionDeflaterOutputStream extends DeflaterOutputStream {
+
+        private BestCompressionDeflaterOutputStream(OutputStream out) {
+            super(out, new Deflater(Deflater.BEST_COMPRESSION));
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                def.end();
+            }
+        }
+    }
 }
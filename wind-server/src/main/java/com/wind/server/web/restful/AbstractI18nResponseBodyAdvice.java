@@ -1,37 +1,62 @@
 package com.wind.server.web.restful;
 
+import com.wind.common.WindConstants;
 import com.wind.common.annotations.I18n;
+import com.wind.common.exception.BaseException;
+import com.wind.common.exception.DefaultExceptionCode;
 import com.wind.common.i18n.SpringI18nMessageUtils;
+import com.wind.common.message.MessagePlaceholder;
 import com.wind.common.query.supports.Pagination;
 import com.wind.common.util.WindReflectUtils;
 import com.wind.script.spring.SpringExpressionEvaluator;
 import com.wind.server.web.supports.ApiResp;
 import jakarta.annotation.Nonnull;
 import jakarta.validation.constraints.NotNull;
+import org.jetbrains.annotations.VisibleForTesting;
 import org.springframework.core.MethodParameter;
 import org.springframework.expression.EvaluationContext;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.http.MediaType;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.Nullable;
 import org.springframework.util.StringUtils;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 响应之前尝试处理结果对象中被 {@link I18n}注解标记的字段
  * <p>
+ * 每个类型只解析一次国际化字段，生成处理计划（字段访问句柄、预解析的表达式）并缓存，没有国际化字段的类型缓存空计划直接跳过
  *
  * @author wuxp
  * @date 2024-07-11 15:43
  **/
 public abstract class AbstractI18nResponseBodyAdvice implements ResponseBodyAdvice<Object> {
 
-    private static final Field[] EMPTY = new Field[0];
+    private static final ExpressionParser PARSER = new SpelExpressionParser();
+
+    private static final TemplateParserContext TEMPLATE_PARSER_CONTEXT = new TemplateParserContext(WindConstants.DELIM_START, WindConstants.DELIM_END);
+
+    /**
+     * 类型的国际化处理计划
+     *
+     * @key 类型
+     * @value 处理计划
+     */
+    private static final Map<Class<?>, I18nFieldPlan> FIELD_PLANS = new ConcurrentHashMap<>();
 
     private final Locale defaultLocal;
 
@@ -80,40 +105,102 @@ public abstract class AbstractI18nResponseBodyAdvice implements ResponseBodyAdvi
         if (val == null) {
             return;
         }
-        Field[] fields = this.parseI18nFields(val.getClass());
-        for (Field field : fields) {
-            if (field.getType() == String.class) {
+        I18nFieldPlan plan = getFieldPlan(val.getClass());
+        for (I18nField field : plan.fields()) {
+            if (field.text()) {
                 fillI18nMessage(val, field);
             } else {
                 // 字段为复杂对象
-                handleReturnValueI18n(WindReflectUtils.getFieldValue(field, val));
+                handleReturnValueI18n(field.getValue(val));
             }
         }
     }
 
-    private void fillI18nMessage(Object val, Field field) {
-        I18n annotation = field.getAnnotation(I18n.class);
-        String name = annotation.name();
+    private void fillI18nMessage(Object val, I18nField field) {
         String messageKey;
-        if (StringUtils.hasText(name)) {
-            // 通过 spring expression 解析
-            EvaluationContext context = new StandardEvaluationContext();
-            context.setVariable(I18n.OBJECT_VARIABLE_NAME, val);
-            messageKey = SpringExpressionEvaluator.TEMPLATE.eval(name, context);
+        if (field.nameExpression() == null) {
+            messageKey = (String) field.getValue(val);
         } else {
-            messageKey = WindReflectUtils.getFieldValue(field, val);
+            // 通过预解析的 spring expression 获取
+            EvaluationContext context = SpringExpressionEvaluator.createEvaluationContext(null, Map.of(I18n.OBJECT_VARIABLE_NAME, val));
+            messageKey = field.nameExpression().getValue(context, String.class);
         }
         String i18nMessage = getI18nMessage(messageKey);
         if (StringUtils.hasText(i18nMessage)) {
-            WindReflectUtils.setFieldValue(field, val, i18nMessage);
+            field.setValue(val, i18nMessage);
+        }
+    }
+
+    @VisibleForTesting
+    static I18nFieldPlan getFieldPlan(Class<?> clazz) {
+        return FIELD_PLANS.computeIfAbsent(clazz, AbstractI18nResponseBodyAdvice::compileFieldPlan);
+    }
+
+    private static I18nFieldPlan compileFieldPlan(Class<?> clazz) {
+        Class<?> superclass = clazz.getSuperclass();
+        if (clazz.isAnnotationPresent(I18n.class) || (superclass != null && superclass.isAnnotationPresent(I18n.class))) {
+            I18nField[] fields = Arrays.stream(WindReflectUtils.findFields(clazz, I18n.class))
+                    .map(AbstractI18nResponseBodyAdvice::compileField)
+                    .toArray(I18nField[]::new);
+            return fields.length == 0 ? I18nFieldPlan.EMPTY : new I18nFieldPlan(fields);
         }
+        return I18nFieldPlan.EMPTY;
     }
 
-    private Field[] parseI18nFields(Class<?> clazz) {
-        if ((clazz.isAnnotationPresent(I18n.class) || clazz.getSuperclass().isAnnotationPresent(I18n.class))) {
-            return WindReflectUtils.findFields(clazz, I18n.class);
+    private static I18nField compileField(Field field) {
+        MethodType getterType = MethodType.methodType(Object.class, Object.class);
+        MethodHandle getter = WindReflectUtils.exchangeGetterHandle(field).asType(getterType);
+        boolean text = field.getType() == String.class;
+        if (!text) {
+            return new I18nField(field.getName(), getter, null, false, null);
         }
-        return EMPTY;
+        MethodType setterType = MethodType.methodType(void.class, Object.class, Object.class);
+        MethodHandle setter = WindReflectUtils.exchangeSetterHandle(field).asType(setterType);
+        String name = field.getAnnotation(I18n.class).name();
+        Expression expression = StringUtils.hasText(name) ? PARSER.parseExpression(name, TEMPLATE_PARSER_CONTEXT) : null;
+        return new I18nField(field.getName(), getter, setter, true, expression);
     }
 
+    /**
+     * 类型的国际化处理计划
+     *
+     * @param fields 需要处理的字段
+     */
+    @VisibleForTesting
+    record I18nFieldPlan(I18nField[] fields) {
+
+        private static final I18nFieldPlan EMPTY = new I18nFieldPlan(new I18nField[0]);
+
+        boolean isEmpty() {
+            return fields.length == 0;
+        }
+    }
+
+    /**
+     * 国际化字段
+     *
+     * @param name           字段名称
+     * @param getter         字段读取句柄
+     * @param setter         字段写入句柄，仅字符串字段存在
+     * @param text           是否为字符串字段，否则为需要递归处理的复杂对象
+     * @param nameExpression 预解析的 {@link I18n#name()} 表达式，为空则使用字段值作为 key
+     */
+    record I18nField(String name, MethodHandle getter, @Nullable MethodHandle setter, boolean text, @Nullable Expression nameExpression) {
+
+        Object getValue(Object target) {
+            try {
+                return getter.invokeExact(target);
+            } catch (Throwable e) {
+                throw new BaseException(DefaultExceptionCode.COMMON_FRIENDLY_ERROR, MessagePlaceholder.of("get field value error, name = {}", name), e);
+            }
+        }
+
+        void setValue(Object target, Object val) {
+            try {
+                Objects.requireNonNull(setter).invokeExact(target, val);
+            } catch (Throwable e) {
+                throw new BaseException(DefaultExceptionCode.COMMON_FRIENDLY_ERROR, MessagePlaceholder.of("set field value error, name = {}", name), e);
+            }
+        }
+    }
 }
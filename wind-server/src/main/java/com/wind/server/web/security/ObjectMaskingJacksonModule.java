@@ -0,0 +1,270 @@
+package com.wind.server.web.security;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.PropertyFilter;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.type.MapType;
+import com.wind.common.util.WindDeepCopyUtils;
+import com.wind.mask.MaskRule;
+import com.wind.mask.MaskRuleGroup;
+import com.wind.mask.MaskRuleRegistry;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 在 jackson 序列化时脱敏，不修改也不复制响应对象
+ * 1：序列化器构建时（每个类型一次）根据 {@link MaskRuleRegistry} 生成脱敏计划，只有存在脱敏规则的属性才会被替换为 {@link MaskingPropertyWriter}
+ * 2：{@link Map} 类型使用 {@link MaskingMapSerializer} 在每次序列化时按 Map 的脱敏规则处理 key 对应的值，和 {@link com.wind.mask.ObjectDataMasker} 保持一致
+ * 3：仅在使用 {@link MaskingFilterProvider} 序列化时脱敏（由 {@link ObjectMaskingResponseBodyAdvice} 设置），其它场景的序列化不受影响
+ * 4：规则发生变更（{@link MaskRuleRegistry#getVersion()}）后，由 {@link #refreshIfRulesChanged()} 清除已注册 {@link ObjectMapper} 缓存的序列化器，重新生成脱敏计划
+ *
+ * @author wuxp
+ * @date 2025-10-27 14:20
+ **/
+public class ObjectMaskingJacksonModule extends SimpleModule {
+
+    /**
+     * 已注册到 ObjectMapper 的模块
+     */
+    private static final List<ObjectMaskingJacksonModule> MODULES = new CopyOnWriteArrayList<>();
+
+    private final transient MaskRuleRegistry registry;
+
+    /**
+     * 注册了该模块的 ObjectMapper，规则变更时需要清除其缓存的序列化器
+     */
+    private final transient List<ObjectMapper> owners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 当前缓存的序列化器使用的规则版本
+     */
+    private final transient AtomicLong planVersion;
+
+    public ObjectMaskingJacksonModule(MaskRuleRegistry registry) {
+        super(ObjectMaskingJacksonModule.class.getSimpleName());
+        this.registry = registry;
+        this.planVersion = new AtomicLong(registry.getVersion());
+        setSerializerModifier(new MaskingSerializerModifier());
+    }
+
+    public ObjectMaskingJacksonModule() {
+        this(ObjectMaskingResponseBodyAdvice.RESPONSE_BODY_REGISTRY);
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        super.setupModule(context);
+        if (context.getOwner() instanceof ObjectMapper mapper) {
+            owners.add(mapper);
+        }
+        if (!MODULES.contains(this)) {
+            MODULES.add(this);
+        }
+    }
+
+    static boolean isRegistered() {
+        return !MODULES.isEmpty();
+    }
+
+    /**
+     * 脱敏规则变更后清除序列化器缓存，保证后续的序列化使用最新的规则
+     */
+    static void refreshIfRulesChanged() {
+        for (ObjectMaskingJacksonModule module : MODULES) {
+            module.refresh();
+        }
+    }
+
+    private void refresh() {
+        long version = planVersion.get();
+        long current = registry.getVersion();
+        if (version != current && planVersion.compareAndSet(version, current)) {
+            for (ObjectMapper mapper : owners) {
+                if (mapper.getSerializerProvider() instanceof DefaultSerializerProvider provider) {
+                    provider.flushCachedSerializers();
+                }
+            }
+        }
+    }
+
+    private final class MaskingSerializerModifier extends BeanSerializerModifier {
+
+        @Override
+        public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc, List<BeanPropertyWriter> beanProperties) {
+            MaskRuleGroup group = registry.getRuleGroup(beanDesc.getBeanClass());
+            if (group.getRules().isEmpty()) {
+                return beanProperties;
+            }
+            List<BeanPropertyWriter> result = new ArrayList<>(beanProperties.size());
+            for (BeanPropertyWriter writer : beanProperties) {
+                MaskRule rule = group.matchesWithName(writer.getName());
+                result.add(rule == null ? writer : new MaskingPropertyWriter(writer, rule));
+            }
+            return result;
+        }
+
+        @Override
+        public JsonSerializer<?> modifyMapSerializer(SerializationConfig config, MapType valueType, BeanDescription beanDesc, JsonSerializer<?> serializer) {
+            return new MaskingMapSerializer(registry, serializer);
+        }
+    }
+
+    /**
+     * 按 Map 的脱敏规则输出 Map，每次序列化时查找规则，脱敏时复制 Map，不修改原有的 Map
+     */
+    private static final class MaskingMapSerializer extends StdSerializer<Map<?, ?>> implements ContextualSerializer, ResolvableSerializer {
+
+        private final transient MaskRuleRegistry registry;
+
+        private final JsonSerializer<Object> delegate;
+
+        @SuppressWarnings("unchecked")
+        private MaskingMapSerializer(MaskRuleRegistry registry, JsonSerializer<?> delegate) {
+            super(Map.class, false);
+            this.registry = registry;
+            this.delegate = (JsonSerializer<Object>) delegate;
+        }
+
+        @Override
+        public JsonSerializer<?> createContextual(SerializerProvider prov, BeanProperty property) throws JsonMappingException {
+            if (delegate instanceof ContextualSerializer serializer) {
+                JsonSerializer<?> result = serializer.createContextual(prov, property);
+                return result == delegate ? this : new MaskingMapSerializer(registry, result);
+            }
+            return this;
+        }
+
+        @Override
+        public void resolve(SerializerProvider provider) throws JsonMappingException {
+            if (delegate instanceof ResolvableSerializer serializer) {
+                serializer.resolve(provider);
+            }
+        }
+
+        @Override
+        public boolean isEmpty(SerializerProvider provider, Map<?, ?> value) {
+            return delegate.isEmpty(provider, value);
+        }
+
+        @Override
+        public void serialize(Map<?, ?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            delegate.serialize(maskIfNecessary(value, provider), gen, provider);
+        }
+
+        @Override
+        public void serializeWithType(Map<?, ?> value, JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSer) throws IOException {
+            delegate.serializeWithType(maskIfNecessary(value, provider), gen, provider, typeSer);
+        }
+
+        private Map<?, ?> maskIfNecessary(Map<?, ?> value, SerializerProvider provider) {
+            if (!(provider.getFilterProvider() instanceof MaskingFilterProvider) || value.isEmpty()) {
+                return value;
+            }
+            MaskRuleGroup group = registry.getRuleGroup(Map.class);
+            if (group.getRules().isEmpty()) {
+                return value;
+            }
+            Map<Object, Object> result = null;
+            for (Map.Entry<?, ?> entry : value.entrySet()) {
+                if (entry.getKey() instanceof String key && entry.getValue() instanceof String text) {
+                    MaskRule rule = group.matchesWithKey(key);
+                    if (rule != null) {
+                        if (result == null) {
+                            result = new LinkedHashMap<>(value);
+                        }
+                        result.put(key, rule.getMasker().mask(text));
+                    }
+                }
+            }
+            return result == null ? value : result;
+        }
+    }
+
+    /**
+     * 按脱敏规则输出属性值
+     */
+    private static final class MaskingPropertyWriter extends BeanPropertyWriter {
+
+        private final transient MaskRule rule;
+
+        private MaskingPropertyWriter(BeanPropertyWriter base, MaskRule rule) {
+            super(base);
+            this.rule = rule;
+        }
+
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+            if (!(prov.getFilterProvider() instanceof MaskingFilterProvider)) {
+                super.serializeAsField(bean, gen, prov);
+                return;
+            }
+            Object value = get(bean);
+            if (value == null) {
+                super.serializeAsField(bean, gen, prov);
+                return;
+            }
+            if (value instanceof Map<?, ?>) {
+                // Map 类型的脱敏器会修改原有的 Map，仅复制该属性值
+                value = WindDeepCopyUtils.copy(value);
+            }
+            gen.writeFieldName(_name);
+            prov.defaultSerializeValue(rule.mask(value), gen);
+        }
+    }
+
+    /**
+     * 用于标记本次序列化需要脱敏，其它 filter 的查找委托给原有的 {@link FilterProvider}
+     */
+    static final class MaskingFilterProvider extends FilterProvider {
+
+        static final MaskingFilterProvider INSTANCE = new MaskingFilterProvider(null);
+
+        @Nullable
+        private final FilterProvider delegate;
+
+        private MaskingFilterProvider(@Nullable FilterProvider delegate) {
+            this.delegate = delegate;
+        }
+
+        static MaskingFilterProvider of(@Nullable FilterProvider delegate) {
+            if (delegate instanceof MaskingFilterProvider provider) {
+                return provider;
+            }
+            return delegate == null ? INSTANCE : new MaskingFilterProvider(delegate);
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public BeanPropertyFilter findFilter(Object filterId) {
+            return delegate == null ? null : delegate.findFilter(filterId);
+        }
+
+        @Override
+        public PropertyFilter findPropertyFilter(Object filterId, Object valueToFilter) {
+            return delegate == null ? null : delegate.findPropertyFilter(filterId, valueToFilter);
+        }
+    }
+}
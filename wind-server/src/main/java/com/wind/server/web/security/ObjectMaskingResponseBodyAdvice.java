@@ -2,21 +2,39 @@ package com.wind.server.web.security;
 
 import com.wind.common.query.WindPagination;
 import com.wind.common.query.supports.Pagination;
+import com.wind.common.util.WindReflectUtils;
 import com.wind.mask.MaskRuleRegistry;
 import com.wind.mask.ObjectDataMasker;
 import com.wind.server.web.supports.ApiResp;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.wind.common.WindConstants.ENABLED_NAME;
 import static com.wind.common.WindConstants.TRUE;
@@ -24,6 +42,13 @@ import static com.wind.common.WindConstants.WIND_SERVER_OBJECT_MASK_ADVICE;
 
 /**
  * 响应脱敏处理
+ * 1：{@link MaskMode#MUTATE} 模式下直接修改响应对象的字段
+ * 2：{@link MaskMode#SERIALIZE} 模式下在 jackson 序列化时脱敏（需要注册 {@link ObjectMaskingJacksonModule}），响应对象不会被修改或复制，
+ * 规则变更后由 {@link ObjectMaskingJacksonModule#refreshIfRulesChanged()} 重新生成序列化器的脱敏计划
+ * 接口返回值类型（包括泛型参数及字段类型）确定没有脱敏规则时，缓存判断结果直接跳过，以下情况无法确定，始终需要脱敏：
+ * 1：类型不是 final 的（运行时可能返回带有脱敏规则的子类），或者无法解析具体的类型
+ * 2：类型嵌套超过 {@link #MAX_RESOLVE_DEPTH} 层
+ * 规则发生变更（{@link MaskRuleRegistry#getVersion()}）后重新判断
  *
  * @author wuxp
  * @date 2024-08-02 16:12
@@ -37,16 +62,54 @@ public class ObjectMaskingResponseBodyAdvice implements ResponseBodyAdvice<Objec
 
     private static final ObjectDataMasker MASKER = new ObjectDataMasker(RESPONSE_BODY_REGISTRY);
 
+    /**
+     * 判断返回值类型是否需要脱敏时，最大的递归深度
+     */
+    private static final int MAX_RESOLVE_DEPTH = 4;
+
+    /**
+     * 接口返回值是否需要脱敏
+     *
+     * @key 接口方法
+     * @value 是否需要脱敏
+     */
+    private static final Map<Method, MaskDecision> MASK_DECISIONS = new ConcurrentHashMap<>();
+
+    private static final AtomicBoolean MODULE_MISSING_WARNED = new AtomicBoolean(false);
+
+    private final MaskMode mode;
+
+    public ObjectMaskingResponseBodyAdvice() {
+        this(MaskMode.MUTATE);
+    }
+
+    @Autowired
+    public ObjectMaskingResponseBodyAdvice(@Value("${" + WIND_SERVER_OBJECT_MASK_ADVICE + ".mode:MUTATE}") MaskMode mode) {
+        this.mode = mode;
+    }
+
     @Override
     public boolean supports(MethodParameter returnType, @NotNull Class<? extends HttpMessageConverter<?>> converterType) {
-        Class<?> returnTypeClass = Objects.requireNonNull(returnType.getMethod()).getReturnType();
-        return returnTypeClass.isAssignableFrom(ApiResp.class) || RESPONSE_BODY_REGISTRY.requireMask(returnTypeClass);
+        Method method = Objects.requireNonNull(returnType.getMethod());
+        long version = RESPONSE_BODY_REGISTRY.getVersion();
+        MaskDecision result = MASK_DECISIONS.get(method);
+        if (result == null || result.version() != version) {
+            result = new MaskDecision(version, requireMask(ResolvableType.forMethodReturnType(method), new HashSet<>(), 0));
+            MASK_DECISIONS.put(method, result);
+        }
+        return result.requireMask();
     }
 
     @Override
     public Object beforeBodyWrite(Object body, @NotNull MethodParameter returnType, @NotNull MediaType selectedContentType, @NotNull Class<?
             extends HttpMessageConverter<?>> selectedConverterType, @NotNull ServerHttpRequest request, @NotNull ServerHttpResponse response) {
-        // TODO 待优化
+        if (body == null) {
+            return null;
+        }
+        if (mode == MaskMode.SERIALIZE && supportsSerializeMask(selectedConverterType)) {
+            ObjectMaskingJacksonModule.refreshIfRulesChanged();
+            return markSerializeMask(body);
+        }
         if (body instanceof ApiResp<?> resp) {
             sanitizeReturnValue(resp.getData());
         } else {
@@ -55,6 +118,25 @@ public class ObjectMaskingResponseBodyAdvice implements ResponseBodyAdvice<Objec
         return body;
     }
 
+    /**
+     * 使用 {@link ObjectMaskingJacksonModule.MaskingFilterProvider} 标记本次序列化需要脱敏
+     *
+     * @param body 响应对象
+     * @return 标记后的响应对象
+     */
+    @VisibleForTesting
+    static MappingJacksonValue markSerializeMask(Object body) {
+        MappingJacksonValue result = body instanceof MappingJacksonValue value ? value : new MappingJacksonValue(body);
+        result.setFilters(ObjectMaskingJacksonModule.MaskingFilterProvider.of(result.getFilters()));
+        return result;
+    }
+
+    @VisibleForTesting
+    static boolean requireMask(Method method) {
+        MaskDecision result = MASK_DECISIONS.get(method);
+        return result != null && result.requireMask();
+    }
+
     private void sanitizeReturnValue(Object result) {
         if (result instanceof WindPagination<?> pagination) {
             // 分页对象
@@ -63,4 +145,97 @@ public class ObjectMaskingResponseBodyAdvice implements ResponseBodyAdvice<Objec
             MASKER.mask(result);
         }
     }
+
+    private static boolean supportsSerializeMask(Class<?> converterType) {
+        if (!AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType)) {
+            return false;
+        }
+        if (ObjectMaskingJacksonModule.isRegistered()) {
+            return true;
+        }
+        if (MODULE_MISSING_WARNED.compareAndSet(false, true)) {
+            log.warn("{} not registered, fallback to mask mode {}", ObjectMaskingJacksonModule.class.getName(), MaskMode.MUTATE);
+        }
+        return false;
+    }
+
+    /**
+     * 判断类型是否需要脱敏，无法确定时返回 true
+     *
+     * @param type     类型
+     * @param visited  已经检查过的类型
+     * @param depth    递归深度
+     * @return 是否需要脱敏
+     */
+    private static boolean requireMask(ResolvableType type, Set<Class<?>> visited, int depth) {
+        Class<?> clazz = type.resolve();
+        if (clazz == null || clazz == Object.class || depth > MAX_RESOLVE_DEPTH) {
+            return true;
+        }
+        if (ClassUtils.isPrimitiveOrWrapper(clazz) || clazz.isEnum()) {
+            return false;
+        }
+        if (clazz.isArray()) {
+            return requireMask(type.getComponentType(), visited, depth + 1);
+        }
+        if (ApiResp.class.isAssignableFrom(clazz)) {
+            return requireMask(type.as(ApiResp.class).getGeneric(0), visited, depth + 1);
+        }
+        if (HttpEntity.class.isAssignableFrom(clazz)) {
+            return requireMask(type.as(HttpEntity.class).getGeneric(0), visited, depth + 1);
+        }
+        if (WindPagination.class.isAssignableFrom(clazz)) {
+            return requireMask(type.as(WindPagination.class).getGeneric(0), visited, depth + 1);
+        }
+        if (Collection.class.isAssignableFrom(clazz)) {
+            return requireMask(type.as(Collection.class).getGeneric(0), visited, depth + 1);
+        }
+        if (Map.class.isAssignableFrom(clazz)) {
+            return hasRules(Map.class) || requireMask(type.as(Map.class).getGeneric(1), visited, depth + 1);
+        }
+        if (clazz.getName().startsWith("java.")) {
+            // jdk 的值类型（例如：String、BigDecimal、日期）不需要脱敏，接口或抽象类（例如：Serializable、Number）无法确定运行时类型
+            return clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers());
+        }
+        if (hasRules(clazz) || !Modifier.isFinal(clazz.getModifiers())) {
+            return true;
+        }
+        if (!visited.add(clazz)) {
+            // 循环引用，该类型已在检查中
+            return false;
+        }
+        for (Field field : WindReflectUtils.getFields(clazz)) {
+            if (requireMask(ResolvableType.forField(field, type), visited, depth + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasRules(Class<?> clazz) {
+        return !RESPONSE_BODY_REGISTRY.getRuleGroup(clazz).getRules().isEmpty();
+    }
+
+    /**
+     * @param version     判断时的规则版本
+     * @param requireMask 是否需要脱敏
+     */
+    private record MaskDecision(long version, boolean requireMask) {
+    }
+
+    /**
+     * 脱敏模式
+     */
+    public enum MaskMode {
+
+        /**
+         * 直接修改响应对象
+         */
+        MUTATE,
+
+        /**
+         * 序列化时脱敏
+         */
+        SERIALIZE
+    }
 }
@@ -0,0 +1,116 @@
+package com.wind.server.configcenter;
+
+import com.wind.common.WindConstants;
+import com.wind.common.exception.BaseException;
+import com.wind.configcenter.core.ConfigRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author wuxp
+ * @date 2025-10-25 14:00
+ **/
+@Slf4j
+class WindPropertySourceLoaderTests {
+
+    private static final long DELAY_MILLIS = 300;
+
+    @Test
+    void testLoadConcurrently() {
+        DelayedConfigRepository repository = new DelayedConfigRepository(DELAY_MILLIS);
+        WindPropertySourceLoader loader = new WindPropertySourceLoader(repository, mockProperties(Duration.ofSeconds(10)));
+        long start = System.currentTimeMillis();
+        CompositePropertySource result = (CompositePropertySource) loader.locateConfigs(mockEnvironment());
+        long costTime = System.currentTimeMillis() - start;
+        int size = repository.counter.get();
+        log.info("load {} configs cost {} ms, sequential cost at least {} ms", size, costTime, size * DELAY_MILLIS);
+        Assertions.assertTrue(size >= 6);
+        // 耗时取决于最慢的配置，而不是所有配置耗时之和
+        Assertions.assertTrue(costTime < DELAY_MILLIS * 3);
+
+        // 后加载的配置优先级更高，和顺序加载保持一致
+        List<String> names = result.getPropertySources().stream().map(PropertySource::getName).toList();
+        Assertions.assertEquals(List.of("ext-b.properties", "ext-a.properties", "share-b.properties", "share-a.properties", "example.properties"),
+                names.subList(0, 5));
+        Assertions.assertEquals("ext-b.properties", result.getProperty("example.source"));
+        Assertions.assertTrue(WindPropertySourceLoader.getLoadCostMillis().get(WindConstants.APP_CONFIG_GROUP + ":example.properties") >= DELAY_MILLIS);
+    }
+
+    @Test
+    void testLoadTimeout() {
+        WindPropertySourceLoader loader = new WindPropertySourceLoader(new DelayedConfigRepository(DELAY_MILLIS * 10),
+                mockProperties(Duration.ofMillis(DELAY_MILLIS)));
+        long start = System.currentTimeMillis();
+        BaseException exception = Assertions.assertThrows(BaseException.class, () -> loader.locateConfigs(mockEnvironment()));
+        Assertions.assertTrue(exception.getMessage().contains("timeout"));
+        Assertions.assertTrue(System.currentTimeMillis() - start < DELAY_MILLIS * 5);
+    }
+
+    private static MockEnvironment mockEnvironment() {
+        MockEnvironment result = new MockEnvironment();
+        result.setProperty(WindConstants.SPRING_APPLICATION_NAME, "example");
+        return result;
+    }
+
+    private static WindConfigCenterProperties mockProperties(Duration loadTimeout) {
+        WindConfigCenterProperties result = new WindConfigCenterProperties();
+        result.setAppShareConfigs(List.of("share-a", "share-b"));
+        result.setExtensionConfigs(List.of(SimpleConfigDescriptor.of("ext-a", "EXT"), SimpleConfigDescriptor.of("ext-b", "EXT")));
+        result.setLoadTimeout(loadTimeout);
+        return result;
+    }
+
+    /**
+     * 延迟返回的内存配置仓库
+     */
+    private static class DelayedConfigRepository implements ConfigRepository {
+
+        private final long delayMillis;
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        DelayedConfigRepository(long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public void saveTextConfig(ConfigDescriptor descriptor, String content) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getConfigSourceName() {
+            return "Delayed-Config";
+        }
+
+        @Override
+        public String getTextConfig(ConfigDescriptor descriptor) {
+            counter.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(exception);
+            }
+            return "example.source=" + descriptor.getConfigId();
+        }
+
+        @Override
+        public List<PropertySource<?>> getConfigs(ConfigDescriptor descriptor) {
+            String config = getTextConfig(descriptor);
+            Map<String, Object> source = Collections.singletonMap("example.source", config.substring(config.indexOf('=') + 1));
+            return Collections.singletonList(new MapPropertySource(descriptor.getConfigId(), source));
+        }
+    }
+}
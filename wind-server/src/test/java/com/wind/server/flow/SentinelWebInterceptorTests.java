@@ -11,6 +11,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -19,6 +21,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author wuxp
@@ -47,6 +50,60 @@ class SentinelWebInterceptorTests {
         concurrentQps("/example/5qps", 50);
     }
 
+    @Test
+    void testCachedByHandlerMethod() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        HandlerMethodSentinelResourceProvider provider = new HandlerMethodSentinelResourceProvider(request -> {
+            counter.incrementAndGet();
+            return createResource("GET /example/10qps");
+        });
+        SentinelWebInterceptor cachedInterceptor = new SentinelWebInterceptor(provider);
+        HandlerMethod handlerMethod = new HandlerMethod(this, SentinelWebInterceptorTests.class.getDeclaredMethod("testFlow"));
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/example/10qps");
+            request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handlerMethod);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            Assertions.assertTrue(cachedInterceptor.preHandle(request, response, handlerMethod));
+            cachedInterceptor.afterCompletion(request, response, handlerMethod, null);
+        }
+        Assertions.assertEquals(1, counter.get());
+        Assertions.assertEquals(1, provider.getCachedSize());
+
+        // 非 HandlerMethod 处理的请求不缓存
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/example/10qps");
+        Assertions.assertNotNull(provider.apply(request));
+        Assertions.assertEquals(2, counter.get());
+    }
+
+    @Test
+    void testCachedBindRequestArgs() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        HandlerMethodSentinelResourceProvider provider = new HandlerMethodSentinelResourceProvider(request -> {
+            counter.incrementAndGet();
+            DefaultSentinelResource result = createResource("GET /example/users");
+            result.setArgs(List.of(request.getParameter("id")));
+            return result;
+        }, request -> new Object[]{request.getParameter("id")});
+        HandlerMethod handlerMethod = new HandlerMethod(this, SentinelWebInterceptorTests.class.getDeclaredMethod("testFlow"));
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/example/users");
+            request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handlerMethod);
+            request.setParameter("id", "user-" + i);
+            Assertions.assertArrayEquals(new Object[]{"user-" + i}, provider.apply(request).getEntryArgs());
+        }
+        Assertions.assertEquals(1, counter.get());
+
+        // 未配置参数解析器时不保留首次请求的参数
+        HandlerMethodSentinelResourceProvider withoutArgs = new HandlerMethodSentinelResourceProvider(request -> {
+            DefaultSentinelResource result = createResource("GET /example/users");
+            result.setArgs(List.of("user-0"));
+            return result;
+        });
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/example/users");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handlerMethod);
+        Assertions.assertEquals(0, withoutArgs.apply(request).getEntryArgs().length);
+    }
+
     private void concurrentQps(String uri, int concurrent) throws ExecutionException, InterruptedException {
         ExecutorService executorService = Executors.newFixedThreadPool(concurrent);
         List<Future<?>> futures = new ArrayList<>();
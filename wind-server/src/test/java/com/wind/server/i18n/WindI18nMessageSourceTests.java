@@ -0,0 +1,127 @@
+package com.wind.server.i18n;
+
+import com.wind.configcenter.core.ConfigRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author wuxp
+ * @date 2025-10-25 16:00
+ **/
+@Slf4j
+class WindI18nMessageSourceTests {
+
+    private InMemoryConfigRepository repository;
+
+    private WindI18nMessageSource messageSource;
+
+    @BeforeEach
+    void setup() {
+        repository = new InMemoryConfigRepository();
+        repository.configs.put("example-zh_CN", Map.of("hello", "你好", "welcome", "欢迎 {}，今天是 {}", "quote", "it''s {0}"));
+        repository.configs.put("example-en_US", Map.of("hello", "hello", "welcome", "welcome {}, today is {}"));
+        WindMessageSourceProperties properties = new WindMessageSourceProperties();
+        properties.setName("example");
+        properties.setLocales(Set.of(Locale.SIMPLIFIED_CHINESE, Locale.US));
+        messageSource = new WindI18nMessageSource(repository, properties);
+        messageSource.setFallbackToSystemLocale(false);
+    }
+
+    @Test
+    void testGetMessage() {
+        Assertions.assertEquals("你好", messageSource.getMessage("hello", null, Locale.SIMPLIFIED_CHINESE));
+        Assertions.assertEquals("hello", messageSource.getMessage("hello", null, Locale.US));
+        Assertions.assertEquals("欢迎 wind，今天是 周一", messageSource.getMessage("welcome", new Object[]{"wind", "周一"}, Locale.SIMPLIFIED_CHINESE));
+        Assertions.assertEquals("welcome wind, today is monday", messageSource.getMessage("welcome", new Object[]{"wind", "monday"}, Locale.US));
+        Assertions.assertEquals("it's wind", messageSource.getMessage("quote", new Object[]{"wind"}, Locale.SIMPLIFIED_CHINESE));
+        // 消息不存在时使用 code 作为消息模板
+        Assertions.assertEquals("user wind not found", messageSource.getMessage("user {} not found", new Object[]{"wind"}, Locale.US));
+        Assertions.assertEquals("default", messageSource.getMessage("not_found", null, "default", Locale.US));
+        Assertions.assertEquals("default", messageSource.getMessage("hello", null, "default", Locale.JAPAN));
+    }
+
+    @Test
+    void testRefresh() {
+        repository.refresh("example-en_US", Map.of("hello", "hi", "welcome", "hi {}"));
+        Assertions.assertEquals("hi", messageSource.getMessage("hello", null, Locale.US));
+        Assertions.assertEquals("hi wind", messageSource.getMessage("welcome", new Object[]{"wind"}, Locale.US));
+        Assertions.assertEquals("你好", messageSource.getMessage("hello", null, Locale.SIMPLIFIED_CHINESE));
+    }
+
+    @Test
+    void testLookupThroughput() {
+        int times = 10_000;
+        Object[] args = {"wind", "monday"};
+        for (int i = 0; i < times; i++) {
+            // 预热
+            messageSource.getMessage("hello", null, Locale.US);
+            messageSource.getMessage("welcome", args, Locale.US);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            messageSource.getMessage("hello", null, Locale.US);
+        }
+        long noArgsCostTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            messageSource.getMessage("welcome", args, Locale.US);
+        }
+        long argsCostTime = System.nanoTime() - start;
+        log.info("i18n message lookup, no args = {} ns/op, with args = {} ns/op", noArgsCostTime / times, argsCostTime / times);
+        Assertions.assertEquals("hello", messageSource.getMessage("hello", null, Locale.US));
+        Assertions.assertEquals("welcome wind, today is monday", messageSource.getMessage("welcome", args, Locale.US));
+    }
+
+    private static class InMemoryConfigRepository implements ConfigRepository {
+
+        private final Map<String, Map<String, Object>> configs = new ConcurrentHashMap<>();
+
+        private final Map<String, PropertyConfigListener> listeners = new ConcurrentHashMap<>();
+
+        void refresh(String name, Map<String, Object> messages) {
+            configs.put(name, messages);
+            listeners.get(name).change(toPropertySources(name));
+        }
+
+        @Override
+        public void saveTextConfig(ConfigDescriptor descriptor, String content) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getConfigSourceName() {
+            return "In-Memory";
+        }
+
+        @Override
+        public String getTextConfig(ConfigDescriptor descriptor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<PropertySource<?>> getConfigs(ConfigDescriptor descriptor) {
+            return toPropertySources(descriptor.getName());
+        }
+
+        @Override
+        public ConfigSubscription onChange(ConfigDescriptor descriptor, PropertyConfigListener listener) {
+            listeners.put(descriptor.getName(), listener);
+            return ConfigSubscription.empty(descriptor);
+        }
+
+        private List<PropertySource<?>> toPropertySources(String name) {
+            return Collections.singletonList(new MapPropertySource(name, configs.getOrDefault(name, Map.of())));
+        }
+    }
+}
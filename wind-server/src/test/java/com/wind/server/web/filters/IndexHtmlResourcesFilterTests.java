@@ -0,0 +1,105 @@
+package com.wind.server.web.filters;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * @author wuxp
+ * @date 2025-10-28 10:05
+ **/
+@Slf4j
+class IndexHtmlResourcesFilterTests {
+
+    private static final String INDEX_HTML = "<!DOCTYPE html><html><head><title>wind</title></head><body>" + "<div class=\"app\"></div>".repeat(200) +
+            "</body></html>";
+
+    private static final String APP_JS = "console.log('wind');\n".repeat(500);
+
+    private final AtomicInteger loadTimes = new AtomicInteger();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        IndexHtmlResourcesFilter filter = new IndexHtmlResourcesFilter(IndexHtmlResourcesFilter.cacheWrapper(path -> {
+            loadTimes.incrementAndGet();
+            String content = IndexHtmlResourcesFilter.INDEX_HTML_NAME.equals(path) ? INDEX_HTML : APP_JS;
+            return ResponseEntity.ok(new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)));
+        }));
+        mockMvc = MockMvcBuilders.standaloneSetup(new Object()).addFilters(filter).build();
+    }
+
+    @Test
+    void testIndexHtml() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/web/users").accept(MediaType.TEXT_HTML)).andReturn().getResponse();
+        Assertions.assertEquals(HttpStatus.OK.value(), response.getStatus());
+        Assertions.assertEquals(INDEX_HTML, response.getContentAsString(StandardCharsets.UTF_8));
+        Assertions.assertNotNull(response.getHeader(HttpHeaders.ETAG));
+        Assertions.assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        Assertions.assertTrue(response.getContentType().startsWith(MediaType.TEXT_HTML_VALUE));
+    }
+
+    @Test
+    void testGzipAndNotModified() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/assets/app.js").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andReturn().getResponse();
+        Assertions.assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        Assertions.assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        Assertions.assertNotNull(response.getHeader(HttpHeaders.CACHE_CONTROL));
+        byte[] content = response.getContentAsByteArray();
+        Assertions.assertEquals(content.length, response.getContentLength());
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            Assertions.assertEquals(APP_JS, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        int rawLength = APP_JS.getBytes(StandardCharsets.UTF_8).length;
+        log.info("gzip response bytes = {}, raw bytes = {}, saved = {}", content.length, rawLength, rawLength - content.length);
+        Assertions.assertTrue(content.length < rawLength);
+
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        response = mockMvc.perform(get("/assets/app.js").header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn().getResponse();
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+        Assertions.assertEquals(0, response.getContentAsByteArray().length);
+        log.info("not modified response saved bytes = {}", content.length);
+        // 资源只加载一次
+        Assertions.assertEquals(1, loadTimes.get());
+    }
+
+    @Test
+    void testSelectEncoding() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/assets/app.js").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate"))
+                .andReturn().getResponse();
+        Assertions.assertEquals("deflate", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        String deflateETag = response.getHeader(HttpHeaders.ETAG);
+
+        response = mockMvc.perform(get("/assets/app.js")).andReturn().getResponse();
+        Assertions.assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        Assertions.assertEquals(APP_JS, response.getContentAsString(StandardCharsets.UTF_8));
+        // 不同编码的内容使用不同的 ETag
+        Assertions.assertNotEquals(deflateETag, response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void testIgnoreNotStaticResource() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/users.json/list")).andReturn().getResponse();
+        Assertions.assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatus());
+        Assertions.assertEquals(0, loadTimes.get());
+    }
+}
@@ -0,0 +1,153 @@
+package com.wind.server.web.restful;
+
+import com.wind.common.annotations.I18n;
+import com.wind.common.util.WindReflectUtils;
+import com.wind.script.spring.SpringExpressionEvaluator;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author wuxp
+ * @date 2025-10-27 10:12
+ **/
+@Slf4j
+class AbstractI18nResponseBodyAdviceTests {
+
+    private static final Map<String, String> MESSAGES = Map.of("ORDER_STATUS_PAID", "Paid", "ORDER_TYPE_1", "Normal", "商品", "Goods");
+
+    private final AbstractI18nResponseBodyAdvice advice = new AbstractI18nResponseBodyAdvice() {
+        @Override
+        protected String getI18nMessage(String key) {
+            return MESSAGES.getOrDefault(key, "");
+        }
+    };
+
+    @Test
+    void testFillI18nMessages() {
+        OrderVO order = mockOrder(1);
+        advice.beforeBodyWrite(RestfulApiRespFactory.ok(List.of(order)), null, null, null, null, null);
+        Assertions.assertEquals("Paid", order.getStatus());
+        Assertions.assertEquals("Normal", order.getTypeDesc());
+        Assertions.assertEquals("Goods", order.getItem().getName());
+        Assertions.assertEquals("ORDER_STATUS_PAID", order.getRemark());
+    }
+
+    @Test
+    void testSkipTypeWithoutI18nFields() {
+        AbstractI18nResponseBodyAdvice.I18nFieldPlan plan = AbstractI18nResponseBodyAdvice.getFieldPlan(PlainVO.class);
+        Assertions.assertTrue(plan.isEmpty());
+        // 空计划同样被缓存
+        Assertions.assertSame(plan, AbstractI18nResponseBodyAdvice.getFieldPlan(PlainVO.class));
+        Assertions.assertSame(AbstractI18nResponseBodyAdvice.getFieldPlan(OrderVO.class), AbstractI18nResponseBodyAdvice.getFieldPlan(OrderVO.class));
+        Assertions.assertEquals(3, AbstractI18nResponseBodyAdvice.getFieldPlan(OrderVO.class).fields().length);
+    }
+
+    @Test
+    void testLargeListBenchmark() {
+        int size = 10000;
+        // 预热
+        for (int i = 0; i < 3; i++) {
+            advice.beforeBodyWrite(RestfulApiRespFactory.ok(mockOrders(size)), null, null, null, null, null);
+            mockOrders(size).forEach(this::reflectFillI18nMessages);
+        }
+        List<OrderVO> orders = mockOrders(size);
+        long start = System.nanoTime();
+        orders.forEach(this::reflectFillI18nMessages);
+        long reflectCost = System.nanoTime() - start;
+        orders = mockOrders(size);
+        start = System.nanoTime();
+        advice.beforeBodyWrite(RestfulApiRespFactory.ok(orders), null, null, null, null, null);
+        long planCost = System.nanoTime() - start;
+        log.info("i18n advice list size = {}, reflect cost = {}ms, plan cost = {}ms", size, reflectCost / 1_000_000, planCost / 1_000_000);
+        Assertions.assertTrue(orders.stream().allMatch(order -> "Paid".equals(order.getStatus())));
+    }
+
+    /**
+     * 逐个响应反射查找字段、解析表达式的处理方式，用于对比
+     */
+    private void reflectFillI18nMessages(Object val) {
+        if (val == null || !val.getClass().isAnnotationPresent(I18n.class)) {
+            return;
+        }
+        for (Field field : WindReflectUtils.findFields(val.getClass(), I18n.class)) {
+            if (field.getType() != String.class) {
+                reflectFillI18nMessages(WindReflectUtils.getFieldValue(field, val));
+                continue;
+            }
+            String name = field.getAnnotation(I18n.class).name();
+            String key;
+            if (name.isEmpty()) {
+                key = WindReflectUtils.getFieldValue(field, val);
+            } else {
+                EvaluationContext context = new StandardEvaluationContext();
+                context.setVariable(I18n.OBJECT_VARIABLE_NAME, val);
+                key = SpringExpressionEvaluator.TEMPLATE.eval(name, context);
+            }
+            String message = MESSAGES.getOrDefault(key, "");
+            if (!message.isEmpty()) {
+                WindReflectUtils.setFieldValue(field, val, message);
+            }
+        }
+    }
+
+    private static List<OrderVO> mockOrders(int size) {
+        List<OrderVO> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(mockOrder(1));
+        }
+        return result;
+    }
+
+    private static OrderVO mockOrder(int type) {
+        OrderVO result = new OrderVO();
+        result.setStatus("ORDER_STATUS_PAID");
+        result.setType(type);
+        result.setTypeDesc("");
+        result.setRemark("ORDER_STATUS_PAID");
+        ItemVO item = new ItemVO();
+        item.setName("商品");
+        result.setItem(item);
+        return result;
+    }
+
+    @Data
+    @I18n
+    static class OrderVO {
+
+        @I18n
+        private String status;
+
+        private Integer type;
+
+        @I18n(name = "ORDER_TYPE_{#that.type}")
+        private String typeDesc;
+
+        private String remark;
+
+        @I18n
+        private ItemVO item;
+    }
+
+    @Data
+    @I18n
+    static class ItemVO {
+
+        @I18n
+        private String name;
+    }
+
+    @Data
+    static class PlainVO {
+
+        private String name;
+    }
+}
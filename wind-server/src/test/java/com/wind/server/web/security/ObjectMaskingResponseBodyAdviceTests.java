@@ -0,0 +1,262 @@
+package com.wind.server.web.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wind.common.query.supports.Pagination;
+import com.wind.mask.MaskRuleGroup;
+import com.wind.mask.ObjectDataMasker;
+import com.wind.mask.masker.StringRangMasker;
+import com.wind.server.web.restful.RestfulApiRespFactory;
+import com.wind.server.web.supports.ApiResp;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author wuxp
+ * @date 2025-10-27 14:20
+ **/
+@Slf4j
+class ObjectMaskingResponseBodyAdviceTests {
+
+    private static final String MOBILE_PHONE = "13800138000";
+
+    private final ObjectMaskingResponseBodyAdvice advice = new ObjectMaskingResponseBodyAdvice(ObjectMaskingResponseBodyAdvice.MaskMode.SERIALIZE);
+
+    private final MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter(
+            new ObjectMapper().registerModule(new ObjectMaskingJacksonModule()));
+
+    @BeforeAll
+    static void setup() {
+        ObjectMaskingResponseBodyAdvice.RESPONSE_BODY_REGISTRY.registerRule(MaskRuleGroup.builder()
+                .form(UserVO.class)
+                .of(StringRangMasker.phone(), "mobilePhone")
+                .last());
+    }
+
+    @AfterAll
+    static void after() {
+        ObjectMaskingResponseBodyAdvice.RESPONSE_BODY_REGISTRY.clearRules(UserVO.class);
+    }
+
+    @Test
+    void testSerializeMask() throws Exception {
+        List<UserVO> users = mockUsers(2);
+        String json = writeResponse(RestfulApiRespFactory.ok(users));
+        Assertions.assertTrue(json.contains("138****8000"));
+        Assertions.assertFalse(json.contains(MOBILE_PHONE));
+        // 响应对象没有被修改
+        Assertions.assertEquals(MOBILE_PHONE, users.getFirst().getMobilePhone());
+        // 未标记脱敏的序列化不受影响
+        Assertions.assertTrue(converter.getObjectMapper().writeValueAsString(users).contains(MOBILE_PHONE));
+    }
+
+    @Test
+    void testSerializeMaskMap() throws Exception {
+        ObjectMaskingResponseBodyAdvice.RESPONSE_BODY_REGISTRY.registerRule(MaskRuleGroup.builder()
+                .form(Map.class)
+                .of(StringRangMasker.phone(), "contactPhone")
+                .last());
+        try {
+            Map<String, Object> address = new HashMap<>();
+            address.put("address", "example");
+            address.put("contactPhone", MOBILE_PHONE);
+            String json = writeResponse(RestfulApiRespFactory.ok(address));
+            Assertions.assertTrue(json.contains("138****8000"));
+            Assertions.assertFalse(json.contains(MOBILE_PHONE));
+            Assertions.assertFalse(writeResponse(address).contains(MOBILE_PHONE));
+            // 响应对象没有被修改
+            Assertions.assertEquals(MOBILE_PHONE, address.get("contactPhone"));
+        } finally {
+            ObjectMaskingResponseBodyAdvice.RESPONSE_BODY_REGISTRY.clearRules(Map.class);
+        }
+    }
+
+    @Test
+    void testSerializeMaskAfterRuleChanged() throws Exception {
+        AddressVO address = new AddressVO();
+        address.setAddress("example");
+        address.setContactPhone(MOBILE_PHONE);
+        Assertions.assertTrue(writeResponse(RestfulApiRespFactory.ok(address)).contains(MOBILE_PHONE));
+        ObjectMaskingResponseBodyAdvice.RESPONSE_BODY_REGISTRY.registerRule(MaskRuleGroup.builder()
+                .form(AddressVO.class)
+                .of(StringRangMasker.phone(), "contactPhone")
+                .last());
+        try {
+            // 类型的序列化器已经构建，规则变更后重新生成脱敏计划
+            Assertions.assertFalse(writeResponse(RestfulApiRespFactory.ok(address)).contains(MOBILE_PHONE));
+        } finally {
+            ObjectMaskingResponseBodyAdvice.RESPONSE_BODY_REGISTRY.clearRules(AddressVO.class);
+        }
+        Assertions.assertTrue(writeResponse(RestfulApiRespFactory.ok(address)).contains(MOBILE_PHONE));
+    }
+
+    @Test
+    void testSupports() throws Exception {
+        Assertions.assertTrue(advice.supports(mockReturnType("getUsers"), MappingJackson2HttpMessageConverter.class));
+        Assertions.assertTrue(advice.supports(mockReturnType("getUserPage"), MappingJackson2HttpMessageConverter.class));
+        Assertions.assertTrue(advice.supports(mockReturnType("getOrder"), MappingJackson2HttpMessageConverter.class));
+        Assertions.assertTrue(advice.supports(mockReturnType("getObject"), MappingJackson2HttpMessageConverter.class));
+        Assertions.assertFalse(advice.supports(mockReturnType("getTags"), MappingJackson2HttpMessageConverter.class));
+        Assertions.assertFalse(advice.supports(mockReturnType("getTag"), MappingJackson2HttpMessageConverter.class));
+        // 判断结果被缓存
+        Assertions.assertFalse(ObjectMaskingResponseBodyAdvice.requireMask(ExampleController.class.getMethod("getTags")));
+        Assertions.assertTrue(ObjectMaskingResponseBodyAdvice.requireMask(ExampleController.class.getMethod("getUsers")));
+    }
+
+    @Test
+    void testSupportsUndecidableType() throws Exception {
+        // 非 final 类型，运行时可能返回带有脱敏规则的子类
+        Assertions.assertTrue(advice.supports(mockReturnType("getBase"), MappingJackson2HttpMessageConverter.class));
+        Assertions.assertTrue(advice.supports(mockReturnType("getSerializable"), MappingJackson2HttpMessageConverter.class));
+        // 嵌套超过最大深度
+        Assertions.assertTrue(advice.supports(mockReturnType("getNestedTags"), MappingJackson2HttpMessageConverter.class));
+    }
+
+    @Test
+    void testSupportsAfterRuleRegistered() throws Exception {
+        Assertions.assertFalse(advice.supports(mockReturnType("getAddress"), MappingJackson2HttpMessageConverter.class));
+        ObjectMaskingResponseBodyAdvice.RESPONSE_BODY_REGISTRY.registerRule(MaskRuleGroup.builder()
+                .form(AddressVO.class)
+                .of(StringRangMasker.phone(), "contactPhone")
+                .last());
+        try {
+            Assertions.assertTrue(advice.supports(mockReturnType("getAddress"), MappingJackson2HttpMessageConverter.class));
+        } finally {
+            ObjectMaskingResponseBodyAdvice.RESPONSE_BODY_REGISTRY.clearRules(AddressVO.class);
+        }
+        Assertions.assertFalse(advice.supports(mockReturnType("getAddress"), MappingJackson2HttpMessageConverter.class));
+    }
+
+    @Test
+    void testAllocationBenchmark() throws Exception {
+        ObjectDataMasker deepCopyMasker = ObjectDataMasker.ofDeepCopy(ObjectMaskingResponseBodyAdvice.RESPONSE_BODY_REGISTRY);
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        List<UserVO> users = mockUsers(1000);
+        int times = 20;
+        // 预热
+        for (int i = 0; i < times; i++) {
+            writeCopyMaskResponse(deepCopyMasker, users);
+            writeResponse(RestfulApiRespFactory.ok(users));
+        }
+        long start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < times; i++) {
+            writeCopyMaskResponse(deepCopyMasker, users);
+        }
+        long copyBytes = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+        start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < times; i++) {
+            writeResponse(RestfulApiRespFactory.ok(users));
+        }
+        long serializeBytes = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+        log.info("mask response allocated bytes, deep copy = {}, serialize = {}", copyBytes / times, serializeBytes / times);
+    }
+
+    private void writeCopyMaskResponse(ObjectDataMasker masker, List<UserVO> users) throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(RestfulApiRespFactory.ok(masker.mask(users)), MediaType.APPLICATION_JSON, message);
+    }
+
+    private String writeResponse(Object body) throws Exception {
+        Object value = advice.beforeBodyWrite(body, mockReturnType("getUsers"), MediaType.APPLICATION_JSON, MappingJackson2HttpMessageConverter.class,
+                null, null);
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(value, MediaType.APPLICATION_JSON, message);
+        return message.getBodyAsString(StandardCharsets.UTF_8);
+    }
+
+    private static MethodParameter mockReturnType(String methodName) throws NoSuchMethodException {
+        return new MethodParameter(ExampleController.class.getMethod(methodName), -1);
+    }
+
+    private static List<UserVO> mockUsers(int size) {
+        List<UserVO> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UserVO user = new UserVO();
+            user.setId((long) i);
+            user.setName("user-" + i);
+            user.setMobilePhone(MOBILE_PHONE);
+            result.add(user);
+        }
+        return result;
+    }
+
+    interface ExampleController {
+
+        ApiResp<List<UserVO>> getUsers();
+
+        ApiResp<Pagination<UserVO>> getUserPage();
+
+        ApiResp<OrderVO> getOrder();
+
+        ApiResp<Object> getObject();
+
+        ApiResp<List<String>> getTags();
+
+        TagVO getTag();
+
+        ApiResp<BaseVO> getBase();
+
+        ApiResp<Serializable> getSerializable();
+
+        ApiResp<List<List<List<List<List<String>>>>>> getNestedTags();
+
+        ApiResp<AddressVO> getAddress();
+    }
+
+    @Data
+    public static class UserVO {
+
+        private Long id;
+
+        private String name;
+
+        private String mobilePhone;
+    }
+
+    @Data
+    static class OrderVO {
+
+        private String sn;
+
+        private UserVO user;
+    }
+
+    @Data
+    static final class TagVO {
+
+        private String name;
+
+        private List<String> values;
+    }
+
+    @Data
+    static class BaseVO {
+
+        private Long id;
+    }
+
+    @Data
+    static final class AddressVO {
+
+        private String address;
+
+        private String contactPhone;
+    }
+}
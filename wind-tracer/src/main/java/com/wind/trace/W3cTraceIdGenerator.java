@@ -0,0 +1,94 @@
+package com.wind.trace;
+
+import com.wind.sequence.SequenceGenerator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 生成符合 W3C Trace Context 规范的 traceId（128 位，32 个小写十六进制字符，不能全为 0）
+ * 1：平台线程使用 {@link ThreadLocalRandom} 生成的种子创建自己的 {@link SplittableRandom}，并预分配十六进制编码的字节数组，生成一个 traceId 只创建结果字符串
+ * 2：虚拟线程通常只执行一次任务，不使用 {@link ThreadLocal} 缓存，直接使用 {@link ThreadLocalRandom} 生成
+ * 3：按字节查表编码，生成时没有共享的锁
+ * 注意：traceId 不用于安全场景（例如：令牌），不需要密码学安全的随机数
+ *
+ * @author wuxp
+ * @date 2025-10-30 15:40
+ * @see <a href="https://www.w3.org/TR/trace-context/#trace-id">trace-id</a>
+ **/
+public final class W3cTraceIdGenerator implements SequenceGenerator {
+
+    public static final W3cTraceIdGenerator INSTANCE = new W3cTraceIdGenerator();
+
+    /**
+     * traceId 长度
+     */
+    public static final int TRACE_ID_LENGTH = 32;
+
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 字节对应的两个十六进制字符，字节 b 对应下标 b * 2、b * 2 + 1
+     */
+    private static final byte[] BYTE_HEX = new byte[256 * 2];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            BYTE_HEX[i * 2] = HEX_DIGITS[i >>> 4];
+            BYTE_HEX[i * 2 + 1] = HEX_DIGITS[i & 0xF];
+        }
+    }
+
+    private static final ThreadLocal<Generator> GENERATORS = ThreadLocal.withInitial(Generator::new);
+
+    private W3cTraceIdGenerator() {
+    }
+
+    @Override
+    public String next() {
+        if (Thread.currentThread().isVirtual()) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long high;
+            long low;
+            do {
+                high = random.nextLong();
+                low = random.nextLong();
+            } while (high == 0 && low == 0);
+            return encode(high, low, new byte[TRACE_ID_LENGTH]);
+        }
+        return GENERATORS.get().next();
+    }
+
+    private static String encode(long high, long low, byte[] buffer) {
+        encode(high, buffer, 0);
+        encode(low, buffer, TRACE_ID_LENGTH / 2);
+        return new String(buffer, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void encode(long value, byte[] buffer, int offset) {
+        for (int i = offset + 14; i >= offset; i -= 2) {
+            int index = ((int) value & 0xFF) << 1;
+            buffer[i] = BYTE_HEX[index];
+            buffer[i + 1] = BYTE_HEX[index + 1];
+            value >>>= 8;
+        }
+    }
+
+    private static final class Generator {
+
+        private final SplittableRandom random = new SplittableRandom(ThreadLocalRandom.current().nextLong());
+
+        private final byte[] buffer = new byte[TRACE_ID_LENGTH];
+
+        String next() {
+            long high;
+            long low;
+            do {
+                high = random.nextLong();
+                low = random.nextLong();
+            } while (high == 0 && low == 0);
+            return encode(high, low, buffer);
+        }
+    }
+}
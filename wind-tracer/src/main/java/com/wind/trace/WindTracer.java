@@ -1,6 +1,7 @@
 package com.wind.trace;
 
 import com.wind.core.WritableContextVariables;
+import com.wind.trace.scoped.WindScopedTracer;
 import com.wind.trace.thread.WindThreadTracer;
 
 import jakarta.validation.constraints.NotBlank;
@@ -18,9 +19,14 @@ import java.util.Map;
 public interface WindTracer extends WritableContextVariables {
 
     /**
-     * 默认的 tracer
+     * 启用 {@link WindScopedTracer} 的系统属性名称
      */
-    WindTracer TRACER = new WindThreadTracer();
+    String SCOPED_TRACER_PROPERTY = "wind.tracer.scoped";
+
+    /**
+     * 默认的 tracer，设置系统属性 {@link #SCOPED_TRACER_PROPERTY} = true 时使用 {@link WindScopedTracer}
+     */
+    WindTracer TRACER = Boolean.getBoolean(SCOPED_TRACER_PROPERTY) ? new WindScopedTracer() : new WindThreadTracer();
 
     /**
      * 如果上下文中不存在 traceId 则生成
@@ -0,0 +1,200 @@
+package com.wind.trace.scoped;
+
+import com.wind.common.exception.AssertUtils;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.lang.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 不可变的 trace 上下文（持久化 Map）
+ * 1：每次修改返回一个新的上下文节点，新节点只记录本次修改的变量并引用原有上下文（结构共享），修改的成本与变量数量无关
+ * 2：上下文不可变，线程切换时只需传递引用，不需要复制
+ * 3：修改链超过 {@link #MAX_DEPTH} 时合并为一个新的基础节点，保证查找成本有上限
+ *
+ * @author wuxp
+ * @date 2025-10-30 10:12
+ **/
+public final class ScopedTraceContext {
+
+    public static final ScopedTraceContext EMPTY = new ScopedTraceContext(Map.of());
+
+    /**
+     * 修改链的最大长度
+     */
+    private static final int MAX_DEPTH = 8;
+
+    /**
+     * 修改前的上下文，基础节点为 null
+     */
+    @Nullable
+    private final ScopedTraceContext parent;
+
+    /**
+     * 本次修改的变量名称，基础节点为 null
+     */
+    @Nullable
+    private final String name;
+
+    /**
+     * 本次修改的变量值，为 null 表示移除变量
+     */
+    @Nullable
+    private final Object value;
+
+    /**
+     * 基础节点的变量，修改节点为 null
+     */
+    @Nullable
+    private final Map<String, Object> entries;
+
+    private final int depth;
+
+    /**
+     * 变量快照，不可变对象，并发下重复创建不影响正确性
+     */
+    private Map<String, Object> snapshot;
+
+    private ScopedTraceContext(Map<String, Object> entries) {
+        this.parent = null;
+        this.name = null;
+        this.value = null;
+        this.entries = entries;
+        this.depth = 0;
+        this.snapshot = entries;
+    }
+
+    private ScopedTraceContext(ScopedTraceContext parent, String name, @Nullable Object value) {
+        this.parent = parent;
+        this.name = name;
+        this.value = value;
+        this.entries = null;
+        this.depth = parent.depth + 1;
+    }
+
+    /**
+     * 创建上下文
+     *
+     * @param variables 上下文变量，值为 null 的变量会被忽略
+     * @return 上下文
+     */
+    @NotNull
+    public static ScopedTraceContext of(@NotNull Map<String, Object> variables) {
+        AssertUtils.notNull(variables, "argument variables must not null");
+        return EMPTY.putAll(variables);
+    }
+
+    /**
+     * 获取变量
+     *
+     * @param name 变量名称
+     * @return 变量值，不存在时返回 null
+     */
+    @Nullable
+    public Object get(String name) {
+        ScopedTraceContext current = this;
+        while (current.entries == null) {
+            if (Objects.equals(current.name, name)) {
+                return current.value;
+            }
+            current = current.parent;
+        }
+        return current.entries.get(name);
+    }
+
+    /**
+     * 添加变量
+     *
+     * @param name  变量名称
+     * @param value 变量值，为 null 时移除变量
+     * @return 新的上下文，变量值未变化时返回当前上下文
+     */
+    @NotNull
+    public ScopedTraceContext put(String name, @Nullable Object value) {
+        AssertUtils.hasText(name, "argument name must not empty");
+        if (Objects.equals(get(name), value)) {
+            return this;
+        }
+        return link(name, value);
+    }
+
+    /**
+     * 批量添加变量，值为 null 的变量会被忽略
+     *
+     * @param variables 变量
+     * @return 新的上下文
+     */
+    @NotNull
+    public ScopedTraceContext putAll(@NotNull Map<String, Object> variables) {
+        ScopedTraceContext result = this;
+        for (Map.Entry<String, Object> entry : variables.entrySet()) {
+            if (entry.getValue() != null) {
+                result = result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 移除变量
+     *
+     * @param name 变量名称
+     * @return 新的上下文，变量不存在时返回当前上下文
+     */
+    @NotNull
+    public ScopedTraceContext remove(String name) {
+        return get(name) == null ? this : link(name, null);
+    }
+
+    /**
+     * @return 上下文变量的不可变快照
+     */
+    @NotNull
+    public Map<String, Object> asMap() {
+        Map<String, Object> result = snapshot;
+        if (result == null) {
+            result = Map.copyOf(collect());
+            snapshot = result;
+        }
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return asMap().isEmpty();
+    }
+
+    private ScopedTraceContext link(String name, @Nullable Object value) {
+        ScopedTraceContext result = new ScopedTraceContext(this, name, value);
+        if (result.depth > MAX_DEPTH) {
+            // 合并修改链
+            return new ScopedTraceContext(result.asMap());
+        }
+        return result;
+    }
+
+    private Map<String, Object> collect() {
+        ScopedTraceContext[] nodes = new ScopedTraceContext[depth];
+        ScopedTraceContext current = this;
+        while (current.entries == null) {
+            nodes[current.depth - 1] = current;
+            current = current.parent;
+        }
+        Map<String, Object> result = new HashMap<>(current.entries);
+        // 从基础节点开始按修改顺序回放
+        for (ScopedTraceContext node : nodes) {
+            if (node.value == null) {
+                result.remove(node.name);
+            } else {
+                result.put(node.name, node.value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+}
@@ -0,0 +1,296 @@
+package com.wind.trace.scoped;
+
+import com.wind.common.exception.AssertUtils;
+import com.wind.common.util.IpAddressUtils;
+import com.wind.core.WritableContextVariables;
+import com.wind.sequence.SequenceGenerator;
+import com.wind.trace.W3cTraceIdGenerator;
+import com.wind.trace.WindTracer;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.MDC;
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+import static com.wind.common.WindConstants.LOCAL_HOST_IP_V4;
+import static com.wind.common.WindConstants.TRACE_ID_NAME;
+
+/**
+ * 基于不可变上下文（{@link ScopedTraceContext}）的 tracer，语义与 jdk 的 {@code ScopedValue} 一致：
+ * 1：上下文在作用域（{@link #runWhere(ScopedTraceContext, Runnable)}、{@link #callWhere(ScopedTraceContext, Callable)}）内绑定，作用域结束后恢复为之前的上下文
+ * 2：子任务（{@link #wrap(Runnable)}、{@link #wrap(Callable)}）只捕获父线程上下文的引用，不复制变量，每个线程只持有一个上下文引用
+ * 3：修改变量时生成新的上下文并重新绑定到当前线程，不会影响其它线程持有的上下文
+ * 4：字符串类型的变量同步到 MDC 中，只写入、移除上下文自己的变量，不影响 MDC 中的其它值；
+ * 进入作用域时只保存前后两个上下文的变量在 MDC 中的值，作用域结束后只恢复这些变量，不复制整个 MDC
+ * 注意：jdk 21 中 {@code ScopedValue}、{@code StructuredTaskScope} 仍是预览特性，这里使用 {@link ThreadLocal} 保存绑定的上下文引用
+ *
+ * @author wuxp
+ * @date 2025-10-30 10:12
+ **/
+public final class WindScopedTracer implements WindTracer {
+
+    /**
+     * traceId 生成器
+     */
+    private static final SequenceGenerator TRACE_GENERATOR = W3cTraceIdGenerator.INSTANCE;
+
+    /**
+     * 当前线程绑定的 trace context
+     */
+    private static final ThreadLocal<ScopedTraceContext> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public void trace() {
+        trace(null);
+    }
+
+    @Override
+    public void trace(String traceId, @NotNull Map<String, Object> contextVariables) {
+        Objects.requireNonNull(contextVariables, "argument contextVariables must not null");
+        if (traceId == null) {
+            traceId = (String) contextVariables.get(TRACE_ID_NAME);
+        }
+        ScopedTraceContext context = currentContext()
+                .put(TRACE_ID_NAME, traceId == null ? TRACE_GENERATOR.next() : traceId)
+                .put(LOCAL_HOST_IP_V4, IpAddressUtils.getLocalIpv4WithCache())
+                .putAll(contextVariables);
+        bind(context);
+    }
+
+    @Override
+    public String getTraceId() {
+        String result = getContextVariable(TRACE_ID_NAME);
+        if (result == null) {
+            // 没有则生成
+            result = TRACE_GENERATOR.next();
+            putVariable(TRACE_ID_NAME, result);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> getContextVariables() {
+        return currentContext().asMap();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getContextVariable(String name, T defaultValue) {
+        AssertUtils.hasText(name, "argument context variable name must not empty");
+        Object result = currentContext().get(name);
+        return result == null ? defaultValue : (T) result;
+    }
+
+    @Override
+    public WritableContextVariables putVariable(String name, Object val) {
+        AssertUtils.hasText(name, "argument name must not empty");
+        if (val != null) {
+            ScopedTraceContext context = currentContext();
+            CURRENT.set(context.put(name, val));
+            if (val instanceof String str) {
+                // 字符传类型变量同步到 MDC 中
+                MDC.put(name, str);
+            } else if (context.get(name) instanceof String) {
+                MDC.remove(name);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public WritableContextVariables removeVariable(String name) {
+        ScopedTraceContext context = currentContext();
+        CURRENT.set(context.remove(name));
+        if (context.get(name) instanceof String) {
+            MDC.remove(name);
+        }
+        return this;
+    }
+
+    @Override
+    public void clear() {
+        ScopedTraceContext context = CURRENT.get();
+        if (context != null) {
+            unbindMdc(context, ScopedTraceContext.EMPTY);
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * @return 当前线程绑定的上下文
+     */
+    @NotNull
+    public ScopedTraceContext currentContext() {
+        ScopedTraceContext result = CURRENT.get();
+        return result == null ? ScopedTraceContext.EMPTY : result;
+    }
+
+    /**
+     * 在指定上下文的作用域内执行任务，执行结束后恢复当前线程之前的上下文
+     *
+     * @param context 上下文
+     * @param task    任务
+     */
+    public void runWhere(@NotNull ScopedTraceContext context, @NotNull Runnable task) {
+        AssertUtils.notNull(task, "argument task must not null");
+        ScopedTraceContext previous = CURRENT.get();
+        MdcSnapshot snapshot = MdcSnapshot.of(previous, context);
+        bind(context);
+        try {
+            task.run();
+        } finally {
+            restore(context, previous, snapshot);
+        }
+    }
+
+    /**
+     * 在指定上下文的作用域内执行任务，执行结束后恢复当前线程之前的上下文
+     *
+     * @param context 上下文
+     * @param task    任务
+     * @return 任务执行结果
+     */
+    public <T> T callWhere(@NotNull ScopedTraceContext context, @NotNull Callable<T> task) throws Exception {
+        AssertUtils.notNull(task, "argument task must not null");
+        ScopedTraceContext previous = CURRENT.get();
+        MdcSnapshot snapshot = MdcSnapshot.of(previous, context);
+        bind(context);
+        try {
+            return task.call();
+        } finally {
+            restore(context, previous, snapshot);
+        }
+    }
+
+    /**
+     * 包装任务，任务执行时继承当前线程的上下文（引用传递，不复制）
+     *
+     * @param task 任务
+     * @return 包装后的任务
+     */
+    @NotNull
+    public Runnable wrap(@NotNull Runnable task) {
+        AssertUtils.notNull(task, "argument task must not null");
+        ScopedTraceContext context = currentContext();
+        return () -> runWhere(context, task);
+    }
+
+    /**
+     * 包装任务，任务执行时继承当前线程的上下文（引用传递，不复制）
+     *
+     * @param task 任务
+     * @return 包装后的任务
+     */
+    @NotNull
+    public <T> Callable<T> wrap(@NotNull Callable<T> task) {
+        AssertUtils.notNull(task, "argument task must not null");
+        ScopedTraceContext context = currentContext();
+        return () -> callWhere(context, task);
+    }
+
+    private static void bind(@NotNull ScopedTraceContext context) {
+        AssertUtils.notNull(context, "argument context must not null");
+        ScopedTraceContext previous = CURRENT.get();
+        CURRENT.set(context);
+        if (previous != null) {
+            unbindMdc(previous, context);
+        }
+        // 字符传类型变量同步到 MDC 中
+        context.asMap().forEach((name, val) -> {
+            if (val instanceof String str) {
+                MDC.put(name, str);
+            }
+        });
+    }
+
+    /**
+     * 恢复作用域之前的上下文与 MDC
+     *
+     * @param context  作用域绑定的上下文
+     * @param previous 之前的上下文
+     * @param snapshot 进入作用域前保存的 MDC 值
+     */
+    private static void restore(ScopedTraceContext context, @Nullable ScopedTraceContext previous, MdcSnapshot snapshot) {
+        ScopedTraceContext scoped = CURRENT.get();
+        if (scoped != null && scoped != context) {
+            // 移除作用域内新增的变量
+            scoped.asMap().forEach((name, val) -> {
+                if (val instanceof String && !snapshot.contains(name)) {
+                    MDC.remove(name);
+                }
+            });
+        }
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+        snapshot.restore();
+    }
+
+    /**
+     * 从 MDC 中移除上下文中字符串类型的变量，新的上下文中仍是字符串的变量会被覆盖，不需要移除
+     *
+     * @param context 上下文
+     * @param next    新的上下文
+     */
+    private static void unbindMdc(ScopedTraceContext context, ScopedTraceContext next) {
+        context.asMap().forEach((name, val) -> {
+            if (val instanceof String && !(next.get(name) instanceof String)) {
+                MDC.remove(name);
+            }
+        });
+    }
+
+    /**
+     * 进入作用域前上下文变量在 MDC 中的值，只包含之前的上下文与作用域上下文中字符串类型的变量
+     *
+     * @param names  变量名称
+     * @param values 变量在 MDC 中的值，不存在时为 null
+     */
+    private record MdcSnapshot(String[] names, String[] values) {
+
+        static MdcSnapshot of(@Nullable ScopedTraceContext previous, ScopedTraceContext context) {
+            Map<String, Object> variables = context.asMap();
+            Map<String, Object> previousVariables = previous == null ? Map.of() : previous.asMap();
+            String[] names = new String[variables.size() + previousVariables.size()];
+            int size = 0;
+            for (Map.Entry<String, Object> entry : variables.entrySet()) {
+                if (entry.getValue() instanceof String) {
+                    names[size++] = entry.getKey();
+                }
+            }
+            for (Map.Entry<String, Object> entry : previousVariables.entrySet()) {
+                if (entry.getValue() instanceof String && !(variables.get(entry.getKey()) instanceof String)) {
+                    names[size++] = entry.getKey();
+                }
+            }
+            String[] values = new String[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = MDC.get(names[i]);
+            }
+            return new MdcSnapshot(names, values);
+        }
+
+        boolean contains(String name) {
+            for (int i = 0; i < values.length; i++) {
+                if (names[i].equals(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void restore() {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    MDC.remove(names[i]);
+                } else {
+                    MDC.put(names[i], values[i]);
+                }
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.wind.trace.thread;
 
 import com.wind.common.exception.AssertUtils;
 import com.wind.trace.WindTracer;
+import com.wind.trace.scoped.WindScopedTracer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.task.TaskDecorator;
 import org.springframework.lang.NonNull;
@@ -11,6 +12,7 @@ import java.util.Map;
 
 /**
  * 用于在线程切换时，将 trace 上下文信息复制到新的线程中
+ * 使用 {@link WindScopedTracer} 时只传递不可变上下文的引用，不复制
  *
  * @author wuxp
  * @date 2023-12-29 09:55
@@ -33,6 +35,9 @@ public abstract class TraceContextTask implements TaskDecorator {
     @NonNull
     public Runnable decorate(@NonNull Runnable task) {
         AssertUtils.notNull(task, "argument task must not null");
+        if (WindTracer.TRACER instanceof WindScopedTracer scopedTracer) {
+            return decorateScoped(scopedTracer, task);
+        }
         // 获取当前线程的上下文
         Map<String, Object> middlewareContext = WindTracer.TRACER.getContextVariables();
         Map<String, Object> businessContextVariables = copyContextVariables();
@@ -61,6 +66,31 @@ public abstract class TraceContextTask implements TaskDecorator {
         };
     }
 
+    /**
+     * 只捕获当前线程上下文的引用，任务结束后恢复执行线程之前的上下文
+     */
+    private Runnable decorateScoped(WindScopedTracer scopedTracer, Runnable task) {
+        Map<String, Object> businessContextVariables = copyContextVariables();
+        Runnable scopedTask = scopedTracer.wrap(() -> {
+            try {
+                traceContextVariables(businessContextVariables);
+                task.run();
+            } finally {
+                clearContextVariables();
+            }
+        });
+        return () -> {
+            try {
+                scopedTask.run();
+            } catch (Throwable throwable) {
+                if (printExceptionLog) {
+                    log.error("execute task exception, message = {}", throwable.getMessage(), throwable);
+                }
+                throw throwable;
+            }
+        };
+    }
+
     /**
      * 复制当前线程的上下文
      *
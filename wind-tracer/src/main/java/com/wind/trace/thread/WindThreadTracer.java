@@ -5,6 +5,7 @@ import com.wind.common.exception.AssertUtils;
 import com.wind.common.util.IpAddressUtils;
 import com.wind.core.WritableContextVariables;
 import com.wind.sequence.SequenceGenerator;
+import com.wind.trace.W3cTraceIdGenerator;
 import com.wind.trace.WindTracer;
 import jakarta.validation.constraints.NotNull;
 import org.slf4j.MDC;
@@ -28,7 +29,7 @@ public final class WindThreadTracer implements WindTracer {
     /**
      * traceId 生成器
      */
-    private static final SequenceGenerator TRACE_GENERATOR = () -> SequenceGenerator.randomAlphanumeric(32);
+    private static final SequenceGenerator TRACE_GENERATOR = W3cTraceIdGenerator.INSTANCE;
 
     /**
      * 线程 trace context
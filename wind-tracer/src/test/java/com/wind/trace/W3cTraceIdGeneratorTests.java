@@ -0,0 +1,100 @@
+package com.wind.trace;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * @author wuxp
+ * @date 2025-10-30 15:40
+ **/
+@Slf4j
+class W3cTraceIdGeneratorTests {
+
+    private static final Pattern TRACE_ID_PATTERN = Pattern.compile("^[0-9a-f]{32}$");
+
+    @Test
+    void testNext() {
+        String traceId = W3cTraceIdGenerator.INSTANCE.next();
+        Assertions.assertTrue(TRACE_ID_PATTERN.matcher(traceId).matches(), traceId);
+        Assertions.assertNotEquals("0".repeat(W3cTraceIdGenerator.TRACE_ID_LENGTH), traceId);
+        Assertions.assertNotEquals(traceId, W3cTraceIdGenerator.INSTANCE.next());
+    }
+
+    @Test
+    void testUniqueInMultiThread() throws Exception {
+        int threads = 16;
+        int times = 50000;
+        Set<String> traceIds = ConcurrentHashMap.newKeySet(threads * times);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    startLatch.await();
+                    for (int j = 0; j < times; j++) {
+                        String traceId = W3cTraceIdGenerator.INSTANCE.next();
+                        Assertions.assertTrue(TRACE_ID_PATTERN.matcher(traceId).matches(), traceId);
+                        traceIds.add(traceId);
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        Assertions.assertEquals(threads * times, traceIds.size());
+    }
+
+    @Test
+    void testUniqueInVirtualThreads() throws Exception {
+        int times = 100000;
+        Set<String> traceIds = ConcurrentHashMap.newKeySet(times);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(times);
+            for (int i = 0; i < times; i++) {
+                futures.add(executor.submit(() -> {
+                    String traceId = W3cTraceIdGenerator.INSTANCE.next();
+                    Assertions.assertTrue(TRACE_ID_PATTERN.matcher(traceId).matches(), traceId);
+                    traceIds.add(traceId);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        Assertions.assertEquals(times, traceIds.size());
+    }
+
+    /**
+     * 没有 jmh，通过耗时对比
+     */
+    @Test
+    void testBenchmark() {
+        int times = 1000000;
+        // 预热
+        for (int i = 0; i < times; i++) {
+            W3cTraceIdGenerator.INSTANCE.next();
+        }
+        long start = System.nanoTime();
+        int hash = 0;
+        for (int i = 0; i < times; i++) {
+            hash += W3cTraceIdGenerator.INSTANCE.next().hashCode();
+        }
+        long avgNanos = (System.nanoTime() - start) / times;
+        log.info("generate traceId avg = {}ns, hash = {}", avgNanos, hash);
+    }
+}
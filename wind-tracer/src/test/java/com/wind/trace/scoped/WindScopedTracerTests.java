@@ -0,0 +1,242 @@
+package com.wind.trace.scoped;
+
+import com.wind.trace.thread.WindThreadTracer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.wind.common.WindConstants.LOCAL_HOST_IP_V4;
+import static com.wind.common.WindConstants.TRACE_ID_NAME;
+
+/**
+ * @author wuxp
+ * @date 2025-10-30 10:12
+ **/
+@Slf4j
+class WindScopedTracerTests {
+
+    private final WindScopedTracer tracer = new WindScopedTracer();
+
+    @AfterEach
+    void after() {
+        tracer.clear();
+    }
+
+    @Test
+    void testTrace() {
+        Map<String, Object> contextVariables = new HashMap<>();
+        contextVariables.put("key1", "1");
+        contextVariables.put("key2", 2);
+        contextVariables.put("key3", null);
+        tracer.trace("test001", contextVariables);
+        Assertions.assertEquals("test001", tracer.getTraceId());
+        Assertions.assertEquals("test001", MDC.get(TRACE_ID_NAME));
+        Assertions.assertEquals("1", tracer.getContextVariable("key1"));
+        Assertions.assertEquals(2, (Integer) tracer.getContextVariable("key2"));
+        Assertions.assertNull(tracer.getContextVariable("key3"));
+        Assertions.assertNotNull(tracer.getContextVariable(LOCAL_HOST_IP_V4));
+        tracer.putVariable("key3", false);
+        Assertions.assertEquals(false, tracer.getContextVariable("key3"));
+        tracer.removeVariable("key1");
+        Assertions.assertNull(tracer.getContextVariable("key1"));
+        Assertions.assertFalse(tracer.getContextVariables().containsKey("key1"));
+        tracer.clear();
+        Assertions.assertNotEquals("test001", tracer.getTraceId());
+    }
+
+    @Test
+    void testContextStructuralSharing() {
+        ScopedTraceContext parent = ScopedTraceContext.of(Map.of("a", "1", "b", "2"));
+        ScopedTraceContext child = parent.put("c", "3").remove("a");
+        Assertions.assertEquals(Map.of("a", "1", "b", "2"), parent.asMap());
+        Assertions.assertEquals(Map.of("b", "2", "c", "3"), child.asMap());
+        Assertions.assertSame(parent, parent.put("a", "1"));
+        Assertions.assertSame(parent, parent.remove("d"));
+        ScopedTraceContext context = ScopedTraceContext.EMPTY;
+        for (int i = 0; i < 100; i++) {
+            context = context.put("key" + i % 10, i);
+        }
+        Assertions.assertEquals(10, context.asMap().size());
+        Assertions.assertEquals(99, context.get("key9"));
+    }
+
+    @Test
+    void testRunWhere() throws Exception {
+        tracer.trace("outer");
+        ScopedTraceContext inner = tracer.currentContext().put(TRACE_ID_NAME, "inner").put("a", "test");
+        String result = tracer.callWhere(inner, () -> {
+            Assertions.assertEquals("inner", MDC.get(TRACE_ID_NAME));
+            tracer.putVariable("b", "b");
+            return tracer.getTraceId();
+        });
+        Assertions.assertEquals("inner", result);
+        // 作用域结束后恢复之前的上下文
+        Assertions.assertEquals("outer", tracer.getTraceId());
+        Assertions.assertEquals("outer", MDC.get(TRACE_ID_NAME));
+        Assertions.assertNull(tracer.getContextVariable("a"));
+        Assertions.assertNull(MDC.get("b"));
+    }
+
+    @Test
+    void testKeepForeignMdcValues() throws Exception {
+        MDC.put("foreign", "value");
+        try {
+            tracer.trace("outer", Map.of("a", "test"));
+            String result = tracer.callWhere(ScopedTraceContext.of(Map.of(TRACE_ID_NAME, "inner")), () -> {
+                Assertions.assertEquals("value", MDC.get("foreign"));
+                Assertions.assertNull(MDC.get("a"));
+                MDC.put("scoped", "scoped");
+                return MDC.get(TRACE_ID_NAME);
+            });
+            Assertions.assertEquals("inner", result);
+            // 作用域结束后恢复之前的 MDC
+            Assertions.assertEquals("outer", MDC.get(TRACE_ID_NAME));
+            Assertions.assertEquals("test", MDC.get("a"));
+            // 任务自己写入 MDC 的值不属于上下文，不会被恢复
+            Assertions.assertEquals("scoped", MDC.get("scoped"));
+            MDC.remove("scoped");
+            tracer.removeVariable("a");
+            Assertions.assertNull(MDC.get("a"));
+            tracer.clear();
+            Assertions.assertNull(MDC.get(TRACE_ID_NAME));
+            Assertions.assertEquals("value", MDC.get("foreign"));
+        } finally {
+            MDC.remove("foreign");
+        }
+    }
+
+    @Test
+    void testRestoreOwnedMdcValues() {
+        MDC.put("a", "foreign");
+        try {
+            tracer.runWhere(ScopedTraceContext.of(Map.of(TRACE_ID_NAME, "inner", "a", "scoped")), () -> {
+                Assertions.assertEquals("scoped", MDC.get("a"));
+                tracer.putVariable("b", "b");
+                Assertions.assertEquals("b", MDC.get("b"));
+            });
+            // 作用域上下文的变量恢复为进入作用域前的值，作用域内新增的变量被移除
+            Assertions.assertEquals("foreign", MDC.get("a"));
+            Assertions.assertNull(MDC.get(TRACE_ID_NAME));
+            Assertions.assertNull(MDC.get("b"));
+            Assertions.assertTrue(tracer.currentContext().isEmpty());
+        } finally {
+            MDC.remove("a");
+        }
+    }
+
+    @Test
+    void testWrapTask() throws Exception {
+        tracer.trace("parent", Map.of("a", "test"));
+        ScopedTraceContext context = tracer.currentContext();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<ScopedTraceContext>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                String value = String.valueOf(i);
+                futures.add(executor.submit(tracer.wrap(() -> {
+                    Assertions.assertEquals("parent", MDC.get(TRACE_ID_NAME));
+                    ScopedTraceContext inherited = tracer.currentContext();
+                    tracer.putVariable("child", value);
+                    Assertions.assertEquals(value, tracer.getContextVariable("child"));
+                    return inherited;
+                })));
+            }
+            for (Future<ScopedTraceContext> future : futures) {
+                // 子任务继承父线程上下文的引用
+                Assertions.assertSame(context, future.get());
+            }
+        }
+        // 子任务的修改不影响父线程
+        Assertions.assertNull(tracer.getContextVariable("child"));
+        Assertions.assertEquals("test", tracer.getContextVariable("a"));
+    }
+
+    /**
+     * 对比 {@link WindThreadTracer} 复制上下文与 {@link WindScopedTracer} 传递引用的开销（没有 jmh，通过线程分配的内存与耗时对比）
+     * 1：提交任务时，调用线程上的开销
+     * 2：执行任务时，工作线程绑定上下文的内存占用
+     */
+    @Test
+    void testTaskSubmissionBenchmark() throws Exception {
+        WindThreadTracer threadTracer = new WindThreadTracer();
+        Map<String, Object> variables = new HashMap<>();
+        for (int i = 0; i < 8; i++) {
+            variables.put("key" + i, "value" + i);
+        }
+        int times = 10000;
+        Runnable task = () -> {
+        };
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            threadTracer.trace("benchmark", variables);
+            Runnable[] threadTasks = new Runnable[times];
+            decorateWithThreadTracer(threadTracer, task, threadTasks);
+            long start = threadMXBean.getCurrentThreadAllocatedBytes();
+            long startNanos = System.nanoTime();
+            decorateWithThreadTracer(threadTracer, task, threadTasks);
+            long threadSubmitNanos = System.nanoTime() - startNanos;
+            long threadSubmitBytes = threadMXBean.getCurrentThreadAllocatedBytes() - start;
+            long threadRunBytes = executor.submit(() -> runAll(threadMXBean, threadTasks)).get();
+            threadTracer.clear();
+
+            tracer.trace("benchmark", variables);
+            Runnable[] scopedTasks = new Runnable[times];
+            decorateWithScopedTracer(task, scopedTasks);
+            start = threadMXBean.getCurrentThreadAllocatedBytes();
+            startNanos = System.nanoTime();
+            decorateWithScopedTracer(task, scopedTasks);
+            long scopedSubmitNanos = System.nanoTime() - startNanos;
+            long scopedSubmitBytes = threadMXBean.getCurrentThreadAllocatedBytes() - start;
+            long scopedRunBytes = executor.submit(() -> runAll(threadMXBean, scopedTasks)).get();
+
+            log.info("decorate task, thread tracer = {}ns {}bytes, scoped tracer = {}ns {}bytes", threadSubmitNanos / times, threadSubmitBytes / times,
+                    scopedSubmitNanos / times, scopedSubmitBytes / times);
+            log.info("run task allocated bytes, thread tracer = {}, scoped tracer = {}", threadRunBytes / times, scopedRunBytes / times);
+        }
+    }
+
+    /**
+     * 与 {@link com.wind.trace.thread.TraceContextTask} 的处理一致
+     */
+    private static void decorateWithThreadTracer(WindThreadTracer threadTracer, Runnable task, Runnable[] result) {
+        for (int i = 0; i < result.length; i++) {
+            Map<String, Object> context = threadTracer.getContextVariables();
+            result[i] = () -> {
+                try {
+                    threadTracer.trace(null, context);
+                    task.run();
+                } finally {
+                    threadTracer.clear();
+                }
+            };
+        }
+    }
+
+    private void decorateWithScopedTracer(Runnable task, Runnable[] result) {
+        for (int i = 0; i < result.length; i++) {
+            result[i] = tracer.wrap(task);
+        }
+    }
+
+    private static long runAll(com.sun.management.ThreadMXBean threadMXBean, Runnable[] tasks) {
+        // 预热
+        for (int i = 0; i < 100; i++) {
+            tasks[i].run();
+        }
+        long start = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (Runnable task : tasks) {
+            task.run();
+        }
+        return threadMXBean.getCurrentThreadAllocatedBytes() - start;
+    }
+}
@@ -1,31 +1,53 @@
 package com.wind.web.mertics;
 
 import com.wind.common.WindConstants;
+import com.wind.common.annotations.VisibleForTesting;
+import com.wind.common.exception.AssertUtils;
 import com.wind.common.exception.BaseException;
 import com.wind.common.exception.DefaultExceptionCode;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
 
 import javax.net.ssl.SSLSession;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.SSLSocketFactory;
+import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * ssl 证书信息指标采集
+ * 1：使用虚拟线程并发探测各个域名的证书，每个域名有独立的连接、握手超时时间，慢的域名不会拖慢其它域名
+ * 2：证书信息缓存到刷新间隔后才重新探测，指标读取的是缓存的值；探测失败时在上次成功探测的证书过期前继续使用该证书信息，
+ * 只有从未探测成功（或证书已过期）时才上报为 unknown
+ * 3：每个域名只注册一个指标，证书信息（标签）变化时移除旧的指标重新注册
  *
  * @author wuxp
  * @date 2025-09-15 16:54
  **/
 @Slf4j
-public record WindSslCertificateMeticsCollector() {
+public class WindSslCertificateMeticsCollector {
 
     private static final String DEFAULT_PORT = "443";
 
@@ -41,15 +63,80 @@ public record WindSslCertificateMeticsCollector() {
 
     private static final String METRIC_DESCRIPTION = "SSL certificate remaining valid days";
 
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(3);
+
+    private static final Duration DEFAULT_HANDSHAKE_TIMEOUT = Duration.ofSeconds(5);
+
+    private static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofHours(1);
+
+    /**
+     * 采集失败时的证书剩余有效天数
+     */
+    private static final int UNKNOWN_AVAILABLE_DAYS = -1;
+
+    private final SSLSocketFactory socketFactory;
+
+    private final Duration connectTimeout;
+
+    private final Duration handshakeTimeout;
+
+    private final Duration refreshInterval;
+
+    /**
+     * 证书信息缓存
+     *
+     * @key 域名
+     * @value 证书信息
+     */
+    private final Map<String, CachedCertificate> certificates = new ConcurrentHashMap<>();
+
+    /**
+     * 已注册的指标
+     *
+     * @key 域名
+     * @value 指标
+     */
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * 探测证书的次数
+     */
+    private final AtomicLong probeTimes = new AtomicLong();
+
+    public WindSslCertificateMeticsCollector() {
+        this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_HANDSHAKE_TIMEOUT, DEFAULT_REFRESH_INTERVAL);
+    }
+
+    public WindSslCertificateMeticsCollector(Duration connectTimeout, Duration handshakeTimeout, Duration refreshInterval) {
+        this((SSLSocketFactory) SSLSocketFactory.getDefault(), connectTimeout, handshakeTimeout, refreshInterval);
+    }
+
+    /**
+     * @param socketFactory    ssl socket factory
+     * @param connectTimeout   每个域名的连接超时时间
+     * @param handshakeTimeout 每个域名的 ssl 握手超时时间
+     * @param refreshInterval  证书信息刷新间隔
+     */
+    public WindSslCertificateMeticsCollector(SSLSocketFactory socketFactory, Duration connectTimeout, Duration handshakeTimeout, Duration refreshInterval) {
+        AssertUtils.notNull(socketFactory, "argument socketFactory must not null");
+        AssertUtils.isTrue(connectTimeout.isPositive() && handshakeTimeout.isPositive(), "connect and handshake timeout must gt 0");
+        AssertUtils.isTrue(refreshInterval.isPositive(), "argument refreshInterval must gt 0");
+        this.socketFactory = socketFactory;
+        this.connectTimeout = connectTimeout;
+        this.handshakeTimeout = handshakeTimeout;
+        this.refreshInterval = refreshInterval;
+    }
+
     @NotNull
     public HostSslCertificateInfo getHostSslCertificateInfo(String host) {
-        try {
-            SSLSocketFactory factory = (SSLSocketFactory) SSLSocketFactory.getDefault();
-            String[] parts = parseHost(host);
-            try (SSLSocket socket = (SSLSocket) factory.createSocket(parts[0], Integer.parseInt(parts[1]))) {
-                socket.setSoTimeout(5000);
-                socket.startHandshake();
-                SSLSession session = socket.getSession();
+        probeTimes.incrementAndGet();
+        String[] parts = parseHost(host);
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(parts[0], Integer.parseInt(parts[1])), (int) connectTimeout.toMillis());
+            socket.setSoTimeout((int) handshakeTimeout.toMillis());
+            try (SSLSocket sslSocket = (SSLSocket) socketFactory.createSocket(socket, parts[0], Integer.parseInt(parts[1]), true)) {
+                sslSocket.startHandshake();
+                SSLSession session = sslSocket.getSession();
                 X509Certificate cert = (X509Certificate) session.getPeerCertificates()[0];
                 Instant notAfter = cert.getNotAfter().toInstant();
                 long availableDays = Instant.now().until(notAfter, ChronoUnit.DAYS);
@@ -68,26 +155,124 @@ public record WindSslCertificateMeticsCollector() {
      * 采集 ssl 证书指标信息
      */
     public void collect(MeterRegistry registry, Collection<String> hosts) {
+        refresh(hosts);
         for (String host : hosts) {
-            try {
-                HostSslCertificateInfo info = getHostSslCertificateInfo(host);
-                Gauge.builder(METRIC_GROUP_NAME, () -> info.availableDays)
-                        .description(METRIC_DESCRIPTION)
-                        .tags(SUBJECT_TAG_NAME, info.subject(),
-                                HOST_TAG_NAME, info.host(),
-                                STATUS_TAG_NAME, info.status())
-                        .register(registry);
-            } catch (Exception exception) {
-                // 失败时也可以暴露为状态 -1
-                Gauge.builder(METRIC_GROUP_NAME, () -> -1)
-                        .description(METRIC_DESCRIPTION)
-                        .tags(SUBJECT_TAG_NAME, WindConstants.UNKNOWN,
-                                HOST_TAG_NAME, host,
-                                ISSUER_TAG_NAME, WindConstants.UNKNOWN,
-                                STATUS_TAG_NAME, WindConstants.UNKNOWN)
-                        .register(registry);
+            registerGauge(registry, host);
+        }
+    }
+
+    /**
+     * @param host 域名
+     * @return 缓存的证书信息，未采集、从未采集成功或上次成功采集的证书已过期时返回 null
+     */
+    @Nullable
+    public HostSslCertificateInfo getCachedCertificateInfo(String host) {
+        CachedCertificate result = certificates.get(host);
+        return result == null ? null : result.info();
+    }
+
+    @VisibleForTesting
+    long getProbeTimes() {
+        return probeTimes.get();
+    }
+
+    private void registerGauge(MeterRegistry registry, String host) {
+        Tags tags = getTags(host);
+        Gauge gauge = gauges.get(host);
+        if (gauge != null) {
+            if (Tags.of(gauge.getId().getTags()).equals(tags)) {
+                return;
+            }
+            // 证书信息变化，移除旧的指标
+            registry.remove(gauge);
+        }
+        // Gauge 默认弱引用 collector，使用强引用避免 collector 被回收后指标值变为 NaN
+        gauges.put(host, Gauge.builder(METRIC_GROUP_NAME, this, collector -> collector.getAvailableDays(host))
+                .description(METRIC_DESCRIPTION)
+                .tags(tags)
+                .strongReference(true)
+                .register(registry));
+    }
+
+    private Tags getTags(String host) {
+        HostSslCertificateInfo info = getCachedCertificateInfo(host);
+        if (info == null) {
+            // 失败时也可以暴露为状态 -1
+            return Tags.of(SUBJECT_TAG_NAME, WindConstants.UNKNOWN,
+                    HOST_TAG_NAME, host,
+                    ISSUER_TAG_NAME, WindConstants.UNKNOWN,
+                    STATUS_TAG_NAME, WindConstants.UNKNOWN);
+        }
+        return Tags.of(SUBJECT_TAG_NAME, info.subject(),
+                HOST_TAG_NAME, info.host(),
+                ISSUER_TAG_NAME, info.issuer(),
+                STATUS_TAG_NAME, info.status());
+    }
+
+    private int getAvailableDays(String host) {
+        HostSslCertificateInfo info = getCachedCertificateInfo(host);
+        return info == null ? UNKNOWN_AVAILABLE_DAYS : info.availableDays();
+    }
+
+    /**
+     * 并发探测缓存过期的域名
+     *
+     * @param hosts 域名列表
+     */
+    private void refresh(Collection<String> hosts) {
+        long now = System.nanoTime();
+        List<String> staleHosts = hosts.stream().distinct().filter(host -> isStale(host, now)).toList();
+        if (staleHosts.isEmpty()) {
+            return;
+        }
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ssl-certificate-probe-", 0).factory());
+        try {
+            Map<String, Future<HostSslCertificateInfo>> futures = new LinkedHashMap<>();
+            for (String host : staleHosts) {
+                futures.put(host, executor.submit(() -> getHostSslCertificateInfo(host)));
             }
+            // 探测是并发的，所有域名共用一个截止时间
+            long deadline = System.nanoTime() + connectTimeout.plus(handshakeTimeout).toNanos();
+            futures.forEach((host, future) -> certificates.put(host, awaitCertificate(host, future, deadline)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private CachedCertificate awaitCertificate(String host, Future<HostSslCertificateInfo> future, long deadline) {
+        try {
+            HostSslCertificateInfo info = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return new CachedCertificate(info, System.nanoTime() + refreshInterval.toNanos());
+        } catch (TimeoutException exception) {
+            log.warn("Domain ssl metric collect timeout, host = {}", host);
+            future.cancel(true);
+        } catch (ExecutionException exception) {
+            // getHostSslCertificateInfo 已打印日志
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+        }
+        // 失败的域名在下次采集时重新探测，偶发的失败不覆盖上次成功采集且未过期的证书信息
+        return new CachedCertificate(getLastValidCertificateInfo(host), System.nanoTime());
+    }
+
+    @Nullable
+    private HostSslCertificateInfo getLastValidCertificateInfo(String host) {
+        HostSslCertificateInfo info = getCachedCertificateInfo(host);
+        if (info == null) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (!now.isBefore(info.endTime())) {
+            return null;
         }
+        long availableDays = now.until(info.endTime(), ChronoUnit.DAYS);
+        return new HostSslCertificateInfo(info.host(), info.subject(), info.issuer(), info.status(), (int) availableDays, info.beginTime(), info.endTime());
+    }
+
+    private boolean isStale(String host, long now) {
+        CachedCertificate cached = certificates.get(host);
+        return cached == null || now - cached.expireNanos() >= 0;
     }
 
     private String[] parseHost(String host) {
@@ -100,4 +285,11 @@ public record WindSslCertificateMeticsCollector() {
     public record HostSslCertificateInfo(String host, String subject, String issuer, String status, int availableDays, LocalDateTime beginTime, LocalDateTime endTime) {
 
     }
+
+    /**
+     * @param info        证书信息，采集失败时为 null
+     * @param expireNanos 缓存过期时间（{@link System#nanoTime()}）
+     */
+    private record CachedCertificate(@Nullable HostSslCertificateInfo info, long expireNanos) {
+    }
 }
@@ -1,19 +1,29 @@
 package com.wind.web.util;
 
 import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONWriter;
 import com.wind.common.exception.BaseException;
 import com.wind.common.exception.DefaultExceptionCode;
+import com.wind.common.exception.ExceptionCode;
 import com.wind.server.web.supports.ApiResp;
+import com.wind.server.web.supports.ImmutableWebApiResponse;
+import com.wind.trace.WindTracer;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
 
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 用于写回 http 响应
+ * 1：json 直接以 UTF-8 字节写入响应输出流并设置 Content-Length，不产生中间字符串
+ * 2：401、403 等固定内容的响应按 状态码 + 错误码 + 错误消息 缓存序列化后的字节，只在写回时拼接 traceId
  *
  * @author wuxp
  * @date 2023-09-28 09:15
@@ -21,6 +31,24 @@ import java.nio.charset.StandardCharsets;
 @Slf4j
 public final class HttpResponseMessageUtils {
 
+    /**
+     * 序列化响应模板时使用的 traceId 占位符
+     */
+    private static final String TRACE_ID_PLACEHOLDER = "__WIND_TRACE_ID_PLACEHOLDER__";
+
+    /**
+     * 最多缓存的固定响应数量
+     */
+    private static final int MAX_STATIC_RESPONSE_SIZE = 256;
+
+    /**
+     * 预先序列化的固定响应
+     *
+     * @key 状态码 + 错误码 + 错误消息
+     * @value 响应模板
+     */
+    private static final Map<StaticApiRespKey, StaticApiRespBody> STATIC_RESPONSES = new ConcurrentHashMap<>();
+
     private HttpResponseMessageUtils() {
         throw new AssertionError();
     }
@@ -55,17 +83,30 @@ public final class HttpResponseMessageUtils {
         if (resp.getHttpStatus() != null) {
             response.setStatus(resp.getHttpStatus().value());
         }
-        writeJsonText(response, JSON.toJSONString(resp));
+        writeJson(response, resp);
     }
 
     /**
      * 响应返回 json 数据
+     * 注意该方法调用后会关闭响应流
      *
      * @param response http response
      * @param data     响应数据
      */
     public static void writeJson(HttpServletResponse response, Object data) {
-        writeJsonText(response, JSON.toJSONString(data));
+        if (isCommitted(response)) {
+            return;
+        }
+        // 使用 fastjson2 按线程缓存的字节缓冲区序列化
+        try (JSONWriter writer = JSONWriter.ofUTF8()) {
+            writer.writeAny(data);
+            prepareJsonResponse(response, writer.size());
+            try (OutputStream output = response.getOutputStream()) {
+                writer.flushTo(output);
+            }
+        } catch (IOException e) {
+            throw new BaseException(DefaultExceptionCode.COMMON_ERROR, "response write error", e);
+        }
     }
 
     /**
@@ -76,20 +117,135 @@ public final class HttpResponseMessageUtils {
      * @param data     响应数据
      */
     public static void writeJsonText(HttpServletResponse response, String data) {
+        if (isCommitted(response)) {
+            return;
+        }
+        writeJsonBytes(response, data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 响应返回固定内容的错误响应，例如：401、403，序列化结果会被缓存
+     * 注意该方法调用后会关闭响应流
+     *
+     * @param response     http response
+     * @param status       http 状态码
+     * @param code         错误码
+     * @param errorMessage 错误消息
+     */
+    public static void writeStaticApiResp(HttpServletResponse response, HttpStatus status, ExceptionCode code, String errorMessage) {
+        if (isCommitted(response)) {
+            return;
+        }
+        response.setStatus(status.value());
+        String traceId = WindTracer.TRACER.getTraceId();
+        StaticApiRespBody body = isSafeTraceId(traceId) ? getStaticApiRespBody(new StaticApiRespKey(status, code, errorMessage)) : null;
+        if (body == null) {
+            writeJson(response, new ImmutableWebApiResponse<>(status, null, code, errorMessage, traceId));
+            return;
+        }
+        byte[] traceIdBytes = traceId.getBytes(StandardCharsets.US_ASCII);
+        prepareJsonResponse(response, body.prefix().length + traceIdBytes.length + body.suffix().length);
+        try (OutputStream output = response.getOutputStream()) {
+            output.write(body.prefix());
+            output.write(traceIdBytes);
+            output.write(body.suffix());
+        } catch (IOException e) {
+            throw new BaseException(DefaultExceptionCode.COMMON_ERROR, "response write error", e);
+        }
+    }
+
+    private static void writeJsonBytes(HttpServletResponse response, byte[] data) {
+        prepareJsonResponse(response, data.length);
+        try (OutputStream output = response.getOutputStream()) {
+            output.write(data);
+        } catch (IOException e) {
+            throw new BaseException(DefaultExceptionCode.COMMON_ERROR, "response write error", e);
+        }
+    }
+
+    private static boolean isCommitted(HttpServletResponse response) {
         if (response.isCommitted()) {
             log.warn("response is committed, ignore write json data");
-            return;
+            return true;
         }
+        return false;
+    }
+
+    private static void prepareJsonResponse(HttpServletResponse response, int contentLength) {
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
         // 中文乱码处理
         response.setCharacterEncoding(StandardCharsets.UTF_8.name());
-        try (PrintWriter writer = response.getWriter()) {
-            writer.write(data);
-            writer.flush();
-        } catch (IOException e) {
-            throw new BaseException(DefaultExceptionCode.COMMON_ERROR, "response write error", e);
+        response.setContentLength(contentLength);
+    }
+
+    @Nullable
+    private static StaticApiRespBody getStaticApiRespBody(StaticApiRespKey key) {
+        StaticApiRespBody result = STATIC_RESPONSES.get(key);
+        if (result != null || STATIC_RESPONSES.size() >= MAX_STATIC_RESPONSE_SIZE) {
+            return result;
+        }
+        result = StaticApiRespBody.of(key);
+        if (result != null) {
+            STATIC_RESPONSES.putIfAbsent(key, result);
         }
+        return result;
     }
 
+    /**
+     * traceId 中只包含不需要 json 转义的字符时才能直接拼接
+     */
+    private static boolean isSafeTraceId(@Nullable String traceId) {
+        if (traceId == null || traceId.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < traceId.length(); i++) {
+            char c = traceId.charAt(i);
+            boolean safe = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-' || c == '_' || c == '.';
+            if (!safe) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record StaticApiRespKey(HttpStatus status, ExceptionCode code, String errorMessage) {
+    }
 
+    /**
+     * 以 traceId 为分隔，预先序列化的响应内容
+     *
+     * @param prefix traceId 之前的内容
+     * @param suffix traceId 之后的内容
+     */
+    private record StaticApiRespBody(byte[] prefix, byte[] suffix) {
+
+        @Nullable
+        static StaticApiRespBody of(StaticApiRespKey key) {
+            byte[] content = JSON.toJSONBytes(new ImmutableWebApiResponse<>(key.status(), null, key.code(), key.errorMessage(), TRACE_ID_PLACEHOLDER));
+            byte[] placeholder = TRACE_ID_PLACEHOLDER.getBytes(StandardCharsets.US_ASCII);
+            int index = indexOf(content, placeholder, 0);
+            if (index < 0 || indexOf(content, placeholder, index + 1) >= 0) {
+                // 错误消息中包含占位符，不缓存
+                return null;
+            }
+            byte[] prefix = new byte[index];
+            System.arraycopy(content, 0, prefix, 0, index);
+            byte[] suffix = new byte[content.length - index - placeholder.length];
+            System.arraycopy(content, index + placeholder.length, suffix, 0, suffix.length);
+            return new StaticApiRespBody(prefix, suffix);
+        }
+
+        private static int indexOf(byte[] source, byte[] target, int fromIndex) {
+            for (int i = fromIndex; i <= source.length - target.length; i++) {
+                int j = 0;
+                while (j < target.length && source[i + j] == target[j]) {
+                    j++;
+                }
+                if (j == target.length) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
 }
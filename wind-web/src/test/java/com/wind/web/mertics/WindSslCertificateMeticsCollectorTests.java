@@ -1,13 +1,34 @@
 package com.wind.web.mertics;
 
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.BindException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author wuxp
@@ -18,8 +39,54 @@ class WindSslCertificateMeticsCollectorTests {
 
     private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
+    private static final char[] STORE_PASSWORD = "changeit".toCharArray();
+
     private final WindSslCertificateMeticsCollector collector = new WindSslCertificateMeticsCollector();
 
+    @TempDir
+    private Path tempDir;
+
+    private SSLContext sslContext;
+
+    private SSLServerSocket sslServerSocket;
+
+    /**
+     * 只接受连接不响应握手的慢服务
+     */
+    private final List<ServerSocket> slowServerSockets = new ArrayList<>();
+
+    private final List<Socket> slowSockets = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setup() throws Exception {
+        sslContext = createSelfSignedContext();
+        sslServerSocket = startSslServer(0);
+        for (int i = 0; i < 4; i++) {
+            ServerSocket slowServerSocket = new ServerSocket(0);
+            slowServerSockets.add(slowServerSocket);
+            Thread.ofVirtual().start(() -> {
+                while (!slowServerSocket.isClosed()) {
+                    try {
+                        slowSockets.add(slowServerSocket.accept());
+                    } catch (IOException ignore) {
+                        // ignore
+                    }
+                }
+            });
+        }
+    }
+
+    @AfterEach
+    void after() throws IOException {
+        sslServerSocket.close();
+        for (ServerSocket serverSocket : slowServerSockets) {
+            serverSocket.close();
+        }
+        for (Socket socket : slowSockets) {
+            socket.close();
+        }
+    }
+
     @Test
     void testGetHostSslCertificateInfo(){
         WindSslCertificateMeticsCollector.HostSslCertificateInfo info = collector.getHostSslCertificateInfo("www.baidu.com");
@@ -32,4 +99,158 @@ class WindSslCertificateMeticsCollectorTests {
         List<Meter> meters = meterRegistry.getMeters();
         Assertions.assertEquals(1, meters.size());
     }
+
+    @Test
+    void testCollectConcurrentlyWithTimeout() {
+        Duration handshakeTimeout = Duration.ofMillis(500);
+        WindSslCertificateMeticsCollector localCollector = new WindSslCertificateMeticsCollector(sslContext.getSocketFactory(), Duration.ofSeconds(1),
+                handshakeTimeout, Duration.ofMinutes(5));
+        List<String> hosts = new ArrayList<>();
+        hosts.add("localhost:" + sslServerSocket.getLocalPort());
+        // 多个慢服务并发探测，不会累加超时时间
+        slowServerSockets.forEach(serverSocket -> hosts.add("127.0.0.1:" + serverSocket.getLocalPort()));
+        long start = System.nanoTime();
+        localCollector.collect(meterRegistry, hosts);
+        long costMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("collect ssl certificate cost = {}ms", costMillis);
+        Assertions.assertTrue(costMillis < handshakeTimeout.toMillis() * 3);
+
+        WindSslCertificateMeticsCollector.HostSslCertificateInfo info = localCollector.getCachedCertificateInfo(hosts.getFirst());
+        Assertions.assertNotNull(info);
+        Assertions.assertEquals("CN=localhost", info.subject());
+        Assertions.assertTrue(info.availableDays() >= 29);
+        Assertions.assertNull(localCollector.getCachedCertificateInfo(hosts.get(1)));
+        Assertions.assertEquals(info.availableDays(), findGauge(hosts.getFirst()).value());
+        Assertions.assertEquals(-1, findGauge(hosts.get(1)).value());
+    }
+
+    @Test
+    void testCollectUseCachedCertificate() {
+        WindSslCertificateMeticsCollector localCollector = new WindSslCertificateMeticsCollector(sslContext.getSocketFactory(), Duration.ofSeconds(1),
+                Duration.ofSeconds(1), Duration.ofMinutes(5));
+        List<String> hosts = List.of("localhost:" + sslServerSocket.getLocalPort());
+        localCollector.collect(meterRegistry, hosts);
+        localCollector.collect(meterRegistry, hosts);
+        localCollector.collect(meterRegistry, hosts);
+        // 刷新间隔内只探测一次
+        Assertions.assertEquals(1, localCollector.getProbeTimes());
+        Assertions.assertEquals(1, meterRegistry.getMeters().size());
+    }
+
+    @Test
+    void testCollectReplaceGaugeWhenTagsChanged() throws Exception {
+        WindSslCertificateMeticsCollector localCollector = new WindSslCertificateMeticsCollector(sslContext.getSocketFactory(), Duration.ofSeconds(1),
+                Duration.ofMillis(500), Duration.ofMinutes(5));
+        ServerSocket slowServerSocket = slowServerSockets.getFirst();
+        int port = slowServerSocket.getLocalPort();
+        String host = "localhost:" + port;
+        localCollector.collect(meterRegistry, List.of(host));
+        Assertions.assertEquals("unknown", findGauge(host).getId().getTag("status"));
+        // 同一个端口换成正常的 ssl 服务，采集失败的域名在下次采集时重新探测
+        slowServerSocket.close();
+        try (SSLServerSocket serverSocket = restartSslServer(port)) {
+            localCollector.collect(meterRegistry, List.of(host));
+            Assertions.assertEquals(1, meterRegistry.getMeters().size());
+            Gauge gauge = findGauge(host);
+            Assertions.assertEquals("VALID", gauge.getId().getTag("status"));
+            Assertions.assertEquals("CN=localhost", gauge.getId().getTag("issuer"));
+            Assertions.assertTrue(gauge.value() >= 29);
+        }
+    }
+
+    @Test
+    void testKeepLastCertificateWhenProbeFailed() throws Exception {
+        // 每次采集都重新探测
+        WindSslCertificateMeticsCollector localCollector = new WindSslCertificateMeticsCollector(sslContext.getSocketFactory(), Duration.ofSeconds(1),
+                Duration.ofSeconds(1), Duration.ofNanos(1));
+        int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        String host = "localhost:" + port;
+        try (SSLServerSocket serverSocket = startSslServer(port)) {
+            localCollector.collect(meterRegistry, List.of(host));
+        }
+        Assertions.assertEquals("VALID", findGauge(host).getId().getTag("status"));
+        // ssl 服务停止后探测失败，继续使用上次成功采集的证书信息
+        localCollector.collect(meterRegistry, List.of(host));
+        Assertions.assertEquals(2, localCollector.getProbeTimes());
+        Assertions.assertNotNull(localCollector.getCachedCertificateInfo(host));
+        Assertions.assertEquals(1, meterRegistry.getMeters().size());
+        Gauge gauge = findGauge(host);
+        Assertions.assertEquals("VALID", gauge.getId().getTag("status"));
+        Assertions.assertTrue(gauge.value() >= 29);
+    }
+
+    @Test
+    void testGaugeStrongReferenceCollector() {
+        String host = "localhost:" + sslServerSocket.getLocalPort();
+        collectWithLocalCollector(List.of(host));
+        System.gc();
+        Assertions.assertTrue(findGauge(host).value() >= 29);
+    }
+
+    private void collectWithLocalCollector(List<String> hosts) {
+        new WindSslCertificateMeticsCollector(sslContext.getSocketFactory(), Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofMinutes(5))
+                .collect(meterRegistry, hosts);
+    }
+
+    private SSLServerSocket startSslServer(int port) throws IOException {
+        SSLServerSocket result = (SSLServerSocket) sslContext.getServerSocketFactory().createServerSocket(port);
+        Thread.ofVirtual().start(() -> {
+            while (!result.isClosed()) {
+                try (SSLSocket socket = (SSLSocket) result.accept()) {
+                    socket.startHandshake();
+                } catch (IOException ignore) {
+                    // ignore
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 阻塞在 accept 上的虚拟线程退出后端口才会被释放，重试绑定端口
+     */
+    private SSLServerSocket restartSslServer(int port) throws Exception {
+        for (int i = 0; ; i++) {
+            try {
+                return startSslServer(port);
+            } catch (BindException exception) {
+                if (i >= 50) {
+                    throw exception;
+                }
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    private Gauge findGauge(String host) {
+        return meterRegistry.get("domain.ssl.certificate.status").tag("host", host).gauge();
+    }
+
+    /**
+     * 使用 keytool 生成有效期 30 天的自签名证书
+     */
+    private SSLContext createSelfSignedContext() throws Exception {
+        Path keystore = tempDir.resolve("wind-test.p12");
+        Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                "-genkeypair", "-alias", "wind", "-keyalg", "RSA", "-keysize", "2048", "-validity", "30", "-dname", "CN=localhost",
+                "-keystore", keystore.toString(), "-storetype", "PKCS12", "-storepass", new String(STORE_PASSWORD))
+                .redirectErrorStream(true)
+                .start();
+        Assertions.assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, process.exitValue());
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream input = Files.newInputStream(keystore)) {
+            keyStore.load(input, STORE_PASSWORD);
+        }
+        KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, STORE_PASSWORD);
+        TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(keyStore);
+        SSLContext result = SSLContext.getInstance("TLS");
+        result.init(keyManagerFactory.getKeyManagers(), trustManagerFactory.getTrustManagers(), null);
+        return result;
+    }
 }
@@ -0,0 +1,119 @@
+package com.wind.web.util;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.wind.common.exception.DefaultExceptionCode;
+import com.wind.server.web.restful.RestfulApiRespFactory;
+import com.wind.trace.WindTracer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author wuxp
+ * @date 2025-10-27 16:40
+ **/
+@Slf4j
+class HttpResponseMessageUtilsTests {
+
+    @BeforeEach
+    void setup() {
+        WindTracer.TRACER.trace();
+    }
+
+    @AfterEach
+    void after() {
+        WindTracer.TRACER.clear();
+    }
+
+    @Test
+    void testWriteApiResp() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpResponseMessageUtils.writeApiResp(response, RestfulApiRespFactory.badRequest("参数错误"));
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+        Assertions.assertTrue(response.getContentType().startsWith(MediaType.APPLICATION_JSON_VALUE));
+        Assertions.assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+        JSONObject body = JSON.parseObject(response.getContentAsString(StandardCharsets.UTF_8));
+        Assertions.assertEquals("参数错误", body.getString("errorMessage"));
+        Assertions.assertEquals(WindTracer.TRACER.getTraceId(), body.getString("traceId"));
+    }
+
+    @Test
+    void testWriteStaticApiResp() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            String expected = JSON.toJSONString(RestfulApiRespFactory.unAuthorized("未登录或登录已失效"));
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            HttpResponseMessageUtils.writeStaticApiResp(response, HttpStatus.UNAUTHORIZED, DefaultExceptionCode.UNAUTHORIZED, "未登录或登录已失效");
+            Assertions.assertEquals(HttpStatus.UNAUTHORIZED.value(), response.getStatus());
+            Assertions.assertEquals(expected, response.getContentAsString(StandardCharsets.UTF_8));
+            Assertions.assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+            WindTracer.TRACER.trace();
+        }
+    }
+
+    @Test
+    void testWriteStaticApiRespWithoutTraceId() throws Exception {
+        WindTracer.TRACER.clear();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpResponseMessageUtils.writeStaticApiResp(response, HttpStatus.FORBIDDEN, DefaultExceptionCode.FORBIDDEN, "forbidden");
+        Assertions.assertEquals(HttpStatus.FORBIDDEN.value(), response.getStatus());
+        JSONObject body = JSON.parseObject(response.getContentAsString(StandardCharsets.UTF_8));
+        Assertions.assertEquals("forbidden", body.getString("errorMessage"));
+    }
+
+    @Test
+    void testAllocationBenchmark() throws Exception {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        List<Map<String, Object>> data = mockData();
+        int times = 200;
+        for (int i = 0; i < times; i++) {
+            writeByString(new MockHttpServletResponse(), data);
+            HttpResponseMessageUtils.writeJson(new MockHttpServletResponse(), data);
+        }
+        long start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < times; i++) {
+            writeByString(new MockHttpServletResponse(), data);
+        }
+        long stringBytes = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+        start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < times; i++) {
+            HttpResponseMessageUtils.writeJson(new MockHttpServletResponse(), data);
+        }
+        long streamBytes = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+        log.info("write json allocated bytes, string = {}, stream = {}", stringBytes / times, streamBytes / times);
+    }
+
+    /**
+     * 原有的写回方式：先序列化为字符串再通过 writer 写回
+     */
+    private static void writeByString(MockHttpServletResponse response, Object data) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (PrintWriter writer = response.getWriter()) {
+            writer.write(JSON.toJSONString(data));
+            writer.flush();
+        }
+    }
+
+    private static List<Map<String, Object>> mockData() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            result.add(Map.of("id", i, "name", "名称-" + i, "description", "description of item " + i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,151 @@
+package com.wind.websocket.chat;
+
+import com.wind.common.exception.AssertUtils;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 按照消息序列号索引的聊天消息环形缓冲区，用于缓存会话最近（热点）的消息
+ * 写满后覆盖最旧的消息，按序列号定位使用二分查找，查询耗时只与缓冲区容量有关，与翻页深度无关
+ *
+ * @author wuxp
+ * @date 2025-10-20 10:20
+ **/
+public final class ChatMessageRingBuffer {
+
+    private final ChatMessage[] messages;
+
+    private final long[] sequenceIds;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 最旧消息所在的下标
+     */
+    private int head = 0;
+
+    private int size = 0;
+
+    public ChatMessageRingBuffer(int capacity) {
+        AssertUtils.isTrue(capacity > 0, "argument capacity must greater than 0");
+        this.messages = new ChatMessage[capacity];
+        this.sequenceIds = new long[capacity];
+    }
+
+    /**
+     * 追加消息，消息序列号必须单调递增
+     *
+     * @param message 聊天消息
+     */
+    public void append(@NotNull ChatMessage message) {
+        AssertUtils.notNull(message, "argument message must not null");
+        AssertUtils.notNull(message.getSequenceId(), "argument message sequenceId must not null");
+        long sequenceId = message.getSequenceId();
+        lock.writeLock().lock();
+        try {
+            if (size > 0) {
+                long lastSequenceId = sequenceIds[physicalIndex(size - 1)];
+                AssertUtils.isTrue(sequenceId > lastSequenceId, () -> String.format("message sequenceId = %d must greater than %d", sequenceId, lastSequenceId));
+            }
+            int capacity = messages.length;
+            if (size == capacity) {
+                // 覆盖最旧的消息
+                messages[head] = message;
+                sequenceIds[head] = sequenceId;
+                head = (head + 1) % capacity;
+            } else {
+                int index = physicalIndex(size);
+                messages[index] = message;
+                sequenceIds[index] = sequenceId;
+                size++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 获取序列号小于 beforeSequenceId 的消息，按照序列号倒序
+     *
+     * @param beforeSequenceId 序列号上界（不包含），为空则从最新的消息开始
+     * @param limit            最大返回条数
+     * @return 消息列表
+     */
+    @NotNull
+    public List<ChatMessage> readBefore(@Nullable Long beforeSequenceId, int limit) {
+        lock.readLock().lock();
+        try {
+            if (size == 0 || limit <= 0) {
+                return Collections.emptyList();
+            }
+            int from = beforeSequenceId == null ? size - 1 : lastLogicalIndexLessThan(beforeSequenceId);
+            if (from < 0) {
+                return Collections.emptyList();
+            }
+            int count = Math.min(limit, from + 1);
+            List<ChatMessage> result = new ArrayList<>(count);
+            for (int i = from; i > from - count; i--) {
+                result.add(messages[physicalIndex(i)]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return 缓冲区中最旧消息的序列号，缓冲区为空时返回 null
+     */
+    @Nullable
+    public Long getOldestSequenceId() {
+        lock.readLock().lock();
+        try {
+            return size == 0 ? null : sequenceIds[head];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int capacity() {
+        return messages.length;
+    }
+
+    /**
+     * 二分查找序列号小于 sequenceId 的最大逻辑下标
+     *
+     * @return 逻辑下标，不存在返回 -1
+     */
+    private int lastLogicalIndexLessThan(long sequenceId) {
+        int low = 0;
+        int high = size - 1;
+        int result = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (sequenceIds[physicalIndex(mid)] < sequenceId) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    private int physicalIndex(int logicalIndex) {
+        return (head + logicalIndex) % messages.length;
+    }
+}
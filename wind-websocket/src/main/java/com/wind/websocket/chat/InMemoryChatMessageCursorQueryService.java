@@ -0,0 +1,100 @@
+package com.wind.websocket.chat;
+
+import com.wind.common.exception.AssertUtils;
+import com.wind.common.query.cursor.CursorPagination;
+import com.wind.websocket.core.WindSocketSessionMessageCursorQuery;
+import com.wind.websocket.core.WindSocketSessionMessageCursorQueryService;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于内存环形缓冲区的会话消息游标查询服务，每个会话缓存最近 {@link #capacity} 条消息
+ * 热点消息直接从缓冲区中按照序列号定位，超出缓冲区范围的历史消息交由 {@link #delegate} 查询（例如：数据库）
+ *
+ * @author wuxp
+ * @date 2025-10-20 10:36
+ **/
+public class InMemoryChatMessageCursorQueryService implements WindSocketSessionMessageCursorQueryService<ChatMessage> {
+
+    private final Map<String, ChatMessageRingBuffer> buffers = new ConcurrentHashMap<>();
+
+    private final int capacity;
+
+    /**
+     * 历史消息查询服务，为空表示只查询内存中的消息
+     */
+    @Nullable
+    private final WindSocketSessionMessageCursorQueryService<ChatMessage> delegate;
+
+    public InMemoryChatMessageCursorQueryService(int capacity) {
+        this(capacity, null);
+    }
+
+    public InMemoryChatMessageCursorQueryService(int capacity, @Nullable WindSocketSessionMessageCursorQueryService<ChatMessage> delegate) {
+        AssertUtils.isTrue(capacity > 0, "argument capacity must greater than 0");
+        this.capacity = capacity;
+        this.delegate = delegate;
+    }
+
+    /**
+     * 缓存会话消息，同一会话的消息需要按照序列号递增的顺序写入
+     *
+     * @param message 聊天消息
+     */
+    public void append(@NotNull ChatMessage message) {
+        buffers.computeIfAbsent(message.getSessionId(), key -> new ChatMessageRingBuffer(capacity)).append(message);
+    }
+
+    /**
+     * 移除会话缓存
+     *
+     * @param sessionId 会话 id
+     */
+    public void evict(@NotBlank String sessionId) {
+        buffers.remove(sessionId);
+    }
+
+    @Override
+    public CursorPagination<ChatMessage> querySessionMessages(WindSocketSessionMessageCursorQuery query) {
+        AssertUtils.notNull(query, "argument query must not null");
+        AssertUtils.hasText(query.getSessionId(), "argument sessionId must not empty");
+        Long beforeSequenceId = query.asId();
+        ChatMessageRingBuffer buffer = buffers.get(query.getSessionId());
+        List<ChatMessage> records = buffer == null ? List.of() : buffer.readBefore(beforeSequenceId, query.getQuerySize());
+        if (records.isEmpty()) {
+            // 游标已超出缓冲区范围
+            return delegate == null ? CursorPagination.empty() : delegate.querySessionMessages(query);
+        }
+        if (records.size() < query.getQuerySize()) {
+            if (delegate == null) {
+                // 没有更多的消息
+                return CursorPagination.of(-1L, records, query.getQuerySize(), null);
+            }
+            // 缓冲区边界处的不完整页，剩余部分从历史消息中补齐
+            return fillFromDelegate(delegate, records, query);
+        }
+        return CursorPagination.next(records, query, ChatMessage::getSequenceId);
+    }
+
+    private static CursorPagination<ChatMessage> fillFromDelegate(WindSocketSessionMessageCursorQueryService<ChatMessage> delegate, List<ChatMessage> records,
+                                                                  WindSocketSessionMessageCursorQuery query) {
+        WindSocketSessionMessageCursorQuery remainingQuery = WindSocketSessionMessageCursorQuery.of(query.getSessionId(), query.getQuerySize() - records.size());
+        remainingQuery.setCursor(CursorPagination.next(List.of(records.getLast()), remainingQuery, ChatMessage::getSequenceId).getNextCursor());
+        CursorPagination<ChatMessage> remaining = delegate.querySessionMessages(remainingQuery);
+        List<ChatMessage> result = new ArrayList<>(query.getQuerySize());
+        result.addAll(records);
+        if (remaining.getRecords() != null) {
+            result.addAll(remaining.getRecords());
+        }
+        if (remaining.hasNext() || result.size() >= query.getQuerySize()) {
+            return CursorPagination.next(result, query, ChatMessage::getSequenceId);
+        }
+        return CursorPagination.of(-1L, result, query.getQuerySize(), null);
+    }
+}
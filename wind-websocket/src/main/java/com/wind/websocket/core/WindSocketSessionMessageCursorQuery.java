@@ -0,0 +1,31 @@
+package com.wind.websocket.core;
+
+import com.wind.common.query.cursor.AbstractCursorQuery;
+import com.wind.common.query.supports.DefaultOrderField;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * websocket 会话消息游标查询，游标为上一页最后一条消息的序列号
+ *
+ * @author wuxp
+ * @date 2025-10-20 10:12
+ **/
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class WindSocketSessionMessageCursorQuery extends AbstractCursorQuery<DefaultOrderField> {
+
+    /**
+     * 会话 id
+     */
+    @NotBlank
+    private String sessionId;
+
+    public static WindSocketSessionMessageCursorQuery of(String sessionId, int querySize) {
+        WindSocketSessionMessageCursorQuery result = new WindSocketSessionMessageCursorQuery();
+        result.setSessionId(sessionId);
+        result.setQuerySize(querySize);
+        return result;
+    }
+}
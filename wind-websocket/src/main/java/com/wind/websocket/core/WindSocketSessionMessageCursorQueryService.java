@@ -0,0 +1,23 @@
+package com.wind.websocket.core;
+
+import com.wind.common.query.cursor.CursorPagination;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * websocket 会话消息游标（keyset）查询服务，基于消息序列号分页，查询深度不影响单页查询耗时
+ *
+ * @param <T> 消息类型
+ * @author wuxp
+ * @date 2025-10-20 10:15
+ **/
+public interface WindSocketSessionMessageCursorQueryService<T> {
+
+    /**
+     * 获取会话消息，按照发送顺序（序列号）倒序
+     *
+     * @param query 查询参数，首次查询 cursor 为空，后续查询使用 {@link CursorPagination#getNextCursor()}
+     * @return 分页结果，{@link CursorPagination#hasNext()} 为 false 时表示查询结束
+     */
+    @NotNull
+    CursorPagination<T> querySessionMessages(@NotNull WindSocketSessionMessageCursorQuery query);
+}
@@ -0,0 +1,199 @@
+package com.wind.websocket.route;
+
+import com.wind.common.exception.AssertUtils;
+import com.wind.common.exception.BaseException;
+import com.wind.websocket.core.WindSocketRouteClientConnection;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 批量发送的远程路由连接，将发往同一节点的消息合并为 {@link WindSocketRouteBatchFrames} 批量帧后
+ * 通过 {@link #delegate} 发送，达到 {@link WindSocketRouteBatchOptions#batchSize()} 或等待超过
+ * {@link WindSocketRouteBatchOptions#linger()} 时发送，待发送队列已满时阻塞发送者（背压）
+ *
+ * @author wuxp
+ * @date 2025-10-20 14:20
+ **/
+@Slf4j
+public class BatchingWindSocketRouteClientConnection implements WindSocketRouteClientConnection {
+
+    /**
+     * 实际的远程路由连接，负载为 {@link WindSocketRouteBatchFrames} 编码后的字节数组
+     */
+    private final WindSocketRouteClientConnection delegate;
+
+    /**
+     * 消息负载编码器
+     */
+    private final Function<Object, byte[]> payloadEncoder;
+
+    private final WindSocketRouteBatchOptions options;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final BlockingQueue<PendingMessage> queue;
+
+    private final AtomicBoolean lingerScheduled = new AtomicBoolean(false);
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public BatchingWindSocketRouteClientConnection(WindSocketRouteClientConnection delegate, Function<Object, byte[]> payloadEncoder,
+                                                   WindSocketRouteBatchOptions options, ScheduledExecutorService scheduler) {
+        AssertUtils.notNull(delegate, "argument delegate must not null");
+        AssertUtils.notNull(payloadEncoder, "argument payloadEncoder must not null");
+        AssertUtils.notNull(options, "argument options must not null");
+        AssertUtils.notNull(scheduler, "argument scheduler must not null");
+        this.delegate = delegate;
+        this.payloadEncoder = payloadEncoder;
+        this.options = options;
+        this.scheduler = scheduler;
+        this.queue = new ArrayBlockingQueue<>(options.queueCapacity());
+    }
+
+    @Override
+    public String getRemoteNodeAddress() {
+        return delegate.getRemoteNodeAddress();
+    }
+
+    @Override
+    public CompletableFuture<Void> send(Object payload) {
+        AssertUtils.notNull(payload, "argument payload must not null");
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        PendingMessage message = new PendingMessage(payloadEncoder.apply(payload), result);
+        try {
+            if (!queue.offer(message, options.offerTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                result.completeExceptionally(BaseException.common(String.format("route queue of node = %s is full", getRemoteNodeAddress())));
+                return result;
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(exception);
+            return result;
+        }
+        if (queue.size() >= options.batchSize() && flushLock.tryLock()) {
+            // 已有线程在发送时不阻塞发送者，由发送线程继续处理满批次的消息
+            try {
+                flush(false);
+            } finally {
+                flushLock.unlock();
+            }
+        }
+        if (lingerScheduled.compareAndSet(false, true)) {
+            scheduleLinger();
+        }
+        return result;
+    }
+
+    /**
+     * 立即发送队列中所有的消息
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            flush(true);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * @return 待发送的消息条数
+     */
+    public int getPendingSize() {
+        return queue.size();
+    }
+
+    @Override
+    public void close() {
+        flush();
+        delegate.close();
+    }
+
+    @Override
+    public boolean isAlive() {
+        return delegate.isAlive();
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public String getSessionId() {
+        return delegate.getSessionId();
+    }
+
+    @Override
+    public Map<String, Object> getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    private void scheduleLinger() {
+        try {
+            scheduler.schedule(this::onLinger, options.linger().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException exception) {
+            // 调度器已关闭，直接发送
+            lingerScheduled.set(false);
+            flush();
+        }
+    }
+
+    private void onLinger() {
+        // 先重置标记再发送，保证发送期间入队的消息能够触发下一次调度
+        lingerScheduled.set(false);
+        flush();
+    }
+
+    /**
+     * 需要在持有 {@link #flushLock} 时调用
+     *
+     * @param drainAll 是否发送队列中所有的消息，为 false 时只发送满批次的消息
+     */
+    private void flush(boolean drainAll) {
+        while (drainAll ? !queue.isEmpty() : queue.size() >= options.batchSize()) {
+            List<PendingMessage> batch = new ArrayList<>(options.batchSize());
+            queue.drainTo(batch, options.batchSize());
+            if (batch.isEmpty()) {
+                return;
+            }
+            sendBatch(batch);
+        }
+    }
+
+    private void sendBatch(List<PendingMessage> batch) {
+        List<byte[]> payloads = new ArrayList<>(batch.size());
+        for (PendingMessage message : batch) {
+            payloads.add(message.payload());
+        }
+        CompletableFuture<Void> future;
+        try {
+            future = delegate.send(WindSocketRouteBatchFrames.encode(payloads));
+        } catch (Exception exception) {
+            future = CompletableFuture.failedFuture(exception);
+        }
+        future.whenComplete((ignore, throwable) -> {
+            if (throwable == null) {
+                batch.forEach(message -> message.future().complete(null));
+            } else {
+                log.error("route batch messages to node = {} failure, size = {}", getRemoteNodeAddress(), batch.size(), throwable);
+                batch.forEach(message -> message.future().completeExceptionally(throwable));
+            }
+        });
+    }
+
+    private record PendingMessage(byte[] payload, CompletableFuture<Void> future) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.wind.websocket.route;
+
+import com.wind.common.exception.AssertUtils;
+import jakarta.validation.constraints.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 集群节点间路由批量消息帧编解码，帧格式（大端序）：
+ * <pre>
+ * +----------------+----------------+-------------+----------------+-------------+-----
+ * | count (int32)  | length (int32) | bytes ...   | length (int32) | bytes ...   | ...
+ * +----------------+----------------+-------------+----------------+-------------+-----
+ * </pre>
+ *
+ * @author wuxp
+ * @date 2025-10-20 14:05
+ **/
+public final class WindSocketRouteBatchFrames {
+
+    private static final int INT_BYTES = Integer.BYTES;
+
+    private WindSocketRouteBatchFrames() {
+        throw new AssertionError();
+    }
+
+    /**
+     * 将多条消息编码为一个批量帧
+     *
+     * @param messages 消息列表
+     * @return 批量帧
+     */
+    @NotNull
+    public static byte[] encode(@NotNull List<byte[]> messages) {
+        AssertUtils.notNull(messages, "argument messages must not null");
+        int frameSize = INT_BYTES;
+        for (byte[] message : messages) {
+            frameSize += INT_BYTES + message.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(frameSize);
+        buffer.putInt(messages.size());
+        for (byte[] message : messages) {
+            buffer.putInt(message.length);
+            buffer.put(message);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * 解码批量帧
+     *
+     * @param frame 批量帧
+     * @return 消息列表
+     */
+    @NotNull
+    public static List<byte[]> decode(@NotNull byte[] frame) {
+        AssertUtils.isTrue(frame != null && frame.length >= INT_BYTES, "argument frame is invalid");
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        int count = buffer.getInt();
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        AssertUtils.isTrue(count > 0, "route batch frame message count must greater than 0");
+        List<byte[]> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            AssertUtils.isTrue(buffer.remaining() >= INT_BYTES, "route batch frame is truncated");
+            int length = buffer.getInt();
+            AssertUtils.isTrue(length >= 0 && buffer.remaining() >= length, "route batch frame is truncated");
+            byte[] message = new byte[length];
+            buffer.get(message);
+            result.add(message);
+        }
+        return result;
+    }
+}
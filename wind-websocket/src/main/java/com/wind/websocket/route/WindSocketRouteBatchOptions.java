@@ -0,0 +1,29 @@
+package com.wind.websocket.route;
+
+import com.wind.common.exception.AssertUtils;
+
+import java.time.Duration;
+
+/**
+ * 路由消息批量发送配置
+ *
+ * @param batchSize     单个批量帧的最大消息条数，达到后立即发送
+ * @param linger        消息在队列中的最大等待时间，超过后即使未达到 batchSize 也会发送
+ * @param queueCapacity 单个目标节点的待发送队列容量
+ * @param offerTimeout  队列已满时发送者的最大阻塞时间（背压），超时后发送失败
+ * @author wuxp
+ * @date 2025-10-20 14:12
+ **/
+public record WindSocketRouteBatchOptions(int batchSize, Duration linger, int queueCapacity, Duration offerTimeout) {
+
+    public WindSocketRouteBatchOptions {
+        AssertUtils.isTrue(batchSize > 0, "argument batchSize must greater than 0");
+        AssertUtils.notNull(linger, "argument linger must not null");
+        AssertUtils.isTrue(queueCapacity >= batchSize, "argument queueCapacity must greater than or equal to batchSize");
+        AssertUtils.notNull(offerTimeout, "argument offerTimeout must not null");
+    }
+
+    public static WindSocketRouteBatchOptions defaults() {
+        return new WindSocketRouteBatchOptions(128, Duration.ofMillis(5), 8192, Duration.ofMillis(200));
+    }
+}
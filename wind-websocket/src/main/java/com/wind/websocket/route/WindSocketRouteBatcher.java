@@ -0,0 +1,111 @@
+package com.wind.websocket.route;
+
+import com.wind.common.exception.AssertUtils;
+import com.wind.common.exception.BaseException;
+import com.wind.websocket.core.WindSocketRouteClientConnection;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * 集群消息路由批量合并器，按照目标节点（{@link WindSocketRouteClientConnection#getRemoteNodeAddress()}）
+ * 维护 {@link BatchingWindSocketRouteClientConnection}，减少集群广播时的路由调用次数
+ * 同一节点只维护一个批量连接，与调用方每次传入的连接对象无关；批量连接使用的连接不可用（例如：重连）时，
+ * 使用新的连接创建批量连接，旧批量连接中待发送的消息仍由旧连接发送
+ *
+ * @author wuxp
+ * @date 2025-10-20 14:46
+ **/
+public class WindSocketRouteBatcher implements AutoCloseable {
+
+    private final Map<String, BatchingWindSocketRouteClientConnection> connections = new ConcurrentHashMap<>();
+
+    private final Function<Object, byte[]> payloadEncoder;
+
+    private final WindSocketRouteBatchOptions options;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    public WindSocketRouteBatcher(Function<Object, byte[]> payloadEncoder) {
+        this(payloadEncoder, WindSocketRouteBatchOptions.defaults());
+    }
+
+    public WindSocketRouteBatcher(Function<Object, byte[]> payloadEncoder, WindSocketRouteBatchOptions options) {
+        AssertUtils.notNull(payloadEncoder, "argument payloadEncoder must not null");
+        AssertUtils.notNull(options, "argument options must not null");
+        this.payloadEncoder = payloadEncoder;
+        this.options = options;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("wind-socket-route-batcher-", 0).daemon(true).factory());
+    }
+
+    /**
+     * 将消息路由到目标节点
+     *
+     * @param target  目标节点路由连接
+     * @param payload 消息负载
+     * @return 消息所在批次发送完成后完成
+     */
+    public CompletableFuture<Void> route(@NotNull WindSocketRouteClientConnection target, @NotNull Object payload) {
+        AssertUtils.notNull(target, "argument target must not null");
+        if (closed.get()) {
+            return CompletableFuture.failedFuture(BaseException.common("route batcher is closed"));
+        }
+        BatchingWindSocketRouteClientConnection connection = connections.get(target.getRemoteNodeAddress());
+        if (connection == null || !connection.isAlive()) {
+            connection = replaceConnection(target);
+        }
+        return connection.send(payload);
+    }
+
+    /**
+     * 立即发送所有节点的待发送消息
+     */
+    public void flush() {
+        connections.values().forEach(BatchingWindSocketRouteClientConnection::flush);
+    }
+
+    /**
+     * 移除节点（例如：节点下线）
+     *
+     * @param remoteNodeAddress 节点地址
+     */
+    public void remove(@NotNull String remoteNodeAddress) {
+        BatchingWindSocketRouteClientConnection connection = connections.remove(remoteNodeAddress);
+        if (connection != null) {
+            connection.flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            flush();
+            connections.clear();
+            scheduler.shutdown();
+        }
+    }
+
+    private BatchingWindSocketRouteClientConnection replaceConnection(WindSocketRouteClientConnection target) {
+        BatchingWindSocketRouteClientConnection[] replaced = new BatchingWindSocketRouteClientConnection[1];
+        BatchingWindSocketRouteClientConnection result = connections.compute(target.getRemoteNodeAddress(), (key, existing) -> {
+            if (existing != null && (existing.isAlive() || !target.isAlive())) {
+                return existing;
+            }
+            replaced[0] = existing;
+            return new BatchingWindSocketRouteClientConnection(target, payloadEncoder, options, scheduler);
+        });
+        if (replaced[0] != null) {
+            // 旧连接中待发送的消息立即发送，失败时消息的 future 异常完成
+            replaced[0].flush();
+        }
+        return result;
+    }
+}
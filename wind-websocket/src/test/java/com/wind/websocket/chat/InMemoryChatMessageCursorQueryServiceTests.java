@@ -0,0 +1,144 @@
+package com.wind.websocket.chat;
+
+import com.wind.common.exception.BaseException;
+import com.wind.common.query.cursor.CursorPagination;
+import com.wind.websocket.core.WindSocketSessionMessageCursorQuery;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author wuxp
+ * @date 2025-10-20 11:02
+ **/
+class InMemoryChatMessageCursorQueryServiceTests {
+
+    private static final String SESSION_ID = "session-001";
+
+    private InMemoryChatMessageCursorQueryService queryService;
+
+    @BeforeEach
+    void setup() {
+        queryService = new InMemoryChatMessageCursorQueryService(100);
+    }
+
+    @Test
+    void testQueryAllPages() {
+        appendMessages(1, 55);
+        WindSocketSessionMessageCursorQuery query = WindSocketSessionMessageCursorQuery.of(SESSION_ID, 20);
+        List<Long> sequenceIds = new ArrayList<>();
+        CursorPagination<ChatMessage> pagination;
+        do {
+            pagination = queryService.querySessionMessages(query);
+            pagination.getRecords().forEach(message -> sequenceIds.add(message.getSequenceId()));
+            query.setCursor(pagination.getNextCursor());
+        } while (pagination.hasNext());
+        Assertions.assertEquals(55, sequenceIds.size());
+        Assertions.assertEquals(55L, sequenceIds.getFirst());
+        Assertions.assertEquals(1L, sequenceIds.getLast());
+    }
+
+    @Test
+    void testQueryWithEvicted() {
+        appendMessages(1, 150);
+        WindSocketSessionMessageCursorQuery query = WindSocketSessionMessageCursorQuery.of(SESSION_ID, 60);
+        CursorPagination<ChatMessage> first = queryService.querySessionMessages(query);
+        Assertions.assertEquals(60, first.getRecords().size());
+        Assertions.assertEquals(150L, first.getRecords().getFirst().getSequenceId());
+        query.setCursor(first.getNextCursor());
+        CursorPagination<ChatMessage> second = queryService.querySessionMessages(query);
+        Assertions.assertEquals(40, second.getRecords().size());
+        Assertions.assertEquals(51L, second.getRecords().getLast().getSequenceId());
+        Assertions.assertFalse(second.hasNext());
+    }
+
+    @Test
+    void testQueryFallbackDelegate() {
+        InMemoryChatMessageCursorQueryService history = new InMemoryChatMessageCursorQueryService(1000);
+        queryService = new InMemoryChatMessageCursorQueryService(10, history);
+        for (long i = 1; i <= 30; i++) {
+            ChatMessage message = mockMessage(i);
+            history.append(message);
+            queryService.append(message);
+        }
+        WindSocketSessionMessageCursorQuery query = WindSocketSessionMessageCursorQuery.of(SESSION_ID, 10);
+        CursorPagination<ChatMessage> first = queryService.querySessionMessages(query);
+        Assertions.assertEquals(21L, first.getRecords().getLast().getSequenceId());
+        Assertions.assertTrue(first.hasNext());
+        query.setCursor(first.getNextCursor());
+        CursorPagination<ChatMessage> second = queryService.querySessionMessages(query);
+        Assertions.assertEquals(10, second.getRecords().size());
+        Assertions.assertEquals(20L, second.getRecords().getFirst().getSequenceId());
+    }
+
+    @Test
+    void testQueryFillPartialPageFromDelegate() {
+        InMemoryChatMessageCursorQueryService history = new InMemoryChatMessageCursorQueryService(1000);
+        queryService = new InMemoryChatMessageCursorQueryService(10, history);
+        for (long i = 1; i <= 30; i++) {
+            ChatMessage message = mockMessage(i);
+            history.append(message);
+            queryService.append(message);
+        }
+        WindSocketSessionMessageCursorQuery query = WindSocketSessionMessageCursorQuery.of(SESSION_ID, 15);
+        CursorPagination<ChatMessage> first = queryService.querySessionMessages(query);
+        Assertions.assertEquals(15, first.getRecords().size());
+        Assertions.assertEquals(30L, first.getRecords().getFirst().getSequenceId());
+        Assertions.assertEquals(16L, first.getRecords().getLast().getSequenceId());
+        Assertions.assertTrue(first.hasNext());
+        query.setCursor(first.getNextCursor());
+        CursorPagination<ChatMessage> second = queryService.querySessionMessages(query);
+        Assertions.assertEquals(15, second.getRecords().size());
+        Assertions.assertEquals(15L, second.getRecords().getFirst().getSequenceId());
+        Assertions.assertEquals(1L, second.getRecords().getLast().getSequenceId());
+    }
+
+    @Test
+    void testAppendWithoutSequenceId() {
+        ChatMessage message = ImmutableChatMessage.builder()
+                .id("msg-null")
+                .fromUserId("userA")
+                .sessionId(SESSION_ID)
+                .body(Collections.emptyList())
+                .gmtCreate(LocalDateTime.now())
+                .metadata(Collections.emptyMap())
+                .build();
+        Assertions.assertThrows(BaseException.class, () -> queryService.append(message));
+    }
+
+    @Test
+    void testAppendNotIncreaseSequenceId() {
+        appendMessages(1, 2);
+        Assertions.assertThrows(Exception.class, () -> queryService.append(mockMessage(2)));
+    }
+
+    @Test
+    void testQueryEmptySession() {
+        CursorPagination<ChatMessage> pagination = queryService.querySessionMessages(WindSocketSessionMessageCursorQuery.of("not_exists", 10));
+        Assertions.assertTrue(pagination.isEmpty());
+        Assertions.assertFalse(pagination.hasNext());
+    }
+
+    private void appendMessages(long from, long to) {
+        for (long i = from; i <= to; i++) {
+            queryService.append(mockMessage(i));
+        }
+    }
+
+    private static ChatMessage mockMessage(long sequenceId) {
+        return ImmutableChatMessage.builder()
+                .id("msg-" + sequenceId)
+                .fromUserId("userA")
+                .sessionId(SESSION_ID)
+                .body(Collections.singletonList(new ChatMessageContent(ChatMessageContentType.TEXT, "hello " + sequenceId, Collections.emptyMap())))
+                .gmtCreate(LocalDateTime.now())
+                .sequenceId(sequenceId)
+                .metadata(Collections.emptyMap())
+                .build();
+    }
+}
@@ -0,0 +1,249 @@
+package com.wind.websocket.route;
+
+import com.wind.websocket.core.WindSocketRouteClientConnection;
+import lombok.extern.slf4j.Slf4j;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+/**
+ * @author wuxp
+ * @date 2025-10-20 15:10
+ **/
+@Slf4j
+class WindSocketRouteBatcherTests {
+
+    private static final int MESSAGE_COUNT = 20000;
+
+    /**
+     * 模拟单次路由调用（RPC / http）的固定开销
+     */
+    private static final long ROUTE_CALL_COST_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+
+    private WindSocketRouteBatcher batcher;
+
+    @BeforeEach
+    void setup() {
+        batcher = new WindSocketRouteBatcher(payload -> ((String) payload).getBytes(StandardCharsets.UTF_8),
+                new WindSocketRouteBatchOptions(100, Duration.ofMillis(5), 1000, Duration.ofSeconds(1)));
+    }
+
+    @AfterEach
+    void after() {
+        batcher.close();
+    }
+
+    @Test
+    void testEncodeDecodeFrame() {
+        List<byte[]> messages = List.of("a".getBytes(StandardCharsets.UTF_8), new byte[0], "hello".getBytes(StandardCharsets.UTF_8));
+        List<byte[]> decoded = WindSocketRouteBatchFrames.decode(WindSocketRouteBatchFrames.encode(messages));
+        Assertions.assertEquals(3, decoded.size());
+        Assertions.assertEquals("a", new String(decoded.get(0), StandardCharsets.UTF_8));
+        Assertions.assertEquals(0, decoded.get(1).length);
+        Assertions.assertEquals("hello", new String(decoded.get(2), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testFlushOnLinger() throws Exception {
+        LoopbackRouteConnection connection = new LoopbackRouteConnection("10.0.0.1:8080", 0);
+        CompletableFuture<Void> future = batcher.route(connection, "hello");
+        future.get(1, TimeUnit.SECONDS);
+        Assertions.assertEquals(1, connection.frames.get());
+        Assertions.assertEquals(List.of("hello"), connection.receivedMessages());
+    }
+
+    @Test
+    void testRoutePerNodeInOrder() throws Exception {
+        LoopbackRouteConnection node1 = new LoopbackRouteConnection("10.0.0.1:8080", 0);
+        LoopbackRouteConnection node2 = new LoopbackRouteConnection("10.0.0.2:8080", 0);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            futures.add(batcher.route(i % 2 == 0 ? node1 : node2, String.valueOf(i)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(500, node1.receivedMessages().size());
+        Assertions.assertEquals(500, node2.receivedMessages().size());
+        Assertions.assertEquals("0", node1.receivedMessages().getFirst());
+        Assertions.assertEquals("998", node1.receivedMessages().getLast());
+        Assertions.assertTrue(node1.frames.get() <= 10);
+    }
+
+    @Test
+    void testRouteToReplacedConnection() throws Exception {
+        LoopbackRouteConnection first = new LoopbackRouteConnection("10.0.0.1:8080", 0);
+        batcher.route(first, "a").get(1, TimeUnit.SECONDS);
+        // 节点重连后使用新的连接
+        first.alive = false;
+        LoopbackRouteConnection second = new LoopbackRouteConnection("10.0.0.1:8080", 0);
+        batcher.route(second, "b").get(1, TimeUnit.SECONDS);
+        Assertions.assertEquals(List.of("a"), first.receivedMessages());
+        Assertions.assertEquals(List.of("b"), second.receivedMessages());
+    }
+
+    @Test
+    void testRouteWithNewConnectionPerSend() throws Exception {
+        LoopbackRouteConnection first = new LoopbackRouteConnection("10.0.0.1:8080", 0);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        futures.add(batcher.route(first, "0"));
+        for (int i = 1; i < 100; i++) {
+            // 调用方每次发送都创建新的连接对象，同一节点仍然合并发送
+            futures.add(batcher.route(new LoopbackRouteConnection("10.0.0.1:8080", 0), String.valueOf(i)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(1, TimeUnit.SECONDS);
+        Assertions.assertEquals(100, first.receivedMessages().size());
+        Assertions.assertEquals(1, first.frames.get());
+    }
+
+    @Test
+    void testRouteAfterClose() {
+        batcher.close();
+        CompletableFuture<Void> future = batcher.route(new LoopbackRouteConnection("10.0.0.1:8080", 0), "a");
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        Assertions.assertTrue(exception.getCause().getMessage().contains("closed"));
+    }
+
+    @Test
+    void testBackpressureWhenQueueFull() throws Exception {
+        CompletableFuture<Void> blocked = new CompletableFuture<>();
+        LoopbackRouteConnection stuck = new LoopbackRouteConnection("10.0.0.3:8080", 0) {
+            @Override
+            public CompletableFuture<Void> send(Object payload) {
+                // 模拟目标节点无响应，阻塞发送线程
+                blocked.join();
+                return super.send(payload);
+            }
+        };
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        BatchingWindSocketRouteClientConnection connection = new BatchingWindSocketRouteClientConnection(stuck,
+                payload -> ((String) payload).getBytes(StandardCharsets.UTF_8),
+                new WindSocketRouteBatchOptions(10, Duration.ofHours(1), 10, Duration.ofMillis(50)), scheduler);
+        try {
+            // 首个满批次进入发送（阻塞）状态
+            CompletableFuture.runAsync(() -> IntStream.range(0, 10).forEach(i -> connection.send("m" + i)));
+            Awaitility.await().atMost(Duration.ofSeconds(1)).until(() -> connection.getPendingSize() == 0);
+            List<CompletableFuture<Void>> futures = IntStream.range(0, 10).mapToObj(i -> connection.send("n" + i)).toList();
+            Assertions.assertEquals(10, connection.getPendingSize());
+            CompletableFuture<Void> rejected = connection.send("overflow");
+            ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+            Assertions.assertTrue(exception.getCause().getMessage().contains("is full"));
+            blocked.complete(null);
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(1, TimeUnit.SECONDS);
+            Assertions.assertEquals(20, stuck.receivedMessages().size());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void testThroughputAgainstUnbatched() throws InterruptedException, ExecutionException, TimeoutException {
+        LoopbackRouteConnection unbatched = new LoopbackRouteConnection("10.0.0.1:8080", ROUTE_CALL_COST_NANOS);
+        long start = System.nanoTime();
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            unbatched.send(WindSocketRouteBatchFrames.encode(Collections.singletonList(String.valueOf(i).getBytes(StandardCharsets.UTF_8)))).join();
+        }
+        long unbatchedNanos = System.nanoTime() - start;
+
+        LoopbackRouteConnection batched = new LoopbackRouteConnection("10.0.0.2:8080", ROUTE_CALL_COST_NANOS);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(MESSAGE_COUNT);
+        start = System.nanoTime();
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            futures.add(batcher.route(batched, String.valueOf(i)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        long batchedNanos = System.nanoTime() - start;
+
+        log.info("unbatched route calls = {}, throughput = {} msg/s", unbatched.frames.get(), throughput(unbatchedNanos));
+        log.info("batched route calls = {}, throughput = {} msg/s", batched.frames.get(), throughput(batchedNanos));
+        Assertions.assertEquals(MESSAGE_COUNT, batched.receivedMessages().size());
+        Assertions.assertTrue(batched.frames.get() < unbatched.frames.get() / 10);
+    }
+
+    private static long throughput(long nanos) {
+        return MESSAGE_COUNT * TimeUnit.SECONDS.toNanos(1) / Math.max(nanos, 1);
+    }
+
+    /**
+     * 进程内回环路由连接，直接在本地解码批量帧
+     */
+    private static class LoopbackRouteConnection implements WindSocketRouteClientConnection {
+
+        private final String remoteNodeAddress;
+
+        private final long callCostNanos;
+
+        private final AtomicInteger frames = new AtomicInteger();
+
+        private volatile boolean alive = true;
+
+        private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+
+        LoopbackRouteConnection(String remoteNodeAddress, long callCostNanos) {
+            this.remoteNodeAddress = remoteNodeAddress;
+            this.callCostNanos = callCostNanos;
+        }
+
+        @Override
+        public String getRemoteNodeAddress() {
+            return remoteNodeAddress;
+        }
+
+        @Override
+        public CompletableFuture<Void> send(Object payload) {
+            if (callCostNanos > 0) {
+                LockSupport.parkNanos(callCostNanos);
+            }
+            frames.incrementAndGet();
+            WindSocketRouteBatchFrames.decode((byte[]) payload).forEach(bytes -> messages.add(new String(bytes, StandardCharsets.UTF_8)));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<String> receivedMessages() {
+            synchronized (messages) {
+                return new ArrayList<>(messages);
+            }
+        }
+
+        @Override
+        public void close() {
+            // noop
+        }
+
+        @Override
+        public boolean isAlive() {
+            return alive;
+        }
+
+        @Override
+        public String getId() {
+            return remoteNodeAddress;
+        }
+
+        @Override
+        public String getSessionId() {
+            return null;
+        }
+
+        @Override
+        public Map<String, Object> getMetadata() {
+            return Collections.emptyMap();
+        }
+    }
+}